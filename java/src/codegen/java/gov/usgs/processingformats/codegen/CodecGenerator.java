@@ -0,0 +1,695 @@
+package gov.usgs.processingformats.codegen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a build time generator used to emit a codec class for each type in the format schema
+ * (format-docs/schema.json). Each generated TypeCodec reads a type from a JSONStreamReader by
+ * switching on the hash of each key, writes it to a JSONStreamWriter with pre-encoded key names,
+ * and validates it against the required fields, ranges, and values in the schema, so these
+ * optimizations apply to every type the same way.
+ *
+ * <p>Run by the generateCodecs gradle task with the schema file and the output directory as
+ * arguments.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class CodecGenerator {
+  /** The package of the generated codecs, the same as the classes they encode */
+  public static final String PACKAGE = "gov.usgs.processingformats";
+
+  /** Schema keys */
+  public static final String TYPES_KEY = "Types";
+
+  public static final String NAME_KEY = "Name";
+  public static final String DOCUMENT_KEY = "Document";
+  public static final String UNKNOWNKEYS_KEY = "UnknownKeys";
+  public static final String FIELDS_KEY = "Fields";
+  public static final String TYPE_KEY = "Type";
+  public static final String OF_KEY = "Of";
+  public static final String REQUIRED_KEY = "Required";
+  public static final String MINIMUM_KEY = "Minimum";
+  public static final String MAXIMUM_KEY = "Maximum";
+  public static final String VALUES_KEY = "Values";
+  public static final String JAVAGETTER_KEY = "JavaGetter";
+
+  /** The schema type of the field, string, double, integer, boolean, time, object, or array */
+  private static final String STRING = "string";
+
+  private static final String DOUBLE = "double";
+  private static final String INTEGER = "integer";
+  private static final String BOOLEAN = "boolean";
+  private static final String TIME = "time";
+  private static final String OBJECT = "object";
+  private static final String ARRAY = "array";
+
+  /** The maximum length of a generated line */
+  private static final int LINE_LENGTH = 100;
+
+  /** The text being generated */
+  private final StringBuilder out = new StringBuilder();
+
+  /**
+   * Generates the codecs for a schema
+   *
+   * @param args - A String[] containing the schema file and the output directory
+   * @throws IOException if the schema cannot be read or a codec cannot be written
+   * @throws ParseException if the schema is malformed
+   */
+  public static void main(String[] args) throws IOException, ParseException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: CodecGenerator <schema> <output directory>");
+    }
+
+    JSONObject schema;
+    try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      schema = (JSONObject) new JSONParser().parse(reader);
+    }
+
+    Path directory = Paths.get(args[1]).resolve(PACKAGE.replace('.', '/'));
+    Files.createDirectories(directory);
+
+    for (Object type : (JSONArray) schema.get(TYPES_KEY)) {
+      JSONObject typeObject = (JSONObject) type;
+      String name = typeObject.get(NAME_KEY).toString();
+
+      Path file = directory.resolve(name + "Codec.java");
+      try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        writer.write(generate(typeObject));
+      }
+    }
+  }
+
+  /**
+   * Generates the source of the codec for one type
+   *
+   * @param type - A JSONObject containing the schema of the type
+   * @return Returns a String containing the java source of the codec
+   */
+  public static String generate(JSONObject type) {
+    return (new CodecGenerator().generateCodec(type));
+  }
+
+  /**
+   * Generates the source of the codec for one type
+   *
+   * @param type - A JSONObject containing the schema of the type
+   * @return Returns a String containing the java source of the codec
+   */
+  private String generateCodec(JSONObject type) {
+    String name = type.get(NAME_KEY).toString();
+    String codec = name + "Codec";
+    boolean unknownKeys = Boolean.TRUE.equals(type.get(UNKNOWNKEYS_KEY));
+
+    List<JSONObject> fields = new ArrayList<JSONObject>();
+    for (Object field : (JSONArray) type.get(FIELDS_KEY)) {
+      fields.add((JSONObject) field);
+    }
+
+    boolean hasArrays = false;
+    boolean hasValues = false;
+    for (JSONObject field : fields) {
+      hasArrays |= ARRAY.equals(field.get(TYPE_KEY));
+      hasValues |= field.containsKey(VALUES_KEY);
+    }
+
+    // header
+    line(0, "// Generated by " + CodecGenerator.class.getName() + " from format-docs/schema.json,");
+    line(0, "// do not edit.");
+    line(0, "package " + PACKAGE + ";");
+    line(0, "");
+    line(0, "import java.io.IOException;");
+    if (hasArrays) {
+      line(0, "import java.util.ArrayList;");
+      line(0, "import java.util.List;");
+    }
+    if (hasValues) {
+      line(0, "import java.util.Set;");
+    }
+    line(0, "import org.json.simple.parser.ParseException;");
+    line(0, "");
+    line(0, "/**");
+    comment(
+        0,
+        "a generated codec class used to read, write, and validate "
+            + name
+            + " data, as defined in format-docs/"
+            + type.get(DOCUMENT_KEY)
+            + ".");
+    line(0, " *");
+    line(0, " * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;");
+    line(0, " */");
+    line(0, "public final class " + codec + " {");
+
+    // keys
+    line(1, "/** JSON Keys */");
+    StringBuilder keys = new StringBuilder();
+    for (JSONObject field : fields) {
+      keys.append((keys.length() > 0) ? ", " : "").append(quote(fieldName(field)));
+    }
+    String keysLine = "public static final String[] KEYS = {" + keys + "};";
+    if (keysLine.length() + 2 <= LINE_LENGTH) {
+      line(1, keysLine);
+    } else {
+      line(1, "public static final String[] KEYS = {");
+      for (int i = 0; i < fields.size(); i++) {
+        String separator = (i < fields.size() - 1) ? "," : "";
+        line(2, quote(fieldName(fields.get(i))) + separator);
+      }
+      line(1, "};");
+    }
+    line(0, "");
+    line(1, "/** The keys quoted and escaped for writing */");
+    line(1, "private static final char[][] NAMES = new char[KEYS.length][];");
+    line(0, "");
+    for (JSONObject field : fields) {
+      if (field.containsKey(VALUES_KEY)) {
+        line(1, "/** The allowed values of " + fieldName(field) + " */");
+        StringBuilder values = new StringBuilder();
+        for (Object value : (JSONArray) field.get(VALUES_KEY)) {
+          values.append((values.length() > 0) ? ", " : "").append(quote(value.toString()));
+        }
+        line(1, "private static final Set<String> " + constant(fieldName(field)) + "_VALUES =");
+        line(3, "Set.of(" + values + ");");
+        line(0, "");
+      }
+    }
+    line(1, "static {");
+    line(2, "for (int i = 0; i < KEYS.length; i++) {");
+    line(3, "NAMES[i] = JSONStreamWriter.encodeName(KEYS[i]);");
+    line(2, "}");
+    line(1, "}");
+    line(0, "");
+    line(1, "/** Not constructed, the codec is static */");
+    line(1, "private " + codec + "() {}");
+    line(0, "");
+
+    generateNextKey(fields);
+    generateRead(name, fields, unknownKeys);
+    generateWrite(name, fields, unknownKeys);
+    generateValidate(name, fields);
+
+    line(0, "}");
+    return (out.toString());
+  }
+
+  /**
+   * Generates the key lookup, a switch on the hash of the name
+   *
+   * @param fields - A List&lt;JSONObject&gt; containing the fields of the type
+   */
+  private void generateNextKey(List<JSONObject> fields) {
+    // group the keys by hash, in case of collisions
+    Map<Integer, List<Integer>> hashes = new TreeMap<Integer, List<Integer>>();
+    for (int i = 0; i < fields.size(); i++) {
+      hashes.computeIfAbsent(fieldName(fields.get(i)).hashCode(), h -> new ArrayList<Integer>());
+      hashes.get(fieldName(fields.get(i)).hashCode()).add(i);
+    }
+
+    line(1, "/**");
+    line(1, " * Consumes the next object member name and looks it up in KEYS");
+    line(1, " *");
+    line(1, " * @param reader - The JSONStreamReader to read from");
+    line(1, " * @return Returns the index of the key, or -1 if the name is not a key");
+    line(1, " * @throws IOException if the source fails");
+    line(1, " * @throws ParseException if the JSON is malformed");
+    line(1, " */");
+    line(1, "static int nextKey(JSONStreamReader reader) throws IOException, ParseException {");
+    line(2, "switch (reader.nextNameHash()) {");
+    for (Map.Entry<Integer, List<Integer>> hash : hashes.entrySet()) {
+      line(3, "case " + hash.getKey() + ":");
+      for (int index : hash.getValue()) {
+        line(4, "if (reader.nameEquals(" + quote(fieldName(fields.get(index))) + ")) {");
+        line(5, "return (" + index + ");");
+        line(4, "}");
+      }
+      line(4, "return (-1);");
+    }
+    line(3, "default:");
+    line(4, "return (-1);");
+    line(2, "}");
+    line(1, "}");
+    line(0, "");
+  }
+
+  /**
+   * Generates the reader
+   *
+   * @param name - A String containing the name of the type
+   * @param fields - A List&lt;JSONObject&gt; containing the fields of the type
+   * @param unknownKeys - A boolean flag indicating whether the type keeps unknown keys
+   */
+  private void generateRead(String name, List<JSONObject> fields, boolean unknownKeys) {
+    line(1, "/**");
+    line(1, " * Reads a " + name + " object from the current position of a JSONStreamReader");
+    line(1, " *");
+    line(1, " * @param reader - The JSONStreamReader to read from");
+    line(1, " * @return Returns the decoded " + name);
+    line(1, " * @throws IOException if the source fails");
+    line(1, " * @throws ParseException if the JSON is malformed");
+    line(1, " */");
+    signature(
+        "public static " + name + " read(JSONStreamReader reader)", "IOException, ParseException");
+    line(2, name + " value = new " + name + "();");
+    line(0, "");
+    line(2, "reader.beginObject();");
+    line(2, "while (reader.hasNext()) {");
+    line(3, "int key = nextKey(reader);");
+    line(0, "");
+    line(3, "if (key < 0) {");
+    if (unknownKeys) {
+      line(4, "// unknown keys are kept so they survive a round trip");
+      line(4, "value.UnknownKeys = RawJSON.readUnknownKey(reader, value.UnknownKeys);");
+    } else {
+      line(4, "reader.skipValue();");
+    }
+    line(4, "continue;");
+    line(3, "}");
+    line(0, "");
+    line(3, "// nulls are treated as absent keys");
+    line(3, "if (reader.skipNull()) {");
+    line(4, "continue;");
+    line(3, "}");
+    line(0, "");
+    line(3, "switch (key) {");
+    for (int i = 0; i < fields.size(); i++) {
+      JSONObject field = fields.get(i);
+      String fieldName = fieldName(field);
+      String target = "value." + fieldName;
+      String of = (String) field.get(OF_KEY);
+
+      line(4, "case " + i + ":");
+      line(5, "// " + fieldName);
+      switch (fieldType(field)) {
+        case STRING:
+          line(5, target + " = reader.nextString();");
+          break;
+        case DOUBLE:
+          line(5, target + " = reader.nextDouble();");
+          break;
+        case INTEGER:
+          line(5, target + " = (int) reader.nextLong();");
+          break;
+        case BOOLEAN:
+          line(5, target + " = reader.nextBoolean();");
+          break;
+        case TIME:
+          line(5, target + " = Utility.getDate(reader.nextString());");
+          break;
+        case OBJECT:
+          line(5, target + " = " + of + "Codec.read(reader);");
+          break;
+        default:
+          // array
+          line(5, target + " = new ArrayList<" + javaType(of) + ">();");
+          line(5, "reader.beginArray();");
+          line(5, "while (reader.hasNext()) {");
+          if (STRING.equals(of)) {
+            line(6, target + ".add(reader.nextString());");
+          } else {
+            line(6, "if (!reader.skipNull()) {");
+            line(7, target + ".add(" + of + "Codec.read(reader));");
+            line(6, "}");
+          }
+          line(5, "}");
+          line(5, "reader.endArray();");
+          break;
+      }
+      line(5, "break;");
+    }
+    line(4, "default:");
+    line(5, "break;");
+    line(3, "}");
+    line(2, "}");
+    line(2, "reader.endObject();");
+    line(0, "");
+    line(2, "return (value);");
+    line(1, "}");
+    line(0, "");
+  }
+
+  /**
+   * Generates the writer
+   *
+   * @param name - A String containing the name of the type
+   * @param fields - A List&lt;JSONObject&gt; containing the fields of the type
+   * @param unknownKeys - A boolean flag indicating whether the type keeps unknown keys
+   */
+  private void generateWrite(String name, List<JSONObject> fields, boolean unknownKeys) {
+    line(1, "/**");
+    comment(
+        1,
+        "Writes a "
+            + name
+            + " to a JSONStreamWriter, omitting null values and empty strings and"
+            + " arrays");
+    line(1, " *");
+    line(1, " * @param value - The " + name + " to write");
+    line(1, " * @param writer - The JSONStreamWriter to write to");
+    line(1, " * @throws IOException if the underlying Appendable fails");
+    line(1, " */");
+    signature(
+        "public static void write(" + name + " value, JSONStreamWriter writer)", "IOException");
+    line(2, "writer.beginObject();");
+    for (int i = 0; i < fields.size(); i++) {
+      JSONObject field = fields.get(i);
+      String fieldName = fieldName(field);
+      String source = fieldAccess(field);
+      String of = (String) field.get(OF_KEY);
+      String nameCall = "writer.name(NAMES[" + i + "])";
+
+      line(0, "");
+      line(2, "// " + fieldName);
+      switch (fieldType(field)) {
+        case STRING:
+          line(2, "if ((" + source + " != null) && (!" + source + ".isEmpty())) {");
+          line(3, nameCall + ".value(" + source + ");");
+          line(2, "}");
+          break;
+        case TIME:
+          line(2, "if (" + source + " != null) {");
+          line(3, nameCall + ".value(Utility.formatDate(" + source + "));");
+          line(2, "}");
+          break;
+        case OBJECT:
+          line(2, "if (" + source + " != null) {");
+          line(3, nameCall + ";");
+          line(3, of + "Codec.write(" + source + ", writer);");
+          line(2, "}");
+          break;
+        case ARRAY:
+          String list = variable(fieldName);
+          line(2, "List<" + javaType(of) + "> " + list + " = " + source + ";");
+          line(2, "if ((" + list + " != null) && (!" + list + ".isEmpty())) {");
+          if (STRING.equals(of)) {
+            line(3, nameCall + ".value(" + list + ");");
+          } else {
+            line(3, nameCall + ".beginArray();");
+            line(3, "for (int i = 0; i < " + list + ".size(); i++) {");
+            line(4, "if (" + list + ".get(i) == null) {");
+            line(5, "writer.nullValue();");
+            line(4, "} else {");
+            line(5, of + "Codec.write(" + list + ".get(i), writer);");
+            line(4, "}");
+            line(3, "}");
+            line(3, "writer.endArray();");
+          }
+          line(2, "}");
+          break;
+        default:
+          // double, integer, and boolean
+          line(2, "if (" + source + " != null) {");
+          line(3, nameCall + ".value(" + source + ");");
+          line(2, "}");
+          break;
+      }
+    }
+    if (unknownKeys) {
+      line(0, "");
+      line(2, "// keys this class does not know");
+      line(2, "RawJSON.writeUnknownKeys(writer, value.UnknownKeys);");
+    }
+    line(0, "");
+    line(2, "writer.endObject();");
+    line(1, "}");
+    line(0, "");
+  }
+
+  /**
+   * Generates the validator
+   *
+   * @param name - A String containing the name of the type
+   * @param fields - A List&lt;JSONObject&gt; containing the fields of the type
+   */
+  private void generateValidate(String name, List<JSONObject> fields) {
+    String where = " in " + name + " Class";
+
+    line(1, "/**");
+    comment(
+        1, "Validates a " + name + " against the schema, reporting any errors to an ErrorSink.");
+    line(1, " *");
+    line(1, " * @param value - The " + name + " to validate");
+    line(1, " * @param sink - The ErrorSink to report errors to");
+    line(1, " * @return Returns true if the " + name + " is valid");
+    line(1, " */");
+    line(1, "public static boolean validate(" + name + " value, ErrorSink sink) {");
+    line(2, "boolean valid = true;");
+    for (JSONObject field : fields) {
+      String fieldName = fieldName(field);
+      String source = fieldAccess(field);
+      String type = fieldType(field);
+      String of = (String) field.get(OF_KEY);
+      boolean required = Boolean.TRUE.equals(field.get(REQUIRED_KEY));
+      List<String> checks = new ArrayList<String>();
+      List<String> messages = new ArrayList<String>();
+
+      // value checks, in order
+      if (STRING.equals(type) && required) {
+        checks.add(source + ".isEmpty()");
+        messages.add("Empty " + fieldName + where + ".");
+      }
+      if (field.containsKey(VALUES_KEY)) {
+        checks.add("!" + constant(fieldName) + "_VALUES.contains(" + source + ")");
+        messages.add("Invalid " + fieldName + where + ".");
+      }
+      Object minimum = field.get(MINIMUM_KEY);
+      Object maximum = field.get(MAXIMUM_KEY);
+      if ((minimum != null) && (maximum != null)) {
+        checks.add("(" + source + " < " + minimum + ") || (" + source + " > " + maximum + ")");
+        messages.add(
+            fieldName + where + " not in the range of " + minimum + " to " + maximum + ".");
+      } else if (minimum != null) {
+        checks.add(source + " < " + minimum);
+        messages.add(fieldName + where + " is less than " + minimum + ".");
+      } else if (maximum != null) {
+        checks.add(source + " > " + maximum);
+        messages.add(fieldName + where + " is greater than " + maximum + ".");
+      }
+      if (OBJECT.equals(type)) {
+        checks.add("!" + of + "Codec.validate(" + source + ", ErrorSink.FAIL_FAST)");
+        messages.add("Invalid " + fieldName + where + ".");
+      }
+      boolean elements = ARRAY.equals(type) && !STRING.equals(of);
+
+      if (!required && checks.isEmpty() && !elements) {
+        continue;
+      }
+
+      line(0, "");
+      line(2, "// " + fieldName);
+      if (ARRAY.equals(type)) {
+        String list = variable(fieldName);
+        line(2, "List<" + javaType(of) + "> " + list + " = " + source + ";");
+        if (required) {
+          line(2, "if ((" + list + " == null) || " + list + ".isEmpty()) {");
+          fail(3, "No " + fieldName + where + ".");
+          line(2, "}");
+        }
+        if (elements) {
+          line(2, "if ((" + list + " != null) && (!" + list + ".isEmpty())) {");
+          line(3, "int[] invalid =");
+          line(5, "ErrorCollector.findInvalid(");
+          line(7, list + ".size(),");
+          line(7, "() ->");
+          line(9, "(i ->");
+          line(11, "(" + list + ".get(i) == null)");
+          line(13, "|| !" + of + "Codec.validate(" + list + ".get(i), ErrorSink.FAIL_FAST)),");
+          line(7, "sink);");
+          line(3, "for (int index : invalid) {");
+          line(4, "valid = false;");
+          line(
+              4, "sink.add(\"Invalid " + of + " \" + index + \" in " + fieldName + where + ".\");");
+          line(3, "}");
+          line(2, "}");
+        }
+        continue;
+      }
+
+      if (required) {
+        line(2, "if (" + source + " == null) {");
+        fail(3, "No " + fieldName + where + ".");
+        for (int i = 0; i < checks.size(); i++) {
+          line(2, "} else if (" + checks.get(i) + ") {");
+          fail(3, messages.get(i));
+        }
+        line(2, "}");
+      } else {
+        line(2, "if (" + source + " != null) {");
+        for (int i = 0; i < checks.size(); i++) {
+          line(3, ((i == 0) ? "if" : "} else if") + " (" + checks.get(i) + ") {");
+          fail(4, messages.get(i));
+        }
+        line(3, "}");
+        line(2, "}");
+      }
+    }
+    line(0, "");
+    line(2, "return (valid);");
+    line(1, "}");
+  }
+
+  /**
+   * Generates a validation failure
+   *
+   * @param depth - An int containing the indentation depth
+   * @param message - A String containing the error message
+   */
+  private void fail(int depth, String message) {
+    line(depth, "valid = false;");
+    line(depth, "sink.add(" + quote(message) + ");");
+  }
+
+  /**
+   * Appends a method declaration, on one line if it fits
+   *
+   * @param declaration - A String containing the declaration up to the throws clause
+   * @param exceptions - A String containing the exceptions thrown
+   */
+  private void signature(String declaration, String exceptions) {
+    String oneLine = declaration + " throws " + exceptions + " {";
+    if (oneLine.length() + 2 <= LINE_LENGTH) {
+      line(1, oneLine);
+    } else {
+      line(1, declaration);
+      line(3, "throws " + exceptions + " {");
+    }
+  }
+
+  /**
+   * Appends the text of a doc comment, wrapped to the line length
+   *
+   * @param depth - An int containing the indentation depth
+   * @param text - A String containing the text
+   */
+  private void comment(int depth, String text) {
+    int width = LINE_LENGTH - (2 * depth) - 3;
+    StringBuilder current = new StringBuilder();
+    for (String word : text.split(" ")) {
+      if ((current.length() > 0) && (current.length() + 1 + word.length() > width)) {
+        line(depth, " * " + current);
+        current.setLength(0);
+      }
+      current.append((current.length() > 0) ? " " : "").append(word);
+    }
+    line(depth, " * " + current);
+  }
+
+  /**
+   * Appends an indented line
+   *
+   * @param depth - An int containing the indentation depth, two spaces each
+   * @param text - A String containing the line
+   */
+  private void line(int depth, String text) {
+    if (!text.isEmpty()) {
+      for (int i = 0; i < depth; i++) {
+        out.append("  ");
+      }
+    }
+    out.append(text).append('\n');
+  }
+
+  /**
+   * Gets the name of a field
+   *
+   * @param field - A JSONObject containing the schema of the field
+   * @return Returns a String containing the name, which is both the key and the java field
+   */
+  private static String fieldName(JSONObject field) {
+    return (field.get(NAME_KEY).toString());
+  }
+
+  /**
+   * Gets the schema type of a field
+   *
+   * @param field - A JSONObject containing the schema of the field
+   * @return Returns a String containing the type
+   */
+  private static String fieldType(JSONObject field) {
+    String type = field.get(TYPE_KEY).toString();
+    switch (type) {
+      case STRING:
+      case DOUBLE:
+      case INTEGER:
+      case BOOLEAN:
+      case TIME:
+        return (type);
+      case OBJECT:
+      case ARRAY:
+        if (field.get(OF_KEY) == null) {
+          throw new IllegalArgumentException("No Of for " + fieldName(field));
+        }
+        return (type);
+      default:
+        throw new IllegalArgumentException("Unknown type " + type + " for " + fieldName(field));
+    }
+  }
+
+  /**
+   * Gets the java expression reading a field of the variable value
+   *
+   * @param field - A JSONObject containing the schema of the field
+   * @return Returns a String containing the expression
+   */
+  private static String fieldAccess(JSONObject field) {
+    Object getter = field.get(JAVAGETTER_KEY);
+    if (getter != null) {
+      return ("value." + getter);
+    }
+    return ("value." + fieldName(field));
+  }
+
+  /**
+   * Gets the java type of an array element
+   *
+   * @param of - A String containing the schema element type
+   * @return Returns a String containing the java type
+   */
+  private static String javaType(String of) {
+    return (STRING.equals(of) ? "String" : of);
+  }
+
+  /**
+   * Gets the name of a local variable holding a field
+   *
+   * @param fieldName - A String containing the name of the field
+   * @return Returns a String containing the variable name
+   */
+  private static String variable(String fieldName) {
+    return (Character.toLowerCase(fieldName.charAt(0)) + fieldName.substring(1));
+  }
+
+  /**
+   * Gets the constant name prefix for a field
+   *
+   * @param fieldName - A String containing the name of the field
+   * @return Returns a String containing the upper case name
+   */
+  private static String constant(String fieldName) {
+    return (fieldName.toUpperCase());
+  }
+
+  /**
+   * Quotes a String as a java literal, the schema only holds plain text
+   *
+   * @param text - A String containing the text
+   * @return Returns a String containing the literal
+   */
+  private static String quote(String text) {
+    return ("\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+  }
+}
@@ -0,0 +1,111 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * a JMH benchmark measuring CSV export of a catalog of LocationResults, with String.format as
+ * toCSV() used to, with toCSV(), and with a CSVExporter.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CSVExportBenchmark {
+  /** The number of results in the catalog */
+  @Param({"1000"})
+  public int resultCount;
+
+  /** The catalog */
+  private ArrayList<LocationResult> results;
+
+  /**
+   * Builds the catalog from the fixture
+   *
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  @Setup
+  public void setup() throws IOException, ParseException {
+    results = new ArrayList<LocationResult>(resultCount);
+    for (int i = 0; i < resultCount; i++) {
+      LocationResult result = Fixtures.locationResult(10);
+      result.Hypocenter.Latitude += i * 0.001;
+      result.Gap = i * 0.36;
+      results.add(result);
+    }
+  }
+
+  /**
+   * Formats each summary with String.format, as toCSV() used to
+   *
+   * @param blackhole - The Blackhole consuming the rows
+   */
+  @Benchmark
+  public void stringFormat(Blackhole blackhole) {
+    for (LocationResult result : results) {
+      String csvString = result.ID + ",";
+      csvString += String.format("%f,", result.Hypocenter.Latitude);
+      csvString += String.format("%f,", result.Hypocenter.Longitude);
+      csvString += String.format("%f,", result.Hypocenter.Depth);
+      csvString += String.format("%f,", (result.Hypocenter.Time.getTime() * 0.001d));
+      csvString += String.format("%f,", result.RMS);
+      csvString += String.format("%f,", result.MinimumDistance);
+      csvString += String.format("%f,", result.Gap);
+      csvString += String.format("%d,", result.NumberOfAssociatedPhases);
+      csvString += "0.0,0.0,";
+      blackhole.consume(csvString);
+    }
+  }
+
+  /**
+   * Formats each summary with toCSV()
+   *
+   * @param blackhole - The Blackhole consuming the rows
+   */
+  @Benchmark
+  public void toCSV(Blackhole blackhole) {
+    for (LocationResult result : results) {
+      blackhole.consume(result.toCSV());
+    }
+  }
+
+  /**
+   * Exports the summaries with a CSVExporter
+   *
+   * @return Returns the number of rows written
+   * @throws IOException if writing fails
+   */
+  @Benchmark
+  public long export() throws IOException {
+    CSVExporter exporter = CSVExporter.summary(Writer.nullWriter());
+    return (exporter.writeAll(results.iterator()));
+  }
+
+  /**
+   * Exports all columns and the supporting picks with a CSVExporter
+   *
+   * @return Returns the number of picks written
+   * @throws IOException if writing fails
+   */
+  @Benchmark
+  public long exportWithPicks() throws IOException {
+    CSVExporter exporter = new CSVExporter(Writer.nullWriter());
+    exporter.setPickTable(Writer.nullWriter(), CSVExporter.DEFAULT_PICK_COLUMNS);
+    exporter.writeAll(results.iterator());
+    return (exporter.getPickCount());
+  }
+}
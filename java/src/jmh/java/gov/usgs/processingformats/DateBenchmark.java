@@ -0,0 +1,76 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * a JMH benchmark measuring Utility.getDate and Utility.formatDate over the pick times in the
+ * location request fixture.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateBenchmark {
+  /** The pick time strings */
+  private String[] strings;
+
+  /** The pick times */
+  private Date[] dates;
+
+  /**
+   * Collects the pick times from the fixture
+   *
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  @Setup
+  public void setup() throws IOException, ParseException {
+    JSONArray picks =
+        (JSONArray) Fixtures.readJSON(Fixtures.LOCATIONREQUEST).get(LocationRequest.INPUTDATA_KEY);
+
+    strings = new String[picks.size()];
+    dates = new Date[picks.size()];
+    for (int i = 0; i < picks.size(); i++) {
+      strings[i] = (String) ((JSONObject) picks.get(i)).get(Pick.TIME_KEY);
+      dates[i] = Utility.getDate(strings[i]);
+    }
+  }
+
+  /**
+   * Parses every pick time
+   *
+   * @param blackhole - The Blackhole consuming the results
+   */
+  @Benchmark
+  public void getDate(Blackhole blackhole) {
+    for (int i = 0; i < strings.length; i++) {
+      blackhole.consume(Utility.getDate(strings[i]));
+    }
+  }
+
+  /**
+   * Formats every pick time
+   *
+   * @param blackhole - The Blackhole consuming the results
+   */
+  @Benchmark
+  public void formatDate(Blackhole blackhole) {
+    for (int i = 0; i < dates.length; i++) {
+      blackhole.consume(Utility.formatDate(dates[i]));
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a helper class used to load the checked in benchmark fixture payloads and scale them to the pick,
+ * receiver, and sample counts being measured.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class Fixtures {
+  /** Fixture resource names */
+  public static final String LOCATIONREQUEST = "locationrequest.json";
+
+  public static final String LOCATIONRESULT = "locationresult.json";
+  public static final String TRAVELTIMEREQUEST = "traveltimerequest.json";
+  public static final String TRAVELTIMEPLOTREQUEST = "traveltimeplotrequest.json";
+
+  /**
+   * Reads a fixture payload
+   *
+   * @param name - A String containing the fixture name
+   * @return Returns the fixture as a String
+   * @throws IOException if the fixture cannot be read
+   */
+  public static String read(String name) throws IOException {
+    try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+      if (in == null) {
+        throw new IOException("Missing fixture " + name);
+      }
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int count;
+      while ((count = in.read(buffer)) > 0) {
+        out.write(buffer, 0, count);
+      }
+      return (new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Reads and parses a fixture payload
+   *
+   * @param name - A String containing the fixture name
+   * @return Returns the fixture as a JSONObject
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  public static JSONObject readJSON(String name) throws IOException, ParseException {
+    return (Utility.fromJSONString(read(name)));
+  }
+
+  /**
+   * Builds a LocationRequest from the fixture with the given number of picks
+   *
+   * @param pickCount - An int containing the number of picks
+   * @return Returns the LocationRequest
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  public static LocationRequest locationRequest(int pickCount) throws IOException, ParseException {
+    LocationRequest request = new LocationRequest(readJSON(LOCATIONREQUEST));
+    request.InputData = scalePicks(request.InputData, pickCount);
+    return (request);
+  }
+
+  /**
+   * Builds a LocationResult from the fixture with the given number of supporting picks
+   *
+   * @param pickCount - An int containing the number of picks
+   * @return Returns the LocationResult
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  public static LocationResult locationResult(int pickCount) throws IOException, ParseException {
+    LocationResult result = new LocationResult(readJSON(LOCATIONRESULT));
+    result.SupportingData = scalePicks(result.SupportingData, pickCount);
+    return (result);
+  }
+
+  /**
+   * Builds a TravelTimeRequest from the fixture with the given number of receivers and responses
+   *
+   * @param receiverCount - An int containing the number of receivers
+   * @return Returns the TravelTimeRequest
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  public static TravelTimeRequest travelTimeRequest(int receiverCount)
+      throws IOException, ParseException {
+    TravelTimeRequest request = new TravelTimeRequest(readJSON(TRAVELTIMEREQUEST));
+    request.Receivers = scaleReceivers(request.Receivers, receiverCount);
+    request.Response = scaleReceivers(request.Response, receiverCount);
+    return (request);
+  }
+
+  /**
+   * Builds a TravelTimePlotRequest from the fixture with the given number of samples per branch
+   *
+   * @param sampleCount - An int containing the number of samples in each branch
+   * @return Returns the TravelTimePlotRequest
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  public static TravelTimePlotRequest travelTimePlotRequest(int sampleCount)
+      throws IOException, ParseException {
+    TravelTimePlotRequest request = new TravelTimePlotRequest(readJSON(TRAVELTIMEPLOTREQUEST));
+    request.DistanceStep = request.MaximumDistance / (sampleCount - 1);
+
+    for (TravelTimePlotDataBranch branch : request.Response) {
+      branch.Samples = resample(branch.Samples, sampleCount);
+    }
+    return (request);
+  }
+
+  /**
+   * Repeats picks until the list has the given size, giving the copies unique IDs
+   *
+   * @param picks - The fixture picks
+   * @param count - An int containing the number of picks wanted
+   * @return Returns the scaled list of picks
+   */
+  public static ArrayList<Pick> scalePicks(ArrayList<Pick> picks, int count) {
+    ArrayList<Pick> scaled = new ArrayList<Pick>(count);
+    for (int i = 0; i < count; i++) {
+      Pick pick = new Pick(picks.get(i % picks.size()).toJSON());
+      if (i >= picks.size()) {
+        pick.ID = pick.ID + "-" + (i / picks.size());
+      }
+      scaled.add(pick);
+    }
+    return (scaled);
+  }
+
+  /**
+   * Repeats receivers until the list has the given size, giving the copies unique IDs
+   *
+   * @param receivers - The fixture receivers
+   * @param count - An int containing the number of receivers wanted
+   * @return Returns the scaled list of receivers
+   */
+  public static ArrayList<TravelTimeReceiver> scaleReceivers(
+      ArrayList<TravelTimeReceiver> receivers, int count) {
+    ArrayList<TravelTimeReceiver> scaled = new ArrayList<TravelTimeReceiver>(count);
+    for (int i = 0; i < count; i++) {
+      TravelTimeReceiver receiver = new TravelTimeReceiver(receivers.get(i % receivers.size()));
+      if (i >= receivers.size()) {
+        receiver.ID = receiver.ID + "-" + (i / receivers.size());
+      }
+      scaled.add(receiver);
+    }
+    return (scaled);
+  }
+
+  /**
+   * Linearly interpolates a travel time curve onto the given number of evenly spaced samples
+   *
+   * @param samples - The fixture samples, sorted by distance
+   * @param count - An int containing the number of samples wanted, at least 2
+   * @return Returns the resampled curve
+   */
+  public static ArrayList<TravelTimePlotDataSample> resample(
+      ArrayList<TravelTimePlotDataSample> samples, int count) {
+    double minimum = samples.get(0).Distance;
+    double maximum = samples.get(samples.size() - 1).Distance;
+
+    ArrayList<TravelTimePlotDataSample> resampled = new ArrayList<TravelTimePlotDataSample>(count);
+    int index = 0;
+    for (int i = 0; i < count; i++) {
+      double distance = minimum + (maximum - minimum) * i / (count - 1);
+      while ((index < samples.size() - 2) && (samples.get(index + 1).Distance < distance)) {
+        index++;
+      }
+
+      TravelTimePlotDataSample low = samples.get(index);
+      TravelTimePlotDataSample high = samples.get(index + 1);
+      double fraction = (distance - low.Distance) / (high.Distance - low.Distance);
+
+      resampled.add(
+          new TravelTimePlotDataSample(
+              distance,
+              interpolate(low.TravelTime, high.TravelTime, fraction),
+              interpolate(low.StatisticalSpread, high.StatisticalSpread, fraction),
+              interpolate(low.Observability, high.Observability, fraction),
+              interpolate(low.RayParameter, high.RayParameter, fraction)));
+    }
+    return (resampled);
+  }
+
+  /**
+   * Linearly interpolates between two optional values
+   *
+   * @param low - A Double containing the low value, null if absent
+   * @param high - A Double containing the high value, null if absent
+   * @param fraction - A double containing the fraction of the way from low to high
+   * @return Returns the interpolated value, null if either value is absent
+   */
+  private static Double interpolate(Double low, Double high, double fraction) {
+    if ((low == null) || (high == null)) {
+      return (null);
+    }
+    return (low + (high - low) * fraction);
+  }
+}
@@ -0,0 +1,165 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * a JMH benchmark measuring parsing, serializing, and validating LocationRequests by pick count.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocationRequestBenchmark {
+  /** The number of picks in the request */
+  @Param({"10", "100", "1000", "10000"})
+  public int pickCount;
+
+  /** The serialized request */
+  private String json;
+
+  /** The binary encoded request */
+  private byte[] bytes;
+
+  /** The parsed request */
+  private LocationRequest request;
+
+  /**
+   * Builds the request from the fixture
+   *
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  @Setup
+  public void setup() throws IOException, ParseException {
+    request = Fixtures.locationRequest(pickCount);
+    json = Utility.toJSONString(request.toJSON());
+    bytes = BinaryCodec.toBytes(request);
+  }
+
+  /**
+   * Parses with Utility.fromJSONString and the JSONObject constructor
+   *
+   * @return Returns the parsed request
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public LocationRequest parse() throws ParseException {
+    return (new LocationRequest(Utility.fromJSONString(json)));
+  }
+
+  /**
+   * Parses with the streaming LocationRequestReader
+   *
+   * @return Returns the parsed request
+   * @throws IOException if reading fails
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public LocationRequest parseStreaming() throws IOException, ParseException {
+    return (LocationRequestReader.read(json));
+  }
+
+  /**
+   * Parses with the streaming LocationRequestReader into objects recycled through the thread's
+   * ProcessingPool
+   *
+   * @return Returns the number of decoded picks
+   * @throws IOException if reading fails
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public int parsePooled() throws IOException, ParseException {
+    ProcessingPool pool = ProcessingPool.current();
+    LocationRequest decoded = LocationRequestReader.read(json, pool);
+    int count = decoded.InputData.size();
+    pool.recycle(decoded);
+    return (count);
+  }
+
+  /**
+   * Converts to a JSONObject
+   *
+   * @return Returns the JSONObject
+   */
+  @Benchmark
+  public JSONObject toJSON() {
+    return (request.toJSON());
+  }
+
+  /**
+   * Serializes with toJSON and Utility.toJSONString
+   *
+   * @return Returns the serialized request
+   */
+  @Benchmark
+  public String serialize() {
+    return (Utility.toJSONString(request.toJSON()));
+  }
+
+  /**
+   * Serializes with the streaming writeTo
+   *
+   * @return Returns the serialized request
+   * @throws IOException if writing fails
+   */
+  @Benchmark
+  public StringBuilder serializeStreaming() throws IOException {
+    StringBuilder builder = new StringBuilder(json.length());
+    request.writeTo(builder);
+    return (builder);
+  }
+
+  /**
+   * Encodes with the BinaryCodec
+   *
+   * @return Returns the encoded request
+   */
+  @Benchmark
+  public byte[] encodeBinary() {
+    return (BinaryCodec.toBytes(request));
+  }
+
+  /**
+   * Decodes with the BinaryCodec
+   *
+   * @return Returns the decoded request
+   * @throws IOException if the document is malformed
+   */
+  @Benchmark
+  public LocationRequest decodeBinary() throws IOException {
+    return (BinaryCodec.readLocationRequest(bytes));
+  }
+
+  /**
+   * Validates with getErrors
+   *
+   * @return Returns the errors
+   */
+  @Benchmark
+  public ArrayList<String> getErrors() {
+    return (request.getErrors());
+  }
+
+  /**
+   * Validates with isValid
+   *
+   * @return Returns true if valid
+   */
+  @Benchmark
+  public boolean isValid() {
+    return (request.isValid());
+  }
+}
@@ -0,0 +1,121 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * a JMH benchmark measuring parsing, serializing, and validating LocationResults by supporting pick
+ * count.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocationResultBenchmark {
+  /** The number of supporting picks in the result */
+  @Param({"10", "100", "1000", "10000"})
+  public int pickCount;
+
+  /** The serialized result */
+  private String json;
+
+  /** The parsed result */
+  private LocationResult result;
+
+  /**
+   * Builds the result from the fixture
+   *
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  @Setup
+  public void setup() throws IOException, ParseException {
+    result = Fixtures.locationResult(pickCount);
+    json = Utility.toJSONString(result.toJSON());
+  }
+
+  /**
+   * Parses with Utility.fromJSONString and the JSONObject constructor
+   *
+   * @return Returns the parsed result
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public LocationResult parse() throws ParseException {
+    return (new LocationResult(Utility.fromJSONString(json)));
+  }
+
+  /**
+   * Reads the Hypocenter, RMS, and Gap of a LazyLocationResult and forwards it
+   *
+   * @return Returns the forwarded result
+   * @throws IOException never
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public String peekAndForward() throws IOException, ParseException {
+    LazyLocationResult lazy = new LazyLocationResult(json);
+    if ((lazy.getHypocenter() == null) || (lazy.getRMS() == null) || (lazy.getGap() == null)) {
+      return (null);
+    }
+
+    StringBuilder out = new StringBuilder(json.length());
+    lazy.writeTo(out);
+    return (out.toString());
+  }
+
+  /**
+   * Converts to a JSONObject
+   *
+   * @return Returns the JSONObject
+   */
+  @Benchmark
+  public JSONObject toJSON() {
+    return (result.toJSON());
+  }
+
+  /**
+   * Serializes with toJSON and Utility.toJSONString
+   *
+   * @return Returns the serialized result
+   */
+  @Benchmark
+  public String serialize() {
+    return (Utility.toJSONString(result.toJSON()));
+  }
+
+  /**
+   * Serializes with the streaming writeTo
+   *
+   * @return Returns the serialized result
+   * @throws IOException if writing fails
+   */
+  @Benchmark
+  public StringBuilder serializeStreaming() throws IOException {
+    StringBuilder builder = new StringBuilder(json.length());
+    result.writeTo(builder);
+    return (builder);
+  }
+
+  /**
+   * Validates with getErrors
+   *
+   * @return Returns the errors
+   */
+  @Benchmark
+  public ArrayList<String> getErrors() {
+    return (result.getErrors());
+  }
+}
@@ -0,0 +1,118 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * a JMH benchmark measuring station queries of a SiteCatalog against a linear scan of its Sites.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SiteCatalogBenchmark {
+  /** The number of catalogued Sites */
+  @Param({"10000"})
+  public int siteCount;
+
+  /** The catalog */
+  private SiteCatalog catalog;
+
+  /** The latitudes of the catalogued Sites */
+  private double[] latitudes;
+
+  /** The longitudes of the catalogued Sites */
+  private double[] longitudes;
+
+  /** The scanned distances */
+  private double[] distances;
+
+  /** The source of the queries */
+  private TravelTimeSource source;
+
+  /** Builds the catalog from randomly located Sites */
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    catalog = new SiteCatalog();
+    for (int i = 0; i < siteCount; i++) {
+      catalog.add(
+          new Site(
+              "ST" + i,
+              "BHZ",
+              "US",
+              null,
+              Math.toDegrees(Math.asin(2.0 * random.nextDouble() - 1.0)),
+              360.0 * random.nextDouble() - 180.0,
+              0.0));
+    }
+
+    ArrayList<Site> sites = catalog.getSites();
+    latitudes = new double[siteCount];
+    longitudes = new double[siteCount];
+    distances = new double[siteCount];
+    for (int i = 0; i < siteCount; i++) {
+      latitudes[i] = sites.get(i).Latitude;
+      longitudes[i] = sites.get(i).Longitude;
+    }
+
+    source = new TravelTimeSource(35.0, -118.0, 10.0);
+    catalog.getNearest(0.0, 0.0, 1);
+  }
+
+  /**
+   * Finds the Sites within ten degrees by computing the distance to every Site
+   *
+   * @return Returns the number of Sites found
+   */
+  @Benchmark
+  public int linearScan() {
+    Geodesy.computeDistances(
+        Geodesy.Mode.SPHERICAL,
+        source.Latitude,
+        source.Longitude,
+        latitudes,
+        longitudes,
+        siteCount,
+        distances,
+        null);
+
+    int found = 0;
+    for (int i = 0; i < siteCount; i++) {
+      if (distances[i] <= 10.0) {
+        found++;
+      }
+    }
+    return (found);
+  }
+
+  /**
+   * Builds receivers for the Sites within ten degrees
+   *
+   * @return Returns the receivers
+   */
+  @Benchmark
+  public ArrayList<TravelTimeReceiver> receiversWithin() {
+    return (catalog.getReceivers(source, 10.0));
+  }
+
+  /**
+   * Finds the 50 nearest Sites
+   *
+   * @return Returns the Sites
+   */
+  @Benchmark
+  public ArrayList<Site> nearest() {
+    return (catalog.getNearest(source.Latitude, source.Longitude, 50));
+  }
+}
@@ -0,0 +1,88 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * a JMH benchmark measuring TravelTimeRequest round trips by receiver count.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TravelTimeRequestBenchmark {
+  /** The number of receivers, and responses, in the request */
+  @Param({"10", "100", "1000", "10000"})
+  public int receiverCount;
+
+  /** The serialized request */
+  private String json;
+
+  /** The parsed request */
+  private TravelTimeRequest request;
+
+  /**
+   * Builds the request from the fixture
+   *
+   * @throws IOException if the fixture cannot be read
+   * @throws ParseException if the fixture is not valid JSON
+   */
+  @Setup
+  public void setup() throws IOException, ParseException {
+    request = Fixtures.travelTimeRequest(receiverCount);
+    json = Utility.toJSONString(request.toJSON());
+  }
+
+  /**
+   * Parses with Utility.fromJSONString and the JSONObject constructor
+   *
+   * @return Returns the parsed request
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public TravelTimeRequest parse() throws ParseException {
+    return (new TravelTimeRequest(Utility.fromJSONString(json)));
+  }
+
+  /**
+   * Serializes with toJSON and Utility.toJSONString
+   *
+   * @return Returns the serialized request
+   */
+  @Benchmark
+  public String serialize() {
+    return (Utility.toJSONString(request.toJSON()));
+  }
+
+  /**
+   * Serializes and parses again
+   *
+   * @return Returns the parsed request
+   * @throws ParseException if the JSON is invalid
+   */
+  @Benchmark
+  public TravelTimeRequest roundTrip() throws ParseException {
+    return (new TravelTimeRequest(Utility.fromJSONString(Utility.toJSONString(request.toJSON()))));
+  }
+
+  /**
+   * Validates with getErrors
+   *
+   * @return Returns the errors
+   */
+  @Benchmark
+  public ArrayList<String> getErrors() {
+    return (request.getErrors());
+  }
+}
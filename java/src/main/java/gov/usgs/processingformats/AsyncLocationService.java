@@ -0,0 +1,39 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AsyncLocationService provides an asynchronous interface for processing LocationRequests, the
+ * non-blocking companion of LocationService.
+ */
+public interface AsyncLocationService {
+
+  /**
+   * Process a LocationRequest asynchronously
+   *
+   * @param request location inputs.
+   * @return a future completed with the calculated location, or completed exceptionally with a
+   *     LocationException if errors occur.
+   */
+  public CompletableFuture<LocationResult> getLocationAsync(final LocationRequest request);
+
+  /**
+   * Process a batch of LocationRequests asynchronously
+   *
+   * @param requests location inputs.
+   * @return a list of futures in the same order as the requests, each completed with the calculated
+   *     location, or completed exceptionally with a LocationException if errors occur for that
+   *     request.
+   */
+  public default List<CompletableFuture<LocationResult>> getLocationsAsync(
+      final List<LocationRequest> requests) {
+    ArrayList<CompletableFuture<LocationResult>> futures =
+        new ArrayList<CompletableFuture<LocationResult>>(requests.size());
+    for (LocationRequest request : requests) {
+      futures.add(getLocationAsync(request));
+    }
+    return (futures);
+  }
+}
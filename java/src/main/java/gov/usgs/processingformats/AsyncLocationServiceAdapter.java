@@ -0,0 +1,273 @@
+package gov.usgs.processingformats;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * an adapter class used to run a synchronous LocationService as an AsyncLocationService.
+ *
+ * <p>Requests run on virtual threads where the runtime provides them, otherwise on a fixed pool of
+ * platform threads, with at most the configured number of calls to the wrapped LocationService
+ * running at once. At most the configured number of requests may be pending (running or waiting to
+ * run); getLocationAsync() blocks the caller until a request completes when that limit is reached,
+ * which throttles a dispatcher to the rate of the LocationService.
+ *
+ * <p>A LocationException thrown by the LocationService completes the future exceptionally with that
+ * exception; anything else thrown, including an Error, is wrapped in a LocationException, and an
+ * Error is rethrown to the executor once the future is completed. A result without an ID is given
+ * the ID of its request.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class AsyncLocationServiceAdapter implements AsyncLocationService, AutoCloseable {
+  /** The wrapped synchronous LocationService */
+  private final LocationService service;
+
+  /** The executor running the requests */
+  private final ExecutorService executor;
+
+  /** Whether the executor was created by this adapter, and is shut down by close() */
+  private final boolean ownsExecutor;
+
+  /** Whether the executor runs virtual threads */
+  private final boolean virtual;
+
+  /** Whether close() has been called */
+  private volatile boolean closed;
+
+  /** The maximum number of concurrent calls to the LocationService */
+  private final int concurrency;
+
+  /** The maximum number of pending requests */
+  private final int maxPending;
+
+  /** Permits for calls to the LocationService */
+  private final Semaphore running;
+
+  /** Permits for pending requests */
+  private final Semaphore pending;
+
+  /**
+   * Creates an adapter allowing four times as many pending requests as concurrent calls
+   *
+   * @param service - The synchronous LocationService to wrap
+   * @param concurrency - An int containing the maximum number of concurrent calls
+   */
+  public AsyncLocationServiceAdapter(LocationService service, int concurrency) {
+    this(service, concurrency, 4 * concurrency);
+  }
+
+  /**
+   * Creates an adapter running requests on virtual threads where available
+   *
+   * @param service - The synchronous LocationService to wrap
+   * @param concurrency - An int containing the maximum number of concurrent calls
+   * @param maxPending - An int containing the maximum number of pending requests, at least
+   *     concurrency
+   */
+  public AsyncLocationServiceAdapter(LocationService service, int concurrency, int maxPending) {
+    this(service, concurrency, maxPending, null);
+  }
+
+  /**
+   * Creates an adapter running requests on a given executor
+   *
+   * @param service - The synchronous LocationService to wrap
+   * @param concurrency - An int containing the maximum number of concurrent calls
+   * @param maxPending - An int containing the maximum number of pending requests, at least
+   *     concurrency
+   * @param executor - The ExecutorService to run requests on, or null to use virtual threads where
+   *     available and a fixed thread pool otherwise. A given executor is not shut down by close().
+   */
+  public AsyncLocationServiceAdapter(
+      LocationService service, int concurrency, int maxPending, ExecutorService executor) {
+    if (service == null) {
+      throw new IllegalArgumentException("Missing LocationService");
+    }
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Invalid concurrency " + concurrency);
+    }
+    if (maxPending < concurrency) {
+      throw new IllegalArgumentException("Invalid maximum pending requests " + maxPending);
+    }
+
+    this.service = service;
+    this.concurrency = concurrency;
+    this.maxPending = maxPending;
+    running = new Semaphore(concurrency);
+    pending = new Semaphore(maxPending);
+
+    ownsExecutor = executor == null;
+    if (executor == null) {
+      executor = newVirtualThreadExecutor();
+      virtual = executor != null;
+      if (executor == null) {
+        executor = Executors.newFixedThreadPool(concurrency);
+      }
+    } else {
+      virtual = false;
+    }
+    this.executor = executor;
+  }
+
+  /**
+   * Creates a virtual thread per task executor by reflection, so this class still runs on runtimes
+   * without virtual threads
+   *
+   * @return Returns the ExecutorService, or null if virtual threads are not available
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return ((ExecutorService) method.invoke(null));
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      // not available, or a preview feature that is not enabled
+      return (null);
+    }
+  }
+
+  /**
+   * Process a LocationRequest asynchronously, blocking the caller while the maximum number of
+   * requests are pending
+   *
+   * @param request location inputs.
+   * @return a future completed with the calculated location, or completed exceptionally with a
+   *     LocationException if errors occur.
+   */
+  @Override
+  public CompletableFuture<LocationResult> getLocationAsync(final LocationRequest request) {
+    CompletableFuture<LocationResult> future = new CompletableFuture<LocationResult>();
+
+    try {
+      pending.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(new LocationException("Interrupted while waiting to submit", e));
+      return (future);
+    }
+    if (closed) {
+      pending.release();
+      future.completeExceptionally(new LocationException("Service is closed"));
+      return (future);
+    }
+
+    try {
+      executor.execute(() -> run(request, future));
+    } catch (RejectedExecutionException e) {
+      pending.release();
+      future.completeExceptionally(new LocationException("Service is closed", e));
+    }
+
+    return (future);
+  }
+
+  /**
+   * Calls the LocationService and completes the future
+   *
+   * @param request - The LocationRequest to process
+   * @param future - The CompletableFuture to complete
+   */
+  private void run(LocationRequest request, CompletableFuture<LocationResult> future) {
+    LocationResult result = null;
+    LocationException error = null;
+    Error fatal = null;
+    try {
+      running.acquire();
+      try {
+        result = service.getLocation(request);
+        if (result != null && result.ID == null && request != null) {
+          result.ID = request.ID;
+        }
+      } finally {
+        running.release();
+      }
+    } catch (LocationException e) {
+      error = e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      error = new LocationException("Interrupted while waiting to run", e);
+    } catch (Error e) {
+      fatal = e;
+      error = new LocationException("Location failed", e);
+    } catch (Throwable e) {
+      error = new LocationException("Location failed", e);
+    } finally {
+      // release before completing, so callers of the future see the permit
+      pending.release();
+    }
+
+    if (error != null) {
+      future.completeExceptionally(error);
+    } else {
+      future.complete(result);
+    }
+    if (fatal != null) {
+      throw fatal;
+    }
+  }
+
+  /**
+   * Gets whether requests run on virtual threads
+   *
+   * @return Returns true if requests run on virtual threads
+   */
+  public boolean isVirtual() {
+    return (virtual);
+  }
+
+  /**
+   * Gets the maximum number of concurrent calls to the LocationService
+   *
+   * @return Returns the concurrency
+   */
+  public int getConcurrency() {
+    return (concurrency);
+  }
+
+  /**
+   * Gets the maximum number of pending requests
+   *
+   * @return Returns the maximum number of pending requests
+   */
+  public int getMaxPending() {
+    return (maxPending);
+  }
+
+  /**
+   * Gets the number of pending requests
+   *
+   * @return Returns the number of requests running or waiting to run
+   */
+  public int getPending() {
+    return (maxPending - pending.availablePermits());
+  }
+
+  /**
+   * Stops accepting requests and waits for pending requests to complete, shutting down the executor
+   * if it was created by this adapter. If interrupted while waiting, returns with the interrupt
+   * status set.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      if (ownsExecutor) {
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+          // keep waiting for pending requests
+        }
+      } else {
+        // every permit is free once the pending requests complete
+        pending.acquire(maxPending);
+        pending.release(maxPending);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
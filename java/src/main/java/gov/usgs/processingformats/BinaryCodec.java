@@ -0,0 +1,1180 @@
+package gov.usgs.processingformats;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * a compact, schema aware binary codec for LocationRequest and LocationResult, an optional
+ * alternative to JSON text between the associator and the locator.
+ *
+ * <p>A document starts with the magic bytes PFB, a version byte, and a type byte. Each object is a
+ * presence bitmap (one bit per nullable field, as a varint) followed by the present fields in
+ * schema order. Doubles are fixed64 IEEE bits, integers are zigzag varints, booleans are a byte,
+ * and times are zigzag varint epoch milliseconds stored as the difference from the previous time in
+ * the document, so the times of consecutive picks take two or three bytes. Strings are written once
+ * and then referenced through a string table, so repeated station, network, channel, phase, and
+ * author names cost a byte or two each.
+ *
+ * <p>Decoding produces the same objects as the JSON constructors, so toJSON() of a decoded object
+ * matches toJSON() of the original. Picks held in an InputBatch or SupportingBatch are decoded into
+ * InputData or SupportingData.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public final class BinaryCodec {
+  /** Magic bytes at the start of every document */
+  private static final byte[] MAGIC = {'P', 'F', 'B'};
+
+  /** The current format version, readers accept this version and older */
+  public static final int VERSION = 1;
+
+  /** Document type of a LocationRequest */
+  public static final int TYPE_LOCATIONREQUEST = 1;
+
+  /** Document type of a LocationResult */
+  public static final int TYPE_LOCATIONRESULT = 2;
+
+  /** Private constructor, static methods only */
+  private BinaryCodec() {}
+
+  /**
+   * Encodes a LocationRequest
+   *
+   * @param request - The LocationRequest to encode
+   * @return Returns a byte array containing the encoded document
+   */
+  public static byte[] toBytes(LocationRequest request) {
+    Encoder encoder = new Encoder(TYPE_LOCATIONREQUEST);
+    encoder.writeLocationRequest(request);
+    return (encoder.toByteArray());
+  }
+
+  /**
+   * Encodes a LocationResult
+   *
+   * @param result - The LocationResult to encode
+   * @return Returns a byte array containing the encoded document
+   */
+  public static byte[] toBytes(LocationResult result) {
+    Encoder encoder = new Encoder(TYPE_LOCATIONRESULT);
+    encoder.writeLocationResult(result);
+    return (encoder.toByteArray());
+  }
+
+  /**
+   * Encodes a LocationRequest to an OutputStream. The stream is not flushed or closed.
+   *
+   * @param request - The LocationRequest to encode
+   * @param out - The OutputStream to write to
+   * @throws IOException if the OutputStream fails
+   */
+  public static void write(LocationRequest request, OutputStream out) throws IOException {
+    Encoder encoder = new Encoder(TYPE_LOCATIONREQUEST);
+    encoder.writeLocationRequest(request);
+    encoder.writeTo(out);
+  }
+
+  /**
+   * Encodes a LocationResult to an OutputStream. The stream is not flushed or closed.
+   *
+   * @param result - The LocationResult to encode
+   * @param out - The OutputStream to write to
+   * @throws IOException if the OutputStream fails
+   */
+  public static void write(LocationResult result, OutputStream out) throws IOException {
+    Encoder encoder = new Encoder(TYPE_LOCATIONRESULT);
+    encoder.writeLocationResult(result);
+    encoder.writeTo(out);
+  }
+
+  /**
+   * Decodes a LocationRequest
+   *
+   * @param bytes - A byte array containing the encoded document
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the document is malformed, of another type, or of a newer version
+   */
+  public static LocationRequest readLocationRequest(byte[] bytes) throws IOException {
+    return (readLocationRequest(bytes, 0, bytes.length));
+  }
+
+  /**
+   * Decodes a LocationRequest from part of a byte array
+   *
+   * @param bytes - A byte array containing the encoded document
+   * @param offset - An int containing the offset of the document
+   * @param length - An int containing the length of the document
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the document is malformed, of another type, or of a newer version
+   */
+  public static LocationRequest readLocationRequest(byte[] bytes, int offset, int length)
+      throws IOException {
+    Decoder decoder = new Decoder(bytes, offset, length, TYPE_LOCATIONREQUEST);
+    LocationRequest request = decoder.readLocationRequest();
+    decoder.finish();
+    return (request);
+  }
+
+  /**
+   * Decodes a LocationRequest from the remaining contents of an InputStream
+   *
+   * @param in - The InputStream to read
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if reading fails, or the document is malformed, of another type, or of a
+   *     newer version
+   */
+  public static LocationRequest readLocationRequest(InputStream in) throws IOException {
+    return (readLocationRequest(in.readAllBytes()));
+  }
+
+  /**
+   * Decodes a LocationResult
+   *
+   * @param bytes - A byte array containing the encoded document
+   * @return Returns the decoded LocationResult
+   * @throws IOException if the document is malformed, of another type, or of a newer version
+   */
+  public static LocationResult readLocationResult(byte[] bytes) throws IOException {
+    return (readLocationResult(bytes, 0, bytes.length));
+  }
+
+  /**
+   * Decodes a LocationResult from part of a byte array
+   *
+   * @param bytes - A byte array containing the encoded document
+   * @param offset - An int containing the offset of the document
+   * @param length - An int containing the length of the document
+   * @return Returns the decoded LocationResult
+   * @throws IOException if the document is malformed, of another type, or of a newer version
+   */
+  public static LocationResult readLocationResult(byte[] bytes, int offset, int length)
+      throws IOException {
+    Decoder decoder = new Decoder(bytes, offset, length, TYPE_LOCATIONRESULT);
+    LocationResult result = decoder.readLocationResult();
+    decoder.finish();
+    return (result);
+  }
+
+  /**
+   * Decodes a LocationResult from the remaining contents of an InputStream
+   *
+   * @param in - The InputStream to read
+   * @return Returns the decoded LocationResult
+   * @throws IOException if reading fails, or the document is malformed, of another type, or of a
+   *     newer version
+   */
+  public static LocationResult readLocationResult(InputStream in) throws IOException {
+    return (readLocationResult(in.readAllBytes()));
+  }
+
+  /**
+   * Gets the document type of an encoded document
+   *
+   * @param bytes - A byte array containing the encoded document
+   * @return Returns TYPE_LOCATIONREQUEST or TYPE_LOCATIONRESULT
+   * @throws IOException if the header is malformed or of a newer version
+   */
+  public static int getType(byte[] bytes) throws IOException {
+    return (new Decoder(bytes, 0, bytes.length, 0).type);
+  }
+
+  /**
+   * Builds a presence bit
+   *
+   * @param value - The field value
+   * @param bit - An int containing the bit of the field
+   * @return Returns the bit if the value is present, 0 otherwise
+   */
+  private static long bit(Object value, int bit) {
+    return ((value != null) ? (1L << bit) : 0L);
+  }
+
+  /**
+   * Checks a presence bit
+   *
+   * @param mask - A long containing the presence bitmap
+   * @param bit - An int containing the bit of the field
+   * @return Returns true if the field is present
+   */
+  private static boolean has(long mask, int bit) {
+    return ((mask & (1L << bit)) != 0);
+  }
+
+  /** Writes a document into a growable byte array */
+  private static final class Encoder {
+    /** The encoded bytes */
+    private byte[] buffer = new byte[1024];
+
+    /** The number of encoded bytes */
+    private int size;
+
+    /** Indices of the strings written so far */
+    private HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+    /** The last time written */
+    private long lastTime;
+
+    /** Scratch pick used to write batches */
+    private Pick scratch;
+
+    /**
+     * Starts a document with the header
+     *
+     * @param type - An int containing the document type
+     */
+    Encoder(int type) {
+      for (byte b : MAGIC) {
+        writeByte(b);
+      }
+      writeByte(VERSION);
+      writeByte(type);
+    }
+
+    /**
+     * Gets the encoded document
+     *
+     * @return Returns a byte array containing the document
+     */
+    byte[] toByteArray() {
+      return (Arrays.copyOf(buffer, size));
+    }
+
+    /**
+     * Writes the encoded document to an OutputStream
+     *
+     * @param out - The OutputStream to write to
+     * @throws IOException if the OutputStream fails
+     */
+    void writeTo(OutputStream out) throws IOException {
+      out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes a byte
+     *
+     * @param value - An int containing the byte
+     */
+    void writeByte(int value) {
+      if (size == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes an unsigned varint
+     *
+     * @param value - A long containing the value
+     */
+    void writeVarint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      writeByte((int) value);
+    }
+
+    /**
+     * Writes a zigzag encoded signed varint
+     *
+     * @param value - A long containing the value
+     */
+    void writeSignedVarint(long value) {
+      writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a double as fixed64 little endian IEEE bits
+     *
+     * @param value - A Double containing the value
+     */
+    void writeDouble(Double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      for (int i = 0; i < 8; i++) {
+        writeByte((int) (bits >>> (i * 8)));
+      }
+    }
+
+    /**
+     * Writes a boolean
+     *
+     * @param value - A Boolean containing the value
+     */
+    void writeBoolean(Boolean value) {
+      writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a time as the difference from the last time written
+     *
+     * @param value - A Date containing the time
+     */
+    void writeTime(Date value) {
+      long millis = value.getTime();
+      writeSignedVarint(millis - lastTime);
+      lastTime = millis;
+    }
+
+    /**
+     * Writes a string, either as a reference to the string table or as a new entry
+     *
+     * @param value - A String containing the value
+     */
+    void writeString(String value) {
+      Integer index = strings.get(value);
+      if (index != null) {
+        writeVarint(index + 1);
+        return;
+      }
+
+      strings.put(value, strings.size());
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarint(0);
+      writeVarint(bytes.length);
+      for (byte b : bytes) {
+        writeByte(b);
+      }
+    }
+
+    /**
+     * Writes a list of picks
+     *
+     * @param picks - The list of picks
+     */
+    void writePicks(ArrayList<Pick> picks) {
+      writeVarint(picks.size());
+      for (Pick pick : picks) {
+        writePick(pick);
+      }
+    }
+
+    /**
+     * Writes the picks of a PickBatch as a list of picks
+     *
+     * @param batch - The PickBatch
+     */
+    void writePicks(PickBatch batch) {
+      if (scratch == null) {
+        scratch = new Pick();
+      }
+
+      writeVarint(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        writePick(batch.get(i, scratch));
+      }
+    }
+
+    /**
+     * Writes a LocationRequest
+     *
+     * @param request - The LocationRequest
+     */
+    void writeLocationRequest(LocationRequest request) {
+      // use the batch when there is no list, as toJSON() does
+      boolean useBatch =
+          ((request.InputData == null) || (request.InputData.isEmpty()))
+              && (request.InputBatch != null)
+              && (!request.InputBatch.isEmpty());
+
+      long mask =
+          bit(request.ID, 0)
+              | bit(request.Source, 1)
+              | bit(request.Type, 2)
+              | bit(request.SourceLatitude, 3)
+              | bit(request.SourceLongitude, 4)
+              | bit(request.SourceOriginTime, 5)
+              | bit(request.SourceDepth, 6)
+              | bit(useBatch ? request.InputBatch : request.InputData, 7)
+              | bit(request.EarthModel, 8)
+              | bit(request.SlabResolution, 9)
+              | bit(request.IsLocationNew, 10)
+              | bit(request.IsLocationHeld, 11)
+              | bit(request.IsDepthHeld, 12)
+              | bit(request.IsBayesianDepth, 13)
+              | bit(request.BayesianDepth, 14)
+              | bit(request.BayesianSpread, 15)
+              | bit(request.UseSVD, 16)
+              | bit(request.ReassessInitialPhaseIDs, 17)
+              | bit(request.OutputData, 18);
+      writeVarint(mask);
+
+      if (request.ID != null) {
+        writeString(request.ID);
+      }
+      if (request.Source != null) {
+        writeSource(request.Source);
+      }
+      if (request.Type != null) {
+        writeString(request.Type);
+      }
+      if (request.SourceLatitude != null) {
+        writeDouble(request.SourceLatitude);
+      }
+      if (request.SourceLongitude != null) {
+        writeDouble(request.SourceLongitude);
+      }
+      if (request.SourceOriginTime != null) {
+        writeTime(request.SourceOriginTime);
+      }
+      if (request.SourceDepth != null) {
+        writeDouble(request.SourceDepth);
+      }
+      if (useBatch) {
+        writePicks(request.InputBatch);
+      } else if (request.InputData != null) {
+        writePicks(request.InputData);
+      }
+      if (request.EarthModel != null) {
+        writeString(request.EarthModel);
+      }
+      if (request.SlabResolution != null) {
+        writeString(request.SlabResolution);
+      }
+      if (request.IsLocationNew != null) {
+        writeBoolean(request.IsLocationNew);
+      }
+      if (request.IsLocationHeld != null) {
+        writeBoolean(request.IsLocationHeld);
+      }
+      if (request.IsDepthHeld != null) {
+        writeBoolean(request.IsDepthHeld);
+      }
+      if (request.IsBayesianDepth != null) {
+        writeBoolean(request.IsBayesianDepth);
+      }
+      if (request.BayesianDepth != null) {
+        writeDouble(request.BayesianDepth);
+      }
+      if (request.BayesianSpread != null) {
+        writeDouble(request.BayesianSpread);
+      }
+      if (request.UseSVD != null) {
+        writeBoolean(request.UseSVD);
+      }
+      if (request.ReassessInitialPhaseIDs != null) {
+        writeBoolean(request.ReassessInitialPhaseIDs);
+      }
+      if (request.OutputData != null) {
+        writeLocationResult(request.OutputData);
+      }
+    }
+
+    /**
+     * Writes a LocationResult
+     *
+     * @param result - The LocationResult
+     */
+    void writeLocationResult(LocationResult result) {
+      // use the batch when there is no list, as toJSON() does
+      boolean useBatch =
+          ((result.SupportingData == null) || (result.SupportingData.isEmpty()))
+              && (result.SupportingBatch != null)
+              && (!result.SupportingBatch.isEmpty());
+
+      long mask =
+          bit(result.ID, 0)
+              | bit(result.Source, 1)
+              | bit(result.Hypocenter, 2)
+              | bit(useBatch ? result.SupportingBatch : result.SupportingData, 3)
+              | bit(result.NumberOfAssociatedStations, 4)
+              | bit(result.NumberOfAssociatedPhases, 5)
+              | bit(result.NumberOfUsedStations, 6)
+              | bit(result.NumberOfUsedPhases, 7)
+              | bit(result.Gap, 8)
+              | bit(result.SecondaryGap, 9)
+              | bit(result.MinimumDistance, 10)
+              | bit(result.RMS, 11)
+              | bit(result.Quality, 12)
+              | bit(result.BayesianDepth, 13)
+              | bit(result.BayesianRange, 14)
+              | bit(result.DepthImportance, 15)
+              | bit(result.LocatorExitCode, 16)
+              | bit(result.ErrorEllipse, 17);
+      writeVarint(mask);
+
+      if (result.ID != null) {
+        writeString(result.ID);
+      }
+      if (result.Source != null) {
+        writeSource(result.Source);
+      }
+      if (result.Hypocenter != null) {
+        writeHypocenter(result.Hypocenter);
+      }
+      if (useBatch) {
+        writePicks(result.SupportingBatch);
+      } else if (result.SupportingData != null) {
+        writePicks(result.SupportingData);
+      }
+      if (result.NumberOfAssociatedStations != null) {
+        writeSignedVarint(result.NumberOfAssociatedStations);
+      }
+      if (result.NumberOfAssociatedPhases != null) {
+        writeSignedVarint(result.NumberOfAssociatedPhases);
+      }
+      if (result.NumberOfUsedStations != null) {
+        writeSignedVarint(result.NumberOfUsedStations);
+      }
+      if (result.NumberOfUsedPhases != null) {
+        writeSignedVarint(result.NumberOfUsedPhases);
+      }
+      if (result.Gap != null) {
+        writeDouble(result.Gap);
+      }
+      if (result.SecondaryGap != null) {
+        writeDouble(result.SecondaryGap);
+      }
+      if (result.MinimumDistance != null) {
+        writeDouble(result.MinimumDistance);
+      }
+      if (result.RMS != null) {
+        writeDouble(result.RMS);
+      }
+      if (result.Quality != null) {
+        writeString(result.Quality);
+      }
+      if (result.BayesianDepth != null) {
+        writeDouble(result.BayesianDepth);
+      }
+      if (result.BayesianRange != null) {
+        writeDouble(result.BayesianRange);
+      }
+      if (result.DepthImportance != null) {
+        writeDouble(result.DepthImportance);
+      }
+      if (result.LocatorExitCode != null) {
+        writeString(result.LocatorExitCode);
+      }
+      if (result.ErrorEllipse != null) {
+        writeErrorEllipse(result.ErrorEllipse);
+      }
+    }
+
+    /**
+     * Writes a Pick
+     *
+     * @param pick - The Pick
+     */
+    void writePick(Pick pick) {
+      long mask =
+          bit(pick.ID, 0)
+              | bit(pick.Site, 1)
+              | bit(pick.Source, 2)
+              | bit(pick.Time, 3)
+              | bit(pick.Affinity, 4)
+              | bit(pick.Quality, 5)
+              | bit(pick.Use, 6)
+              | bit(pick.PickedPhase, 7)
+              | bit(pick.AssociatedPhase, 8)
+              | bit(pick.LocatedPhase, 9)
+              | bit(pick.Residual, 10)
+              | bit(pick.Distance, 11)
+              | bit(pick.Azimuth, 12)
+              | bit(pick.Weight, 13)
+              | bit(pick.Importance, 14);
+      writeVarint(mask);
+
+      if (pick.ID != null) {
+        writeString(pick.ID);
+      }
+      if (pick.Site != null) {
+        writeSite(pick.Site);
+      }
+      if (pick.Source != null) {
+        writeSource(pick.Source);
+      }
+      if (pick.Time != null) {
+        writeTime(pick.Time);
+      }
+      if (pick.Affinity != null) {
+        writeDouble(pick.Affinity);
+      }
+      if (pick.Quality != null) {
+        writeDouble(pick.Quality);
+      }
+      if (pick.Use != null) {
+        writeBoolean(pick.Use);
+      }
+      if (pick.PickedPhase != null) {
+        writeString(pick.PickedPhase);
+      }
+      if (pick.AssociatedPhase != null) {
+        writeString(pick.AssociatedPhase);
+      }
+      if (pick.LocatedPhase != null) {
+        writeString(pick.LocatedPhase);
+      }
+      if (pick.Residual != null) {
+        writeDouble(pick.Residual);
+      }
+      if (pick.Distance != null) {
+        writeDouble(pick.Distance);
+      }
+      if (pick.Azimuth != null) {
+        writeDouble(pick.Azimuth);
+      }
+      if (pick.Weight != null) {
+        writeDouble(pick.Weight);
+      }
+      if (pick.Importance != null) {
+        writeDouble(pick.Importance);
+      }
+    }
+
+    /**
+     * Writes a Site
+     *
+     * @param site - The Site
+     */
+    void writeSite(Site site) {
+      long mask =
+          bit(site.Station, 0)
+              | bit(site.Channel, 1)
+              | bit(site.Network, 2)
+              | bit(site.Location, 3)
+              | bit(site.Latitude, 4)
+              | bit(site.Longitude, 5)
+              | bit(site.Elevation, 6);
+      writeVarint(mask);
+
+      if (site.Station != null) {
+        writeString(site.Station);
+      }
+      if (site.Channel != null) {
+        writeString(site.Channel);
+      }
+      if (site.Network != null) {
+        writeString(site.Network);
+      }
+      if (site.Location != null) {
+        writeString(site.Location);
+      }
+      if (site.Latitude != null) {
+        writeDouble(site.Latitude);
+      }
+      if (site.Longitude != null) {
+        writeDouble(site.Longitude);
+      }
+      if (site.Elevation != null) {
+        writeDouble(site.Elevation);
+      }
+    }
+
+    /**
+     * Writes a Source
+     *
+     * @param source - The Source
+     */
+    void writeSource(Source source) {
+      long mask = bit(source.AgencyID, 0) | bit(source.Author, 1) | bit(source.Type, 2);
+      writeVarint(mask);
+
+      if (source.AgencyID != null) {
+        writeString(source.AgencyID);
+      }
+      if (source.Author != null) {
+        writeString(source.Author);
+      }
+      if (source.Type != null) {
+        writeString(source.Type);
+      }
+    }
+
+    /**
+     * Writes a Hypocenter
+     *
+     * @param hypocenter - The Hypocenter
+     */
+    void writeHypocenter(Hypocenter hypocenter) {
+      long mask =
+          bit(hypocenter.Latitude, 0)
+              | bit(hypocenter.Longitude, 1)
+              | bit(hypocenter.Time, 2)
+              | bit(hypocenter.Depth, 3)
+              | bit(hypocenter.LatitudeError, 4)
+              | bit(hypocenter.LongitudeError, 5)
+              | bit(hypocenter.TimeError, 6)
+              | bit(hypocenter.DepthError, 7);
+      writeVarint(mask);
+
+      if (hypocenter.Latitude != null) {
+        writeDouble(hypocenter.Latitude);
+      }
+      if (hypocenter.Longitude != null) {
+        writeDouble(hypocenter.Longitude);
+      }
+      if (hypocenter.Time != null) {
+        writeTime(hypocenter.Time);
+      }
+      if (hypocenter.Depth != null) {
+        writeDouble(hypocenter.Depth);
+      }
+      if (hypocenter.LatitudeError != null) {
+        writeDouble(hypocenter.LatitudeError);
+      }
+      if (hypocenter.LongitudeError != null) {
+        writeDouble(hypocenter.LongitudeError);
+      }
+      if (hypocenter.TimeError != null) {
+        writeDouble(hypocenter.TimeError);
+      }
+      if (hypocenter.DepthError != null) {
+        writeDouble(hypocenter.DepthError);
+      }
+    }
+
+    /**
+     * Writes an ErrorEllipse
+     *
+     * @param ellipse - The ErrorEllipse
+     */
+    void writeErrorEllipse(ErrorEllipse ellipse) {
+      long mask =
+          bit(ellipse.E0, 0)
+              | bit(ellipse.E1, 1)
+              | bit(ellipse.E2, 2)
+              | bit(ellipse.MaximumHorizontalProjection, 3)
+              | bit(ellipse.MaximumVerticalProjection, 4)
+              | bit(ellipse.EquivalentHorizontalRadius, 5);
+      writeVarint(mask);
+
+      if (ellipse.E0 != null) {
+        writeErrorEllipseAxis(ellipse.E0);
+      }
+      if (ellipse.E1 != null) {
+        writeErrorEllipseAxis(ellipse.E1);
+      }
+      if (ellipse.E2 != null) {
+        writeErrorEllipseAxis(ellipse.E2);
+      }
+      if (ellipse.MaximumHorizontalProjection != null) {
+        writeDouble(ellipse.MaximumHorizontalProjection);
+      }
+      if (ellipse.MaximumVerticalProjection != null) {
+        writeDouble(ellipse.MaximumVerticalProjection);
+      }
+      if (ellipse.EquivalentHorizontalRadius != null) {
+        writeDouble(ellipse.EquivalentHorizontalRadius);
+      }
+    }
+
+    /**
+     * Writes an ErrorEllipseAxis
+     *
+     * @param axis - The ErrorEllipseAxis
+     */
+    void writeErrorEllipseAxis(ErrorEllipseAxis axis) {
+      long mask = bit(axis.Error, 0) | bit(axis.Azimuth, 1) | bit(axis.Dip, 2);
+      writeVarint(mask);
+
+      if (axis.Error != null) {
+        writeDouble(axis.Error);
+      }
+      if (axis.Azimuth != null) {
+        writeDouble(axis.Azimuth);
+      }
+      if (axis.Dip != null) {
+        writeDouble(axis.Dip);
+      }
+    }
+  }
+
+  /** Reads a document from a byte array */
+  private static final class Decoder {
+    /** The encoded bytes */
+    private final byte[] buffer;
+
+    /** The read position */
+    private int position;
+
+    /** The end of the document */
+    private final int limit;
+
+    /** The document type */
+    final int type;
+
+    /** The strings read so far */
+    private ArrayList<String> strings = new ArrayList<String>();
+
+    /** The last time read */
+    private long lastTime;
+
+    /**
+     * Reads and checks the header
+     *
+     * @param bytes - A byte array containing the document
+     * @param offset - An int containing the offset of the document
+     * @param length - An int containing the length of the document
+     * @param expectedType - An int containing the expected document type, 0 for any
+     * @throws IOException if the header is malformed, of another type, or of a newer version
+     */
+    Decoder(byte[] bytes, int offset, int length, int expectedType) throws IOException {
+      buffer = bytes;
+      position = offset;
+      limit = offset + length;
+
+      for (byte b : MAGIC) {
+        if (readByte() != b) {
+          throw new IOException("Not a processingformats binary document");
+        }
+      }
+
+      int version = readByte();
+      if ((version < 1) || (version > VERSION)) {
+        throw new IOException("Unsupported binary format version " + version);
+      }
+
+      type = readByte();
+      if ((expectedType != 0) && (type != expectedType)) {
+        throw new IOException("Unexpected binary document type " + type);
+      }
+    }
+
+    /**
+     * Checks that the whole document was read
+     *
+     * @throws IOException if there is trailing data
+     */
+    void finish() throws IOException {
+      if (position != limit) {
+        throw new IOException("Trailing data after binary document");
+      }
+    }
+
+    /**
+     * Reads a byte
+     *
+     * @return Returns the byte
+     * @throws IOException if the document is truncated
+     */
+    int readByte() throws IOException {
+      if (position >= limit) {
+        throw new EOFException("Truncated binary document");
+      }
+      return (buffer[position++]);
+    }
+
+    /**
+     * Reads an unsigned varint
+     *
+     * @return Returns the value
+     * @throws IOException if the document is truncated or the varint is too long
+     */
+    long readVarint() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (value);
+        }
+      }
+      throw new IOException("Malformed varint in binary document");
+    }
+
+    /**
+     * Reads a varint that must fit in an int
+     *
+     * @return Returns the value
+     * @throws IOException if the document is truncated or the value is out of range
+     */
+    int readCount() throws IOException {
+      long value = readVarint();
+      if ((value < 0) || (value > limit - position)) {
+        throw new IOException("Invalid count in binary document");
+      }
+      return ((int) value);
+    }
+
+    /**
+     * Reads a zigzag encoded signed varint
+     *
+     * @return Returns the value
+     * @throws IOException if the document is truncated
+     */
+    long readSignedVarint() throws IOException {
+      long value = readVarint();
+      return ((value >>> 1) ^ -(value & 1));
+    }
+
+    /**
+     * Reads a fixed64 double
+     *
+     * @return Returns the value
+     * @throws IOException if the document is truncated
+     */
+    Double readDouble() throws IOException {
+      long bits = 0;
+      for (int i = 0; i < 8; i++) {
+        bits |= (long) (readByte() & 0xFF) << (i * 8);
+      }
+      return (Double.longBitsToDouble(bits));
+    }
+
+    /**
+     * Reads a boolean
+     *
+     * @return Returns the value
+     * @throws IOException if the document is truncated
+     */
+    Boolean readBoolean() throws IOException {
+      return (readByte() != 0);
+    }
+
+    /**
+     * Reads an Integer
+     *
+     * @return Returns the value
+     * @throws IOException if the document is truncated
+     */
+    Integer readInteger() throws IOException {
+      return ((int) readSignedVarint());
+    }
+
+    /**
+     * Reads a time
+     *
+     * @return Returns the time
+     * @throws IOException if the document is truncated
+     */
+    Date readTime() throws IOException {
+      lastTime += readSignedVarint();
+      return (new Date(lastTime));
+    }
+
+    /**
+     * Reads a string, either a new entry or a reference to the string table
+     *
+     * @return Returns the string
+     * @throws IOException if the document is truncated or the reference is invalid
+     */
+    String readString() throws IOException {
+      long reference = readVarint();
+      if (reference != 0) {
+        if ((reference < 0) || (reference > strings.size())) {
+          throw new IOException("Invalid string reference in binary document");
+        }
+        return (strings.get((int) reference - 1));
+      }
+
+      int length = readCount();
+      String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+      position += length;
+      strings.add(value);
+      return (value);
+    }
+
+    /**
+     * Reads a list of picks
+     *
+     * @return Returns the list of picks
+     * @throws IOException if the document is malformed
+     */
+    ArrayList<Pick> readPicks() throws IOException {
+      int count = readCount();
+      ArrayList<Pick> picks = new ArrayList<Pick>(count);
+      for (int i = 0; i < count; i++) {
+        picks.add(readPick(new Pick()));
+      }
+      return (picks);
+    }
+
+    /**
+     * Reads a LocationRequest
+     *
+     * @return Returns the LocationRequest
+     * @throws IOException if the document is malformed
+     */
+    LocationRequest readLocationRequest() throws IOException {
+      LocationRequest request = new LocationRequest();
+      long mask = readVarint();
+
+      request.ID = has(mask, 0) ? readString() : null;
+      request.Source = has(mask, 1) ? readSource() : null;
+      request.Type = has(mask, 2) ? readString() : null;
+      request.SourceLatitude = has(mask, 3) ? readDouble() : null;
+      request.SourceLongitude = has(mask, 4) ? readDouble() : null;
+      request.SourceOriginTime = has(mask, 5) ? readTime() : null;
+      request.SourceDepth = has(mask, 6) ? readDouble() : null;
+      request.InputData = has(mask, 7) ? readPicks() : null;
+      request.EarthModel = has(mask, 8) ? readString() : null;
+      request.SlabResolution = has(mask, 9) ? readString() : null;
+      request.IsLocationNew = has(mask, 10) ? readBoolean() : null;
+      request.IsLocationHeld = has(mask, 11) ? readBoolean() : null;
+      request.IsDepthHeld = has(mask, 12) ? readBoolean() : null;
+      request.IsBayesianDepth = has(mask, 13) ? readBoolean() : null;
+      request.BayesianDepth = has(mask, 14) ? readDouble() : null;
+      request.BayesianSpread = has(mask, 15) ? readDouble() : null;
+      request.UseSVD = has(mask, 16) ? readBoolean() : null;
+      request.ReassessInitialPhaseIDs = has(mask, 17) ? readBoolean() : null;
+      request.OutputData = has(mask, 18) ? readLocationResult() : null;
+
+      return (request);
+    }
+
+    /**
+     * Reads a LocationResult
+     *
+     * @return Returns the LocationResult
+     * @throws IOException if the document is malformed
+     */
+    LocationResult readLocationResult() throws IOException {
+      LocationResult result = new LocationResult();
+      long mask = readVarint();
+
+      result.ID = has(mask, 0) ? readString() : null;
+      result.Source = has(mask, 1) ? readSource() : null;
+      result.Hypocenter = has(mask, 2) ? readHypocenter() : null;
+      result.SupportingData = has(mask, 3) ? readPicks() : null;
+      result.NumberOfAssociatedStations = has(mask, 4) ? readInteger() : null;
+      result.NumberOfAssociatedPhases = has(mask, 5) ? readInteger() : null;
+      result.NumberOfUsedStations = has(mask, 6) ? readInteger() : null;
+      result.NumberOfUsedPhases = has(mask, 7) ? readInteger() : null;
+      result.Gap = has(mask, 8) ? readDouble() : null;
+      result.SecondaryGap = has(mask, 9) ? readDouble() : null;
+      result.MinimumDistance = has(mask, 10) ? readDouble() : null;
+      result.RMS = has(mask, 11) ? readDouble() : null;
+      result.Quality = has(mask, 12) ? readString() : null;
+      result.BayesianDepth = has(mask, 13) ? readDouble() : null;
+      result.BayesianRange = has(mask, 14) ? readDouble() : null;
+      result.DepthImportance = has(mask, 15) ? readDouble() : null;
+      result.LocatorExitCode = has(mask, 16) ? readString() : null;
+      result.ErrorEllipse = has(mask, 17) ? readErrorEllipse() : null;
+
+      return (result);
+    }
+
+    /**
+     * Reads a Pick
+     *
+     * @param pick - The Pick to populate
+     * @return Returns the populated Pick
+     * @throws IOException if the document is malformed
+     */
+    Pick readPick(Pick pick) throws IOException {
+      long mask = readVarint();
+
+      pick.ID = has(mask, 0) ? readString() : null;
+      pick.Site = has(mask, 1) ? readSite() : null;
+      pick.Source = has(mask, 2) ? readSource() : null;
+      pick.Time = has(mask, 3) ? readTime() : null;
+      pick.Affinity = has(mask, 4) ? readDouble() : null;
+      pick.Quality = has(mask, 5) ? readDouble() : null;
+      pick.Use = has(mask, 6) ? readBoolean() : null;
+      pick.PickedPhase = has(mask, 7) ? readString() : null;
+      pick.AssociatedPhase = has(mask, 8) ? readString() : null;
+      pick.LocatedPhase = has(mask, 9) ? readString() : null;
+      pick.Residual = has(mask, 10) ? readDouble() : null;
+      pick.Distance = has(mask, 11) ? readDouble() : null;
+      pick.Azimuth = has(mask, 12) ? readDouble() : null;
+      pick.Weight = has(mask, 13) ? readDouble() : null;
+      pick.Importance = has(mask, 14) ? readDouble() : null;
+
+      return (pick);
+    }
+
+    /**
+     * Reads a Site
+     *
+     * @return Returns the Site
+     * @throws IOException if the document is malformed
+     */
+    Site readSite() throws IOException {
+      Site site = new Site();
+      long mask = readVarint();
+
+      site.Station = has(mask, 0) ? readString() : null;
+      site.Channel = has(mask, 1) ? readString() : null;
+      site.Network = has(mask, 2) ? readString() : null;
+      site.Location = has(mask, 3) ? readString() : null;
+      site.Latitude = has(mask, 4) ? readDouble() : null;
+      site.Longitude = has(mask, 5) ? readDouble() : null;
+      site.Elevation = has(mask, 6) ? readDouble() : null;
+
+      return (site);
+    }
+
+    /**
+     * Reads a Source
+     *
+     * @return Returns the Source
+     * @throws IOException if the document is malformed
+     */
+    Source readSource() throws IOException {
+      Source source = new Source();
+      long mask = readVarint();
+
+      source.AgencyID = has(mask, 0) ? readString() : null;
+      source.Author = has(mask, 1) ? readString() : null;
+      source.Type = has(mask, 2) ? readString() : null;
+
+      return (source);
+    }
+
+    /**
+     * Reads a Hypocenter
+     *
+     * @return Returns the Hypocenter
+     * @throws IOException if the document is malformed
+     */
+    Hypocenter readHypocenter() throws IOException {
+      Hypocenter hypocenter = new Hypocenter();
+      long mask = readVarint();
+
+      hypocenter.Latitude = has(mask, 0) ? readDouble() : null;
+      hypocenter.Longitude = has(mask, 1) ? readDouble() : null;
+      hypocenter.Time = has(mask, 2) ? readTime() : null;
+      hypocenter.Depth = has(mask, 3) ? readDouble() : null;
+      hypocenter.LatitudeError = has(mask, 4) ? readDouble() : null;
+      hypocenter.LongitudeError = has(mask, 5) ? readDouble() : null;
+      hypocenter.TimeError = has(mask, 6) ? readDouble() : null;
+      hypocenter.DepthError = has(mask, 7) ? readDouble() : null;
+
+      return (hypocenter);
+    }
+
+    /**
+     * Reads an ErrorEllipse
+     *
+     * @return Returns the ErrorEllipse
+     * @throws IOException if the document is malformed
+     */
+    ErrorEllipse readErrorEllipse() throws IOException {
+      ErrorEllipse ellipse = new ErrorEllipse();
+      long mask = readVarint();
+
+      ellipse.E0 = has(mask, 0) ? readErrorEllipseAxis() : null;
+      ellipse.E1 = has(mask, 1) ? readErrorEllipseAxis() : null;
+      ellipse.E2 = has(mask, 2) ? readErrorEllipseAxis() : null;
+      ellipse.MaximumHorizontalProjection = has(mask, 3) ? readDouble() : null;
+      ellipse.MaximumVerticalProjection = has(mask, 4) ? readDouble() : null;
+      ellipse.EquivalentHorizontalRadius = has(mask, 5) ? readDouble() : null;
+
+      return (ellipse);
+    }
+
+    /**
+     * Reads an ErrorEllipseAxis
+     *
+     * @return Returns the ErrorEllipseAxis
+     * @throws IOException if the document is malformed
+     */
+    ErrorEllipseAxis readErrorEllipseAxis() throws IOException {
+      ErrorEllipseAxis axis = new ErrorEllipseAxis();
+      long mask = readVarint();
+
+      axis.Error = has(mask, 0) ? readDouble() : null;
+      axis.Azimuth = has(mask, 1) ? readDouble() : null;
+      axis.Dip = has(mask, 2) ? readDouble() : null;
+
+      return (axis);
+    }
+  }
+}
@@ -0,0 +1,948 @@
+package gov.usgs.processingformats;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * a class used to export LocationResults as CSV rows, and optionally their supporting picks as a
+ * second table, to a buffered Writer or OutputStream.
+ *
+ * <p>Rows are built in a reused StringBuilder and written in one call, doubles are written with a
+ * fixed number of decimals by an allocation free formatter that produces the same text as
+ * String.format("%f"), so millions of results export without the cost of LocationResult.toCSV().
+ * The summary() exporter writes the toCSV() layout, other exporters write the configured columns,
+ * an optional header row, and leave null values empty.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class CSVExporter implements Closeable, Flushable {
+
+  /** The LocationResult columns */
+  public enum ResultColumn {
+    ID(LocationResult.ID_KEY),
+    LATITUDE(Hypocenter.LATITUDE_KEY),
+    LONGITUDE(Hypocenter.LONGITUDE_KEY),
+    DEPTH(Hypocenter.DEPTH_KEY),
+    /** The hypocenter time in epoch seconds */
+    TIME(Hypocenter.TIME_KEY),
+    /** The hypocenter time as an ISO8601 string */
+    ISO_TIME("ISOTime"),
+    LATITUDE_ERROR(Hypocenter.LATITUDE_ERROR_KEY),
+    LONGITUDE_ERROR(Hypocenter.LONGITUDE_ERROR_KEY),
+    DEPTH_ERROR(Hypocenter.DEPTH_ERROR_KEY),
+    TIME_ERROR(Hypocenter.TIME_ERROR_KEY),
+    AGENCY_ID(Source.AGENCYID_KEY),
+    AUTHOR(Source.AUTHOR_KEY),
+    NUMBER_OF_ASSOCIATED_STATIONS(LocationResult.ASSOCIATEDSTATIONS_KEY),
+    NUMBER_OF_ASSOCIATED_PHASES(LocationResult.ASSOCIATEDPHASES_KEY),
+    NUMBER_OF_USED_STATIONS(LocationResult.USEDSTATIONS_KEY),
+    NUMBER_OF_USED_PHASES(LocationResult.USEDPHASES_KEY),
+    GAP(LocationResult.GAP_KEY),
+    SECONDARY_GAP(LocationResult.SECONDARYGAP_KEY),
+    MINIMUM_DISTANCE(LocationResult.MINIMUMDISTANCE_KEY),
+    RMS(LocationResult.RMS_KEY),
+    QUALITY(LocationResult.QUALITY_KEY),
+    BAYESIAN_DEPTH(LocationResult.BAYESIANDEPTH_KEY),
+    BAYESIAN_RANGE(LocationResult.BAYESIANRANGE_KEY),
+    DEPTH_IMPORTANCE(LocationResult.DEPTHIMPORTANCE_KEY),
+    LOCATOR_EXIT_CODE(LocationResult.LOCATOREXITCODE_KEY),
+    /** Always null, a placeholder for the magnitude in the toCSV() layout */
+    MAGNITUDE("Magnitude"),
+    /** Always null, a placeholder for the magnitude time in the toCSV() layout */
+    MAGNITUDE_TIME("MagnitudeTime");
+
+    /** The header text */
+    private final String header;
+
+    ResultColumn(String newHeader) {
+      header = newHeader;
+    }
+
+    /**
+     * Gets the header text of the column
+     *
+     * @return Returns a String containing the header text
+     */
+    public String getHeader() {
+      return (header);
+    }
+  }
+
+  /** The supporting pick columns */
+  public enum PickColumn {
+    /** The ID of the LocationResult the pick supports, to join the two tables */
+    RESULT_ID("ResultID"),
+    ID(Pick.ID_KEY),
+    STATION(Site.STATION_KEY),
+    CHANNEL(Site.CHANNEL_KEY),
+    NETWORK(Site.NETWORK_KEY),
+    LOCATION(Site.LOCATION_KEY),
+    LATITUDE(Site.LATITUDE_KEY),
+    LONGITUDE(Site.LONGITUDE_KEY),
+    ELEVATION(Site.ELEVATION_KEY),
+    AGENCY_ID(Source.AGENCYID_KEY),
+    AUTHOR(Source.AUTHOR_KEY),
+    TYPE(Source.TYPE_KEY),
+    /** The pick time in epoch seconds */
+    TIME(Pick.TIME_KEY),
+    /** The pick time as an ISO8601 string */
+    ISO_TIME("ISOTime"),
+    AFFINITY(Pick.AFFINITY_KEY),
+    QUALITY(Pick.QUALITY_KEY),
+    USE(Pick.USE_KEY),
+    PICKED_PHASE(Pick.PICKED_PHASE_KEY),
+    ASSOCIATED_PHASE(Pick.ASSOCIATED_PHASE_KEY),
+    LOCATED_PHASE(Pick.LOCATED_PHASE_KEY),
+    RESIDUAL(Pick.RESIDUAL_KEY),
+    DISTANCE(Pick.DISTANCE_KEY),
+    AZIMUTH(Pick.AZIMUTH_KEY),
+    WEIGHT(Pick.WEIGHT_KEY),
+    IMPORTANCE(Pick.IMPORTANCE_KEY);
+
+    /** The header text */
+    private final String header;
+
+    PickColumn(String newHeader) {
+      header = newHeader;
+    }
+
+    /**
+     * Gets the header text of the column
+     *
+     * @return Returns a String containing the header text
+     */
+    public String getHeader() {
+      return (header);
+    }
+  }
+
+  /** The columns of LocationResult.toCSV() */
+  public static final List<ResultColumn> SUMMARY_COLUMNS =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              ResultColumn.ID,
+              ResultColumn.LATITUDE,
+              ResultColumn.LONGITUDE,
+              ResultColumn.DEPTH,
+              ResultColumn.TIME,
+              ResultColumn.RMS,
+              ResultColumn.MINIMUM_DISTANCE,
+              ResultColumn.GAP,
+              ResultColumn.NUMBER_OF_ASSOCIATED_PHASES,
+              ResultColumn.MAGNITUDE,
+              ResultColumn.MAGNITUDE_TIME));
+
+  /** The default LocationResult columns, all of them */
+  public static final List<ResultColumn> DEFAULT_COLUMNS =
+      Collections.unmodifiableList(Arrays.asList(ResultColumn.values()));
+
+  /** The default pick columns, all of them */
+  public static final List<PickColumn> DEFAULT_PICK_COLUMNS =
+      Collections.unmodifiableList(Arrays.asList(PickColumn.values()));
+
+  /** The default number of decimals, that of String.format("%f") */
+  public static final int DEFAULT_DECIMALS = 6;
+
+  /** The largest supported number of decimals */
+  public static final int MAX_DECIMALS = 9;
+
+  /** The default size of the buffer used for OutputStreams */
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+  /** Powers of ten, indexed by decimals */
+  private static final long[] POWERS = {
+    1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+  };
+
+  /**
+   * The largest scaled magnitude formatted without String.format, small enough that the error of
+   * scaling is far below the distance from a rounding tie checked by appendDouble()
+   */
+  private static final double MAX_SCALED = 1e13;
+
+  /**
+   * The largest epoch time magnitude in milliseconds formatted by appendSeconds() without
+   * appendDouble(), small enough that the error of millis * 0.001d is below half of 10^-6
+   */
+  private static final long MAX_MILLIS = 1000000000000L;
+
+  /** The smallest distance from a rounding tie of a scaled value formatted without String.format */
+  private static final double TIE_MARGIN = 0.01;
+
+  /** The table being written */
+  private Appendable out;
+
+  /** The columns of the table */
+  private List<ResultColumn> columns;
+
+  /** The pick table being written, or null */
+  private Appendable pickOut;
+
+  /** The columns of the pick table */
+  private List<PickColumn> pickColumns;
+
+  /** Whether to write header rows */
+  private boolean header;
+
+  /** Whether each field, including the last, is followed by a comma, as in toCSV() */
+  private boolean terminated;
+
+  /** Whether null values are written as 0.0, 0, and null, as in toCSV(), instead of empty */
+  private boolean nullsAsZero;
+
+  /** The number of decimals written for doubles */
+  private int decimals = DEFAULT_DECIMALS;
+
+  /** Whether the header rows have been written */
+  private boolean started;
+
+  /** The reused row builder */
+  private StringBuilder row = new StringBuilder(256);
+
+  /** The reused buffer used to write rows to Writers */
+  private char[] chars = new char[256];
+
+  /** The reused pick used to read a PickBatch */
+  private Pick scratchPick = new Pick();
+
+  /** The number of results written */
+  private long count;
+
+  /** The number of picks written */
+  private long pickCount;
+
+  /**
+   * Constructs an exporter of the toCSV() layout, without a header row, terminated fields, and null
+   * values written as zero
+   *
+   * @param newOut - The Appendable to write
+   * @return Returns the CSVExporter
+   */
+  public static CSVExporter summary(Appendable newOut) {
+    CSVExporter exporter = new CSVExporter(newOut, SUMMARY_COLUMNS);
+    exporter.setHeader(false);
+    exporter.setTerminated(true);
+    exporter.setNullsAsZero(true);
+    return (exporter);
+  }
+
+  /**
+   * Constructs the class writing all columns with a header row
+   *
+   * @param newOut - The Appendable to write, a Writer should be buffered
+   */
+  public CSVExporter(Appendable newOut) {
+    this(newOut, DEFAULT_COLUMNS);
+  }
+
+  /**
+   * Constructs the class writing the given columns with a header row
+   *
+   * @param newOut - The Appendable to write, a Writer should be buffered
+   * @param newColumns - A List&lt;ResultColumn&gt; containing the columns to write
+   */
+  public CSVExporter(Appendable newOut, List<ResultColumn> newColumns) {
+    out = newOut;
+    columns = newColumns;
+    header = true;
+  }
+
+  /**
+   * Constructs the class writing UTF-8 through a buffer to an OutputStream
+   *
+   * @param newOut - The OutputStream to write
+   * @param newColumns - A List&lt;ResultColumn&gt; containing the columns to write
+   */
+  public CSVExporter(OutputStream newOut, List<ResultColumn> newColumns) {
+    this(buffer(newOut), newColumns);
+  }
+
+  /**
+   * Also writes the supporting picks of each result, from SupportingData or SupportingBatch, as a
+   * second table
+   *
+   * @param newPickOut - The Appendable to write the picks to, a Writer should be buffered
+   * @param newPickColumns - A List&lt;PickColumn&gt; containing the columns to write
+   */
+  public void setPickTable(Appendable newPickOut, List<PickColumn> newPickColumns) {
+    checkNotStarted();
+    pickOut = newPickOut;
+    pickColumns = newPickColumns;
+  }
+
+  /**
+   * Also writes the supporting picks of each result as a second table, UTF-8 through a buffer
+   *
+   * @param newPickOut - The OutputStream to write the picks to
+   * @param newPickColumns - A List&lt;PickColumn&gt; containing the columns to write
+   */
+  public void setPickTable(OutputStream newPickOut, List<PickColumn> newPickColumns) {
+    setPickTable(buffer(newPickOut), newPickColumns);
+  }
+
+  /**
+   * Sets whether header rows are written before the first row
+   *
+   * @param newHeader - A boolean, true to write header rows
+   */
+  public void setHeader(boolean newHeader) {
+    checkNotStarted();
+    header = newHeader;
+  }
+
+  /**
+   * Sets whether each field, including the last, is followed by a comma, as in toCSV()
+   *
+   * @param newTerminated - A boolean, true to terminate each field
+   */
+  public void setTerminated(boolean newTerminated) {
+    terminated = newTerminated;
+  }
+
+  /**
+   * Sets whether null values are written as 0.0, 0, and null, as in toCSV(), instead of empty. As
+   * in toCSV(), a null Latitude, Longitude, or Depth of a Hypocenter is written as null, while
+   * those of a missing Hypocenter are written as 0.0.
+   *
+   * @param newNullsAsZero - A boolean, true to write nulls as zero
+   */
+  public void setNullsAsZero(boolean newNullsAsZero) {
+    nullsAsZero = newNullsAsZero;
+  }
+
+  /**
+   * Sets the number of decimals written for doubles
+   *
+   * @param newDecimals - An int containing the number of decimals, from 0 to MAX_DECIMALS
+   */
+  public void setDecimals(int newDecimals) {
+    if ((newDecimals < 0) || (newDecimals > MAX_DECIMALS)) {
+      throw new IllegalArgumentException("Decimals must be from 0 to " + MAX_DECIMALS);
+    }
+    decimals = newDecimals;
+  }
+
+  /**
+   * Writes a result as one row, and its supporting picks to the pick table if there is one
+   *
+   * @param result - The LocationResult to write
+   * @throws IOException if writing fails
+   */
+  public void write(LocationResult result) throws IOException {
+    start();
+
+    row.setLength(0);
+    appendRow(result, row);
+    row.append('\n');
+    emit(out);
+    count++;
+
+    if (pickOut != null) {
+      writePicks(result);
+    }
+  }
+
+  /**
+   * Writes all the remaining results of an Iterator
+   *
+   * @param results - The Iterator of LocationResults to write
+   * @return Returns the number of results written
+   * @throws IOException if writing fails
+   */
+  public long writeAll(Iterator<? extends LocationResult> results) throws IOException {
+    long written = 0;
+    while (results.hasNext()) {
+      write(results.next());
+      written++;
+    }
+    return (written);
+  }
+
+  /**
+   * Appends the row of a result, without a line end
+   *
+   * @param result - The LocationResult to format
+   * @param builder - The StringBuilder to append to
+   */
+  public void appendRow(LocationResult result, StringBuilder builder) {
+    for (int i = 0; i < columns.size(); i++) {
+      if ((i > 0) && !terminated) {
+        builder.append(',');
+      }
+      appendField(columns.get(i), result, builder);
+      if (terminated) {
+        builder.append(',');
+      }
+    }
+  }
+
+  /**
+   * Gets the number of results written
+   *
+   * @return Returns the number of results
+   */
+  public long getCount() {
+    return (count);
+  }
+
+  /**
+   * Gets the number of picks written to the pick table
+   *
+   * @return Returns the number of picks
+   */
+  public long getPickCount() {
+    return (pickCount);
+  }
+
+  /**
+   * Flushes the tables
+   *
+   * @throws IOException if flushing fails
+   */
+  public void flush() throws IOException {
+    if (out instanceof Flushable) {
+      ((Flushable) out).flush();
+    }
+    if (pickOut instanceof Flushable) {
+      ((Flushable) pickOut).flush();
+    }
+  }
+
+  /**
+   * Writes any pending header rows, then flushes and closes the tables
+   *
+   * @throws IOException if writing or closing fails
+   */
+  public void close() throws IOException {
+    try {
+      start();
+      flush();
+    } finally {
+      try {
+        if (out instanceof Closeable) {
+          ((Closeable) out).close();
+        }
+      } finally {
+        if (pickOut instanceof Closeable) {
+          ((Closeable) pickOut).close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Appends a double with a fixed number of decimals, the same text as String.format with
+   * Locale.ROOT. Values whose scaled magnitude is small and not near a rounding tie are formatted
+   * directly, the rest by String.format.
+   *
+   * @param value - A double containing the value to append
+   * @param decimals - An int containing the number of decimals, from 0 to MAX_DECIMALS
+   * @param builder - The StringBuilder to append to
+   */
+  public static void appendDouble(double value, int decimals, StringBuilder builder) {
+    double magnitude = Math.abs(value);
+    double scaled = magnitude * POWERS[decimals];
+    double fraction = scaled - Math.floor(scaled);
+
+    if (!(scaled < MAX_SCALED) || (Math.abs(fraction - 0.5) < TIE_MARGIN)) {
+      builder.append(String.format(Locale.ROOT, "%." + decimals + "f", value));
+      return;
+    }
+
+    // String.format keeps the sign of negative values rounding to zero, and of -0.0
+    if ((value < 0) || ((value == 0) && (1 / value < 0))) {
+      builder.append('-');
+    }
+
+    long digits = (long) Math.floor(scaled + 0.5);
+    builder.append(digits / POWERS[decimals]);
+    if (decimals > 0) {
+      builder.append('.');
+      long remainder = digits % POWERS[decimals];
+      for (int i = decimals - 1; i > 0; i--) {
+        if (remainder >= POWERS[i]) {
+          break;
+        }
+        builder.append('0');
+      }
+      builder.append(remainder);
+    }
+  }
+
+  /**
+   * Appends an epoch time in seconds with a fixed number of decimals, the same text as
+   * appendDouble(millis * 0.001d, decimals, builder). Times with 3 to 6 decimals are formatted
+   * directly from the milliseconds, the double seconds are within a rounding error of them.
+   *
+   * @param millis - A long containing the epoch time in milliseconds
+   * @param decimals - An int containing the number of decimals, from 0 to MAX_DECIMALS
+   * @param builder - The StringBuilder to append to
+   */
+  public static void appendSeconds(long millis, int decimals, StringBuilder builder) {
+    if ((decimals < 3) || (decimals > 6) || (Math.abs(millis) >= MAX_MILLIS)) {
+      appendDouble(millis * 0.001d, decimals, builder);
+      return;
+    }
+
+    if (millis < 0) {
+      builder.append('-');
+    }
+    long magnitude = Math.abs(millis);
+    builder.append(magnitude / 1000).append('.');
+    long remainder = magnitude % 1000;
+    if (remainder < 100) {
+      builder.append('0');
+    }
+    if (remainder < 10) {
+      builder.append('0');
+    }
+    builder.append(remainder);
+    for (int i = 3; i < decimals; i++) {
+      builder.append('0');
+    }
+  }
+
+  /**
+   * Wraps an OutputStream in a buffered UTF-8 Writer
+   *
+   * @param stream - The OutputStream to wrap
+   * @return Returns the Writer
+   */
+  private static Writer buffer(OutputStream stream) {
+    return (new BufferedWriter(
+        new OutputStreamWriter(stream, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE));
+  }
+
+  /** Throws if the header rows have already been written */
+  private void checkNotStarted() {
+    if (started) {
+      throw new IllegalStateException("The tables have already been started");
+    }
+  }
+
+  /**
+   * Writes the header rows, once
+   *
+   * @throws IOException if writing fails
+   */
+  private void start() throws IOException {
+    if (started) {
+      return;
+    }
+    started = true;
+
+    if (!header) {
+      return;
+    }
+
+    row.setLength(0);
+    for (int i = 0; i < columns.size(); i++) {
+      separate(i);
+      appendString(columns.get(i).getHeader(), row);
+      terminate();
+    }
+    row.append('\n');
+    emit(out);
+
+    if (pickOut != null) {
+      row.setLength(0);
+      for (int i = 0; i < pickColumns.size(); i++) {
+        separate(i);
+        appendString(pickColumns.get(i).getHeader(), row);
+        terminate();
+      }
+      row.append('\n');
+      emit(pickOut);
+    }
+  }
+
+  /**
+   * Writes the supporting picks of a result to the pick table
+   *
+   * @param result - The LocationResult whose picks to write
+   * @throws IOException if writing fails
+   */
+  private void writePicks(LocationResult result) throws IOException {
+    if (result.SupportingData != null) {
+      for (Pick pick : result.SupportingData) {
+        writePick(result, pick);
+      }
+    }
+    if (result.SupportingBatch != null) {
+      for (int i = 0; i < result.SupportingBatch.size(); i++) {
+        writePick(result, result.SupportingBatch.get(i, scratchPick));
+      }
+    }
+  }
+
+  /**
+   * Writes one pick row
+   *
+   * @param result - The LocationResult the pick supports
+   * @param pick - The Pick to write
+   * @throws IOException if writing fails
+   */
+  private void writePick(LocationResult result, Pick pick) throws IOException {
+    row.setLength(0);
+    for (int i = 0; i < pickColumns.size(); i++) {
+      separate(i);
+      appendPickField(pickColumns.get(i), result, pick, row);
+      terminate();
+    }
+    row.append('\n');
+    emit(pickOut);
+    pickCount++;
+  }
+
+  /**
+   * Appends the separator before a field of the reused row
+   *
+   * @param index - An int containing the index of the field
+   */
+  private void separate(int index) {
+    if ((index > 0) && !terminated) {
+      row.append(',');
+    }
+  }
+
+  /** Appends the terminator after a field of the reused row */
+  private void terminate() {
+    if (terminated) {
+      row.append(',');
+    }
+  }
+
+  /**
+   * Writes the reused row to a table
+   *
+   * @param table - The Appendable to write to
+   * @throws IOException if writing fails
+   */
+  private void emit(Appendable table) throws IOException {
+    if (table instanceof Writer) {
+      // Writer.append(CharSequence) copies into a new String, write a reused array instead
+      int length = row.length();
+      if (chars.length < length) {
+        chars = new char[Math.max(length, chars.length * 2)];
+      }
+      row.getChars(0, length, chars, 0);
+      ((Writer) table).write(chars, 0, length);
+    } else {
+      table.append(row);
+    }
+  }
+
+  /**
+   * Appends one field of a result
+   *
+   * @param column - The ResultColumn to append
+   * @param result - The LocationResult to format
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendField(ResultColumn column, LocationResult result, StringBuilder builder) {
+    Hypocenter hypocenter = result.Hypocenter;
+    Source source = result.Source;
+
+    switch (column) {
+      case ID:
+        appendString(result.ID, builder);
+        break;
+      case LATITUDE:
+        appendHypocenterDouble(
+            hypocenter, (hypocenter != null) ? hypocenter.Latitude : null, builder);
+        break;
+      case LONGITUDE:
+        appendHypocenterDouble(
+            hypocenter, (hypocenter != null) ? hypocenter.Longitude : null, builder);
+        break;
+      case DEPTH:
+        appendHypocenterDouble(hypocenter, (hypocenter != null) ? hypocenter.Depth : null, builder);
+        break;
+      case TIME:
+        appendSeconds((hypocenter != null) ? hypocenter.Time : null, builder);
+        break;
+      case ISO_TIME:
+        appendISOTime((hypocenter != null) ? hypocenter.Time : null, builder);
+        break;
+      case LATITUDE_ERROR:
+        appendDouble((hypocenter != null) ? hypocenter.LatitudeError : null, builder);
+        break;
+      case LONGITUDE_ERROR:
+        appendDouble((hypocenter != null) ? hypocenter.LongitudeError : null, builder);
+        break;
+      case DEPTH_ERROR:
+        appendDouble((hypocenter != null) ? hypocenter.DepthError : null, builder);
+        break;
+      case TIME_ERROR:
+        appendDouble((hypocenter != null) ? hypocenter.TimeError : null, builder);
+        break;
+      case AGENCY_ID:
+        appendString((source != null) ? source.AgencyID : null, builder);
+        break;
+      case AUTHOR:
+        appendString((source != null) ? source.Author : null, builder);
+        break;
+      case NUMBER_OF_ASSOCIATED_STATIONS:
+        appendInteger(result.NumberOfAssociatedStations, builder);
+        break;
+      case NUMBER_OF_ASSOCIATED_PHASES:
+        appendInteger(result.NumberOfAssociatedPhases, builder);
+        break;
+      case NUMBER_OF_USED_STATIONS:
+        appendInteger(result.NumberOfUsedStations, builder);
+        break;
+      case NUMBER_OF_USED_PHASES:
+        appendInteger(result.NumberOfUsedPhases, builder);
+        break;
+      case GAP:
+        appendDouble(result.Gap, builder);
+        break;
+      case SECONDARY_GAP:
+        appendDouble(result.SecondaryGap, builder);
+        break;
+      case MINIMUM_DISTANCE:
+        appendDouble(result.MinimumDistance, builder);
+        break;
+      case RMS:
+        appendDouble(result.RMS, builder);
+        break;
+      case QUALITY:
+        appendString(result.Quality, builder);
+        break;
+      case BAYESIAN_DEPTH:
+        appendDouble(result.BayesianDepth, builder);
+        break;
+      case BAYESIAN_RANGE:
+        appendDouble(result.BayesianRange, builder);
+        break;
+      case DEPTH_IMPORTANCE:
+        appendDouble(result.DepthImportance, builder);
+        break;
+      case LOCATOR_EXIT_CODE:
+        appendString(result.LocatorExitCode, builder);
+        break;
+      default:
+        // MAGNITUDE and MAGNITUDE_TIME placeholders
+        appendDouble(null, builder);
+        break;
+    }
+  }
+
+  /**
+   * Appends one field of a pick
+   *
+   * @param column - The PickColumn to append
+   * @param result - The LocationResult the pick supports
+   * @param pick - The Pick to format
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendPickField(
+      PickColumn column, LocationResult result, Pick pick, StringBuilder builder) {
+    Site site = pick.Site;
+    Source source = pick.Source;
+
+    switch (column) {
+      case RESULT_ID:
+        appendString(result.ID, builder);
+        break;
+      case ID:
+        appendString(pick.ID, builder);
+        break;
+      case STATION:
+        appendString((site != null) ? site.Station : null, builder);
+        break;
+      case CHANNEL:
+        appendString((site != null) ? site.Channel : null, builder);
+        break;
+      case NETWORK:
+        appendString((site != null) ? site.Network : null, builder);
+        break;
+      case LOCATION:
+        appendString((site != null) ? site.Location : null, builder);
+        break;
+      case LATITUDE:
+        appendDouble((site != null) ? site.Latitude : null, builder);
+        break;
+      case LONGITUDE:
+        appendDouble((site != null) ? site.Longitude : null, builder);
+        break;
+      case ELEVATION:
+        appendDouble((site != null) ? site.Elevation : null, builder);
+        break;
+      case AGENCY_ID:
+        appendString((source != null) ? source.AgencyID : null, builder);
+        break;
+      case AUTHOR:
+        appendString((source != null) ? source.Author : null, builder);
+        break;
+      case TYPE:
+        appendString((source != null) ? source.Type : null, builder);
+        break;
+      case TIME:
+        appendSeconds(pick.Time, builder);
+        break;
+      case ISO_TIME:
+        appendISOTime(pick.Time, builder);
+        break;
+      case AFFINITY:
+        appendDouble(pick.Affinity, builder);
+        break;
+      case QUALITY:
+        appendDouble(pick.Quality, builder);
+        break;
+      case USE:
+        if (pick.Use != null) {
+          builder.append(pick.Use.booleanValue());
+        } else if (nullsAsZero) {
+          builder.append("null");
+        }
+        break;
+      case PICKED_PHASE:
+        appendString(pick.PickedPhase, builder);
+        break;
+      case ASSOCIATED_PHASE:
+        appendString(pick.AssociatedPhase, builder);
+        break;
+      case LOCATED_PHASE:
+        appendString(pick.LocatedPhase, builder);
+        break;
+      case RESIDUAL:
+        appendDouble(pick.Residual, builder);
+        break;
+      case DISTANCE:
+        appendDouble(pick.Distance, builder);
+        break;
+      case AZIMUTH:
+        appendDouble(pick.Azimuth, builder);
+        break;
+      case WEIGHT:
+        appendDouble(pick.Weight, builder);
+        break;
+      default:
+        appendDouble(pick.Importance, builder);
+        break;
+    }
+  }
+
+  /**
+   * Appends a Double field
+   *
+   * @param value - A Double containing the value, or null
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendDouble(Double value, StringBuilder builder) {
+    if (value != null) {
+      appendDouble(value.doubleValue(), decimals, builder);
+    } else if (nullsAsZero) {
+      builder.append("0.0");
+    }
+  }
+
+  /**
+   * Appends a Latitude, Longitude, or Depth field of a Hypocenter, written as null rather than zero
+   * when the Hypocenter is present, as toCSV() always has
+   *
+   * @param hypocenter - The Hypocenter, or null
+   * @param value - A Double containing the value, or null
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendHypocenterDouble(Hypocenter hypocenter, Double value, StringBuilder builder) {
+    if ((value == null) && (hypocenter != null) && nullsAsZero) {
+      builder.append("null");
+    } else {
+      appendDouble(value, builder);
+    }
+  }
+
+  /**
+   * Appends an Integer field
+   *
+   * @param value - An Integer containing the value, or null
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendInteger(Integer value, StringBuilder builder) {
+    if (value != null) {
+      builder.append(value.intValue());
+    } else if (nullsAsZero) {
+      builder.append('0');
+    }
+  }
+
+  /**
+   * Appends a time field in epoch seconds
+   *
+   * @param value - A Date containing the time, or null
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendSeconds(Date value, StringBuilder builder) {
+    if (value != null) {
+      appendSeconds(value.getTime(), decimals, builder);
+    } else if (nullsAsZero) {
+      builder.append("0.0");
+    }
+  }
+
+  /**
+   * Appends a time field as an ISO8601 string
+   *
+   * @param value - A Date containing the time, or null
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendISOTime(Date value, StringBuilder builder) {
+    if (value != null) {
+      DateTimeCodec.format(value.getTime(), builder);
+    } else if (nullsAsZero) {
+      builder.append("null");
+    }
+  }
+
+  /**
+   * Appends a String field, quoted when it contains a comma, quote, or line end
+   *
+   * @param value - A String containing the value, or null
+   * @param builder - The StringBuilder to append to
+   */
+  private void appendString(String value, StringBuilder builder) {
+    if (value == null) {
+      if (nullsAsZero) {
+        builder.append("null");
+      }
+      return;
+    }
+
+    boolean quote = false;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if ((c == ',') || (c == '"') || (c == '\n') || (c == '\r')) {
+        quote = true;
+        break;
+      }
+    }
+    if (!quote) {
+      builder.append(value);
+      return;
+    }
+
+    builder.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        builder.append('"');
+      }
+      builder.append(c);
+    }
+    builder.append('"');
+  }
+}
@@ -0,0 +1,522 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * a decorator class used to memoize the travel times returned by another TravelTimeService.
+ *
+ * <p>The Branches of each receiver are cached under a key made from the EarthModel, PhaseTypes,
+ * ReturnAllPhases, ReturnBackBranches and ConvertTectonic values of the request, the source Depth
+ * and the receiver Distance and Elevation. A receiver without a Distance is keyed on the source and
+ * receiver Latitude and Longitude instead, rounded to the Distance quantum. Depth, Distance and
+ * Elevation are rounded to a configurable quantum before keying, so receivers closer together than
+ * the quantum share Branches. Only receivers that are not cached are forwarded to the wrapped
+ * service, once per distinct key, and its Response is merged with the cached Branches in the
+ * original receiver order.
+ *
+ * <p>The cache holds at most a configured number of receivers, evicting the least recently used.
+ * This class is thread safe if the wrapped service is.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class CachingTravelTimeService implements TravelTimeService {
+  /** The default Depth quantum in kilometers */
+  public static final double DEFAULT_DEPTH_QUANTUM = 0.1;
+
+  /** The default Distance quantum in degrees */
+  public static final double DEFAULT_DISTANCE_QUANTUM = 0.001;
+
+  /** The default Elevation quantum in meters */
+  public static final double DEFAULT_ELEVATION_QUANTUM = 1.0;
+
+  /** Stands in for cached null Branches */
+  private static final ArrayList<TravelTimeData> NO_BRANCHES = new ArrayList<TravelTimeData>(0);
+
+  /** The wrapped TravelTimeService */
+  private final TravelTimeService delegate;
+
+  /** The maximum number of cached receivers */
+  private final int maxEntries;
+
+  /** The Depth quantum, or 0 for exact Depths */
+  private final double depthQuantum;
+
+  /** The Distance quantum, or 0 for exact Distances */
+  private final double distanceQuantum;
+
+  /** The Elevation quantum, or 0 for exact Elevations */
+  private final double elevationQuantum;
+
+  /** The cached Branches in least recently used order, guarded by itself */
+  private final LinkedHashMap<Key, ArrayList<TravelTimeData>> cache;
+
+  /** The number of receivers answered from the cache */
+  private final AtomicLong hits = new AtomicLong();
+
+  /** The number of receivers not answered from the cache */
+  private final AtomicLong misses = new AtomicLong();
+
+  /** The number of receivers evicted from the cache */
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Creates a cache with the default quanta
+   *
+   * @param delegate - The TravelTimeService to memoize
+   * @param maxEntries - An int containing the maximum number of cached receivers
+   */
+  public CachingTravelTimeService(TravelTimeService delegate, int maxEntries) {
+    this(
+        delegate,
+        maxEntries,
+        DEFAULT_DEPTH_QUANTUM,
+        DEFAULT_DISTANCE_QUANTUM,
+        DEFAULT_ELEVATION_QUANTUM);
+  }
+
+  /**
+   * Creates a cache
+   *
+   * @param delegate - The TravelTimeService to memoize
+   * @param maxEntries - An int containing the maximum number of cached receivers
+   * @param depthQuantum - A double containing the source Depth quantum in kilometers, 0 to key on
+   *     exact Depths
+   * @param distanceQuantum - A double containing the receiver Distance quantum in degrees, 0 to key
+   *     on exact Distances
+   * @param elevationQuantum - A double containing the receiver Elevation quantum in meters, 0 to
+   *     key on exact Elevations
+   */
+  public CachingTravelTimeService(
+      TravelTimeService delegate,
+      int maxEntries,
+      double depthQuantum,
+      double distanceQuantum,
+      double elevationQuantum) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("Missing TravelTimeService");
+    }
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("Invalid maximum entries " + maxEntries);
+    }
+    if (!(depthQuantum >= 0) || !(distanceQuantum >= 0) || !(elevationQuantum >= 0)) {
+      throw new IllegalArgumentException("Invalid quantum");
+    }
+
+    this.delegate = delegate;
+    this.maxEntries = maxEntries;
+    this.depthQuantum = depthQuantum;
+    this.distanceQuantum = distanceQuantum;
+    this.elevationQuantum = elevationQuantum;
+
+    cache =
+        new LinkedHashMap<Key, ArrayList<TravelTimeData>>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, ArrayList<TravelTimeData>> eldest) {
+            if (size() > CachingTravelTimeService.this.maxEntries) {
+              evictions.incrementAndGet();
+              return (true);
+            }
+            return (false);
+          }
+        };
+  }
+
+  /**
+   * Process a TravelTimeRequest, forwarding only the receivers that are not cached
+   *
+   * @param request traveltime inputs.
+   * @return calculated traveltime.
+   * @throws TravelTimeException if errors occur.
+   */
+  @Override
+  public TravelTimeRequest getTravelTimes(final TravelTimeRequest request)
+      throws TravelTimeException {
+    if (request == null || request.Receivers == null) {
+      return (delegate.getTravelTimes(request));
+    }
+
+    int count = request.Receivers.size();
+    Key[] keys = new Key[count];
+    ArrayList<ArrayList<TravelTimeData>> branches = new ArrayList<ArrayList<TravelTimeData>>(count);
+
+    // look up every receiver, collecting the distinct missing keys
+    LinkedHashMap<Key, TravelTimeReceiver> missing = new LinkedHashMap<Key, TravelTimeReceiver>();
+    synchronized (cache) {
+      for (int i = 0; i < count; i++) {
+        TravelTimeReceiver receiver = request.Receivers.get(i);
+        keys[i] = key(request, receiver);
+
+        ArrayList<TravelTimeData> cached = cache.get(keys[i]);
+        branches.add(cached);
+        if (cached != null) {
+          hits.incrementAndGet();
+        } else {
+          misses.incrementAndGet();
+          missing.putIfAbsent(keys[i], receiver);
+        }
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      HashMap<Key, ArrayList<TravelTimeData>> computed = compute(request, missing);
+
+      synchronized (cache) {
+        for (Map.Entry<Key, ArrayList<TravelTimeData>> entry : computed.entrySet()) {
+          cache.put(entry.getKey(), entry.getValue());
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        if (branches.get(i) == null) {
+          branches.set(i, computed.get(keys[i]));
+        }
+      }
+    }
+
+    // merge in the original order
+    ArrayList<TravelTimeReceiver> response = new ArrayList<TravelTimeReceiver>(count);
+    for (int i = 0; i < count; i++) {
+      TravelTimeReceiver receiver = new TravelTimeReceiver(request.Receivers.get(i));
+      receiver.Branches = copy(branches.get(i));
+      response.add(receiver);
+    }
+
+    TravelTimeRequest result = new TravelTimeRequest(request);
+    result.Response = response;
+    return (result);
+  }
+
+  /**
+   * Forwards the missing receivers to the wrapped service
+   *
+   * @param request - The original TravelTimeRequest
+   * @param missing - The distinct missing receivers by key
+   * @return Returns the cacheable Branches by key
+   * @throws TravelTimeException if the wrapped service fails or its Response does not match
+   */
+  private HashMap<Key, ArrayList<TravelTimeData>> compute(
+      TravelTimeRequest request, LinkedHashMap<Key, TravelTimeReceiver> missing)
+      throws TravelTimeException {
+    ArrayList<Key> keys = new ArrayList<Key>(missing.keySet());
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>(missing.values());
+
+    TravelTimeRequest forwarded = new TravelTimeRequest(request);
+    forwarded.Receivers = receivers;
+    forwarded.Response = null;
+
+    TravelTimeRequest answer = delegate.getTravelTimes(forwarded);
+    List<TravelTimeReceiver> response = answer != null ? answer.Response : null;
+    if (response == null) {
+      throw new TravelTimeException("Missing travel time Response");
+    }
+
+    // match by position when the Response lines up with the receivers, otherwise by ID
+    HashMap<Key, ArrayList<TravelTimeData>> computed =
+        new HashMap<Key, ArrayList<TravelTimeData>>();
+    if (response.size() == receivers.size() && sameIDs(receivers, response)) {
+      for (int i = 0; i < keys.size(); i++) {
+        computed.put(keys.get(i), cacheable(response.get(i).Branches));
+      }
+    } else {
+      HashMap<String, TravelTimeReceiver> byID = new HashMap<String, TravelTimeReceiver>();
+      for (TravelTimeReceiver receiver : response) {
+        if (receiver != null && receiver.ID != null) {
+          byID.putIfAbsent(receiver.ID, receiver);
+        }
+      }
+      for (int i = 0; i < keys.size(); i++) {
+        TravelTimeReceiver match = byID.get(receivers.get(i).ID);
+        if (match == null) {
+          throw new TravelTimeException(
+              "Missing travel time Response for receiver " + receivers.get(i).ID);
+        }
+        computed.put(keys.get(i), cacheable(match.Branches));
+      }
+    }
+
+    return (computed);
+  }
+
+  /**
+   * Checks whether a Response has the IDs of the receivers, position by position
+   *
+   * @param receivers - The forwarded receivers
+   * @param response - The returned receivers
+   * @return Returns true if the IDs match
+   */
+  private static boolean sameIDs(
+      List<TravelTimeReceiver> receivers, List<TravelTimeReceiver> response) {
+    for (int i = 0; i < receivers.size(); i++) {
+      if (response.get(i) == null || !Objects.equals(receivers.get(i).ID, response.get(i).ID)) {
+        return (false);
+      }
+    }
+    return (true);
+  }
+
+  /**
+   * Copies Branches for the cache
+   *
+   * @param branches - The returned Branches, possibly null
+   * @return Returns the copy, or NO_BRANCHES for null
+   */
+  private static ArrayList<TravelTimeData> cacheable(ArrayList<TravelTimeData> branches) {
+    if (branches == null) {
+      return (NO_BRANCHES);
+    }
+    return (copy(branches));
+  }
+
+  /**
+   * Copies Branches, so callers cannot modify cached values
+   *
+   * @param branches - The Branches to copy
+   * @return Returns the copy, or null for NO_BRANCHES
+   */
+  private static ArrayList<TravelTimeData> copy(ArrayList<TravelTimeData> branches) {
+    if (branches == NO_BRANCHES || branches == null) {
+      return (null);
+    }
+    ArrayList<TravelTimeData> copy = new ArrayList<TravelTimeData>(branches.size());
+    for (TravelTimeData data : branches) {
+      copy.add(data != null ? new TravelTimeData(data) : null);
+    }
+    return (copy);
+  }
+
+  /**
+   * Builds the cache key of a receiver
+   *
+   * @param request - The TravelTimeRequest
+   * @param receiver - The TravelTimeReceiver
+   * @return Returns the Key
+   */
+  private Key key(TravelTimeRequest request, TravelTimeReceiver receiver) {
+    // without a Distance, the geometry is given by the locations
+    long[] location = null;
+    if ((receiver != null) && (receiver.Distance == null)) {
+      TravelTimeSource source = request.Source;
+      location =
+          new long[] {
+            quantize(source != null ? source.Latitude : null, distanceQuantum),
+            quantize(source != null ? source.Longitude : null, distanceQuantum),
+            quantize(receiver.Latitude, distanceQuantum),
+            quantize(receiver.Longitude, distanceQuantum)
+          };
+    }
+
+    return (new Key(
+        request.EarthModel,
+        request.PhaseTypes,
+        request.ReturnAllPhases,
+        request.ReturnBackBranches,
+        request.ConvertTectonic,
+        quantize(request.Source != null ? request.Source.Depth : null, depthQuantum),
+        quantize(receiver != null ? receiver.Distance : null, distanceQuantum),
+        quantize(receiver != null ? receiver.Elevation : null, elevationQuantum),
+        location));
+  }
+
+  /**
+   * Quantizes a value
+   *
+   * @param value - The Double to quantize, possibly null
+   * @param quantum - The quantum, or 0 for the exact value
+   * @return Returns the quantized value
+   */
+  private static long quantize(Double value, double quantum) {
+    if (value == null) {
+      return (Long.MIN_VALUE);
+    } else if (quantum == 0) {
+      return (Double.doubleToLongBits(value));
+    }
+    return (Math.round(value / quantum));
+  }
+
+  /**
+   * Process a TravelTimePlotRequest, which is not cached
+   *
+   * @param request traveltime inputs.
+   * @return calculated traveltime.
+   * @throws TravelTimeException if errors occur.
+   */
+  @Override
+  public TravelTimePlotRequest getTravelTimePlot(final TravelTimePlotRequest request)
+      throws TravelTimeException {
+    return (delegate.getTravelTimePlot(request));
+  }
+
+  /**
+   * Gets the number of receivers answered from the cache
+   *
+   * @return Returns the hit count
+   */
+  public long getHitCount() {
+    return (hits.get());
+  }
+
+  /**
+   * Gets the number of receivers not answered from the cache
+   *
+   * @return Returns the miss count
+   */
+  public long getMissCount() {
+    return (misses.get());
+  }
+
+  /**
+   * Gets the number of receivers evicted from the cache
+   *
+   * @return Returns the eviction count
+   */
+  public long getEvictionCount() {
+    return (evictions.get());
+  }
+
+  /**
+   * Gets the fraction of receivers answered from the cache
+   *
+   * @return Returns the hit rate, or 0 before any lookups
+   */
+  public double getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return (total > 0 ? (double) hitCount / total : 0);
+  }
+
+  /**
+   * Gets the number of cached receivers
+   *
+   * @return Returns the size of the cache
+   */
+  public int getSize() {
+    synchronized (cache) {
+      return (cache.size());
+    }
+  }
+
+  /**
+   * Gets the maximum number of cached receivers
+   *
+   * @return Returns the maximum size of the cache
+   */
+  public int getMaxEntries() {
+    return (maxEntries);
+  }
+
+  /** Empties the cache and resets the statistics */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+    hits.set(0);
+    misses.set(0);
+    evictions.set(0);
+  }
+
+  /** a cache key of a receiver */
+  private static final class Key {
+    /** The EarthModel */
+    private final String earthModel;
+
+    /** A copy of the PhaseTypes */
+    private final List<String> phaseTypes;
+
+    /** The request flags */
+    private final Boolean returnAllPhases;
+
+    private final Boolean returnBackBranches;
+    private final Boolean convertTectonic;
+
+    /** The quantized geometry */
+    private final long depth;
+
+    private final long distance;
+    private final long elevation;
+
+    /** The quantized source and receiver locations, null when keyed on the Distance */
+    private final long[] location;
+
+    /** The precomputed hash code */
+    private final int hash;
+
+    /**
+     * Creates a key
+     *
+     * @param earthModel - The EarthModel
+     * @param phaseTypes - The PhaseTypes
+     * @param returnAllPhases - The ReturnAllPhases flag
+     * @param returnBackBranches - The ReturnBackBranches flag
+     * @param convertTectonic - The ConvertTectonic flag
+     * @param depth - The quantized source Depth
+     * @param distance - The quantized receiver Distance
+     * @param elevation - The quantized receiver Elevation
+     * @param location - The quantized source and receiver Latitude and Longitude, null when keyed
+     *     on the Distance
+     */
+    private Key(
+        String earthModel,
+        List<String> phaseTypes,
+        Boolean returnAllPhases,
+        Boolean returnBackBranches,
+        Boolean convertTectonic,
+        long depth,
+        long distance,
+        long elevation,
+        long[] location) {
+      this.earthModel = earthModel;
+      this.phaseTypes = phaseTypes != null ? new ArrayList<String>(phaseTypes) : null;
+      this.returnAllPhases = returnAllPhases;
+      this.returnBackBranches = returnBackBranches;
+      this.convertTectonic = convertTectonic;
+      this.depth = depth;
+      this.distance = distance;
+      this.elevation = elevation;
+      this.location = location;
+      hash =
+          31 * Arrays.hashCode(location)
+              + Objects.hash(
+                  earthModel,
+                  this.phaseTypes,
+                  returnAllPhases,
+                  returnBackBranches,
+                  convertTectonic,
+                  depth,
+                  distance,
+                  elevation);
+    }
+
+    @Override
+    public int hashCode() {
+      return (hash);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return (true);
+      } else if (!(other instanceof Key)) {
+        return (false);
+      }
+      Key key = (Key) other;
+      return (hash == key.hash
+          && depth == key.depth
+          && distance == key.distance
+          && elevation == key.elevation
+          && Arrays.equals(location, key.location)
+          && Objects.equals(earthModel, key.earthModel)
+          && Objects.equals(phaseTypes, key.phaseTypes)
+          && Objects.equals(returnAllPhases, key.returnAllPhases)
+          && Objects.equals(returnBackBranches, key.returnBackBranches)
+          && Objects.equals(convertTectonic, key.convertTectonic));
+    }
+  }
+}
@@ -0,0 +1,394 @@
+package gov.usgs.processingformats;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+/**
+ * a hand rolled codec for the ISO-8601 / XML date time strings used by processingformats.
+ *
+ * <p>The fast path handles the shapes the formats actually use, YYYY-MM-DDThh:mm:ss[.fff] followed
+ * by Z or a +hh:mm / -hh:mm offset, for years 1583 through 9999, and works directly on epoch
+ * milliseconds without creating calendars. Fractional seconds are truncated to milliseconds, as the
+ * XMLGregorianCalendar based code does. Anything else (missing time zones, 24:00:00, leap seconds,
+ * date only values, other years) falls back to the DatatypeFactory based methods in Utility, so
+ * results match the existing behavior.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public final class DateTimeCodec {
+
+  /** Value returned by the parseMillis methods when the input is not a fast path shape */
+  public static final long INVALID = Long.MIN_VALUE;
+
+  /** Milliseconds per day */
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  /** The first year handled by the fast path, after the Gregorian cutover */
+  private static final int MIN_YEAR = 1583;
+
+  /** The last year handled by the fast path, the last four digit year */
+  private static final int MAX_YEAR = 9999;
+
+  /** The first epoch millisecond handled by the fast formatter */
+  private static final long MIN_MILLIS = daysFromCivil(MIN_YEAR, 1, 1) * MILLIS_PER_DAY;
+
+  /** The first epoch millisecond after the range handled by the fast formatter */
+  private static final long MAX_MILLIS = daysFromCivil(MAX_YEAR + 1, 1, 1) * MILLIS_PER_DAY;
+
+  /** The length of YYYY-MM-DDThh:mm:ss.fffZ */
+  private static final int FORMATTED_LENGTH = 24;
+
+  /** Private constructor, static methods only */
+  private DateTimeCodec() {}
+
+  /**
+   * Parses an ISO-8601 date time string into a Date, falling back to the XMLGregorianCalendar based
+   * parser for shapes the fast path does not handle.
+   *
+   * @param text - A CharSequence containing the date time to parse
+   * @return Returns the parsed Date, null if the text could not be parsed
+   */
+  public static Date parseDate(CharSequence text) {
+    if (text == null) {
+      return (null);
+    }
+
+    long millis = parseMillis(text, 0, text.length());
+    if (millis != INVALID) {
+      return (new Date(millis));
+    }
+
+    // fall back
+    XMLGregorianCalendar calendar = Utility.getXMLGregorianCalendar(text.toString());
+    if (calendar != null) {
+      return (new Date(calendar.toGregorianCalendar().getTimeInMillis()));
+    } else {
+      return (null);
+    }
+  }
+
+  /**
+   * Parses a fast path ISO-8601 date time string into epoch milliseconds
+   *
+   * @param text - A CharSequence containing the date time to parse
+   * @return Returns the epoch milliseconds, INVALID if the text is not a fast path shape
+   */
+  public static long parseMillis(CharSequence text) {
+    return (parseMillis(text, 0, text.length()));
+  }
+
+  /**
+   * Parses a fast path ISO-8601 date time from a range of a CharSequence into epoch milliseconds
+   *
+   * @param text - A CharSequence containing the date time to parse
+   * @param start - An int containing the index of the first character
+   * @param end - An int containing the index after the last character
+   * @return Returns the epoch milliseconds, INVALID if the range is not a fast path shape
+   */
+  public static long parseMillis(CharSequence text, int start, int end) {
+    // YYYY-MM-DDThh:mm:ss is the minimum, plus a one character zone
+    if ((end - start) < 20) {
+      return (INVALID);
+    }
+
+    int year = digits(text, start, 4);
+    int month = digits(text, start + 5, 2);
+    int day = digits(text, start + 8, 2);
+    int hour = digits(text, start + 11, 2);
+    int minute = digits(text, start + 14, 2);
+    int second = digits(text, start + 17, 2);
+    if ((year < 0)
+        || (month < 0)
+        || (day < 0)
+        || (hour < 0)
+        || (minute < 0)
+        || (second < 0)
+        || (text.charAt(start + 4) != '-')
+        || (text.charAt(start + 7) != '-')
+        || (text.charAt(start + 10) != 'T')
+        || (text.charAt(start + 13) != ':')
+        || (text.charAt(start + 16) != ':')) {
+      return (INVALID);
+    }
+
+    // fractional seconds, truncated to milliseconds
+    int pos = start + 19;
+    int millis = 0;
+    if (text.charAt(pos) == '.') {
+      pos++;
+      int fractionStart = pos;
+      while ((pos < end) && isDigit(text.charAt(pos))) {
+        if (pos - fractionStart < 3) {
+          millis = millis * 10 + (text.charAt(pos) - '0');
+        }
+        pos++;
+      }
+      int count = pos - fractionStart;
+      if (count == 0) {
+        return (INVALID);
+      }
+      for (int i = count; i < 3; i++) {
+        millis *= 10;
+      }
+    }
+
+    // time zone
+    if (pos >= end) {
+      return (INVALID);
+    }
+    int offsetMinutes;
+    char zone = text.charAt(pos);
+    if ((zone == 'Z') && (pos + 1 == end)) {
+      offsetMinutes = 0;
+    } else if (((zone == '+') || (zone == '-')) && (pos + 6 == end)) {
+      int offsetHour = digits(text, pos + 1, 2);
+      int offsetMinute = digits(text, pos + 4, 2);
+      if ((offsetHour < 0)
+          || (offsetMinute < 0)
+          || (text.charAt(pos + 3) != ':')
+          || (offsetHour > 13)
+          || (offsetMinute > 59)) {
+        return (INVALID);
+      }
+      offsetMinutes = offsetHour * 60 + offsetMinute;
+      if (zone == '-') {
+        offsetMinutes = -offsetMinutes;
+      }
+    } else {
+      return (INVALID);
+    }
+
+    return (toMillis(year, month, day, hour, minute, second, millis, offsetMinutes));
+  }
+
+  /**
+   * Parses a fast path ISO-8601 date time from a range of US-ASCII or UTF-8 bytes into epoch
+   * milliseconds
+   *
+   * @param bytes - A byte[] containing the date time to parse
+   * @param start - An int containing the index of the first byte
+   * @param end - An int containing the index after the last byte
+   * @return Returns the epoch milliseconds, INVALID if the range is not a fast path shape
+   */
+  public static long parseMillis(byte[] bytes, int start, int end) {
+    return (parseMillis(new AsciiSequence(bytes, start, end), 0, end - start));
+  }
+
+  /**
+   * Formats epoch milliseconds as a UTC ISO-8601 date time string with millisecond precision,
+   * matching Utility.formatGregorianCalendar.
+   *
+   * @param millis - A long containing the epoch milliseconds to format
+   * @return Returns the formatted String
+   */
+  public static String format(long millis) {
+    if ((millis < MIN_MILLIS) || (millis >= MAX_MILLIS)) {
+      return (formatLegacy(millis));
+    }
+    StringBuilder builder = new StringBuilder(FORMATTED_LENGTH);
+    format(millis, builder);
+    return (builder.toString());
+  }
+
+  /**
+   * Appends epoch milliseconds as a UTC ISO-8601 date time string with millisecond precision,
+   * matching Utility.formatGregorianCalendar.
+   *
+   * @param millis - A long containing the epoch milliseconds to format
+   * @param builder - A StringBuilder to append to
+   */
+  public static void format(long millis, StringBuilder builder) {
+    if ((millis < MIN_MILLIS) || (millis >= MAX_MILLIS)) {
+      builder.append(formatLegacy(millis));
+      return;
+    }
+
+    long days = Math.floorDiv(millis, MILLIS_PER_DAY);
+    int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+
+    // civil from days
+    long z = days + 719468;
+    long era = (z >= 0 ? z : z - 146096) / 146097;
+    int dayOfEra = (int) (z - era * 146097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int mp = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+    int month = mp < 10 ? mp + 3 : mp - 9;
+    int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+    int hour = millisOfDay / 3600000;
+    int minute = (millisOfDay / 60000) % 60;
+    int second = (millisOfDay / 1000) % 60;
+    int milli = millisOfDay % 1000;
+
+    append(builder, year, 4);
+    builder.append('-');
+    append(builder, month, 2);
+    builder.append('-');
+    append(builder, day, 2);
+    builder.append('T');
+    append(builder, hour, 2);
+    builder.append(':');
+    append(builder, minute, 2);
+    builder.append(':');
+    append(builder, second, 2);
+    builder.append('.');
+    append(builder, milli, 3);
+    builder.append('Z');
+  }
+
+  /**
+   * Formats epoch milliseconds using the XMLGregorianCalendar based formatter
+   *
+   * @param millis - A long containing the epoch milliseconds to format
+   * @return Returns the formatted String, null if formatting failed
+   */
+  private static String formatLegacy(long millis) {
+    GregorianCalendar calendar = new GregorianCalendar();
+    calendar.setTimeInMillis(millis);
+    return (Utility.formatGregorianCalendar(calendar));
+  }
+
+  /**
+   * Converts validated date time fields to epoch milliseconds
+   *
+   * @return Returns the epoch milliseconds, INVALID if a field is out of range
+   */
+  private static long toMillis(
+      int year,
+      int month,
+      int day,
+      int hour,
+      int minute,
+      int second,
+      int millis,
+      int offsetMinutes) {
+    if ((year < MIN_YEAR)
+        || (year > MAX_YEAR)
+        || (month < 1)
+        || (month > 12)
+        || (day < 1)
+        || (day > daysInMonth(year, month))
+        || (hour > 23)
+        || (minute > 59)
+        || (second > 59)) {
+      return (INVALID);
+    }
+
+    return (daysFromCivil(year, month, day) * MILLIS_PER_DAY
+        + hour * 3600000L
+        + minute * 60000L
+        + second * 1000L
+        + millis
+        - offsetMinutes * 60000L);
+  }
+
+  /**
+   * Computes the number of days since 1970-01-01 of a proleptic Gregorian date
+   *
+   * @return Returns the number of days
+   */
+  private static long daysFromCivil(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    long era = (y >= 0 ? y : y - 399) / 400;
+    int yearOfEra = (int) (y - era * 400);
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return (era * 146097 + dayOfEra - 719468);
+  }
+
+  /**
+   * Gets the number of days in a month
+   *
+   * @return Returns the number of days
+   */
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = ((year % 4) == 0) && (((year % 100) != 0) || ((year % 400) == 0));
+        return (leap ? 29 : 28);
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return (30);
+      default:
+        return (31);
+    }
+  }
+
+  /**
+   * Parses a fixed number of decimal digits
+   *
+   * @return Returns the value, -1 if a character is not a digit
+   */
+  private static int digits(CharSequence text, int start, int count) {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = text.charAt(i);
+      if (!isDigit(c)) {
+        return (-1);
+      }
+      value = value * 10 + (c - '0');
+    }
+    return (value);
+  }
+
+  /**
+   * Checks whether a character is an ASCII digit
+   *
+   * @return Returns true if it is
+   */
+  private static boolean isDigit(char c) {
+    return ((c >= '0') && (c <= '9'));
+  }
+
+  /**
+   * Appends a zero padded number
+   *
+   * @param builder - A StringBuilder to append to
+   * @param value - An int containing the non negative value
+   * @param width - An int containing the minimum width
+   */
+  private static void append(StringBuilder builder, int value, int width) {
+    for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+      if (value < limit) {
+        builder.append('0');
+      }
+    }
+    builder.append(value);
+  }
+
+  /** a CharSequence view of a range of single byte characters */
+  private static final class AsciiSequence implements CharSequence {
+    private final byte[] bytes;
+    private final int start;
+    private final int end;
+
+    private AsciiSequence(byte[] newBytes, int newStart, int newEnd) {
+      bytes = newBytes;
+      start = newStart;
+      end = newEnd;
+    }
+
+    public int length() {
+      return (end - start);
+    }
+
+    public char charAt(int index) {
+      // non ASCII bytes map to values outside the digits and separators
+      return ((char) (bytes[start + index] & 0xFF));
+    }
+
+    public CharSequence subSequence(int subStart, int subEnd) {
+      return (new AsciiSequence(bytes, start + subStart, start + subEnd));
+    }
+
+    public String toString() {
+      return (new String(bytes, start, end - start, StandardCharsets.UTF_8));
+    }
+  }
+}
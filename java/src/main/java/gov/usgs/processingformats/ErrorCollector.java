@@ -0,0 +1,412 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * an ErrorSink that collects validation errors into a list, used by getErrors().
+ *
+ * <p>A collector created with a parallel threshold checks the elements of lists at least that long
+ * across a ForkJoinPool, for bulk quality control of large pick lists. The errors are the same, in
+ * the same order, as those of a sequential collector.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class ErrorCollector implements ErrorSink {
+  /** The collected errors */
+  private ArrayList<String> errors = new ArrayList<String>();
+
+  /** Whether every invalid list element is reported */
+  private boolean exhaustive;
+
+  /** The list size at or above which list elements are checked in parallel */
+  private int parallelThreshold;
+
+  /** The pool used to check list elements in parallel */
+  private ForkJoinPool pool;
+
+  /** The minimum number of elements checked by one parallel task */
+  public static final int MINIMUM_SPLIT = 256;
+
+  /**
+   * The constructor for the ErrorCollector class. Collects errors the same way as getErrors(),
+   * reporting only the first invalid element of each list.
+   */
+  public ErrorCollector() {
+    this(false);
+  }
+
+  /**
+   * The alternate constructor for the ErrorCollector class.
+   *
+   * @param exhaustive - A boolean, true to report every invalid list element with its index
+   */
+  public ErrorCollector(boolean exhaustive) {
+    this(exhaustive, Integer.MAX_VALUE, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * The parallel constructor for the ErrorCollector class, checking lists in the common pool.
+   *
+   * @param exhaustive - A boolean, true to report every invalid list element with its index
+   * @param parallelThreshold - An int containing the list size at or above which list elements are
+   *     checked in parallel
+   */
+  public ErrorCollector(boolean exhaustive, int parallelThreshold) {
+    this(exhaustive, parallelThreshold, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * The advanced constructor for the ErrorCollector class.
+   *
+   * @param exhaustive - A boolean, true to report every invalid list element with its index
+   * @param parallelThreshold - An int containing the list size at or above which list elements are
+   *     checked in parallel
+   * @param pool - The ForkJoinPool used to check list elements in parallel
+   */
+  public ErrorCollector(boolean exhaustive, int parallelThreshold, ForkJoinPool pool) {
+    if (parallelThreshold < 1) {
+      throw new IllegalArgumentException("Invalid parallel threshold " + parallelThreshold);
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("Null pool");
+    }
+    this.exhaustive = exhaustive;
+    this.parallelThreshold = parallelThreshold;
+    this.pool = pool;
+  }
+
+  /**
+   * Receives a validation error.
+   *
+   * @param error - A String containing the error message
+   */
+  public void add(String error) {
+    errors.add(error);
+  }
+
+  /**
+   * Whether every invalid list element is reported.
+   *
+   * @return Returns true if the collector is exhaustive
+   */
+  public boolean isExhaustive() {
+    return (exhaustive);
+  }
+
+  /**
+   * The list size at or above which list elements are checked in parallel.
+   *
+   * @return Returns the parallel threshold
+   */
+  public int getParallelThreshold() {
+    return (parallelThreshold);
+  }
+
+  /**
+   * The pool used to check list elements in parallel.
+   *
+   * @return Returns the ForkJoinPool
+   */
+  public ForkJoinPool getPool() {
+    return (pool);
+  }
+
+  /**
+   * Gets the collected errors.
+   *
+   * @return Returns a List&lt;String&gt; of the errors collected so far
+   */
+  public ArrayList<String> getErrors() {
+    return (errors);
+  }
+
+  /**
+   * Whether any errors were collected.
+   *
+   * @return Returns true if no errors were collected
+   */
+  public boolean isEmpty() {
+    return (errors.isEmpty());
+  }
+
+  /** Clears the collected errors so the collector can be reused. */
+  public void clear() {
+    errors.clear();
+  }
+
+  /**
+   * Validates each element of a list, reporting invalid elements to an ErrorSink. A fail fast or
+   * non exhaustive sink receives only the first invalid element, with the message prefix + suffix.
+   * An exhaustive sink receives every invalid element, with its index inserted after the prefix.
+   *
+   * <p>Lists shorter than the parallel threshold of the sink are walked once, collecting the
+   * details of each element as it is validated, and nothing is allocated for the fail fast sink.
+   * Longer lists are checked in parallel, and the invalid elements are validated again for their
+   * details.
+   *
+   * @param list - A List of the elements to validate
+   * @param sink - The ErrorSink to report to
+   * @param prefix - A String containing the start of the message, e.g. "Invalid Pick"
+   * @param suffix - A String containing the rest of the message
+   * @param details - A boolean, true to append the errors of the element to the message
+   * @return Returns true if all elements are valid
+   */
+  public static boolean validateList(
+      List<? extends ProcessingInt> list,
+      ErrorSink sink,
+      String prefix,
+      String suffix,
+      boolean details) {
+    int size = list.size();
+
+    if (size >= sink.getParallelThreshold()) {
+      int[] invalid = findInvalid(size, () -> (i -> !list.get(i).isValid()), sink);
+      for (int index : invalid) {
+        reportElement(list.get(index), index, sink, prefix, suffix, details);
+      }
+      return (invalid.length == 0);
+    }
+
+    boolean valid = true;
+    ErrorCollector scratch = null;
+    for (int i = 0; i < size; i++) {
+      if ((scratch == null) && details && (sink != ErrorSink.FAIL_FAST)) {
+        scratch = new ErrorCollector();
+      }
+      if (!validateElement(list.get(i), i, sink, prefix, suffix, scratch)) {
+        valid = false;
+        if (!sink.isExhaustive()) {
+          break;
+        }
+      }
+    }
+
+    return (valid);
+  }
+
+  /**
+   * Validates a list element in a single walk, reporting it to an ErrorSink the same way as
+   * reportElement() if it is invalid.
+   *
+   * @param element - The element to validate
+   * @param index - An int containing the index of the element in its list
+   * @param sink - The ErrorSink to report to
+   * @param prefix - A String containing the start of the message
+   * @param suffix - A String containing the rest of the message
+   * @param scratch - An ErrorCollector, cleared and used to collect the errors of the element to
+   *     append to the message, null for none
+   * @return Returns true if the element is valid
+   */
+  public static boolean validateElement(
+      ProcessingInt element,
+      int index,
+      ErrorSink sink,
+      String prefix,
+      String suffix,
+      ErrorCollector scratch) {
+    if ((scratch == null) || (sink == ErrorSink.FAIL_FAST)) {
+      if (element.isValid()) {
+        return (true);
+      }
+      report(index, sink, prefix, suffix, null);
+      return (false);
+    }
+
+    scratch.clear();
+    if (element.validate(scratch)) {
+      return (true);
+    }
+    report(index, sink, prefix, suffix, scratch.getErrors());
+    return (false);
+  }
+
+  /**
+   * Finds the invalid elements of a list. Lists at least as long as the parallel threshold of the
+   * sink are split across its pool, otherwise the elements are checked sequentially. A non
+   * exhaustive sink gets only the first invalid element either way.
+   *
+   * @param size - An int containing the number of elements
+   * @param checks - A Supplier of IntPredicates returning true if the element at an index is
+   *     invalid, called once per task so each can hold its own scratch state
+   * @param sink - The ErrorSink that will be reported to
+   * @return Returns an int[] of the indexes of the invalid elements, in ascending order
+   */
+  public static int[] findInvalid(int size, Supplier<IntPredicate> checks, ErrorSink sink) {
+    boolean all = sink.isExhaustive();
+
+    if (size < sink.getParallelThreshold()) {
+      return (findInvalid(0, size, checks.get(), all));
+    }
+
+    ForkJoinPool pool = sink.getPool();
+    int split = Math.max(MINIMUM_SPLIT, size / (pool.getParallelism() * 4) + 1);
+    return (pool.invoke(new FindInvalidTask(0, size, split, checks, all)));
+  }
+
+  /**
+   * Finds the invalid elements of a range of a list sequentially.
+   *
+   * @param from - An int containing the first index, inclusive
+   * @param to - An int containing the last index, exclusive
+   * @param invalid - An IntPredicate returning true if the element at an index is invalid
+   * @param all - A boolean, false to stop at the first invalid element
+   * @return Returns an int[] of the indexes of the invalid elements, in ascending order
+   */
+  private static int[] findInvalid(int from, int to, IntPredicate invalid, boolean all) {
+    int[] found = new int[0];
+    int count = 0;
+
+    for (int i = from; i < to; i++) {
+      if (invalid.test(i)) {
+        if (count == found.length) {
+          found = Arrays.copyOf(found, Math.max(4, count * 2));
+        }
+        found[count++] = i;
+
+        if (!all) {
+          break;
+        }
+      }
+    }
+
+    return (count == found.length ? found : Arrays.copyOf(found, count));
+  }
+
+  /** a fork join task used to find the invalid elements of a range of a list */
+  private static class FindInvalidTask extends RecursiveTask<int[]> {
+    private static final long serialVersionUID = 1L;
+
+    /** The first index, inclusive */
+    private final int from;
+
+    /** The last index, exclusive */
+    private final int to;
+
+    /** The largest range checked without splitting */
+    private final int split;
+
+    /** The supplier of element checks */
+    private final transient Supplier<IntPredicate> checks;
+
+    /** Whether every invalid element is wanted */
+    private final boolean all;
+
+    /**
+     * Creates a task
+     *
+     * @param from - An int containing the first index, inclusive
+     * @param to - An int containing the last index, exclusive
+     * @param split - An int containing the largest range checked without splitting
+     * @param checks - The Supplier of element checks
+     * @param all - A boolean, false to find only the first invalid element
+     */
+    FindInvalidTask(int from, int to, int split, Supplier<IntPredicate> checks, boolean all) {
+      this.from = from;
+      this.to = to;
+      this.split = split;
+      this.checks = checks;
+      this.all = all;
+    }
+
+    @Override
+    protected int[] compute() {
+      if (to - from <= split) {
+        return (findInvalid(from, to, checks.get(), all));
+      }
+
+      int middle = (from + to) >>> 1;
+      FindInvalidTask right = new FindInvalidTask(middle, to, split, checks, all);
+      right.fork();
+      int[] left = new FindInvalidTask(from, middle, split, checks, all).compute();
+
+      if (!all && left.length > 0) {
+        // the first invalid element is on the left, the right half is not needed
+        if (!right.tryUnfork()) {
+          right.join();
+        }
+        return (left);
+      }
+
+      int[] rest = right.join();
+      if (left.length == 0) {
+        return (rest);
+      }
+      if (rest.length == 0) {
+        return (left);
+      }
+
+      int[] found = Arrays.copyOf(left, left.length + rest.length);
+      System.arraycopy(rest, 0, found, left.length, rest.length);
+      return (found);
+    }
+  }
+
+  /**
+   * Reports an invalid list element to an ErrorSink, validating it again for the details.
+   *
+   * @param element - The invalid element
+   * @param index - An int containing the index of the element in its list
+   * @param sink - The ErrorSink to report to
+   * @param prefix - A String containing the start of the message
+   * @param suffix - A String containing the rest of the message
+   * @param details - A boolean, true to append the errors of the element to the message
+   */
+  public static void reportElement(
+      ProcessingInt element,
+      int index,
+      ErrorSink sink,
+      String prefix,
+      String suffix,
+      boolean details) {
+    if (sink == ErrorSink.FAIL_FAST) {
+      // nobody is listening
+      return;
+    }
+
+    ArrayList<String> errors = null;
+    if (details) {
+      ErrorCollector elementErrors = new ErrorCollector();
+      element.validate(elementErrors);
+      errors = elementErrors.getErrors();
+    }
+    report(index, sink, prefix, suffix, errors);
+  }
+
+  /**
+   * Reports an invalid list element to an ErrorSink.
+   *
+   * @param index - An int containing the index of the element in its list
+   * @param sink - The ErrorSink to report to
+   * @param prefix - A String containing the start of the message
+   * @param suffix - A String containing the rest of the message
+   * @param errors - A List&lt;String&gt; of the errors of the element to append, null for none
+   */
+  private static void report(
+      int index, ErrorSink sink, String prefix, String suffix, List<String> errors) {
+    if (sink == ErrorSink.FAIL_FAST) {
+      // nobody is listening
+      return;
+    }
+
+    StringBuilder message = new StringBuilder(prefix);
+    if (sink.isExhaustive()) {
+      message.append(' ').append(index);
+    }
+    message.append(suffix);
+
+    if (errors != null) {
+      // combine the errors into a single string
+      for (String error : errors) {
+        message.append(' ').append(error);
+      }
+    }
+
+    sink.add(message.toString());
+  }
+}
@@ -1,6 +1,8 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import org.json.simple.JSONObject;
 
 /**
@@ -38,6 +40,12 @@ public class ErrorEllipse implements ProcessingInt {
   /** Required equivalent radius of the horizontal error ellipsoid in kilometers. */
   public Double EquivalentHorizontalRadius;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
   /** The constructor for the ErrorEllipse class. Initializes members to null values. */
   public ErrorEllipse() {
     E0 = null;
@@ -46,6 +54,7 @@ public class ErrorEllipse implements ProcessingInt {
     MaximumHorizontalProjection = null;
     MaximumVerticalProjection = null;
     EquivalentHorizontalRadius = null;
+    UnknownKeys = null;
   }
 
   /**
@@ -156,6 +165,7 @@ public class ErrorEllipse implements ProcessingInt {
     MaximumHorizontalProjection = newMaximumHorizontalProjection;
     MaximumVerticalProjection = newMaximumVerticalProjection;
     EquivalentHorizontalRadius = newEquivalentHorizontalRadius;
+    UnknownKeys = null;
   }
 
   /**
@@ -164,6 +174,8 @@ public class ErrorEllipse implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public ErrorEllipse(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
     // Required values
     // E0
     if (newJSONObject.containsKey(E0_KEY)) {
@@ -206,6 +218,11 @@ public class ErrorEllipse implements ProcessingInt {
     } else {
       EquivalentHorizontalRadius = null;
     }
+
+    // keys this class does not know
+    UnknownKeys = RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.ERRORELLIPSE_KEYS);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.DECODE, "ErrorEllipse", 1, span, 0);
   }
 
   /**
@@ -215,6 +232,7 @@ public class ErrorEllipse implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -249,22 +267,66 @@ public class ErrorEllipse implements ProcessingInt {
       newJSONObject.put(EQUIVALENT_HORIZONTAL_KEY, EquivalentHorizontalRadius);
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.ENCODE, "ErrorEllipse", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // E0
+    if (E0 != null) {
+      writer.name(E0_KEY).value(E0);
+    }
+
+    // E1
+    if (E1 != null) {
+      writer.name(E1_KEY).value(E1);
+    }
+
+    // E2
+    if (E2 != null) {
+      writer.name(E2_KEY).value(E2);
+    }
+
+    // MaximumHorizontalProjection
+    if (MaximumHorizontalProjection != null) {
+      writer.name(MAXIMUM_HORIZONTAL_KEY).value(MaximumHorizontalProjection);
+    }
+
+    // MaximumVerticalProjection
+    if (MaximumVerticalProjection != null) {
+      writer.name(MAXIMUM_VERTICAL_KEY).value(MaximumVerticalProjection);
+    }
+
+    // EquivalentHorizontalRadius
+    if (EquivalentHorizontalRadius != null) {
+      writer.name(EQUIVALENT_HORIZONTAL_KEY).value(EquivalentHorizontalRadius);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -273,55 +335,77 @@ public class ErrorEllipse implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(Instrumentation.Operation.VALIDATE, "ErrorEllipse", 1, span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // E0
     if (E0 == null) {
       // E0 not found
-      errorList.add("No E0 in ErrorEllipse Class.");
+      valid = false;
+      sink.add("No E0 in ErrorEllipse Class.");
     } else if (!E0.isValid()) {
       // E0 invalid
-      errorList.add("Invalid E0 in ErrorEllipse Class.");
+      valid = false;
+      sink.add("Invalid E0 in ErrorEllipse Class.");
     }
 
     // E1
     if (E1 == null) {
       // E1 not found
-      errorList.add("No E1 in ErrorEllipse Class.");
+      valid = false;
+      sink.add("No E1 in ErrorEllipse Class.");
     } else if (!E1.isValid()) {
       // E1 invalid
-      errorList.add("Invalid E1 in ErrorEllipse Class.");
+      valid = false;
+      sink.add("Invalid E1 in ErrorEllipse Class.");
     }
 
     // E2
     if (E2 == null) {
       // E2 not found
-      errorList.add("No E2 in ErrorEllipse Class.");
+      valid = false;
+      sink.add("No E2 in ErrorEllipse Class.");
     } else if (!E2.isValid()) {
       // E2 invalid
-      errorList.add("Invalid E2 in ErrorEllipse Class.");
+      valid = false;
+      sink.add("Invalid E2 in ErrorEllipse Class.");
     }
 
     // MaximumHorizontalProjection
     if (MaximumHorizontalProjection == null) {
       // MaximumHorizontalProjection not found
-      errorList.add("No MaximumHorizontalProjection in ErrorEllipse Class.");
+      valid = false;
+      sink.add("No MaximumHorizontalProjection in ErrorEllipse Class.");
     }
 
     // MaximumVerticalProjection
     if (MaximumVerticalProjection == null) {
       // MaximumVerticalProjection not found
-      errorList.add("No MaximumVerticalProjection in ErrorEllipse Class.");
+      valid = false;
+      sink.add("No MaximumVerticalProjection in ErrorEllipse Class.");
     }
 
     // EquivalentHorizontalRadius
     if (EquivalentHorizontalRadius == null) {
       // EquivalentHorizontalRadius not found
-      errorList.add("No EquivalentHorizontalRadius in ErrorEllipse Class.");
+      valid = false;
+      sink.add("No EquivalentHorizontalRadius in ErrorEllipse Class.");
     }
 
     // success
-    return (errorList);
+    return (valid);
   }
 }
@@ -1,6 +1,8 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import org.json.simple.JSONObject;
 
 /**
@@ -24,11 +26,18 @@ public class ErrorEllipseAxis implements ProcessingInt {
   /** Required dip of the error semi-axis in decimal degrees. */
   public Double Dip;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
   /** The constructor for the ErrorEllipseAxis class. Initializes members to null values. */
   public ErrorEllipseAxis() {
     Error = null;
     Azimuth = null;
     Dip = null;
+    UnknownKeys = null;
   }
 
   /**
@@ -60,6 +69,7 @@ public class ErrorEllipseAxis implements ProcessingInt {
     Error = newError;
     Azimuth = newAzimuth;
     Dip = newDip;
+    UnknownKeys = null;
   }
 
   /**
@@ -68,6 +78,8 @@ public class ErrorEllipseAxis implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public ErrorEllipseAxis(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
     // Required values
     // error
     if (newJSONObject.containsKey(ERROR_KEY)) {
@@ -89,6 +101,13 @@ public class ErrorEllipseAxis implements ProcessingInt {
     } else {
       Dip = null;
     }
+
+    // keys this class does not know
+    UnknownKeys =
+        RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.ERRORELLIPSEAXIS_KEYS);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "ErrorEllipseAxis", 1, span, 0);
   }
 
   /**
@@ -98,6 +117,7 @@ public class ErrorEllipseAxis implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -113,22 +133,52 @@ public class ErrorEllipseAxis implements ProcessingInt {
       newJSONObject.put(DIP_KEY, Dip);
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "ErrorEllipseAxis", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Error
+    if (Error != null) {
+      writer.name(ERROR_KEY).value(Error);
+    }
+
+    // Azimuth
+    if (Azimuth != null) {
+      writer.name(AZIMUTH_KEY).value(Azimuth);
+    }
+
+    // Dip
+    if (Dip != null) {
+      writer.name(DIP_KEY).value(Dip);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -137,28 +187,45 @@ public class ErrorEllipseAxis implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "ErrorEllipseAxis", 1, span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // error
     if (Error == null) {
       // error not found
-      errorList.add("No error in ErrorEllipseAxis Class.");
+      valid = false;
+      sink.add("No error in ErrorEllipseAxis Class.");
     }
 
     // azimuth
     if (Azimuth == null) {
       // azimuth not found
-      errorList.add("No azimuth in ErrorEllipseAxis Class.");
+      valid = false;
+      sink.add("No azimuth in ErrorEllipseAxis Class.");
     }
 
     //  dip
     if (Dip == null) {
       // dip not found
-      errorList.add("No  dip in ErrorEllipseAxis Class.");
+      valid = false;
+      sink.add("No  dip in ErrorEllipseAxis Class.");
     }
 
     // success
-    return (errorList);
+    return (valid);
   }
 }
@@ -0,0 +1,70 @@
+package gov.usgs.processingformats;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * an interface used to receive validation errors while a processing format object graph is walked
+ * by validate(ErrorSink).
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public interface ErrorSink {
+  /**
+   * A fail fast sink that discards errors, used by isValid(). Validation stops walking lists at the
+   * first invalid element, and walks lists without allocating, though PickBatches still materialize
+   * each pick they check.
+   */
+  public static final ErrorSink FAIL_FAST =
+      new ErrorSink() {
+        public void add(String error) {}
+
+        public boolean isFailFast() {
+          return (true);
+        }
+      };
+
+  /**
+   * Receives a validation error.
+   *
+   * @param error - A String containing the error message
+   */
+  public void add(String error);
+
+  /**
+   * Whether validation should stop walking lists once an error is found.
+   *
+   * @return Returns true if validation should stop early
+   */
+  public default boolean isFailFast() {
+    return (false);
+  }
+
+  /**
+   * Whether validation should report every invalid list element with its index, rather than only
+   * the first invalid element.
+   *
+   * @return Returns true if every invalid element should be reported
+   */
+  public default boolean isExhaustive() {
+    return (false);
+  }
+
+  /**
+   * The list size at or above which list elements are checked in parallel. Errors are still
+   * reported to the sink from the calling thread, in index order.
+   *
+   * @return Returns the threshold, Integer.MAX_VALUE to always validate sequentially
+   */
+  public default int getParallelThreshold() {
+    return (Integer.MAX_VALUE);
+  }
+
+  /**
+   * The pool used to check list elements in parallel.
+   *
+   * @return Returns the ForkJoinPool, by default the common pool
+   */
+  public default ForkJoinPool getPool() {
+    return (ForkJoinPool.commonPool());
+  }
+}
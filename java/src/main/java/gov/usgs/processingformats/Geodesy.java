@@ -0,0 +1,475 @@
+package gov.usgs.processingformats;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * a utility class used to compute the epicentral Distance and Azimuth of picks from a hypocenter in
+ * bulk, and the Gap, SecondaryGap, and MinimumDistance of a location from them.
+ *
+ * <p>Distances and azimuths are computed for whole arrays of station coordinates in one pass, with
+ * the trigonometry of the source computed once. Distances are in degrees of arc and azimuths in
+ * degrees clockwise from north, from 0 to 360.
+ *
+ * <p>The ELLIPSOIDAL mode computes the WGS84 geodesic with Vincenty's inverse formula, accurate to
+ * better than a millimeter, and reports its length in degrees of KM_PER_DEGREE kilometers. For the
+ * rare station within about half a degree of the antipode of the source, where the formula does not
+ * converge, it falls back to the SPHERICAL mode. The SPHERICAL mode treats the Earth as a sphere
+ * and is about three times faster. Its distances differ from the ELLIPSOIDAL mode by at most 0.6%
+ * (0.06 degrees at 10 degrees, 0.34 degrees at most). Its azimuths differ by at most 0.2 degrees
+ * within 10 degrees of the source and 1.5 degrees out to 170 degrees. Nearer the antipode, where
+ * the azimuth is ill defined, they diverge further: for a source on the equator, by up to 3.2
+ * degrees below 175 degrees and 8.2 degrees below 178 degrees.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public final class Geodesy {
+  /** The distance and azimuth computations */
+  public enum Mode {
+    /** Great circles on a sphere, fast */
+    SPHERICAL,
+    /** Geodesics on the WGS84 ellipsoid, exact */
+    ELLIPSOIDAL
+  }
+
+  /** The kilometers in a degree of arc, on a sphere of the mean Earth radius of 6371.0088 km */
+  public static final double KM_PER_DEGREE = 6371.0088 * Math.PI / 180.0;
+
+  /** The WGS84 semi-major axis in kilometers */
+  private static final double WGS84_A = 6378.137;
+
+  /** The WGS84 flattening */
+  private static final double WGS84_F = 1.0 / 298.257223563;
+
+  /** The WGS84 semi-minor axis in kilometers */
+  private static final double WGS84_B = WGS84_A * (1.0 - WGS84_F);
+
+  /** The convergence tolerance of Vincenty's formula in radians */
+  private static final double TOLERANCE = 1e-12;
+
+  /** The maximum iterations of Vincenty's formula */
+  private static final int MAX_ITERATIONS = 100;
+
+  /** Not constructed, the utility is static */
+  private Geodesy() {}
+
+  /**
+   * Computes the distances and azimuths of stations from a source
+   *
+   * @param mode - The Mode to compute with
+   * @param sourceLatitude - A double containing the source latitude in degrees
+   * @param sourceLongitude - A double containing the source longitude in degrees
+   * @param latitudes - A double[] containing the station latitudes in degrees
+   * @param longitudes - A double[] containing the station longitudes in degrees
+   * @param count - An int containing the number of stations
+   * @param distances - A double[] to receive the distances in degrees
+   * @param azimuths - A double[] to receive the azimuths in degrees, or null if not needed
+   */
+  public static void computeDistances(
+      Mode mode,
+      double sourceLatitude,
+      double sourceLongitude,
+      double[] latitudes,
+      double[] longitudes,
+      int count,
+      double[] distances,
+      double[] azimuths) {
+    if (mode == Mode.ELLIPSOIDAL) {
+      computeEllipsoidal(
+          sourceLatitude, sourceLongitude, latitudes, longitudes, count, distances, azimuths);
+    } else {
+      computeSpherical(
+          sourceLatitude, sourceLongitude, latitudes, longitudes, count, distances, azimuths);
+    }
+  }
+
+  /**
+   * Sets the Distance and Azimuth of each pick with a Site location, marking each updated pick
+   * dirty so writeJSON() encodes the new values
+   *
+   * @param mode - The Mode to compute with
+   * @param hypocenter - The Hypocenter to compute from, with a Latitude and Longitude
+   * @param picks - A List&lt;Pick&gt; containing the picks to update
+   */
+  public static void computeDistances(Mode mode, Hypocenter hypocenter, List<Pick> picks) {
+    int count = picks.size();
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    int located = 0;
+    for (Pick pick : picks) {
+      if (hasLocation(pick)) {
+        latitudes[located] = pick.Site.Latitude;
+        longitudes[located] = pick.Site.Longitude;
+        located++;
+      }
+    }
+
+    double[] distances = new double[located];
+    double[] azimuths = new double[located];
+    computeDistances(
+        mode,
+        hypocenter.Latitude,
+        hypocenter.Longitude,
+        latitudes,
+        longitudes,
+        located,
+        distances,
+        azimuths);
+
+    int index = 0;
+    for (Pick pick : picks) {
+      if (hasLocation(pick)) {
+        pick.Distance = distances[index];
+        pick.Azimuth = azimuths[index];
+        pick.markDirty();
+        index++;
+      }
+    }
+  }
+
+  /**
+   * Sets the DISTANCE and AZIMUTH of each pick of a batch with a Site location
+   *
+   * @param mode - The Mode to compute with
+   * @param hypocenter - The Hypocenter to compute from, with a Latitude and Longitude
+   * @param batch - The PickBatch to update
+   */
+  public static void computeDistances(Mode mode, Hypocenter hypocenter, PickBatch batch) {
+    int count = batch.size();
+    double[] distances = new double[count];
+    double[] azimuths = new double[count];
+
+    // the backing columns are read directly, absent locations are skipped below
+    computeDistances(
+        mode,
+        hypocenter.Latitude,
+        hypocenter.Longitude,
+        batch.getDoubleColumn(PickBatch.DoubleColumn.LATITUDE),
+        batch.getDoubleColumn(PickBatch.DoubleColumn.LONGITUDE),
+        count,
+        distances,
+        azimuths);
+
+    for (int i = 0; i < count; i++) {
+      if (hasLocation(batch, i)) {
+        batch.setDouble(PickBatch.DoubleColumn.DISTANCE, i, distances[i]);
+        batch.setDouble(PickBatch.DoubleColumn.AZIMUTH, i, azimuths[i]);
+      }
+    }
+  }
+
+  /**
+   * Sets the Distance and Azimuth of the supporting picks of a result from its Hypocenter, and its
+   * Gap, SecondaryGap, and MinimumDistance from the picks that are not marked unused. The Gap,
+   * SecondaryGap, and MinimumDistance are left unchanged if no pick is used.
+   *
+   * @param mode - The Mode to compute with
+   * @param result - The LocationResult to update, with a Hypocenter Latitude and Longitude
+   */
+  public static void computeStatistics(Mode mode, LocationResult result) {
+    int count = 0;
+    if (result.SupportingData != null) {
+      computeDistances(mode, result.Hypocenter, result.SupportingData);
+      count += result.SupportingData.size();
+    }
+    if (result.SupportingBatch != null) {
+      computeDistances(mode, result.Hypocenter, result.SupportingBatch);
+      count += result.SupportingBatch.size();
+    }
+
+    // collect the used picks
+    double[] azimuths = new double[count];
+    double minimumDistance = Double.POSITIVE_INFINITY;
+    int used = 0;
+    if (result.SupportingData != null) {
+      for (Pick pick : result.SupportingData) {
+        if (hasLocation(pick) && !Boolean.FALSE.equals(pick.Use)) {
+          azimuths[used++] = pick.Azimuth;
+          minimumDistance = Math.min(minimumDistance, pick.Distance);
+        }
+      }
+    }
+    if (result.SupportingBatch != null) {
+      PickBatch batch = result.SupportingBatch;
+      for (int i = 0; i < batch.size(); i++) {
+        if (hasLocation(batch, i) && (!batch.hasUse(i) || batch.getUse(i))) {
+          azimuths[used++] = batch.getDouble(PickBatch.DoubleColumn.AZIMUTH, i);
+          minimumDistance =
+              Math.min(minimumDistance, batch.getDouble(PickBatch.DoubleColumn.DISTANCE, i));
+        }
+      }
+    }
+    if (used == 0) {
+      return;
+    }
+
+    double[] gaps = computeGaps(azimuths, used);
+    result.Gap = gaps[0];
+    result.SecondaryGap = gaps[1];
+    result.MinimumDistance = minimumDistance;
+  }
+
+  /**
+   * Computes the azimuthal gaps of a set of stations. The Gap is the largest difference between the
+   * azimuths of adjacent stations. The SecondaryGap is the largest Gap left when any one station is
+   * removed, so it does not depend on a single station. Equal azimuths count as one station.
+   *
+   * @param azimuths - A double[] containing the azimuths in degrees, it is not modified
+   * @param count - An int containing the number of azimuths
+   * @return Returns a double[] containing the Gap and the SecondaryGap in degrees, 360 for fewer
+   *     than two stations
+   */
+  public static double[] computeGaps(double[] azimuths, int count) {
+    double[] sorted = Arrays.copyOf(azimuths, count);
+    for (int i = 0; i < count; i++) {
+      sorted[i] = normalizeAzimuth(sorted[i]);
+    }
+    Arrays.sort(sorted);
+
+    // drop equal azimuths
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if ((unique == 0) || (sorted[i] != sorted[unique - 1])) {
+        sorted[unique++] = sorted[i];
+      }
+    }
+    if (unique < 2) {
+      return (new double[] {360.0, 360.0});
+    }
+
+    // the gap after each station, the last wrapping around north
+    double gap = 0;
+    double secondaryGap = 0;
+    double previousGap = sorted[0] + 360.0 - sorted[unique - 1];
+    for (int i = 0; i < unique; i++) {
+      double nextGap = ((i + 1 < unique) ? sorted[i + 1] : sorted[0] + 360.0) - sorted[i];
+      gap = Math.max(gap, nextGap);
+      secondaryGap = Math.max(secondaryGap, previousGap + nextGap);
+      previousGap = nextGap;
+    }
+
+    return (new double[] {gap, Math.min(secondaryGap, 360.0)});
+  }
+
+  /**
+   * Computes great circle distances and azimuths on a sphere
+   *
+   * @param sourceLatitude - A double containing the source latitude in degrees
+   * @param sourceLongitude - A double containing the source longitude in degrees
+   * @param latitudes - A double[] containing the station latitudes in degrees
+   * @param longitudes - A double[] containing the station longitudes in degrees
+   * @param count - An int containing the number of stations
+   * @param distances - A double[] to receive the distances in degrees
+   * @param azimuths - A double[] to receive the azimuths in degrees, or null
+   */
+  private static void computeSpherical(
+      double sourceLatitude,
+      double sourceLongitude,
+      double[] latitudes,
+      double[] longitudes,
+      int count,
+      double[] distances,
+      double[] azimuths) {
+    double sourceLatitudeRadians = Math.toRadians(sourceLatitude);
+    double sinSource = Math.sin(sourceLatitudeRadians);
+    double cosSource = Math.cos(sourceLatitudeRadians);
+
+    for (int i = 0; i < count; i++) {
+      double latitude = Math.toRadians(latitudes[i]);
+      double deltaLongitude = Math.toRadians(longitudes[i] - sourceLongitude);
+      double sinStation = Math.sin(latitude);
+      double cosStation = Math.cos(latitude);
+      double sinDelta = Math.sin(deltaLongitude);
+      double cosDelta = Math.cos(deltaLongitude);
+
+      double east = cosStation * sinDelta;
+      double north = cosSource * sinStation - sinSource * cosStation * cosDelta;
+      double along = sinSource * sinStation + cosSource * cosStation * cosDelta;
+
+      distances[i] = Math.toDegrees(Math.atan2(Math.sqrt(east * east + north * north), along));
+      if (azimuths != null) {
+        azimuths[i] = normalizeAzimuth(Math.toDegrees(Math.atan2(east, north)));
+      }
+    }
+  }
+
+  /**
+   * Computes geodesic distances and azimuths on the WGS84 ellipsoid with Vincenty's inverse
+   * formula, falling back to a sphere for nearly antipodal stations
+   *
+   * @param sourceLatitude - A double containing the source latitude in degrees
+   * @param sourceLongitude - A double containing the source longitude in degrees
+   * @param latitudes - A double[] containing the station latitudes in degrees
+   * @param longitudes - A double[] containing the station longitudes in degrees
+   * @param count - An int containing the number of stations
+   * @param distances - A double[] to receive the distances in degrees
+   * @param azimuths - A double[] to receive the azimuths in degrees, or null
+   */
+  private static void computeEllipsoidal(
+      double sourceLatitude,
+      double sourceLongitude,
+      double[] latitudes,
+      double[] longitudes,
+      int count,
+      double[] distances,
+      double[] azimuths) {
+    // reduced latitude of the source
+    double reducedSource = Math.atan((1.0 - WGS84_F) * Math.tan(Math.toRadians(sourceLatitude)));
+    double sinU1 = Math.sin(reducedSource);
+    double cosU1 = Math.cos(reducedSource);
+    double secondEccentricity = (WGS84_A * WGS84_A - WGS84_B * WGS84_B) / (WGS84_B * WGS84_B);
+
+    for (int i = 0; i < count; i++) {
+      double reducedStation = Math.atan((1.0 - WGS84_F) * Math.tan(Math.toRadians(latitudes[i])));
+      double sinU2 = Math.sin(reducedStation);
+      double cosU2 = Math.cos(reducedStation);
+      double deltaLongitude = Math.toRadians(normalizeLongitude(longitudes[i] - sourceLongitude));
+
+      double lambda = deltaLongitude;
+      double sinLambda = 0;
+      double cosLambda = 0;
+      double sinSigma = 0;
+      double cosSigma = 0;
+      double sigma = 0;
+      double cosSquaredAlpha = 0;
+      double cos2SigmaM = 0;
+      boolean converged = false;
+
+      for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+        sinLambda = Math.sin(lambda);
+        cosLambda = Math.cos(lambda);
+        double east = cosU2 * sinLambda;
+        double north = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+        sinSigma = Math.sqrt(east * east + north * north);
+        if (sinSigma == 0) {
+          // coincident points
+          converged = true;
+          break;
+        }
+
+        cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+        sigma = Math.atan2(sinSigma, cosSigma);
+        double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+        cosSquaredAlpha = 1.0 - sinAlpha * sinAlpha;
+        cos2SigmaM = (cosSquaredAlpha != 0) ? cosSigma - 2.0 * sinU1 * sinU2 / cosSquaredAlpha : 0;
+        double c =
+            WGS84_F / 16.0 * cosSquaredAlpha * (4.0 + WGS84_F * (4.0 - 3.0 * cosSquaredAlpha));
+
+        double previousLambda = lambda;
+        lambda =
+            deltaLongitude
+                + (1.0 - c)
+                    * WGS84_F
+                    * sinAlpha
+                    * (sigma
+                        + c
+                            * sinSigma
+                            * (cos2SigmaM + c * cosSigma * (-1.0 + 2.0 * cos2SigmaM * cos2SigmaM)));
+        if (Math.abs(lambda - previousLambda) < TOLERANCE) {
+          converged = true;
+          break;
+        }
+      }
+
+      if (!converged) {
+        double[] distance = new double[1];
+        double[] azimuth = new double[1];
+        computeSpherical(
+            sourceLatitude,
+            sourceLongitude,
+            new double[] {latitudes[i]},
+            new double[] {longitudes[i]},
+            1,
+            distance,
+            azimuth);
+        distances[i] = distance[0];
+        if (azimuths != null) {
+          azimuths[i] = azimuth[0];
+        }
+        continue;
+      }
+
+      if (sinSigma == 0) {
+        distances[i] = 0;
+        if (azimuths != null) {
+          azimuths[i] = 0;
+        }
+        continue;
+      }
+
+      double uSquared = cosSquaredAlpha * secondEccentricity;
+      double a =
+          1.0
+              + uSquared
+                  / 16384.0
+                  * (4096.0 + uSquared * (-768.0 + uSquared * (320.0 - 175.0 * uSquared)));
+      double b =
+          uSquared / 1024.0 * (256.0 + uSquared * (-128.0 + uSquared * (74.0 - 47.0 * uSquared)));
+      double deltaSigma =
+          b
+              * sinSigma
+              * (cos2SigmaM
+                  + b
+                      / 4.0
+                      * (cosSigma * (-1.0 + 2.0 * cos2SigmaM * cos2SigmaM)
+                          - b
+                              / 6.0
+                              * cos2SigmaM
+                              * (-3.0 + 4.0 * sinSigma * sinSigma)
+                              * (-3.0 + 4.0 * cos2SigmaM * cos2SigmaM)));
+
+      distances[i] = WGS84_B * a * (sigma - deltaSigma) / KM_PER_DEGREE;
+      if (azimuths != null) {
+        azimuths[i] =
+            normalizeAzimuth(
+                Math.toDegrees(
+                    Math.atan2(cosU2 * sinLambda, cosU1 * sinU2 - sinU1 * cosU2 * cosLambda)));
+      }
+    }
+  }
+
+  /**
+   * Checks whether a pick has a Site with a Latitude and Longitude
+   *
+   * @param pick - The Pick to check
+   * @return Returns true if the pick has a location
+   */
+  private static boolean hasLocation(Pick pick) {
+    return ((pick.Site != null) && (pick.Site.Latitude != null) && (pick.Site.Longitude != null));
+  }
+
+  /**
+   * Checks whether a pick of a batch has a Site with a Latitude and Longitude
+   *
+   * @param batch - The PickBatch to check
+   * @param index - An int containing the index of the pick
+   * @return Returns true if the pick has a location
+   */
+  private static boolean hasLocation(PickBatch batch, int index) {
+    return (batch.hasSite(index)
+        && batch.hasDouble(PickBatch.DoubleColumn.LATITUDE, index)
+        && batch.hasDouble(PickBatch.DoubleColumn.LONGITUDE, index));
+  }
+
+  /**
+   * Normalizes an azimuth
+   *
+   * @param azimuth - A double containing the azimuth in degrees
+   * @return Returns the azimuth from 0 to 360 degrees
+   */
+  private static double normalizeAzimuth(double azimuth) {
+    double normalized = azimuth % 360.0;
+    return ((normalized < 0) ? normalized + 360.0 : normalized);
+  }
+
+  /**
+   * Normalizes a longitude difference
+   *
+   * @param longitude - A double containing the difference in degrees
+   * @return Returns the difference from -180 to 180 degrees
+   */
+  private static double normalizeLongitude(double longitude) {
+    double normalized = normalizeAzimuth(longitude + 180.0);
+    return (normalized - 180.0);
+  }
+}
@@ -1,7 +1,9 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import org.json.simple.JSONObject;
 
 /**
@@ -47,6 +49,12 @@ public class Hypocenter implements ProcessingInt {
   /** Optional Double containing the Depth error */
   public Double DepthError;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
   /** The constructor for the Hypo class. Initializes members to null values. */
   public Hypocenter() {
 
@@ -58,6 +66,7 @@ public class Hypocenter implements ProcessingInt {
     LongitudeError = null;
     TimeError = null;
     DepthError = null;
+    UnknownKeys = null;
   }
 
   /**
@@ -128,6 +137,7 @@ public class Hypocenter implements ProcessingInt {
     LongitudeError = newLongitudeError;
     TimeError = newTimeError;
     DepthError = newDepthError;
+    UnknownKeys = null;
   }
 
   /**
@@ -136,6 +146,7 @@ public class Hypocenter implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public Hypocenter(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Latitude
@@ -202,6 +213,11 @@ public class Hypocenter implements ProcessingInt {
     } else {
       DepthError = null;
     }
+
+    // keys this class does not know
+    UnknownKeys = RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.HYPOCENTER_KEYS);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.DECODE, "Hypocenter", 1, span, 0);
   }
 
   /**
@@ -211,6 +227,7 @@ public class Hypocenter implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -256,22 +273,76 @@ public class Hypocenter implements ProcessingInt {
       newJSONObject.put(TIME_ERROR_KEY, TimeError);
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.ENCODE, "Hypocenter", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Latitude
+    if (Latitude != null) {
+      writer.name(LATITUDE_KEY).value(Latitude);
+    }
+
+    // Longitude
+    if (Longitude != null) {
+      writer.name(LONGITUDE_KEY).value(Longitude);
+    }
+
+    // Depth
+    if (Depth != null) {
+      writer.name(DEPTH_KEY).value(Depth);
+    }
+
+    // Time
+    if (Time != null) {
+      writer.name(TIME_KEY).value(Utility.formatDate(Time));
+    }
+
+    // LatitudeError
+    if (LatitudeError != null) {
+      writer.name(LATITUDE_ERROR_KEY).value(LatitudeError);
+    }
+
+    // LongitudeError
+    if (LongitudeError != null) {
+      writer.name(LONGITUDE_ERROR_KEY).value(LongitudeError);
+    }
+
+    // DepthError
+    if (DepthError != null) {
+      writer.name(DEPTH_ERROR_KEY).value(DepthError);
+    }
+
+    // TimeError
+    if (TimeError != null) {
+      writer.name(TIME_ERROR_KEY).value(TimeError);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -280,41 +351,61 @@ public class Hypocenter implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(Instrumentation.Operation.VALIDATE, "Hypocenter", 1, span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // Required Keys
     // Latitude
     if (Latitude == null) {
       // Latitude not found
-      errorList.add("No Latitude in Hypo Class.");
+      valid = false;
+      sink.add("No Latitude in Hypo Class.");
     } else if ((Latitude < -90.0) || (Latitude > 90.0)) {
       // invalid Latitude
-      errorList.add("Latitude in Hypo Class not in the range of -90 to 90.");
+      valid = false;
+      sink.add("Latitude in Hypo Class not in the range of -90 to 90.");
     }
 
     // Longitude
     if (Longitude == null) {
       // Longitude not found
-      errorList.add("No Longitude in Hypo Class.");
+      valid = false;
+      sink.add("No Longitude in Hypo Class.");
     } else if ((Longitude < -180.0) || (Longitude > 180.0)) {
       // invalid Longitude
-      errorList.add("Longitude in Hypo Class not in the range of -180 to 180.");
+      valid = false;
+      sink.add("Longitude in Hypo Class not in the range of -180 to 180.");
     }
 
     // Time
     if (Time == null) {
       // Time not found
-      errorList.add("No Time in Hypo Class.");
+      valid = false;
+      sink.add("No Time in Hypo Class.");
     }
 
     // Depth
     if (Depth == null) {
       // Depth not found
-      errorList.add("No Depth in Hypo Class.");
+      valid = false;
+      sink.add("No Depth in Hypo Class.");
     } else if ((Depth < -100.0) || (Depth > 1500.0)) {
       // invalid Depth
-      errorList.add("Depth in Hypo Class not in the range of -100 to 1500.");
+      valid = false;
+      sink.add("Depth in Hypo Class not in the range of -100 to 1500.");
     }
 
     // Optional Keys
@@ -322,6 +413,6 @@ public class Hypocenter implements ProcessingInt {
     // LongitudeError, TimeError, and DepthError.
 
     // success
-    return (errorList);
+    return (valid);
   }
 }
@@ -0,0 +1,87 @@
+package gov.usgs.processingformats;
+
+/**
+ * an interface used to receive timings of the parse, serialize, decode, encode, and validate
+ * operations of the library, so they can be recorded as metrics or tracing events.
+ *
+ * <p>The active instrumentation is held by InstrumentationRegistry. By default it is NOOP, unless
+ * an implementation is registered as a java.util.ServiceLoader provider of this interface or set
+ * with InstrumentationRegistry.set(). Implementations are called from any thread and must be thread
+ * safe.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public interface Instrumentation {
+  /** The instrumented operations */
+  public enum Operation {
+    /** Utility.fromJSONString(), parsing serialized JSON into a JSONObject */
+    PARSE,
+    /** Utility.toJSONString(), serializing a JSONObject */
+    SERIALIZE,
+    /** A constructor from a JSONObject */
+    DECODE,
+    /** toJSON() */
+    ENCODE,
+    /** getErrors() */
+    VALIDATE
+  }
+
+  /** An instrumentation that records nothing, and is not enabled so nothing is timed */
+  public static final Instrumentation NOOP =
+      new Instrumentation() {
+        public void record(Operation operation, String type, int size, long nanos, long bytes) {}
+
+        public boolean isEnabled() {
+          return (false);
+        }
+      };
+
+  /**
+   * Records one completed operation
+   *
+   * @param operation - The Operation that completed
+   * @param type - A String containing the name of the class, or JSON for PARSE and SERIALIZE
+   * @param size - An int containing the payload size, the number of picks, receivers, branches, or
+   *     samples for classes that hold a list, otherwise 1
+   * @param nanos - A long containing the elapsed time in nanoseconds
+   * @param bytes - A long containing the number of characters parsed or serialized, 0 for the other
+   *     operations
+   */
+  public void record(Operation operation, String type, int size, long nanos, long bytes);
+
+  /**
+   * Begins an operation, called by InstrumentationRegistry.start() before each operation while the
+   * instrumentation is enabled
+   *
+   * @return Returns an Object passed back to record() when the operation completes, such as a begun
+   *     flight recorder event, or null
+   */
+  public default Object begin() {
+    return (null);
+  }
+
+  /**
+   * Records one completed operation begun by begin(), by default ignoring the token
+   *
+   * @param operation - The Operation that completed
+   * @param type - A String containing the name of the class, or JSON for PARSE and SERIALIZE
+   * @param size - An int containing the payload size
+   * @param nanos - A long containing the elapsed time in nanoseconds
+   * @param bytes - A long containing the number of characters parsed or serialized, or 0
+   * @param token - The Object returned by begin()
+   */
+  public default void record(
+      Operation operation, String type, int size, long nanos, long bytes, Object token) {
+    record(operation, type, size, nanos, bytes);
+  }
+
+  /**
+   * Whether operations should be timed at all, checked before each operation so a disabled
+   * instrumentation costs no more than this call
+   *
+   * @return Returns true if operations should be timed and recorded
+   */
+  public default boolean isEnabled() {
+    return (true);
+  }
+}
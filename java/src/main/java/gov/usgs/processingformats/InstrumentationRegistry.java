@@ -0,0 +1,179 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * a class used to hold the active Instrumentation and time the instrumented operations.
+ *
+ * <p>On first use, every java.util.ServiceLoader provider of Instrumentation found on the class
+ * path is loaded and combined, otherwise Instrumentation.NOOP is used. Instrumented operations call
+ * start() before and record() after, passing along the Span returned by start() so the
+ * instrumentation that began the operation also records it. When the active instrumentation is not
+ * enabled start() returns null without reading the clock, and record() does nothing.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public final class InstrumentationRegistry {
+  /**
+   * a class used to carry one operation from start() to record().
+   *
+   * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+   */
+  public static final class Span {
+    /** The Instrumentation that began the operation */
+    private final Instrumentation instrumentation;
+
+    /** The Object returned by Instrumentation.begin() */
+    private final Object token;
+
+    /** The start time in nanoseconds */
+    private final long startNanos;
+
+    /**
+     * Creates a span
+     *
+     * @param instrumentation - The Instrumentation that began the operation
+     * @param token - The Object returned by its begin()
+     * @param startNanos - A long containing the start time in nanoseconds
+     */
+    private Span(Instrumentation instrumentation, Object token, long startNanos) {
+      this.instrumentation = instrumentation;
+      this.token = token;
+      this.startNanos = startNanos;
+    }
+  }
+
+  /** The active instrumentation */
+  private static volatile Instrumentation instrumentation = load();
+
+  /** Not constructed, the registry is static */
+  private InstrumentationRegistry() {}
+
+  /**
+   * Gets the active instrumentation
+   *
+   * @return Returns the active Instrumentation
+   */
+  public static Instrumentation get() {
+    return (instrumentation);
+  }
+
+  /**
+   * Sets the active instrumentation
+   *
+   * @param newInstrumentation - The Instrumentation to use, null for Instrumentation.NOOP
+   */
+  public static void set(Instrumentation newInstrumentation) {
+    if (newInstrumentation == null) {
+      instrumentation = Instrumentation.NOOP;
+    } else {
+      instrumentation = newInstrumentation;
+    }
+  }
+
+  /**
+   * Combines instrumentations, so each records every operation
+   *
+   * @param instrumentations - The Instrumentations to combine
+   * @return Returns an Instrumentation recording to all of them, enabled if any of them is
+   */
+  public static Instrumentation combine(Instrumentation... instrumentations) {
+    List<Instrumentation> enabled = new ArrayList<Instrumentation>();
+    for (Instrumentation each : instrumentations) {
+      if ((each != null) && each.isEnabled()) {
+        enabled.add(each);
+      }
+    }
+
+    if (enabled.isEmpty()) {
+      return (Instrumentation.NOOP);
+    } else if (enabled.size() == 1) {
+      return (enabled.get(0));
+    }
+
+    Instrumentation[] all = enabled.toArray(new Instrumentation[0]);
+    return (new Instrumentation() {
+      public void record(Operation operation, String type, int size, long nanos, long bytes) {
+        for (Instrumentation each : all) {
+          each.record(operation, type, size, nanos, bytes);
+        }
+      }
+
+      public Object begin() {
+        Object[] tokens = new Object[all.length];
+        for (int i = 0; i < all.length; i++) {
+          tokens[i] = all[i].begin();
+        }
+        return (tokens);
+      }
+
+      public void record(
+          Operation operation, String type, int size, long nanos, long bytes, Object token) {
+        Object[] tokens = (Object[]) token;
+        for (int i = 0; i < all.length; i++) {
+          all[i].record(operation, type, size, nanos, bytes, tokens[i]);
+        }
+      }
+    });
+  }
+
+  /**
+   * Starts an operation, beginning it with the active instrumentation
+   *
+   * @return Returns the Span to pass to record(), or null if the active instrumentation is not
+   *     enabled
+   */
+  public static Span start() {
+    Instrumentation active = instrumentation;
+    if (!active.isEnabled()) {
+      return (null);
+    }
+    return (new Span(active, active.begin(), System.nanoTime()));
+  }
+
+  /**
+   * Records an operation started by start() with the instrumentation that began it
+   *
+   * @param operation - The Instrumentation.Operation that completed
+   * @param type - A String containing the name of the class, or JSON for PARSE and SERIALIZE
+   * @param size - An int containing the payload size
+   * @param span - The Span returned by start(), may be null
+   * @param bytes - A long containing the number of characters parsed or serialized, or 0
+   */
+  public static void record(
+      Instrumentation.Operation operation, String type, int size, Span span, long bytes) {
+    if (span == null) {
+      return;
+    }
+    span.instrumentation.record(
+        operation, type, size, System.nanoTime() - span.startNanos, bytes, span.token);
+  }
+
+  /**
+   * Gets the payload size of a list for record()
+   *
+   * @param list - The List, or null
+   * @return Returns the size of the list, 0 if it is null
+   */
+  public static int sizeOf(List<?> list) {
+    if (list == null) {
+      return (0);
+    }
+    return (list.size());
+  }
+
+  /**
+   * Loads the instrumentation providers
+   *
+   * @return Returns the combined Instrumentation, or Instrumentation.NOOP if there are none
+   */
+  private static Instrumentation load() {
+    List<Instrumentation> providers = new ArrayList<Instrumentation>();
+    for (Instrumentation provider : ServiceLoader.load(Instrumentation.class)) {
+      providers.add(provider);
+    }
+    return (combine(providers.toArray(new Instrumentation[0])));
+  }
+}
@@ -0,0 +1,238 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * a concurrent canonicalization class used to share one instance of each distinct Site and Source
+ * between picks, shrinking the heap held by buffered pick windows and allowing stations to be
+ * compared by identity.
+ *
+ * <p>intern() returns the registered instance equal to its argument, registering the argument if
+ * there is none. The intern methods for picks, requests and results replace the Site and Source of
+ * each pick in place, so they can be applied to the output of any decoder, for example as the
+ * record parser of an NDJSONReader. The registry holds at most a configured number of Sites and
+ * Sources each; once full, unregistered values are returned as they are, so registered instances
+ * keep their identity for the life of the registry. Since equals() ignores unknown keys and
+ * retained source text, Sites and Sources with either are neither registered nor replaced.
+ *
+ * <p>Registered instances are shared: they must be treated as immutable, and must not be recycled
+ * through a ProcessingPool.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class InternRegistry {
+  /** The default maximum number of registered Sites and Sources each */
+  public static final int DEFAULT_MAX_SIZE = 65536;
+
+  /** The maximum number of registered Sites and Sources each */
+  private final int maxSize;
+
+  /** The registered Sites */
+  private final ConcurrentHashMap<Site, Site> sites = new ConcurrentHashMap<Site, Site>();
+
+  /** The registered Sources */
+  private final ConcurrentHashMap<Source, Source> sources = new ConcurrentHashMap<Source, Source>();
+
+  /** The number of values replaced by a registered instance */
+  private final AtomicLong hits = new AtomicLong();
+
+  /** The number of values registered or left as they are */
+  private final AtomicLong misses = new AtomicLong();
+
+  /** Creates a registry of the default size */
+  public InternRegistry() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Creates a registry
+   *
+   * @param maxSize - An int containing the maximum number of registered Sites and Sources each
+   */
+  public InternRegistry(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Invalid maximum size " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Canonicalizes a Site
+   *
+   * @param site - The Site, may be null
+   * @return Returns the registered Site equal to site, or site itself
+   */
+  public Site intern(Site site) {
+    if (site == null) {
+      return (null);
+    } else if (!isInternable(site.UnknownKeys, site.getRawJSON())) {
+      misses.incrementAndGet();
+      return (site);
+    }
+
+    Site registered = sites.get(site);
+    if (registered == null) {
+      if (sites.size() < maxSize) {
+        registered = sites.putIfAbsent(site, site);
+      }
+      if (registered == null) {
+        misses.incrementAndGet();
+        return (site);
+      }
+    }
+    hits.incrementAndGet();
+    return (registered);
+  }
+
+  /**
+   * Canonicalizes a Source
+   *
+   * @param source - The Source, may be null
+   * @return Returns the registered Source equal to source, or source itself
+   */
+  public Source intern(Source source) {
+    if (source == null) {
+      return (null);
+    } else if (!isInternable(source.UnknownKeys, source.getRawJSON())) {
+      misses.incrementAndGet();
+      return (source);
+    }
+
+    Source registered = sources.get(source);
+    if (registered == null) {
+      if (sources.size() < maxSize) {
+        registered = sources.putIfAbsent(source, source);
+      }
+      if (registered == null) {
+        misses.incrementAndGet();
+        return (source);
+      }
+    }
+    hits.incrementAndGet();
+    return (registered);
+  }
+
+  /**
+   * Whether a Site or Source may be registered or replaced
+   *
+   * @param unknownKeys - The UnknownKeys of the value
+   * @param raw - The RawJSON retained by the value
+   * @return Returns true if the value has neither unknown keys nor retained text
+   */
+  private static boolean isInternable(LinkedHashMap<String, Object> unknownKeys, RawJSON raw) {
+    return (((unknownKeys == null) || unknownKeys.isEmpty()) && (raw == null));
+  }
+
+  /**
+   * Canonicalizes the Site and Source of a Pick in place
+   *
+   * @param pick - The Pick, may be null
+   * @return Returns the Pick
+   */
+  public Pick intern(Pick pick) {
+    if (pick != null) {
+      pick.Site = intern(pick.Site);
+      pick.Source = intern(pick.Source);
+    }
+    return (pick);
+  }
+
+  /**
+   * Canonicalizes the Sites and Sources of a list of picks in place
+   *
+   * @param picks - The List&lt;Pick&gt;, may be null
+   * @return Returns the list
+   */
+  public List<Pick> intern(List<Pick> picks) {
+    if (picks != null) {
+      for (Pick pick : picks) {
+        intern(pick);
+      }
+    }
+    return (picks);
+  }
+
+  /**
+   * Canonicalizes the Source of a LocationRequest and the Sites and Sources of its InputData and
+   * OutputData picks in place
+   *
+   * @param request - The LocationRequest, may be null
+   * @return Returns the LocationRequest
+   */
+  public LocationRequest intern(LocationRequest request) {
+    if (request != null) {
+      request.Source = intern(request.Source);
+      intern(request.InputData);
+      intern(request.OutputData);
+    }
+    return (request);
+  }
+
+  /**
+   * Canonicalizes the Sites and Sources of the SupportingData picks of a LocationResult in place
+   *
+   * @param result - The LocationResult, may be null
+   * @return Returns the LocationResult
+   */
+  public LocationResult intern(LocationResult result) {
+    if (result != null) {
+      intern(result.SupportingData);
+    }
+    return (result);
+  }
+
+  /**
+   * Gets the registered Sites
+   *
+   * @return Returns a snapshot of the registered Sites
+   */
+  public ArrayList<Site> getSites() {
+    return (new ArrayList<Site>(sites.keySet()));
+  }
+
+  /**
+   * Gets the registered Sources
+   *
+   * @return Returns a snapshot of the registered Sources
+   */
+  public ArrayList<Source> getSources() {
+    return (new ArrayList<Source>(sources.keySet()));
+  }
+
+  /**
+   * Gets the number of registered Sites and Sources
+   *
+   * @return Returns the size of the registry
+   */
+  public int getSize() {
+    return (sites.size() + sources.size());
+  }
+
+  /**
+   * Gets the number of values replaced by a registered instance
+   *
+   * @return Returns the hit count
+   */
+  public long getHitCount() {
+    return (hits.get());
+  }
+
+  /**
+   * Gets the number of values registered or left as they are
+   *
+   * @return Returns the miss count
+   */
+  public long getMissCount() {
+    return (misses.get());
+  }
+
+  /** Removes every registered value, later values are no longer identical to earlier ones */
+  public void clear() {
+    sites.clear();
+    sources.clear();
+  }
+}
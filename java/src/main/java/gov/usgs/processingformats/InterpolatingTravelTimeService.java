@@ -0,0 +1,903 @@
+package gov.usgs.processingformats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * a local TravelTimeService class used to answer travel time requests by interpolating tabulated
+ * travel time curves, instead of calling a remote travel time server.
+ *
+ * <p>The table is built once from TravelTimePlotRequest Responses for a grid of source depths, and
+ * holds every branch as primitive arrays. A travel time at a receiver Distance is found on each
+ * branch of the two grid depths around the source Depth by cubic Hermite interpolation between the
+ * neighboring samples, using the sample RayParameter (in seconds per degree) as the slope of the
+ * curve where present, and then interpolated linearly in depth. Arrivals of the same phase at the
+ * two depths are paired in travel time order; an arrival without a partner at the other depth, such
+ * as near the end of a branch, is dropped. StatisticalSpread and Observability are interpolated
+ * linearly. Receiver Elevation is not corrected for. A receiver without a Distance is located at
+ * the spherical Geodesy distance between its Latitude and Longitude and those of the source.
+ *
+ * <p>The table holds the phases and arrivals of its plots' PhaseTypes, ReturnAllPhases, and
+ * ReturnBackBranches. A request may ask for a subset of the tabulated PhaseTypes, and gets only the
+ * first arrival of each phase unless it asks for, and the table holds, back branches. Since the
+ * table cannot tell which phases the server would return without ReturnAllPhases, a request must
+ * ask for the tabulated ReturnAllPhases, and may not ask for back branches the table lacks.
+ *
+ * <p>The table reports error bounds found by leaving each sample out and interpolating it from its
+ * neighbors, in distance and in depth. Since the neighbors are twice as far apart as the samples in
+ * use, these bound the interpolation error of the table.
+ *
+ * <p>A table can be saved to and loaded from a binary file for fast startup. It is immutable and
+ * thread safe.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class InterpolatingTravelTimeService implements TravelTimeService {
+  /** Magic bytes at the start of a table file */
+  private static final byte[] MAGIC = {'P', 'F', 'T'};
+
+  /** The current file format version */
+  public static final int VERSION = 2;
+
+  /** The EarthModel of the table, or null for the default */
+  private final String earthModel;
+
+  /** The tabulated PhaseTypes, or null for all */
+  private final ArrayList<String> phaseTypes;
+
+  /** Whether all phases are tabulated */
+  private final boolean allPhases;
+
+  /** Whether back branches are tabulated */
+  private final boolean backBranches;
+
+  /** The sorted grid of source depths */
+  private final double[] depths;
+
+  /** The branches at each grid depth */
+  private final Curve[][] curves;
+
+  /** The largest error found interpolating in distance */
+  private final double distanceErrorBound;
+
+  /** The largest error found interpolating in depth */
+  private final double depthErrorBound;
+
+  /**
+   * Builds a table by requesting travel time plots at a grid of depths
+   *
+   * @param service - The TravelTimeService to request the plots from
+   * @param template - A TravelTimePlotRequest with the EarthModel, phase options, and distance
+   *     range to tabulate; its Source Depth is replaced by each grid depth
+   * @param depths - The grid of source depths in kilometers
+   * @return Returns the InterpolatingTravelTimeService
+   * @throws TravelTimeException if the plots cannot be requested
+   */
+  public static InterpolatingTravelTimeService build(
+      TravelTimeService service, TravelTimePlotRequest template, double[] depths)
+      throws TravelTimeException {
+    ArrayList<TravelTimePlotRequest> plots = new ArrayList<TravelTimePlotRequest>();
+    for (double depth : depths) {
+      TravelTimePlotRequest request = new TravelTimePlotRequest(template);
+      TravelTimeSource source =
+          template.Source != null ? new TravelTimeSource(template.Source) : new TravelTimeSource();
+      source.Depth = depth;
+      request.Source = source;
+      request.Response = null;
+
+      plots.add(service.getTravelTimePlot(request));
+    }
+    return (new InterpolatingTravelTimeService(plots));
+  }
+
+  /**
+   * Creates a table from answered travel time plot requests
+   *
+   * @param plots - The TravelTimePlotRequests, one per grid depth, each with a Source Depth and a
+   *     Response, all for the same EarthModel, PhaseTypes, ReturnAllPhases, and ReturnBackBranches
+   * @throws TravelTimeException if the plots do not form a table
+   */
+  public InterpolatingTravelTimeService(List<TravelTimePlotRequest> plots)
+      throws TravelTimeException {
+    if (plots == null || plots.isEmpty()) {
+      throw new TravelTimeException("No travel time plots");
+    }
+
+    ArrayList<TravelTimePlotRequest> sorted = new ArrayList<TravelTimePlotRequest>();
+    TravelTimePlotRequest first = plots.get(0);
+    String model = (first != null) ? first.EarthModel : null;
+    ArrayList<String> types = (first != null) ? first.PhaseTypes : null;
+    boolean all = (first != null) && Boolean.TRUE.equals(first.ReturnAllPhases);
+    boolean back = (first != null) && Boolean.TRUE.equals(first.ReturnBackBranches);
+    for (TravelTimePlotRequest plot : plots) {
+      if (plot == null || plot.Source == null || plot.Source.Depth == null) {
+        throw new TravelTimeException("Travel time plot without a source depth");
+      } else if (plot.Response == null) {
+        throw new TravelTimeException("Travel time plot without a Response");
+      } else if (!Objects.equals(model, plot.EarthModel)) {
+        throw new TravelTimeException("Travel time plots for different earth models");
+      } else if (!Objects.equals(types, plot.PhaseTypes)
+          || (all != Boolean.TRUE.equals(plot.ReturnAllPhases))
+          || (back != Boolean.TRUE.equals(plot.ReturnBackBranches))) {
+        throw new TravelTimeException("Travel time plots for different phase options");
+      }
+      sorted.add(plot);
+    }
+    sorted.sort(Comparator.comparingDouble(plot -> plot.Source.Depth));
+
+    earthModel = model;
+    phaseTypes = (types != null && !types.isEmpty()) ? new ArrayList<String>(types) : null;
+    allPhases = all;
+    backBranches = back;
+    depths = new double[sorted.size()];
+    curves = new Curve[sorted.size()][];
+    for (int j = 0; j < depths.length; j++) {
+      depths[j] = sorted.get(j).Source.Depth;
+      if (j > 0 && depths[j] == depths[j - 1]) {
+        throw new TravelTimeException("Duplicate travel time plot depth " + depths[j]);
+      }
+
+      ArrayList<Curve> branches = new ArrayList<Curve>();
+      for (TravelTimePlotDataBranch branch : sorted.get(j).Response) {
+        Curve curve = Curve.of(branch);
+        if (curve != null) {
+          branches.add(curve);
+        }
+      }
+      curves[j] = branches.toArray(new Curve[0]);
+    }
+
+    distanceErrorBound = findDistanceErrorBound();
+    depthErrorBound = findDepthErrorBound();
+  }
+
+  /**
+   * Creates a table from loaded values
+   *
+   * @param earthModel - The EarthModel
+   * @param phaseTypes - The tabulated PhaseTypes, or null for all
+   * @param allPhases - Whether all phases are tabulated
+   * @param backBranches - Whether back branches are tabulated
+   * @param depths - The sorted grid of depths
+   * @param curves - The branches at each depth
+   */
+  private InterpolatingTravelTimeService(
+      String earthModel,
+      ArrayList<String> phaseTypes,
+      boolean allPhases,
+      boolean backBranches,
+      double[] depths,
+      Curve[][] curves) {
+    this.earthModel = earthModel;
+    this.phaseTypes = phaseTypes;
+    this.allPhases = allPhases;
+    this.backBranches = backBranches;
+    this.depths = depths;
+    this.curves = curves;
+    distanceErrorBound = findDistanceErrorBound();
+    depthErrorBound = findDepthErrorBound();
+  }
+
+  /**
+   * Process a TravelTimeRequest by interpolating the table, returning the requested phases and
+   * arrivals
+   *
+   * @param request traveltime inputs.
+   * @return calculated traveltime.
+   * @throws TravelTimeException if errors occur, or the request asks for phases or arrivals that
+   *     are not tabulated.
+   */
+  @Override
+  public TravelTimeRequest getTravelTimes(final TravelTimeRequest request)
+      throws TravelTimeException {
+    if (request == null || request.Source == null || request.Source.Depth == null) {
+      throw new TravelTimeException("Missing source depth");
+    } else if (request.Receivers == null) {
+      throw new TravelTimeException("Missing receivers");
+    } else if (request.EarthModel != null && !request.EarthModel.equals(earthModel)) {
+      throw new TravelTimeException("Earth model " + request.EarthModel + " is not tabulated");
+    } else if (allPhases != Boolean.TRUE.equals(request.ReturnAllPhases)) {
+      throw new TravelTimeException("ReturnAllPhases " + allPhases + " is tabulated");
+    } else if (Boolean.TRUE.equals(request.ReturnBackBranches) && !backBranches) {
+      throw new TravelTimeException("Back branches are not tabulated");
+    }
+
+    // the requested phases, all tabulated ones for none
+    HashSet<String> requested = null;
+    if ((request.PhaseTypes != null) && !request.PhaseTypes.isEmpty()) {
+      requested = new HashSet<String>(request.PhaseTypes);
+      if ((phaseTypes != null) && !phaseTypes.containsAll(requested)) {
+        throw new TravelTimeException("Phase types " + request.PhaseTypes + " are not tabulated");
+      }
+    } else if (phaseTypes != null) {
+      throw new TravelTimeException("Only phase types " + phaseTypes + " are tabulated");
+    }
+    boolean firstArrivals = !Boolean.TRUE.equals(request.ReturnBackBranches);
+
+    double depth = request.Source.Depth;
+    if (!(depth >= depths[0] && depth <= depths[depths.length - 1])) {
+      throw new TravelTimeException("Source depth " + depth + " is outside the table");
+    }
+
+    ArrayList<TravelTimeReceiver> response = new ArrayList<TravelTimeReceiver>();
+    for (TravelTimeReceiver receiver : request.Receivers) {
+      if (receiver == null) {
+        throw new TravelTimeException("Missing receiver");
+      }
+      TravelTimeReceiver answer = new TravelTimeReceiver(receiver);
+      if (answer.Distance == null) {
+        answer.Distance = computeDistance(request.Source, receiver);
+      }
+      answer.Branches = select(getTravelTimes(depth, answer.Distance), requested, firstArrivals);
+      response.add(answer);
+    }
+
+    TravelTimeRequest result = new TravelTimeRequest(request);
+    result.Response = response;
+    return (result);
+  }
+
+  /**
+   * Computes the distance of a receiver given by its location
+   *
+   * @param source - The TravelTimeSource
+   * @param receiver - The TravelTimeReceiver
+   * @return Returns the distance in degrees
+   * @throws TravelTimeException if the source or receiver has no Latitude and Longitude
+   */
+  private static double computeDistance(TravelTimeSource source, TravelTimeReceiver receiver)
+      throws TravelTimeException {
+    if ((receiver.Latitude == null)
+        || (receiver.Longitude == null)
+        || (source.Latitude == null)
+        || (source.Longitude == null)) {
+      throw new TravelTimeException("Missing receiver distance or location");
+    }
+
+    double[] distances = new double[1];
+    Geodesy.computeDistances(
+        Geodesy.Mode.SPHERICAL,
+        source.Latitude,
+        source.Longitude,
+        new double[] {receiver.Latitude},
+        new double[] {receiver.Longitude},
+        1,
+        distances,
+        null);
+    return (distances[0]);
+  }
+
+  /**
+   * Selects the requested travel times
+   *
+   * @param data - The TravelTimeData in travel time order
+   * @param requested - The requested phases, or null for all
+   * @param firstArrivals - Whether to keep only the first arrival of each phase
+   * @return Returns the selected TravelTimeData in travel time order
+   */
+  private static ArrayList<TravelTimeData> select(
+      ArrayList<TravelTimeData> data, HashSet<String> requested, boolean firstArrivals) {
+    if ((requested == null) && !firstArrivals) {
+      return (data);
+    }
+
+    ArrayList<TravelTimeData> selected = new ArrayList<TravelTimeData>(data.size());
+    HashSet<String> seen = new HashSet<String>();
+    for (TravelTimeData arrival : data) {
+      if (((requested == null) || requested.contains(arrival.Phase))
+          && (!firstArrivals || seen.add(arrival.Phase))) {
+        selected.add(arrival);
+      }
+    }
+    return (selected);
+  }
+
+  /**
+   * Interpolates the travel times of every phase at a source depth and distance
+   *
+   * @param depth - A double containing the source depth in kilometers, within the table
+   * @param distance - A double containing the distance in degrees
+   * @return Returns the TravelTimeData in travel time order
+   */
+  public ArrayList<TravelTimeData> getTravelTimes(double depth, double distance) {
+    int lower = Arrays.binarySearch(depths, depth);
+    int upper;
+    if (lower >= 0) {
+      upper = lower;
+    } else {
+      upper = -lower - 1;
+      lower = upper - 1;
+    }
+
+    // the depth derivative comes from the enclosing, or for a grid depth the next, interval
+    int low = lower;
+    int high = upper;
+    if (low == high) {
+      high = Math.min(low + 1, depths.length - 1);
+      low = high - 1;
+    }
+
+    ArrayList<TravelTimeData> data = new ArrayList<TravelTimeData>();
+    if (low < 0) {
+      // a single depth
+      for (Arrival arrival : evaluate(curves[lower], distance)) {
+        data.add(arrival.toData(null));
+      }
+      return (data);
+    }
+
+    ArrayList<Arrival> lowArrivals = evaluate(curves[low], distance);
+    ArrayList<Arrival> highArrivals = evaluate(curves[high], distance);
+    double fraction = (depth - depths[low]) / (depths[high] - depths[low]);
+
+    for (Arrival[] pair : pair(lowArrivals, highArrivals)) {
+      double derivative = (pair[1].time - pair[0].time) / (depths[high] - depths[low]);
+      data.add(Arrival.interpolate(pair[0], pair[1], fraction).toData(derivative));
+    }
+    data.sort(Comparator.comparingDouble(d -> d.TravelTime));
+    return (data);
+  }
+
+  /**
+   * Evaluates every branch at a depth at a distance
+   *
+   * @param branches - The branches at one depth
+   * @param distance - The distance in degrees
+   * @return Returns the arrivals
+   */
+  private static ArrayList<Arrival> evaluate(Curve[] branches, double distance) {
+    ArrayList<Arrival> arrivals = new ArrayList<Arrival>();
+    for (Curve curve : branches) {
+      curve.evaluate(distance, arrivals);
+    }
+    return (arrivals);
+  }
+
+  /**
+   * Pairs the arrivals of the same phase at two depths, in travel time order
+   *
+   * @param low - The arrivals at the lower depth
+   * @param high - The arrivals at the upper depth
+   * @return Returns the pairs
+   */
+  private static ArrayList<Arrival[]> pair(ArrayList<Arrival> low, ArrayList<Arrival> high) {
+    HashMap<String, ArrayList<Arrival>> lowByPhase = byPhase(low);
+    HashMap<String, ArrayList<Arrival>> highByPhase = byPhase(high);
+
+    ArrayList<Arrival[]> pairs = new ArrayList<Arrival[]>();
+    for (String phase : lowByPhase.keySet()) {
+      ArrayList<Arrival> lows = lowByPhase.get(phase);
+      ArrayList<Arrival> highs = highByPhase.get(phase);
+      if (highs == null) {
+        continue;
+      }
+      for (int k = 0; k < Math.min(lows.size(), highs.size()); k++) {
+        pairs.add(new Arrival[] {lows.get(k), highs.get(k)});
+      }
+    }
+    return (pairs);
+  }
+
+  /**
+   * Groups arrivals by phase, in travel time order
+   *
+   * @param arrivals - The arrivals
+   * @return Returns the arrivals by phase
+   */
+  private static HashMap<String, ArrayList<Arrival>> byPhase(ArrayList<Arrival> arrivals) {
+    HashMap<String, ArrayList<Arrival>> byPhase = new HashMap<String, ArrayList<Arrival>>();
+    for (Arrival arrival : arrivals) {
+      byPhase.computeIfAbsent(arrival.phase, p -> new ArrayList<Arrival>()).add(arrival);
+    }
+    for (ArrayList<Arrival> list : byPhase.values()) {
+      list.sort(Comparator.comparingDouble(a -> a.time));
+    }
+    return (byPhase);
+  }
+
+  /**
+   * Finds the largest error interpolating each interior sample from its neighbors on the branch
+   *
+   * @return Returns the error bound in seconds
+   */
+  private double findDistanceErrorBound() {
+    double bound = 0;
+    ArrayList<Arrival> arrivals = new ArrayList<Arrival>(1);
+    for (Curve[] branches : curves) {
+      for (Curve curve : branches) {
+        for (int i = 1; i < curve.distance.length - 1; i++) {
+          arrivals.clear();
+          curve.interpolate(i - 1, i + 1, curve.distance[i], arrivals);
+          if (!arrivals.isEmpty()) {
+            bound = Math.max(bound, Math.abs(arrivals.get(0).time - curve.time[i]));
+          }
+        }
+      }
+    }
+    return (bound);
+  }
+
+  /**
+   * Finds the largest error interpolating the samples of each interior depth from the depths around
+   * it, matching each sample to the nearest arrival of its phase
+   *
+   * @return Returns the error bound in seconds
+   */
+  private double findDepthErrorBound() {
+    double bound = 0;
+    for (int j = 1; j < depths.length - 1; j++) {
+      double fraction = (depths[j] - depths[j - 1]) / (depths[j + 1] - depths[j - 1]);
+      for (Curve curve : curves[j]) {
+        for (int i = 0; i < curve.distance.length; i++) {
+          ArrayList<Arrival[]> pairs =
+              pair(
+                  evaluate(curves[j - 1], curve.distance[i]),
+                  evaluate(curves[j + 1], curve.distance[i]));
+
+          double error = Double.NaN;
+          for (Arrival[] pair : pairs) {
+            if (pair[0].phase.equals(curve.phase)) {
+              double difference =
+                  Math.abs(Arrival.interpolate(pair[0], pair[1], fraction).time - curve.time[i]);
+              if (!(difference >= error)) {
+                error = difference;
+              }
+            }
+          }
+          if (!Double.isNaN(error)) {
+            bound = Math.max(bound, error);
+          }
+        }
+      }
+    }
+    return (bound);
+  }
+
+  /**
+   * Process a TravelTimePlotRequest for a tabulated depth
+   *
+   * @param request traveltime inputs.
+   * @return calculated traveltime.
+   * @throws TravelTimeException if errors occur.
+   */
+  @Override
+  public TravelTimePlotRequest getTravelTimePlot(final TravelTimePlotRequest request)
+      throws TravelTimeException {
+    if (request == null || request.Source == null || request.Source.Depth == null) {
+      throw new TravelTimeException("Missing source depth");
+    }
+    int index = Arrays.binarySearch(depths, request.Source.Depth);
+    if (index < 0) {
+      throw new TravelTimeException("Source depth " + request.Source.Depth + " is not tabulated");
+    }
+
+    ArrayList<TravelTimePlotDataBranch> response = new ArrayList<TravelTimePlotDataBranch>();
+    for (Curve curve : curves[index]) {
+      response.add(curve.toBranch());
+    }
+
+    TravelTimePlotRequest result = new TravelTimePlotRequest(request);
+    result.Response = response;
+    return (result);
+  }
+
+  /**
+   * Gets the EarthModel of the table
+   *
+   * @return Returns the EarthModel, or null for the default
+   */
+  public String getEarthModel() {
+    return (earthModel);
+  }
+
+  /**
+   * Gets the grid of source depths
+   *
+   * @return Returns a copy of the depths in kilometers
+   */
+  public double[] getDepths() {
+    return (depths.clone());
+  }
+
+  /**
+   * Gets the largest error found interpolating a sample from its neighbors in distance
+   *
+   * @return Returns the error bound in seconds
+   */
+  public double getDistanceErrorBound() {
+    return (distanceErrorBound);
+  }
+
+  /**
+   * Gets the largest error found interpolating a sample from the depths around it
+   *
+   * @return Returns the error bound in seconds
+   */
+  public double getDepthErrorBound() {
+    return (depthErrorBound);
+  }
+
+  /**
+   * Saves the table to a file
+   *
+   * @param path - The Path of the file
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path path) throws IOException {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 65536))) {
+      out.write(MAGIC);
+      out.writeByte(VERSION);
+
+      out.writeBoolean(earthModel != null);
+      if (earthModel != null) {
+        out.writeUTF(earthModel);
+      }
+
+      out.writeBoolean(allPhases);
+      out.writeBoolean(backBranches);
+      out.writeInt((phaseTypes != null) ? phaseTypes.size() : -1);
+      if (phaseTypes != null) {
+        for (String type : phaseTypes) {
+          out.writeUTF(type);
+        }
+      }
+
+      out.writeInt(depths.length);
+      for (int j = 0; j < depths.length; j++) {
+        out.writeDouble(depths[j]);
+        out.writeInt(curves[j].length);
+        for (Curve curve : curves[j]) {
+          curve.write(out);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads a table saved by save()
+   *
+   * @param path - The Path of the file
+   * @return Returns the InterpolatingTravelTimeService
+   * @throws IOException if the file cannot be read or is not a table
+   */
+  public static InterpolatingTravelTimeService load(Path path) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 65536))) {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IOException("Not a travel time table");
+      }
+      int version = in.readUnsignedByte();
+      if (version > VERSION) {
+        throw new IOException("Unsupported travel time table version " + version);
+      }
+
+      String model = in.readBoolean() ? in.readUTF() : null;
+
+      // version 1 tables were tabulated without phase options
+      boolean all = false;
+      boolean back = false;
+      ArrayList<String> types = null;
+      if (version >= 2) {
+        all = in.readBoolean();
+        back = in.readBoolean();
+        int typeCount = in.readInt();
+        if (typeCount >= 0) {
+          types = new ArrayList<String>(typeCount);
+          for (int k = 0; k < typeCount; k++) {
+            types.add(in.readUTF());
+          }
+        }
+      }
+
+      int count = in.readInt();
+      if (count < 1) {
+        throw new IOException("Invalid depth count " + count);
+      }
+      double[] depths = new double[count];
+      Curve[][] curves = new Curve[count][];
+      for (int j = 0; j < count; j++) {
+        depths[j] = in.readDouble();
+        if (j > 0 && !(depths[j] > depths[j - 1])) {
+          throw new IOException("Unsorted depths");
+        }
+        int branches = in.readInt();
+        if (branches < 0) {
+          throw new IOException("Invalid branch count " + branches);
+        }
+        curves[j] = new Curve[branches];
+        for (int k = 0; k < branches; k++) {
+          curves[j][k] = Curve.read(in);
+        }
+      }
+
+      return (new InterpolatingTravelTimeService(model, types, all, back, depths, curves));
+    }
+  }
+
+  /** a travel time branch held as primitive arrays, missing values are NaN */
+  private static final class Curve {
+    /** The phase */
+    private final String phase;
+
+    /** The sample distances in degrees */
+    private final double[] distance;
+
+    /** The sample travel times in seconds */
+    private final double[] time;
+
+    /** The sample slopes (ray parameters) in seconds per degree */
+    private final double[] slope;
+
+    /** The sample statistical spreads in seconds */
+    private final double[] spread;
+
+    /** The sample observabilities */
+    private final double[] observability;
+
+    /**
+     * Creates a curve
+     *
+     * @param phase - The phase
+     * @param count - The number of samples
+     */
+    private Curve(String phase, int count) {
+      this.phase = phase;
+      distance = new double[count];
+      time = new double[count];
+      slope = new double[count];
+      spread = new double[count];
+      observability = new double[count];
+    }
+
+    /**
+     * Converts a branch, skipping samples without a distance or travel time
+     *
+     * @param branch - The TravelTimePlotDataBranch
+     * @return Returns the Curve, or null if it has fewer than two samples
+     */
+    private static Curve of(TravelTimePlotDataBranch branch) {
+      if (branch == null || branch.Phase == null) {
+        return (null);
+      }
+
+      int samples = branch.getSampleCount();
+      int count = 0;
+      for (int j = 0; j < samples; j++) {
+        if (!Double.isNaN(branch.getDistance(j)) && !Double.isNaN(branch.getTravelTime(j))) {
+          count++;
+        }
+      }
+      if (count < 2) {
+        return (null);
+      }
+
+      Curve curve = new Curve(branch.Phase, count);
+      int i = 0;
+      for (int j = 0; j < samples; j++) {
+        if (!Double.isNaN(branch.getDistance(j)) && !Double.isNaN(branch.getTravelTime(j))) {
+          curve.distance[i] = branch.getDistance(j);
+          curve.time[i] = branch.getTravelTime(j);
+          curve.slope[i] = branch.getRayParameter(j);
+          curve.spread[i] = branch.getStatisticalSpread(j);
+          curve.observability[i] = branch.getObservability(j);
+          i++;
+        }
+      }
+      return (curve);
+    }
+
+    /**
+     * Converts the curve back to a branch
+     *
+     * @return Returns the TravelTimePlotDataBranch
+     */
+    private TravelTimePlotDataBranch toBranch() {
+      return (new TravelTimePlotDataBranch(
+          phase,
+          distance.clone(),
+          time.clone(),
+          spread.clone(),
+          observability.clone(),
+          slope.clone()));
+    }
+
+    /**
+     * Evaluates the curve at a distance, adding an arrival for every segment spanning it, since a
+     * branch may turn back in distance
+     *
+     * @param x - The distance in degrees
+     * @param arrivals - The list to add the arrivals to
+     */
+    private void evaluate(double x, ArrayList<Arrival> arrivals) {
+      int last = distance.length - 2;
+      for (int i = 0; i <= last; i++) {
+        double d0 = distance[i];
+        double d1 = distance[i + 1];
+        double min = Math.min(d0, d1);
+        double max = Math.max(d0, d1);
+
+        // half open segments, so a shared sample is counted once, except at the end
+        if (x >= min && (x < max || (i == last && x == max))) {
+          interpolate(i, i + 1, x, arrivals);
+        }
+      }
+    }
+
+    /**
+     * Interpolates between two samples by cubic Hermite interpolation, using the secant for a
+     * missing slope
+     *
+     * @param i0 - The index of the first sample
+     * @param i1 - The index of the second sample
+     * @param x - The distance in degrees
+     * @param arrivals - The list to add the arrival to
+     */
+    private void interpolate(int i0, int i1, double x, ArrayList<Arrival> arrivals) {
+      double h = distance[i1] - distance[i0];
+      if (h == 0) {
+        return;
+      }
+      double secant = (time[i1] - time[i0]) / h;
+      double m0 = Double.isNaN(slope[i0]) ? secant : slope[i0];
+      double m1 = Double.isNaN(slope[i1]) ? secant : slope[i1];
+
+      double t = (x - distance[i0]) / h;
+      double t2 = t * t;
+      double t3 = t2 * t;
+      double value =
+          (2 * t3 - 3 * t2 + 1) * time[i0]
+              + (t3 - 2 * t2 + t) * h * m0
+              + (-2 * t3 + 3 * t2) * time[i1]
+              + (t3 - t2) * h * m1;
+      double derivative =
+          ((6 * t2 - 6 * t) * time[i0]
+                  + (3 * t2 - 4 * t + 1) * h * m0
+                  + (-6 * t2 + 6 * t) * time[i1]
+                  + (3 * t2 - 2 * t) * h * m1)
+              / h;
+
+      arrivals.add(
+          new Arrival(
+              phase,
+              value,
+              derivative,
+              spread[i0] + t * (spread[i1] - spread[i0]),
+              observability[i0] + t * (observability[i1] - observability[i0])));
+    }
+
+    /**
+     * Writes the curve
+     *
+     * @param out - The DataOutputStream
+     * @throws IOException if the write fails
+     */
+    private void write(DataOutputStream out) throws IOException {
+      out.writeUTF(phase);
+      out.writeInt(distance.length);
+      for (double[] values : new double[][] {distance, time, slope, spread, observability}) {
+        for (double value : values) {
+          out.writeDouble(value);
+        }
+      }
+    }
+
+    /**
+     * Reads a curve
+     *
+     * @param in - The DataInputStream
+     * @return Returns the Curve
+     * @throws IOException if the read fails
+     */
+    private static Curve read(DataInputStream in) throws IOException {
+      String phase = in.readUTF();
+      int count = in.readInt();
+      if (count < 2) {
+        throw new IOException("Invalid sample count " + count);
+      }
+      Curve curve = new Curve(phase, count);
+      for (double[] values :
+          new double[][] {
+            curve.distance, curve.time, curve.slope, curve.spread, curve.observability
+          }) {
+        for (int i = 0; i < count; i++) {
+          values[i] = in.readDouble();
+        }
+      }
+      return (curve);
+    }
+  }
+
+  /** an interpolated arrival, missing values are NaN */
+  private static final class Arrival {
+    /** The phase */
+    private final String phase;
+
+    /** The travel time in seconds */
+    private final double time;
+
+    /** The travel time derivative with distance in seconds per degree */
+    private final double slope;
+
+    /** The statistical spread in seconds */
+    private final double spread;
+
+    /** The observability */
+    private final double observability;
+
+    /**
+     * Creates an arrival
+     *
+     * @param phase - The phase
+     * @param time - The travel time
+     * @param slope - The distance derivative
+     * @param spread - The statistical spread
+     * @param observability - The observability
+     */
+    private Arrival(String phase, double time, double slope, double spread, double observability) {
+      this.phase = phase;
+      this.time = time;
+      this.slope = slope;
+      this.spread = spread;
+      this.observability = observability;
+    }
+
+    /**
+     * Interpolates linearly between arrivals at two depths
+     *
+     * @param low - The arrival at the lower depth
+     * @param high - The arrival at the upper depth
+     * @param fraction - The fraction of the way from the lower to the upper depth
+     * @return Returns the Arrival
+     */
+    private static Arrival interpolate(Arrival low, Arrival high, double fraction) {
+      return (new Arrival(
+          low.phase,
+          low.time + fraction * (high.time - low.time),
+          low.slope + fraction * (high.slope - low.slope),
+          low.spread + fraction * (high.spread - low.spread),
+          low.observability + fraction * (high.observability - low.observability)));
+    }
+
+    /**
+     * Converts the arrival to travel time data
+     *
+     * @param depthDerivative - The depth derivative, or null
+     * @return Returns the TravelTimeData
+     */
+    private TravelTimeData toData(Double depthDerivative) {
+      TravelTimeData data = new TravelTimeData();
+      data.Phase = phase;
+      data.TravelTime = time;
+      data.DistanceDerivative = optional(slope);
+      data.DepthDerivative = depthDerivative;
+      data.StatisticalSpread = optional(spread);
+      data.Observability = optional(observability);
+      return (data);
+    }
+
+    /**
+     * Converts a value that may be missing
+     *
+     * @param value - The value, or NaN
+     * @return Returns the Double, or null for NaN
+     */
+    private static Double optional(double value) {
+      return (Double.isNaN(value) ? null : value);
+    }
+  }
+}
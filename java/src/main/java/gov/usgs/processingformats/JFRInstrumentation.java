@@ -0,0 +1,105 @@
+package gov.usgs.processingformats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * an Instrumentation class used to emit a Java Flight Recorder event for each operation, so the
+ * operations of the library show up in flight recordings next to GC and allocation events.
+ *
+ * <p>The events are named gov.usgs.processingformats.Operation and are only committed while a
+ * recording has them enabled, they are enabled by the default and profile settings. Each event is
+ * begun when its operation starts and committed when it completes, so its duration spans the
+ * operation and nested operations appear within it.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class JFRInstrumentation implements Instrumentation {
+
+  /**
+   * a JFR event class used to describe one operation.
+   *
+   * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+   */
+  @Name("gov.usgs.processingformats.Operation")
+  @Label("Processing Formats Operation")
+  @Category("Processing Formats")
+  @Description("A parse, serialize, decode, encode, or validate operation")
+  @StackTrace(false)
+  static class OperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Type")
+    String type;
+
+    @Label("Size")
+    @Description("The number of picks, receivers, branches, or samples, otherwise 1")
+    int size;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Characters")
+    @Description("The number of characters parsed or serialized, otherwise 0")
+    long characters;
+  }
+
+  /**
+   * Emits an event for one completed operation that was not begun, spanning no time
+   *
+   * @param operation - The Operation that completed
+   * @param type - A String containing the name of the class
+   * @param size - An int containing the payload size
+   * @param nanos - A long containing the elapsed time in nanoseconds
+   * @param bytes - A long containing the number of characters parsed or serialized
+   */
+  public void record(Operation operation, String type, int size, long nanos, long bytes) {
+    record(operation, type, size, nanos, bytes, new OperationEvent());
+  }
+
+  /**
+   * Begins the event of an operation
+   *
+   * @return Returns the begun OperationEvent, or null if no recording has it enabled
+   */
+  public Object begin() {
+    OperationEvent event = new OperationEvent();
+    if (!event.isEnabled()) {
+      return (null);
+    }
+    event.begin();
+    return (event);
+  }
+
+  /**
+   * Commits the event of an operation begun by begin()
+   *
+   * @param operation - The Operation that completed
+   * @param type - A String containing the name of the class
+   * @param size - An int containing the payload size
+   * @param nanos - A long containing the elapsed time in nanoseconds
+   * @param bytes - A long containing the number of characters parsed or serialized
+   * @param token - The OperationEvent returned by begin(), or null
+   */
+  public void record(
+      Operation operation, String type, int size, long nanos, long bytes, Object token) {
+    OperationEvent event = (OperationEvent) token;
+    if ((event == null) || !event.isEnabled()) {
+      return;
+    }
+
+    event.operation = operation.name();
+    event.type = type;
+    event.size = size;
+    event.elapsed = nanos;
+    event.characters = bytes;
+    event.commit();
+  }
+}
@@ -0,0 +1,992 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a token level, pull style JSON reader used to decode processing formats in a single pass without
+ * building an intermediate JSONObject tree.
+ *
+ * <p>Malformed input is reported using the same ParseException thrown by Utility.fromJSONString.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class JSONStreamReader implements Closeable {
+
+  /** The kinds of tokens returned by peek() */
+  public enum Token {
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    END_DOCUMENT
+  }
+
+  /** Scopes kept on the nesting stack */
+  private static final int EMPTY_DOCUMENT = 0;
+
+  private static final int NONEMPTY_DOCUMENT = 1;
+  private static final int EMPTY_OBJECT = 2;
+  private static final int NONEMPTY_OBJECT = 3;
+  private static final int DANGLING_NAME = 4;
+  private static final int EMPTY_ARRAY = 5;
+  private static final int NONEMPTY_ARRAY = 6;
+
+  /** Powers of ten that are exactly representable as doubles */
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /** The largest integer mantissa that converts to a double exactly */
+  private static final long MAX_EXACT_MANTISSA = (1L << 53);
+
+  /** The character source, null when reading from a fixed character array */
+  private Reader in;
+
+  /** The character buffer */
+  private char[] buffer;
+
+  /** The current read position within the buffer */
+  private int pos;
+
+  /** The number of valid characters in the buffer */
+  private int limit;
+
+  /** The number of characters consumed before the start of the buffer */
+  private long consumed;
+
+  /** The nesting stack */
+  private int[] stack = new int[32];
+
+  /** The number of entries on the nesting stack */
+  private int stackSize;
+
+  /** The peeked token, null if nothing has been peeked */
+  private Token peeked;
+
+  /** Scratch buffer holding the text of the last string, name, or number */
+  private char[] scratch = new char[64];
+
+  /** The number of valid characters in the scratch buffer */
+  private int scratchLength;
+
+  /** Whether decoded objects keep the range of text they were read from */
+  private boolean retainSource;
+
+  /**
+   * Constructs the class from a Reader
+   *
+   * @param newReader - A Reader containing the JSON text
+   */
+  public JSONStreamReader(Reader newReader) {
+    in = newReader;
+    buffer = new char[8192];
+    pos = 0;
+    limit = 0;
+    push(EMPTY_DOCUMENT);
+  }
+
+  /**
+   * Constructs the class from an InputStream containing UTF-8 encoded JSON text
+   *
+   * @param newStream - An InputStream containing the JSON text
+   */
+  public JSONStreamReader(InputStream newStream) {
+    this(new InputStreamReader(newStream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Constructs the class from a byte array containing UTF-8 encoded JSON text
+   *
+   * @param newBytes - A byte[] containing the JSON text
+   */
+  public JSONStreamReader(byte[] newBytes) {
+    this(new ByteArrayInputStream(newBytes));
+  }
+
+  /**
+   * Constructs the class from a String
+   *
+   * @param newString - A String containing the JSON text
+   */
+  public JSONStreamReader(String newString) {
+    in = null;
+    buffer = newString.toCharArray();
+    pos = 0;
+    limit = buffer.length;
+    push(EMPTY_DOCUMENT);
+  }
+
+  /**
+   * Constructs the class from a range of a character array, which is read in place and must not be
+   * modified while reading. Positions are reported as indexes into the array.
+   *
+   * @param newBuffer - A char[] containing the JSON text
+   * @param newStart - An int containing the index of the first character to read
+   * @param newEnd - An int containing the index after the last character to read
+   */
+  public JSONStreamReader(char[] newBuffer, int newStart, int newEnd) {
+    if ((newStart < 0) || (newEnd > newBuffer.length) || (newStart > newEnd)) {
+      throw new IndexOutOfBoundsException("Invalid range " + newStart + " to " + newEnd);
+    }
+    in = null;
+    buffer = newBuffer;
+    pos = newStart;
+    limit = newEnd;
+    push(EMPTY_DOCUMENT);
+  }
+
+  /**
+   * Gets the character position of the reader, used for error reporting
+   *
+   * @return Returns the number of characters consumed so far
+   */
+  public long getPosition() {
+    return (consumed + pos);
+  }
+
+  /**
+   * Sets whether Picks, Sites, and Sources decoded from this reader keep the range of text they
+   * were read from, so they can be written back out verbatim, see RawJSON. Only readers over a
+   * String or char[] can retain their source.
+   *
+   * @param retain - A boolean, true to retain the source text
+   */
+  public void setRetainSource(boolean retain) {
+    if (retain && (in != null)) {
+      throw new IllegalStateException("Only in memory text can be retained");
+    }
+    retainSource = retain;
+  }
+
+  /**
+   * Whether decoded objects keep the range of text they were read from
+   *
+   * @return Returns true if the source text is retained
+   */
+  public boolean isRetainingSource() {
+    return (retainSource);
+  }
+
+  /**
+   * Gets the text of a reader over a String or char[], positions index into it
+   *
+   * @return Returns the char[] being read
+   */
+  char[] getText() {
+    return (buffer);
+  }
+
+  /**
+   * Gets the name most recently read by nextName() or nextKey(), valid until the next value is read
+   *
+   * @return Returns a String containing the name
+   */
+  public String currentName() {
+    return (new String(scratch, 0, scratchLength));
+  }
+
+  /**
+   * Returns the type of the next token without consuming it
+   *
+   * @return Returns the next Token
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public Token peek() throws IOException, ParseException {
+    if (peeked != null) {
+      return (peeked);
+    }
+
+    int scope = stack[stackSize - 1];
+    int c;
+
+    if (scope == EMPTY_ARRAY) {
+      stack[stackSize - 1] = NONEMPTY_ARRAY;
+      c = nextNonWhitespace(true);
+      if (c == ']') {
+        return (peeked = Token.END_ARRAY);
+      }
+      pos--;
+    } else if (scope == NONEMPTY_ARRAY) {
+      c = nextNonWhitespace(true);
+      if (c == ']') {
+        return (peeked = Token.END_ARRAY);
+      } else if (c != ',') {
+        throw unexpectedChar(c);
+      }
+    } else if ((scope == EMPTY_OBJECT) || (scope == NONEMPTY_OBJECT)) {
+      c = nextNonWhitespace(true);
+      if (c == '}') {
+        return (peeked = Token.END_OBJECT);
+      }
+      if (scope == NONEMPTY_OBJECT) {
+        if (c != ',') {
+          throw unexpectedChar(c);
+        }
+        c = nextNonWhitespace(true);
+      }
+      if (c != '"') {
+        throw unexpectedChar(c);
+      }
+      stack[stackSize - 1] = DANGLING_NAME;
+      return (peeked = Token.NAME);
+    } else if (scope == DANGLING_NAME) {
+      c = nextNonWhitespace(true);
+      if (c != ':') {
+        throw unexpectedChar(c);
+      }
+      stack[stackSize - 1] = NONEMPTY_OBJECT;
+    } else if (scope == EMPTY_DOCUMENT) {
+      stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+    } else {
+      // NONEMPTY_DOCUMENT, only whitespace may follow
+      c = nextNonWhitespace(false);
+      if (c == -1) {
+        return (peeked = Token.END_DOCUMENT);
+      }
+      throw unexpectedChar(c);
+    }
+
+    // a value follows
+    c = nextNonWhitespace(true);
+    switch (c) {
+      case '{':
+        return (peeked = Token.BEGIN_OBJECT);
+      case '[':
+        return (peeked = Token.BEGIN_ARRAY);
+      case '"':
+        return (peeked = Token.STRING);
+      case 't':
+      case 'f':
+        pos--;
+        return (peeked = Token.BOOLEAN);
+      case 'n':
+        pos--;
+        return (peeked = Token.NULL);
+      default:
+        if ((c == '-') || ((c >= '0') && (c <= '9'))) {
+          pos--;
+          return (peeked = Token.NUMBER);
+        }
+        throw unexpectedChar(c);
+    }
+  }
+
+  /**
+   * Checks whether the current object or array has more elements
+   *
+   * @return Returns true if another element follows
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public boolean hasNext() throws IOException, ParseException {
+    Token token = peek();
+    return ((token != Token.END_OBJECT)
+        && (token != Token.END_ARRAY)
+        && (token != Token.END_DOCUMENT));
+  }
+
+  /**
+   * Consumes the start of a JSON object
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not the start of an object
+   */
+  public void beginObject() throws IOException, ParseException {
+    expect(Token.BEGIN_OBJECT);
+    push(EMPTY_OBJECT);
+  }
+
+  /**
+   * Consumes the end of a JSON object
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not the end of an object
+   */
+  public void endObject() throws IOException, ParseException {
+    expect(Token.END_OBJECT);
+    stackSize--;
+  }
+
+  /**
+   * Consumes the start of a JSON array
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not the start of an array
+   */
+  public void beginArray() throws IOException, ParseException {
+    expect(Token.BEGIN_ARRAY);
+    push(EMPTY_ARRAY);
+  }
+
+  /**
+   * Consumes the end of a JSON array
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not the end of an array
+   */
+  public void endArray() throws IOException, ParseException {
+    expect(Token.END_ARRAY);
+    stackSize--;
+  }
+
+  /**
+   * Consumes the next object member name
+   *
+   * @return Returns a String containing the name
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a name
+   */
+  public String nextName() throws IOException, ParseException {
+    expect(Token.NAME);
+    readString();
+    return (new String(scratch, 0, scratchLength));
+  }
+
+  /**
+   * Consumes the next object member name and looks it up in the provided list of keys without
+   * allocating a String for the name.
+   *
+   * @param keys - A String[] containing the keys to match against
+   * @return Returns the index of the matching key, or -1 if the name is not one of the keys
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a name
+   */
+  public int nextKey(String[] keys) throws IOException, ParseException {
+    expect(Token.NAME);
+    readString();
+
+    // compare the name against each key
+    for (int i = 0; i < keys.length; i++) {
+      if (scratchEquals(keys[i])) {
+        return (i);
+      }
+    }
+
+    return (-1);
+  }
+
+  /**
+   * Consumes the next object member name and hashes it without allocating a String, used by the
+   * generated codecs to switch on the key. The hash is the same as String.hashCode() of the name,
+   * and nameEquals() confirms the match.
+   *
+   * @return Returns an int containing the hash of the name
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a name
+   */
+  public int nextNameHash() throws IOException, ParseException {
+    expect(Token.NAME);
+    readString();
+
+    int hash = 0;
+    for (int i = 0; i < scratchLength; i++) {
+      hash = 31 * hash + scratch[i];
+    }
+    return (hash);
+  }
+
+  /**
+   * Compares the object member name consumed by nextNameHash() with a String
+   *
+   * @param name - A String containing the name to compare against
+   * @return Returns true if they are equal
+   */
+  public boolean nameEquals(String name) {
+    return (scratchEquals(name));
+  }
+
+  /**
+   * Consumes the next value as a string. Numbers and booleans are returned as their JSON text, null
+   * is returned as null.
+   *
+   * @return Returns a String containing the value, null for a JSON null
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a scalar value
+   */
+  public String nextString() throws IOException, ParseException {
+    Token token = peek();
+    if (token == Token.STRING) {
+      peeked = null;
+      readString();
+    } else if ((token == Token.NUMBER) || (token == Token.BOOLEAN)) {
+      peeked = null;
+      readLiteral();
+    } else if (token == Token.NULL) {
+      nextNull();
+      return (null);
+    } else {
+      throw unexpectedToken(token);
+    }
+
+    return (new String(scratch, 0, scratchLength));
+  }
+
+  /**
+   * Consumes the next value as a double. Strings containing a number are converted.
+   *
+   * @return Returns the double value
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a number
+   */
+  public double nextDouble() throws IOException, ParseException {
+    Token token = peek();
+    if (token == Token.NUMBER) {
+      peeked = null;
+      readLiteral();
+    } else if (token == Token.STRING) {
+      peeked = null;
+      readString();
+    } else {
+      throw unexpectedToken(token);
+    }
+
+    return (parseScratchDouble());
+  }
+
+  /**
+   * Consumes the next value as a long. Fractional numbers are truncated.
+   *
+   * @return Returns the long value
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a number
+   */
+  public long nextLong() throws IOException, ParseException {
+    Token token = peek();
+    if (token == Token.NUMBER) {
+      peeked = null;
+      readLiteral();
+    } else if (token == Token.STRING) {
+      peeked = null;
+      readString();
+    } else {
+      throw unexpectedToken(token);
+    }
+
+    // fast path for plain integers
+    if ((scratchLength > 0) && (scratchLength < 19)) {
+      int start = (scratch[0] == '-') ? 1 : 0;
+      long value = 0;
+      boolean integral = start < scratchLength;
+      for (int i = start; i < scratchLength; i++) {
+        char c = scratch[i];
+        if ((c < '0') || (c > '9')) {
+          integral = false;
+          break;
+        }
+        value = (value * 10) + (c - '0');
+      }
+      if (integral) {
+        return ((start == 1) ? -value : value);
+      }
+    }
+
+    return ((long) parseScratchDouble());
+  }
+
+  /**
+   * Consumes the next value as a boolean. Strings are converted using Boolean.valueOf.
+   *
+   * @return Returns the boolean value
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not a boolean
+   */
+  public boolean nextBoolean() throws IOException, ParseException {
+    Token token = peek();
+    if (token == Token.BOOLEAN) {
+      peeked = null;
+      readLiteral();
+      if (scratchEquals("true")) {
+        return (true);
+      } else if (scratchEquals("false")) {
+        return (false);
+      }
+      throw new ParseException(
+          (int) getPosition(),
+          ParseException.ERROR_UNEXPECTED_TOKEN,
+          new String(scratch, 0, scratchLength));
+    } else if (token == Token.STRING) {
+      peeked = null;
+      readString();
+      return (scratchEqualsIgnoreCase("true"));
+    }
+
+    throw unexpectedToken(token);
+  }
+
+  /**
+   * Consumes a JSON null
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not null
+   */
+  public void nextNull() throws IOException, ParseException {
+    expect(Token.NULL);
+    readLiteral();
+    if (!scratchEquals("null")) {
+      throw new ParseException(
+          (int) getPosition(),
+          ParseException.ERROR_UNEXPECTED_TOKEN,
+          new String(scratch, 0, scratchLength));
+    }
+  }
+
+  /**
+   * Consumes a JSON null if it is the next token
+   *
+   * @return Returns true if a null was consumed
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public boolean skipNull() throws IOException, ParseException {
+    if (peek() == Token.NULL) {
+      nextNull();
+      return (true);
+    }
+    return (false);
+  }
+
+  /**
+   * Skips the next value, including any nested objects or arrays
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public void skipValue() throws IOException, ParseException {
+    int depth = 0;
+    do {
+      Token token = peek();
+      switch (token) {
+        case BEGIN_OBJECT:
+          beginObject();
+          depth++;
+          break;
+        case BEGIN_ARRAY:
+          beginArray();
+          depth++;
+          break;
+        case END_OBJECT:
+          endObject();
+          depth--;
+          break;
+        case END_ARRAY:
+          endArray();
+          depth--;
+          break;
+        case NAME:
+          peeked = null;
+          readString();
+          break;
+        case STRING:
+          peeked = null;
+          readString();
+          break;
+        case NUMBER:
+        case BOOLEAN:
+        case NULL:
+          peeked = null;
+          readLiteral();
+          break;
+        default:
+          throw unexpectedToken(token);
+      }
+    } while (depth > 0);
+  }
+
+  /**
+   * Consumes the next value as the same objects org.json.simple produces: a JSONObject, JSONArray,
+   * String, Long for integers, Double for other numbers, Boolean, or null
+   *
+   * @return Returns the value
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  @SuppressWarnings("unchecked")
+  public Object nextValue() throws IOException, ParseException {
+    Token token = peek();
+    switch (token) {
+      case BEGIN_OBJECT:
+        JSONObject object = new JSONObject();
+        beginObject();
+        while (hasNext()) {
+          String name = nextName();
+          object.put(name, nextValue());
+        }
+        endObject();
+        return (object);
+      case BEGIN_ARRAY:
+        JSONArray array = new JSONArray();
+        beginArray();
+        while (hasNext()) {
+          array.add(nextValue());
+        }
+        endArray();
+        return (array);
+      case STRING:
+        return (nextString());
+      case NUMBER:
+        String number = nextString();
+        if ((number.indexOf('.') < 0) && (number.indexOf('e') < 0) && (number.indexOf('E') < 0)) {
+          try {
+            return (Long.valueOf(number));
+          } catch (NumberFormatException e) {
+            // too large for a long
+          }
+        }
+        return (Double.valueOf(number));
+      case BOOLEAN:
+        return (nextBoolean());
+      case NULL:
+        nextNull();
+        return (null);
+      default:
+        throw unexpectedToken(token);
+    }
+  }
+
+  /**
+   * Closes the underlying Reader
+   *
+   * @throws IOException if the underlying source fails to close
+   */
+  public void close() throws IOException {
+    peeked = null;
+    stackSize = 0;
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  /**
+   * Consumes the expected token
+   *
+   * @param expected - The expected Token
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the next token is not the expected one
+   */
+  private void expect(Token expected) throws IOException, ParseException {
+    Token token = peek();
+    if (token != expected) {
+      throw unexpectedToken(token);
+    }
+    peeked = null;
+  }
+
+  /**
+   * Pushes a new scope onto the nesting stack
+   *
+   * @param scope - The scope to push
+   */
+  private void push(int scope) {
+    if (stackSize == stack.length) {
+      int[] newStack = new int[stackSize * 2];
+      System.arraycopy(stack, 0, newStack, 0, stackSize);
+      stack = newStack;
+    }
+    stack[stackSize++] = scope;
+  }
+
+  /**
+   * Refills the character buffer
+   *
+   * @return Returns true if more characters are available
+   * @throws IOException if the underlying source fails
+   */
+  private boolean fill() throws IOException {
+    if (in == null) {
+      return (false);
+    }
+
+    consumed += limit;
+    pos = 0;
+    limit = 0;
+
+    int count;
+    while ((count = in.read(buffer, 0, buffer.length)) == 0) {
+      // keep reading until we get characters or the end of input
+    }
+
+    if (count < 0) {
+      return (false);
+    }
+    limit = count;
+    return (true);
+  }
+
+  /**
+   * Reads the next character that is not whitespace
+   *
+   * @param required - True if the end of input is an error
+   * @return Returns the character, or -1 at the end of input when not required
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the end of input is reached and a character was required
+   */
+  private int nextNonWhitespace(boolean required) throws IOException, ParseException {
+    while (true) {
+      if ((pos == limit) && !fill()) {
+        if (required) {
+          throw endOfInput();
+        }
+        return (-1);
+      }
+
+      char c = buffer[pos++];
+      if ((c != ' ') && (c != '\n') && (c != '\r') && (c != '\t')) {
+        return (c);
+      }
+    }
+  }
+
+  /**
+   * Reads the remainder of a string whose opening quote has been consumed into the scratch buffer
+   *
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the string is malformed
+   */
+  private void readString() throws IOException, ParseException {
+    scratchLength = 0;
+
+    while (true) {
+      if ((pos == limit) && !fill()) {
+        throw endOfInput();
+      }
+
+      char c = buffer[pos++];
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        appendScratch(readEscape());
+      } else {
+        appendScratch(c);
+      }
+    }
+  }
+
+  /**
+   * Reads an escape sequence whose backslash has been consumed
+   *
+   * @return Returns the escaped character
+   * @throws IOException if the underlying source fails
+   * @throws ParseException if the escape sequence is malformed
+   */
+  private char readEscape() throws IOException, ParseException {
+    if ((pos == limit) && !fill()) {
+      throw endOfInput();
+    }
+
+    char c = buffer[pos++];
+    switch (c) {
+      case '"':
+      case '\\':
+      case '/':
+        return (c);
+      case 'b':
+        return ('\b');
+      case 'f':
+        return ('\f');
+      case 'n':
+        return ('\n');
+      case 'r':
+        return ('\r');
+      case 't':
+        return ('\t');
+      case 'u':
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+          if ((pos == limit) && !fill()) {
+            throw endOfInput();
+          }
+          char h = buffer[pos++];
+          int digit = Character.digit(h, 16);
+          if (digit < 0) {
+            throw unexpectedChar(h);
+          }
+          value = (value << 4) + digit;
+        }
+        return ((char) value);
+      default:
+        throw unexpectedChar(c);
+    }
+  }
+
+  /**
+   * Reads a number or keyword literal into the scratch buffer
+   *
+   * @throws IOException if the underlying source fails
+   */
+  private void readLiteral() throws IOException {
+    scratchLength = 0;
+
+    while (true) {
+      if ((pos == limit) && !fill()) {
+        return;
+      }
+
+      char c = buffer[pos];
+      if (((c >= '0') && (c <= '9'))
+          || ((c >= 'a') && (c <= 'z'))
+          || (c == '-')
+          || (c == '+')
+          || (c == '.')
+          || (c == 'E')) {
+        appendScratch(c);
+        pos++;
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Appends a character to the scratch buffer
+   *
+   * @param c - The character to append
+   */
+  private void appendScratch(char c) {
+    if (scratchLength == scratch.length) {
+      char[] newScratch = new char[scratchLength * 2];
+      System.arraycopy(scratch, 0, newScratch, 0, scratchLength);
+      scratch = newScratch;
+    }
+    scratch[scratchLength++] = c;
+  }
+
+  /**
+   * Compares the scratch buffer with a String
+   *
+   * @param value - The String to compare against
+   * @return Returns true if they are equal
+   */
+  private boolean scratchEquals(String value) {
+    if (value.length() != scratchLength) {
+      return (false);
+    }
+    for (int i = 0; i < scratchLength; i++) {
+      if (scratch[i] != value.charAt(i)) {
+        return (false);
+      }
+    }
+    return (true);
+  }
+
+  /**
+   * Compares the scratch buffer with a String ignoring case
+   *
+   * @param value - The String to compare against
+   * @return Returns true if they are equal ignoring case
+   */
+  private boolean scratchEqualsIgnoreCase(String value) {
+    if (value.length() != scratchLength) {
+      return (false);
+    }
+    for (int i = 0; i < scratchLength; i++) {
+      if (Character.toLowerCase(scratch[i]) != Character.toLowerCase(value.charAt(i))) {
+        return (false);
+      }
+    }
+    return (true);
+  }
+
+  /**
+   * Parses the scratch buffer as a double, using an exact fast path for short decimal numbers
+   *
+   * @return Returns the double value
+   * @throws ParseException if the scratch buffer does not contain a number
+   */
+  private double parseScratchDouble() throws ParseException {
+    int i = 0;
+    boolean negative = false;
+    if ((scratchLength > 0) && (scratch[0] == '-')) {
+      negative = true;
+      i = 1;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean inFraction = false;
+    boolean simple = i < scratchLength;
+
+    for (; i < scratchLength; i++) {
+      char c = scratch[i];
+      if ((c >= '0') && (c <= '9')) {
+        if (mantissa >= (MAX_EXACT_MANTISSA / 10)) {
+          simple = false;
+          break;
+        }
+        mantissa = (mantissa * 10) + (c - '0');
+        digits++;
+        if (inFraction) {
+          fractionDigits++;
+        }
+      } else if ((c == '.') && !inFraction) {
+        inFraction = true;
+      } else {
+        simple = false;
+        break;
+      }
+    }
+
+    // both the mantissa and the power of ten are exact, so a single
+    // division is correctly rounded
+    if (simple && (digits > 0) && (fractionDigits < POWERS_OF_TEN.length)) {
+      double value = mantissa / POWERS_OF_TEN[fractionDigits];
+      return (negative ? -value : value);
+    }
+
+    try {
+      return (Double.parseDouble(new String(scratch, 0, scratchLength)));
+    } catch (NumberFormatException e) {
+      throw new ParseException(
+          (int) getPosition(),
+          ParseException.ERROR_UNEXPECTED_TOKEN,
+          new String(scratch, 0, scratchLength));
+    }
+  }
+
+  /**
+   * Builds an exception for an unexpected character
+   *
+   * @param c - The unexpected character
+   * @return Returns the ParseException
+   */
+  private ParseException unexpectedChar(int c) {
+    return (new ParseException(
+        (int) (getPosition() - 1), ParseException.ERROR_UNEXPECTED_CHAR, (char) c));
+  }
+
+  /**
+   * Builds an exception for an unexpected token
+   *
+   * @param token - The unexpected Token
+   * @return Returns the ParseException
+   */
+  private ParseException unexpectedToken(Token token) {
+    return (new ParseException((int) getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token));
+  }
+
+  /**
+   * Builds an exception for an unexpected end of input
+   *
+   * @return Returns the ParseException
+   */
+  private ParseException endOfInput() {
+    return (new ParseException(
+        (int) getPosition(), ParseException.ERROR_UNEXPECTED_EXCEPTION, "Unexpected end of input"));
+  }
+}
@@ -0,0 +1,442 @@
+package gov.usgs.processingformats;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * a streaming JSON writer used to serialize processing formats directly to an Appendable without
+ * building intermediate JSONObject or JSONArray instances.
+ *
+ * <p>Values are formatted and escaped exactly as org.json.simple does, so the text produced for a
+ * class contains the same keys and values as Utility.toJSONString(toJSON()). Keys are written in
+ * field declaration order rather than HashMap order.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class JSONStreamWriter implements Flushable {
+
+  /** Hexadecimal digits used for unicode escapes */
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /** The destination for the JSON text */
+  private Appendable out;
+
+  /** Whether a comma is needed before the next name or value */
+  private boolean needsComma;
+
+  /**
+   * Constructs the class from an Appendable
+   *
+   * @param newOut - An Appendable to write the JSON text to
+   */
+  public JSONStreamWriter(Appendable newOut) {
+    out = newOut;
+    needsComma = false;
+  }
+
+  /**
+   * Gets the Appendable this writer writes to
+   *
+   * @return Returns the Appendable
+   */
+  public Appendable getAppendable() {
+    return (out);
+  }
+
+  /**
+   * Writes the start of a JSON object
+   *
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter beginObject() throws IOException {
+    separate();
+    out.append('{');
+    needsComma = false;
+    return (this);
+  }
+
+  /**
+   * Writes the end of a JSON object
+   *
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter endObject() throws IOException {
+    out.append('}');
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes the start of a JSON array
+   *
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter beginArray() throws IOException {
+    separate();
+    out.append('[');
+    needsComma = false;
+    return (this);
+  }
+
+  /**
+   * Writes the end of a JSON array
+   *
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter endArray() throws IOException {
+    out.append(']');
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes an object member name, the value must be written next
+   *
+   * @param name - A String containing the name to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter name(String name) throws IOException {
+    separate();
+    writeQuoted(name);
+    out.append(':');
+    needsComma = false;
+    return (this);
+  }
+
+  /**
+   * Writes an object member name encoded by encodeName(), the value must be written next
+   *
+   * @param encodedName - A char[] containing the quoted name and colon
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter name(char[] encodedName) throws IOException {
+    separate();
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(encodedName);
+    } else if (out instanceof Writer) {
+      ((Writer) out).write(encodedName);
+    } else {
+      out.append(CharBuffer.wrap(encodedName));
+    }
+    needsComma = false;
+    return (this);
+  }
+
+  /**
+   * Quotes and escapes an object member name once, so it can be written repeatedly with
+   * name(char[]) without escaping it each time
+   *
+   * @param name - A String containing the name to encode
+   * @return Returns a char[] containing the quoted name and colon
+   */
+  public static char[] encodeName(String name) {
+    StringBuilder builder = new StringBuilder(name.length() + 3);
+    try {
+      new JSONStreamWriter(builder).name(name);
+    } catch (IOException e) {
+      // a StringBuilder does not throw
+      throw new IllegalStateException(e);
+    }
+    return (builder.toString().toCharArray());
+  }
+
+  /**
+   * Writes a String value, or null
+   *
+   * @param value - A String containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(String value) throws IOException {
+    separate();
+    if (value == null) {
+      out.append("null");
+    } else {
+      writeQuoted(value);
+    }
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes a Double value, non finite and null values are written as null
+   *
+   * @param value - A Double containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(Double value) throws IOException {
+    if (value == null) {
+      return (nullValue());
+    }
+    return (value(value.doubleValue()));
+  }
+
+  /**
+   * Writes a double value, non finite values are written as null
+   *
+   * @param value - A double containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      return (nullValue());
+    }
+    separate();
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(value);
+    } else {
+      out.append(Double.toString(value));
+    }
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes an Integer value, or null
+   *
+   * @param value - An Integer containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(Integer value) throws IOException {
+    if (value == null) {
+      return (nullValue());
+    }
+    return (value(value.longValue()));
+  }
+
+  /**
+   * Writes a long value
+   *
+   * @param value - A long containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(long value) throws IOException {
+    separate();
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(value);
+    } else {
+      out.append(Long.toString(value));
+    }
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes a Boolean value, or null
+   *
+   * @param value - A Boolean containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(Boolean value) throws IOException {
+    if (value == null) {
+      return (nullValue());
+    }
+    separate();
+    out.append(value.booleanValue() ? "true" : "false");
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes a ProcessingInt as a JSON object, or null
+   *
+   * @param value - A ProcessingInt containing the value to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(ProcessingInt value) throws IOException {
+    if (value == null) {
+      return (nullValue());
+    }
+    value.writeJSON(this);
+    return (this);
+  }
+
+  /**
+   * Writes a List of ProcessingInt or String values as a JSON array
+   *
+   * @param values - A List containing the values to write
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter value(List<?> values) throws IOException {
+    if (values == null) {
+      return (nullValue());
+    }
+    beginArray();
+    for (int i = 0; i < values.size(); i++) {
+      Object value = values.get(i);
+      if (value instanceof ProcessingInt) {
+        value((ProcessingInt) value);
+      } else if (value == null) {
+        nullValue();
+      } else {
+        value(value.toString());
+      }
+    }
+    endArray();
+    return (this);
+  }
+
+  /**
+   * Writes a null value
+   *
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter nullValue() throws IOException {
+    separate();
+    out.append("null");
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes already serialized JSON text as a value, without validation
+   *
+   * @param json - A CharSequence containing the serialized JSON value
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter rawValue(CharSequence json) throws IOException {
+    separate();
+    out.append(json);
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Writes already serialized JSON text from a range of a character array as a value, without
+   * validation
+   *
+   * @param json - A char[] containing the serialized JSON value
+   * @param offset - An int containing the index of the first character of the value
+   * @param length - An int containing the number of characters in the value
+   * @return Returns this writer
+   * @throws IOException if the underlying Appendable fails
+   */
+  public JSONStreamWriter rawValue(char[] json, int offset, int length) throws IOException {
+    separate();
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(json, offset, length);
+    } else if (out instanceof Writer) {
+      ((Writer) out).write(json, offset, length);
+    } else {
+      out.append(CharBuffer.wrap(json, offset, length));
+    }
+    needsComma = true;
+    return (this);
+  }
+
+  /**
+   * Flushes the underlying Appendable if it is Flushable
+   *
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void flush() throws IOException {
+    if (out instanceof Flushable) {
+      ((Flushable) out).flush();
+    }
+  }
+
+  /**
+   * Writes a comma if one is needed before the next name or value
+   *
+   * @throws IOException if the underlying Appendable fails
+   */
+  private void separate() throws IOException {
+    if (needsComma) {
+      out.append(',');
+    }
+  }
+
+  /**
+   * Writes a quoted and escaped string, matching org.json.simple.JSONValue.escape
+   *
+   * @param value - A String containing the value to write
+   * @throws IOException if the underlying Appendable fails
+   */
+  private void writeQuoted(String value) throws IOException {
+    out.append('"');
+
+    int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      char ch = value.charAt(i);
+      String replacement;
+
+      switch (ch) {
+        case '"':
+          replacement = "\\\"";
+          break;
+        case '\\':
+          replacement = "\\\\";
+          break;
+        case '\b':
+          replacement = "\\b";
+          break;
+        case '\f':
+          replacement = "\\f";
+          break;
+        case '\n':
+          replacement = "\\n";
+          break;
+        case '\r':
+          replacement = "\\r";
+          break;
+        case '\t':
+          replacement = "\\t";
+          break;
+        case '/':
+          replacement = "\\/";
+          break;
+        default:
+          if ((ch <= '\u001F')
+              || ((ch >= '\u007F') && (ch <= '\u009F'))
+              || ((ch >= '\u2000') && (ch <= '\u20FF'))) {
+            replacement = null;
+          } else {
+            // no escape needed
+            continue;
+          }
+      }
+
+      // write the unescaped run before this character
+      if (start < i) {
+        out.append(value, start, i);
+      }
+      start = i + 1;
+
+      if (replacement != null) {
+        out.append(replacement);
+      } else {
+        out.append('\\')
+            .append('u')
+            .append(HEX_DIGITS[(ch >> 12) & 0xF])
+            .append(HEX_DIGITS[(ch >> 8) & 0xF])
+            .append(HEX_DIGITS[(ch >> 4) & 0xF])
+            .append(HEX_DIGITS[ch & 0xF]);
+      }
+    }
+
+    if (start < length) {
+      out.append(value, start, length);
+    }
+
+    out.append('"');
+  }
+}
@@ -0,0 +1,712 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a lazily decoded LocationResult used by services that forward results after reading a few fields.
+ *
+ * <p>Construction scans the encoded text once to find the range of each top level value, without
+ * decoding any of them. Values are decoded when their getter is first called, and SupportingData
+ * can be read one pick at a time with getPickCount() and getPick(). writeJSON() copies every value
+ * that has not been handed out as an object verbatim from the encoded text, including unknown keys,
+ * and re-encodes only the Source, Hypocenter, ErrorEllipse, SupportingData list, and individual
+ * picks that were, since they may have been modified. A result that was never decoded is written
+ * out exactly as it was read.
+ *
+ * <p>The encoded text is kept as a char[] and must not be modified.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class LazyLocationResult implements ProcessingInt {
+
+  /** a class used to hold the range and decoded value of a top level value */
+  private static class Section {
+    /** The key of the value */
+    private final String name;
+
+    /** The index of the first character of the encoded value */
+    private final int start;
+
+    /** The index after the last character of the encoded value */
+    private final int end;
+
+    /** The decoded value */
+    private Object value;
+
+    /** Whether value has been decoded */
+    private boolean decoded;
+
+    /** Whether value has been handed out as a mutable object, and must be re-encoded */
+    private boolean exposed;
+
+    /** The ranges of the SupportingData picks as start, end pairs, null until indexed */
+    private int[] elements;
+
+    /** The picks decoded by getPick(), null until indexed */
+    private Pick[] picks;
+
+    /**
+     * Creates a section
+     *
+     * @param newName - A String containing the key
+     * @param newStart - An int containing the index of the first character of the value
+     * @param newEnd - An int containing the index after the last character of the value
+     */
+    private Section(String newName, int newStart, int newEnd) {
+      name = newName;
+      start = newStart;
+      end = newEnd;
+    }
+  }
+
+  /** The encoded text */
+  private final char[] text;
+
+  /** The index of the opening brace of the encoded result */
+  private final int objectStart;
+
+  /** The index after the closing brace of the encoded result */
+  private final int objectEnd;
+
+  /** The top level values in encoded order */
+  private final ArrayList<Section> sections = new ArrayList<Section>();
+
+  /** The top level values by key, the last one wins if a key is repeated */
+  private final HashMap<String, Section> sectionsByName = new HashMap<String, Section>();
+
+  /** Whether any value has been handed out as a mutable object */
+  private boolean exposed;
+
+  /**
+   * Constructs the class from a String containing a serialized LocationResult
+   *
+   * @param json - A String containing the JSON text
+   * @throws IOException never, declared for consistency with the other readers
+   * @throws ParseException if the JSON is malformed
+   */
+  public LazyLocationResult(String json) throws IOException, ParseException {
+    this(json.toCharArray());
+  }
+
+  /**
+   * Constructs the class from a byte array containing a UTF-8 encoded serialized LocationResult
+   *
+   * @param bytes - A byte[] containing the JSON text
+   * @throws IOException never, declared for consistency with the other readers
+   * @throws ParseException if the JSON is malformed
+   */
+  public LazyLocationResult(byte[] bytes) throws IOException, ParseException {
+    this(toChars(bytes));
+  }
+
+  /**
+   * Constructs the class from a char array containing a serialized LocationResult
+   *
+   * @param json - A char[] containing the JSON text, used in place
+   * @throws IOException never, declared for consistency with the other readers
+   * @throws ParseException if the JSON is malformed
+   */
+  public LazyLocationResult(char[] json) throws IOException, ParseException {
+    this(json, 0, json.length);
+  }
+
+  /**
+   * Constructs the class from a range of a char array containing a serialized LocationResult
+   *
+   * @param json - A char[] containing the JSON text, used in place
+   * @param start - An int containing the index of the first character of the result
+   * @param end - An int containing the index after the last character of the result
+   * @throws IOException never, declared for consistency with the other readers
+   * @throws ParseException if the JSON is malformed
+   */
+  public LazyLocationResult(char[] json, int start, int end) throws IOException, ParseException {
+    text = json;
+
+    JSONStreamReader reader = new JSONStreamReader(text, start, end);
+    reader.beginObject();
+    objectStart = (int) reader.getPosition() - 1;
+
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      int valueStart = skipSeparators((int) reader.getPosition());
+      reader.skipValue();
+
+      Section section = new Section(name, valueStart, (int) reader.getPosition());
+      sections.add(section);
+      sectionsByName.put(name, section);
+    }
+
+    reader.endObject();
+    objectEnd = (int) reader.getPosition();
+
+    // only whitespace may follow
+    reader.peek();
+  }
+
+  /**
+   * Decodes UTF-8 bytes into a char array
+   *
+   * @param bytes - A byte[] containing UTF-8 encoded text
+   * @return Returns the char[]
+   */
+  private static char[] toChars(byte[] bytes) {
+    CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(bytes));
+    char[] json = new char[chars.remaining()];
+    chars.get(json);
+    return (json);
+  }
+
+  /**
+   * Skips the whitespace, colon, or comma before a value
+   *
+   * @param index - An int containing the index to start from
+   * @return Returns the index of the first character of the value
+   */
+  private int skipSeparators(int index) {
+    while (index < text.length) {
+      char c = text[index];
+      if ((c != ' ') && (c != '\t') && (c != '\n') && (c != '\r') && (c != ':') && (c != ',')) {
+        break;
+      }
+      index++;
+    }
+    return (index);
+  }
+
+  /**
+   * Creates a reader over a range of the encoded text
+   *
+   * @param start - An int containing the index of the first character
+   * @param end - An int containing the index after the last character
+   * @return Returns the JSONStreamReader
+   */
+  private JSONStreamReader reader(int start, int end) {
+    return (new JSONStreamReader(text, start, end));
+  }
+
+  /**
+   * Decodes a top level value once
+   *
+   * @param key - A String containing the key of the value
+   * @return Returns the Section, or null if the key is absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  private Section decode(String key) throws ParseException {
+    Section section = sectionsByName.get(key);
+    if ((section == null) || section.decoded) {
+      return (section);
+    }
+
+    try {
+      JSONStreamReader reader = reader(section.start, section.end);
+      if (reader.skipNull()) {
+        section.value = null;
+      } else if (key.equals(LocationResult.ID_KEY)
+          || key.equals(LocationResult.QUALITY_KEY)
+          || key.equals(LocationResult.LOCATOREXITCODE_KEY)) {
+        section.value = reader.nextString();
+      } else if (key.equals(LocationResult.ASSOCIATEDSTATIONS_KEY)
+          || key.equals(LocationResult.ASSOCIATEDPHASES_KEY)
+          || key.equals(LocationResult.USEDSTATIONS_KEY)
+          || key.equals(LocationResult.USEDPHASES_KEY)) {
+        section.value = Integer.valueOf((int) reader.nextLong());
+      } else if (key.equals(LocationResult.SOURCE_KEY)) {
+        section.value = LocationRequestReader.readSource(reader);
+      } else if (key.equals(LocationResult.HYPOCENTER_KEY)) {
+        section.value = LocationRequestReader.readHypocenter(reader);
+      } else if (key.equals(LocationResult.ERRORELLIPSE_KEY)) {
+        section.value = LocationRequestReader.readErrorEllipse(reader);
+      } else {
+        section.value = Double.valueOf(reader.nextDouble());
+      }
+    } catch (IOException e) {
+      // reading from an array does not do I/O
+      throw new UncheckedIOException(e);
+    }
+
+    section.decoded = true;
+    return (section);
+  }
+
+  /**
+   * Decodes a top level value that is handed out as a mutable object
+   *
+   * @param key - A String containing the key of the value
+   * @return Returns the decoded value, or null
+   * @throws ParseException if the value cannot be decoded
+   */
+  private Object expose(String key) throws ParseException {
+    Section section = decode(key);
+    if ((section == null) || (section.value == null)) {
+      return (null);
+    }
+
+    section.exposed = true;
+    exposed = true;
+    return (section.value);
+  }
+
+  /**
+   * Gets a top level value without handing it out as a mutable object
+   *
+   * @param key - A String containing the key of the value
+   * @return Returns the decoded value, or null
+   * @throws ParseException if the value cannot be decoded
+   */
+  private Object get(String key) throws ParseException {
+    Section section = decode(key);
+    return (section != null ? section.value : null);
+  }
+
+  /**
+   * Finds the ranges of the SupportingData picks
+   *
+   * @return Returns the SupportingData Section, or null if absent or null
+   * @throws ParseException if the array is malformed
+   */
+  private Section indexPicks() throws ParseException {
+    Section section = sectionsByName.get(LocationResult.SUPPORTINGDATA_KEY);
+    if ((section == null) || (section.elements != null)) {
+      return (section);
+    }
+
+    int[] elements = new int[32];
+    int count = 0;
+
+    try {
+      JSONStreamReader reader = reader(section.start, section.end);
+      if (reader.skipNull()) {
+        return (null);
+      }
+
+      reader.beginArray();
+      int from = (int) reader.getPosition();
+      while (reader.hasNext()) {
+        reader.skipValue();
+        int to = (int) reader.getPosition();
+
+        if (2 * count + 2 > elements.length) {
+          int[] newElements = new int[elements.length * 2];
+          System.arraycopy(elements, 0, newElements, 0, 2 * count);
+          elements = newElements;
+        }
+        elements[2 * count] = skipSeparators(from);
+        elements[2 * count + 1] = to;
+        count++;
+        from = to;
+      }
+      reader.endArray();
+    } catch (IOException e) {
+      // reading from an array does not do I/O
+      throw new UncheckedIOException(e);
+    }
+
+    int[] trimmed = new int[2 * count];
+    System.arraycopy(elements, 0, trimmed, 0, 2 * count);
+    section.elements = trimmed;
+    section.picks = new Pick[count];
+    return (section);
+  }
+
+  /**
+   * Gets the ID of the result
+   *
+   * @return Returns the ID, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public String getID() throws ParseException {
+    return ((String) get(LocationResult.ID_KEY));
+  }
+
+  /**
+   * Gets the Source of the result, which is re-encoded by writeJSON()
+   *
+   * @return Returns the Source, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Source getSource() throws ParseException {
+    return ((Source) expose(LocationResult.SOURCE_KEY));
+  }
+
+  /**
+   * Gets the Hypocenter of the result, which is re-encoded by writeJSON()
+   *
+   * @return Returns the Hypocenter, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Hypocenter getHypocenter() throws ParseException {
+    return ((Hypocenter) expose(LocationResult.HYPOCENTER_KEY));
+  }
+
+  /**
+   * Gets the ErrorEllipse of the result, which is re-encoded by writeJSON()
+   *
+   * @return Returns the ErrorEllipse, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public ErrorEllipse getErrorEllipse() throws ParseException {
+    return ((ErrorEllipse) expose(LocationResult.ERRORELLIPSE_KEY));
+  }
+
+  /**
+   * Gets the number of SupportingData picks without decoding them
+   *
+   * @return Returns the number of picks, 0 if absent
+   * @throws ParseException if the array is malformed
+   */
+  public int getPickCount() throws ParseException {
+    Section section = indexPicks();
+    return (section != null ? section.picks.length : 0);
+  }
+
+  /**
+   * Gets a single SupportingData pick, decoding only that pick. The pick is re-encoded by
+   * writeJSON(), the other picks are copied verbatim.
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns the Pick, or null if the array holds null at the index
+   * @throws ParseException if the pick cannot be decoded
+   */
+  public Pick getPick(int index) throws ParseException {
+    Section section = indexPicks();
+    if ((section == null) || (index < 0) || (index >= section.picks.length)) {
+      throw new IndexOutOfBoundsException("Pick " + index + " of " + getPickCount());
+    }
+    if (section.value != null) {
+      // the list was handed out, keep to its picks
+      @SuppressWarnings("unchecked")
+      ArrayList<Pick> list = (ArrayList<Pick>) section.value;
+      return (list.get(index));
+    }
+
+    Pick pick = section.picks[index];
+    if (pick == null) {
+      try {
+        JSONStreamReader reader =
+            reader(section.elements[2 * index], section.elements[2 * index + 1]);
+        if (reader.skipNull()) {
+          return (null);
+        }
+        pick = LocationRequestReader.readPick(reader);
+      } catch (IOException e) {
+        // reading from an array does not do I/O
+        throw new UncheckedIOException(e);
+      }
+
+      section.picks[index] = pick;
+      exposed = true;
+    }
+    return (pick);
+  }
+
+  /**
+   * Gets the SupportingData picks as a list, decoding any not yet decoded. The list is re-encoded
+   * by writeJSON().
+   *
+   * @return Returns the ArrayList&lt;Pick&gt;, or null if absent
+   * @throws ParseException if a pick cannot be decoded
+   */
+  public ArrayList<Pick> getSupportingData() throws ParseException {
+    Section section = indexPicks();
+    if (section == null) {
+      return (null);
+    }
+
+    if (section.value == null) {
+      ArrayList<Pick> list = new ArrayList<Pick>(section.picks.length);
+      for (int i = 0; i < section.picks.length; i++) {
+        list.add(getPick(i));
+      }
+      section.value = list;
+      section.decoded = true;
+      section.exposed = true;
+      exposed = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    ArrayList<Pick> list = (ArrayList<Pick>) section.value;
+    return (list);
+  }
+
+  /**
+   * Gets the number of associated stations
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Integer getNumberOfAssociatedStations() throws ParseException {
+    return ((Integer) get(LocationResult.ASSOCIATEDSTATIONS_KEY));
+  }
+
+  /**
+   * Gets the number of associated phases
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Integer getNumberOfAssociatedPhases() throws ParseException {
+    return ((Integer) get(LocationResult.ASSOCIATEDPHASES_KEY));
+  }
+
+  /**
+   * Gets the number of used stations
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Integer getNumberOfUsedStations() throws ParseException {
+    return ((Integer) get(LocationResult.USEDSTATIONS_KEY));
+  }
+
+  /**
+   * Gets the number of used phases
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Integer getNumberOfUsedPhases() throws ParseException {
+    return ((Integer) get(LocationResult.USEDPHASES_KEY));
+  }
+
+  /**
+   * Gets the azimuthal gap in degrees
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getGap() throws ParseException {
+    return ((Double) get(LocationResult.GAP_KEY));
+  }
+
+  /**
+   * Gets the secondary azimuthal gap in degrees
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getSecondaryGap() throws ParseException {
+    return ((Double) get(LocationResult.SECONDARYGAP_KEY));
+  }
+
+  /**
+   * Gets the distance to the closest station in degrees
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getMinimumDistance() throws ParseException {
+    return ((Double) get(LocationResult.MINIMUMDISTANCE_KEY));
+  }
+
+  /**
+   * Gets the RMS in seconds
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getRMS() throws ParseException {
+    return ((Double) get(LocationResult.RMS_KEY));
+  }
+
+  /**
+   * Gets the quality flag
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public String getQuality() throws ParseException {
+    return ((String) get(LocationResult.QUALITY_KEY));
+  }
+
+  /**
+   * Gets the Bayesian depth in kilometers
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getBayesianDepth() throws ParseException {
+    return ((Double) get(LocationResult.BAYESIANDEPTH_KEY));
+  }
+
+  /**
+   * Gets the Bayesian range in kilometers
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getBayesianRange() throws ParseException {
+    return ((Double) get(LocationResult.BAYESIANRANGE_KEY));
+  }
+
+  /**
+   * Gets the depth importance
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public Double getDepthImportance() throws ParseException {
+    return ((Double) get(LocationResult.DEPTHIMPORTANCE_KEY));
+  }
+
+  /**
+   * Gets the locator exit code
+   *
+   * @return Returns the value, or null if absent
+   * @throws ParseException if the value cannot be decoded
+   */
+  public String getLocatorExitCode() throws ParseException {
+    return ((String) get(LocationResult.LOCATOREXITCODE_KEY));
+  }
+
+  /**
+   * Whether every value is still in its encoded form, so writeJSON() copies the result verbatim
+   *
+   * @return Returns true if no value has been handed out as a mutable object
+   */
+  public boolean isUntouched() {
+    return (!exposed);
+  }
+
+  /**
+   * Decodes the whole result, including any changes made to the objects handed out by the getters
+   *
+   * @return Returns the LocationResult
+   * @throws ParseException if a value cannot be decoded
+   */
+  public LocationResult toLocationResult() throws ParseException {
+    LocationResult result;
+    try {
+      result = LocationRequestReader.readLocationResult(reader(objectStart, objectEnd));
+    } catch (IOException e) {
+      // reading from an array does not do I/O
+      throw new UncheckedIOException(e);
+    }
+
+    // keep the objects handed out by the getters
+    for (Section section : sectionsByName.values()) {
+      if (section.exposed) {
+        switch (section.name) {
+          case LocationResult.SOURCE_KEY:
+            result.Source = (Source) section.value;
+            break;
+          case LocationResult.HYPOCENTER_KEY:
+            result.Hypocenter = (Hypocenter) section.value;
+            break;
+          case LocationResult.ERRORELLIPSE_KEY:
+            result.ErrorEllipse = (ErrorEllipse) section.value;
+            break;
+          default:
+            @SuppressWarnings("unchecked")
+            ArrayList<Pick> list = (ArrayList<Pick>) section.value;
+            result.SupportingData = list;
+            break;
+        }
+      } else if ((section.picks != null) && (result.SupportingData != null)) {
+        for (int i = 0; i < section.picks.length; i++) {
+          if (section.picks[i] != null) {
+            result.SupportingData.set(i, section.picks[i]);
+          }
+        }
+      }
+    }
+
+    return (result);
+  }
+
+  /**
+   * Converts the contents of the class to a json object by decoding it fully
+   *
+   * @return Returns a JSONObject containing the class contents
+   */
+  public JSONObject toJSON() {
+    try {
+      return (toLocationResult().toJSON());
+    } catch (ParseException e) {
+      throw new IllegalStateException("Undecodable LocationResult", e);
+    }
+  }
+
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, copying values that were not handed out
+   * as objects verbatim from the encoded text
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    if (!exposed) {
+      writer.rawValue(text, objectStart, objectEnd - objectStart);
+      return;
+    }
+
+    writer.beginObject();
+    for (Section section : sections) {
+      writer.name(section.name);
+
+      if (section.exposed && (section.value instanceof ArrayList)) {
+        writer.value((ArrayList<?>) section.value);
+      } else if (section.exposed) {
+        writer.value((ProcessingInt) section.value);
+      } else if (section.picks != null) {
+        writer.beginArray();
+        for (int i = 0; i < section.picks.length; i++) {
+          if (section.picks[i] != null) {
+            writer.value(section.picks[i]);
+          } else {
+            int start = section.elements[2 * i];
+            writer.rawValue(text, start, section.elements[2 * i + 1] - start);
+          }
+        }
+        writer.endArray();
+      } else {
+        writer.rawValue(text, section.start, section.end - section.start);
+      }
+    }
+    writer.endObject();
+  }
+
+  /**
+   * Validates the class.
+   *
+   * @return Returns true if successful
+   */
+  public boolean isValid() {
+    return (validate(ErrorSink.FAIL_FAST));
+  }
+
+  /**
+   * Gets any validation errors in the class.
+   *
+   * @return Returns a List&lt;String&gt; of any errors found
+   */
+  public ArrayList<String> getErrors() {
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class by decoding it fully, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    LocationResult result;
+    try {
+      result = toLocationResult();
+    } catch (ParseException e) {
+      sink.add("Undecodable LocationResult in LazyLocationResult Class: " + e + ".");
+      return (false);
+    }
+    return (result.validate(sink));
+  }
+}
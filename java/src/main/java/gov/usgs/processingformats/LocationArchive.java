@@ -0,0 +1,693 @@
+package gov.usgs.processingformats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * an append only archive file of LocationResults and LocationRequests, indexed by ID for random
+ * access.
+ *
+ * <p>The file starts with the magic bytes PFA and a version byte, followed by records. Each record
+ * is the length and CRC32 of its payload, then the payload: the BinaryCodec document type, the ID,
+ * and the BinaryCodec document. Opening an archive scans the record headers to build the ID to
+ * offset index, and drops a torn record left at the end of the file by an interrupted append. A
+ * record is only taken as torn when no intact record follows it. A damaged record before the end
+ * fails the open and leaves the file as it is, repair() drops it and every record after it. An
+ * archive opened with openReadOnly() cannot be appended to, and ignores a torn final record without
+ * dropping it.
+ *
+ * <p>Lookups read through MappedByteBuffers, so only the requested record is decoded and the
+ * operating system page cache does the caching. Appends may come from any number of threads.
+ * Appending an ID again replaces the indexed record, the old record stays in the file until the
+ * archive is compacted.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class LocationArchive implements Closeable {
+  /** Magic bytes at the start of every archive */
+  private static final byte[] MAGIC = {'P', 'F', 'A'};
+
+  /** The current archive version */
+  public static final int VERSION = 1;
+
+  /** The length of the archive header */
+  private static final int HEADER_LENGTH = 4;
+
+  /** The length of a record header, the payload length and CRC32 */
+  private static final int RECORD_HEADER_LENGTH = 8;
+
+  /** The longest record payload allowed */
+  public static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+  /** The size of the mapped segments, each is mapped with MAX_RECORD_LENGTH of overlap */
+  private static final long SEGMENT_SIZE = 1L << 30;
+
+  /** The archive file */
+  private FileChannel channel;
+
+  /** Offsets of the latest LocationResult for each ID */
+  private ConcurrentHashMap<String, Long> results = new ConcurrentHashMap<String, Long>();
+
+  /** Offsets of the latest LocationRequest for each ID */
+  private ConcurrentHashMap<String, Long> requests = new ConcurrentHashMap<String, Long>();
+
+  /** The mapped segments, null until used */
+  private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+  /** The end of the last complete record */
+  private volatile long end;
+
+  /** The number of records in the file */
+  private long recordCount;
+
+  /** Whether the archive was opened read only */
+  private final boolean readOnly;
+
+  /**
+   * Opens an archive, creating it if it does not exist
+   *
+   * @param path - The Path of the archive
+   * @return Returns the LocationArchive
+   * @throws IOException if the file cannot be opened or is not an archive
+   */
+  public static LocationArchive open(Path path) throws IOException {
+    return (open(path, false, false));
+  }
+
+  /**
+   * Opens an existing archive for lookups only
+   *
+   * @param path - The Path of the archive
+   * @return Returns the LocationArchive
+   * @throws IOException if the file cannot be opened or is not an archive
+   */
+  public static LocationArchive openReadOnly(Path path) throws IOException {
+    return (open(path, true, false));
+  }
+
+  /**
+   * Repairs a damaged archive in place, dropping the first damaged record and every record after
+   * it. The archive must not be open elsewhere.
+   *
+   * @param path - The Path of the archive
+   * @return Returns the number of bytes dropped
+   * @throws IOException if the file cannot be opened or is not an archive
+   */
+  public static long repair(Path path) throws IOException {
+    long size = Files.size(path);
+    try (LocationArchive archive = open(path, false, true)) {
+      return (size - archive.getSize());
+    }
+  }
+
+  /**
+   * Opens an archive
+   *
+   * @param path - The Path of the archive
+   * @param readOnly - A boolean indicating whether to open the existing archive read only
+   * @param repair - A boolean indicating whether to drop damaged records rather than fail
+   * @return Returns the LocationArchive
+   * @throws IOException if the file cannot be opened or is not an archive
+   */
+  private static LocationArchive open(Path path, boolean readOnly, boolean repair)
+      throws IOException {
+    FileChannel channel =
+        readOnly
+            ? FileChannel.open(path, StandardOpenOption.READ)
+            : FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    try {
+      return (new LocationArchive(channel, readOnly, repair));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Compacts an archive in place, keeping only the latest record for each ID. The archive must not
+   * be open elsewhere.
+   *
+   * @param path - The Path of the archive
+   * @return Returns the number of bytes reclaimed
+   * @throws IOException if compacting fails
+   */
+  public static long compact(Path path) throws IOException {
+    Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+
+    long reclaimed;
+    try (LocationArchive archive = open(path)) {
+      reclaimed = archive.getSize() - archive.compactTo(compacted);
+    }
+
+    Files.move(
+        compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return (reclaimed);
+  }
+
+  /**
+   * Constructs the class from an open channel, building the index
+   *
+   * @param newChannel - The FileChannel of the archive
+   * @param newReadOnly - A boolean indicating whether the channel is read only
+   * @param repair - A boolean indicating whether to drop damaged records rather than fail
+   * @throws IOException if the file is not an archive or is damaged
+   */
+  private LocationArchive(FileChannel newChannel, boolean newReadOnly, boolean repair)
+      throws IOException {
+    channel = newChannel;
+    readOnly = newReadOnly;
+
+    if ((channel.size() == 0) && !readOnly) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      header.put(MAGIC).put((byte) VERSION).flip();
+      writeFully(header, 0);
+      end = HEADER_LENGTH;
+      return;
+    }
+
+    ByteBuffer header = readFully(0, HEADER_LENGTH, channel.size());
+    for (byte b : MAGIC) {
+      if (header.get() != b) {
+        throw new IOException("Not a LocationArchive");
+      }
+    }
+    int version = header.get();
+    if ((version < 1) || (version > VERSION)) {
+      throw new IOException("Unsupported LocationArchive version " + version);
+    }
+
+    buildIndex(repair);
+  }
+
+  /**
+   * Appends a LocationResult, replacing any indexed result with the same ID
+   *
+   * @param result - The LocationResult to append, with an ID
+   * @return Returns the offset of the record
+   * @throws IOException if writing fails
+   */
+  public long append(LocationResult result) throws IOException {
+    if (result.ID == null) {
+      throw new IllegalArgumentException("LocationResult has no ID");
+    }
+    return (append(BinaryCodec.TYPE_LOCATIONRESULT, result.ID, BinaryCodec.toBytes(result)));
+  }
+
+  /**
+   * Appends a LocationRequest, replacing any indexed request with the same ID
+   *
+   * @param request - The LocationRequest to append, with an ID
+   * @return Returns the offset of the record
+   * @throws IOException if writing fails
+   */
+  public long append(LocationRequest request) throws IOException {
+    if (request.ID == null) {
+      throw new IllegalArgumentException("LocationRequest has no ID");
+    }
+    return (append(BinaryCodec.TYPE_LOCATIONREQUEST, request.ID, BinaryCodec.toBytes(request)));
+  }
+
+  /**
+   * Gets the latest LocationResult with an ID
+   *
+   * @param id - A String containing the ID
+   * @return Returns the LocationResult, null if there is none
+   * @throws IOException if reading fails or the record is corrupt
+   */
+  public LocationResult getResult(String id) throws IOException {
+    Long offset = results.get(id);
+    if (offset == null) {
+      return (null);
+    }
+
+    byte[] payload = readPayload(offset);
+    int documentOffset = getDocumentOffset(payload);
+    return (BinaryCodec.readLocationResult(
+        payload, documentOffset, payload.length - documentOffset));
+  }
+
+  /**
+   * Gets the latest LocationRequest with an ID
+   *
+   * @param id - A String containing the ID
+   * @return Returns the LocationRequest, null if there is none
+   * @throws IOException if reading fails or the record is corrupt
+   */
+  public LocationRequest getRequest(String id) throws IOException {
+    Long offset = requests.get(id);
+    if (offset == null) {
+      return (null);
+    }
+
+    byte[] payload = readPayload(offset);
+    int documentOffset = getDocumentOffset(payload);
+    return (BinaryCodec.readLocationRequest(
+        payload, documentOffset, payload.length - documentOffset));
+  }
+
+  /**
+   * Gets the IDs of the LocationResults in the archive
+   *
+   * @return Returns an unmodifiable view of the IDs
+   */
+  public Set<String> getResultIDs() {
+    return (Collections.unmodifiableSet(results.keySet()));
+  }
+
+  /**
+   * Gets the IDs of the LocationRequests in the archive
+   *
+   * @return Returns an unmodifiable view of the IDs
+   */
+  public Set<String> getRequestIDs() {
+    return (Collections.unmodifiableSet(requests.keySet()));
+  }
+
+  /**
+   * Gets the size of the archive
+   *
+   * @return Returns the size in bytes
+   */
+  public long getSize() {
+    return (end);
+  }
+
+  /**
+   * Gets the number of records in the file, including replaced ones
+   *
+   * @return Returns the number of records
+   */
+  public synchronized long getRecordCount() {
+    return (recordCount);
+  }
+
+  /**
+   * Gets the number of replaced records that compaction would remove
+   *
+   * @return Returns the number of replaced records
+   */
+  public synchronized long getStaleCount() {
+    return (recordCount - results.size() - requests.size());
+  }
+
+  /**
+   * Forces appended records to the storage device
+   *
+   * @throws IOException if forcing fails
+   */
+  public void force() throws IOException {
+    channel.force(false);
+  }
+
+  /**
+   * Writes a compacted copy of the archive, keeping only the latest record for each ID, in file
+   * order. Records are copied without decoding.
+   *
+   * @param target - The Path of the new archive, replaced if it exists
+   * @return Returns the size of the new archive
+   * @throws IOException if compacting fails
+   */
+  public long compactTo(Path target) throws IOException {
+    ArrayList<Long> offsets;
+    long limit;
+    synchronized (this) {
+      offsets = new ArrayList<Long>(results.values());
+      offsets.addAll(requests.values());
+      limit = end;
+    }
+    Collections.sort(offsets);
+
+    try (FileChannel out =
+        FileChannel.open(
+            target,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      header.put(MAGIC).put((byte) VERSION).flip();
+      long position = 0;
+      while (header.hasRemaining()) {
+        position += out.write(header, position);
+      }
+
+      for (long offset : offsets) {
+        int length = readFully(offset, RECORD_HEADER_LENGTH, limit).getInt();
+        long count = RECORD_HEADER_LENGTH + length;
+        long copied = 0;
+        while (copied < count) {
+          copied += channel.transferTo(offset + copied, count - copied, out.position(position));
+          position = out.position();
+        }
+      }
+      out.force(false);
+      return (position);
+    }
+  }
+
+  /**
+   * Closes the archive
+   *
+   * @throws IOException if closing fails
+   */
+  public void close() throws IOException {
+    segments = new MappedByteBuffer[0];
+    channel.close();
+  }
+
+  /**
+   * Appends a record
+   *
+   * @param type - An int containing the BinaryCodec document type
+   * @param id - A String containing the ID
+   * @param document - A byte[] containing the BinaryCodec document
+   * @return Returns the offset of the record
+   * @throws IOException if writing fails
+   */
+  private long append(int type, String id, byte[] document) throws IOException {
+    byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+    if (idBytes.length > 0xFFFF) {
+      throw new IllegalArgumentException("ID too long");
+    }
+
+    if (readOnly) {
+      throw new IOException("LocationArchive is open read only");
+    }
+
+    int length = 3 + idBytes.length + document.length;
+    if (length > MAX_RECORD_LENGTH) {
+      throw new IllegalArgumentException("Record longer than " + MAX_RECORD_LENGTH + " bytes");
+    }
+
+    // build the record outside the lock
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + length);
+    record.putInt(length).putInt(0);
+    record.put((byte) type).putShort((short) idBytes.length).put(idBytes).put(document);
+
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), RECORD_HEADER_LENGTH, length);
+    record.putInt(4, (int) crc.getValue());
+    record.flip();
+
+    synchronized (this) {
+      long offset = end;
+      writeFully(record, offset);
+
+      getIndex(type).put(id, offset);
+      recordCount++;
+      end = offset + RECORD_HEADER_LENGTH + length;
+      return (offset);
+    }
+  }
+
+  /**
+   * Scans the record headers to build the index, dropping a torn final record
+   *
+   * @param repair - A boolean indicating whether to drop a damaged record and the records after it
+   *     rather than fail
+   * @throws IOException if reading fails, or a record before the end is damaged and not repairing
+   */
+  private void buildIndex(boolean repair) throws IOException {
+    long size = channel.size();
+    long offset = HEADER_LENGTH;
+    String damage = null;
+
+    // a record cut short by an interrupted append ends the scan
+    while (offset + RECORD_HEADER_LENGTH + 3 <= size) {
+      ByteBuffer header = readFully(offset, RECORD_HEADER_LENGTH + 3, size);
+      int length = header.getInt();
+      header.getInt();
+      if ((length < 3) || (length > MAX_RECORD_LENGTH)) {
+        damage = "invalid length " + length;
+        break;
+      } else if (offset + RECORD_HEADER_LENGTH + length > size) {
+        // only the last record written can be torn, an intact record after it is damage
+        if (hasRecordAfter(offset + RECORD_HEADER_LENGTH, size)) {
+          damage = "length " + length + " past the end of the file";
+        }
+        break;
+      }
+
+      int type = header.get();
+      int idLength = header.getShort() & 0xFFFF;
+      if (getIndex(type) == null) {
+        damage = "unknown type " + type;
+        break;
+      } else if (idLength > length - 3) {
+        damage = "invalid ID length " + idLength;
+        break;
+      }
+
+      // the last record may be the torn result of an interrupted append
+      if ((offset + RECORD_HEADER_LENGTH + length == size) && !isIntact(offset)) {
+        break;
+      }
+
+      ByteBuffer id = readFully(offset + RECORD_HEADER_LENGTH + 3, idLength, size);
+      getIndex(type)
+          .put(new String(id.array(), id.arrayOffset(), idLength, StandardCharsets.UTF_8), offset);
+      recordCount++;
+
+      offset += RECORD_HEADER_LENGTH + length;
+    }
+
+    if ((damage != null) && !repair) {
+      throw new IOException(
+          "Damaged LocationArchive record at offset " + offset + ", " + damage + ", use repair()");
+    }
+
+    end = offset;
+    if ((end < size) && !readOnly) {
+      channel.truncate(end);
+    }
+  }
+
+  /**
+   * Searches the rest of the file for an intact record, with a known type and a matching CRC32,
+   * starting at any byte
+   *
+   * @param from - A long containing the offset to search from
+   * @param size - A long containing the size of the file
+   * @return Returns true if an intact record is found
+   * @throws IOException if reading fails
+   */
+  private boolean hasRecordAfter(long from, long size) throws IOException {
+    // a record running past the end is at most MAX_RECORD_LENGTH long, so is the rest
+    ByteBuffer rest = readFully(from, (int) (size - from), size);
+    int limit = rest.limit();
+
+    CRC32 crc = new CRC32();
+    for (int i = 0; i + RECORD_HEADER_LENGTH + 3 <= limit; i++) {
+      int length = rest.getInt(i);
+      if ((length < 3)
+          || (length > limit - i - RECORD_HEADER_LENGTH)
+          || (getIndex(rest.get(i + RECORD_HEADER_LENGTH)) == null)
+          || ((rest.getShort(i + RECORD_HEADER_LENGTH + 1) & 0xFFFF) > length - 3)) {
+        continue;
+      }
+
+      crc.reset();
+      crc.update(rest.array(), i + RECORD_HEADER_LENGTH, length);
+      if ((int) crc.getValue() == rest.getInt(i + 4)) {
+        return (true);
+      }
+    }
+    return (false);
+  }
+
+  /**
+   * Checks the CRC32 of a record
+   *
+   * @param offset - A long containing the offset of the record
+   * @return Returns true if the CRC32 matches
+   * @throws IOException if reading fails
+   */
+  private boolean isIntact(long offset) throws IOException {
+    ByteBuffer header = readFully(offset, RECORD_HEADER_LENGTH, channel.size());
+    int length = header.getInt();
+    int expected = header.getInt();
+
+    ByteBuffer payload = readFully(offset + RECORD_HEADER_LENGTH, length, channel.size());
+    CRC32 crc = new CRC32();
+    crc.update(payload.array(), payload.arrayOffset(), length);
+    return ((int) crc.getValue() == expected);
+  }
+
+  /**
+   * Reads and checks the payload of a record through the mapped segments
+   *
+   * @param offset - A long containing the offset of the record
+   * @return Returns a byte[] containing the payload
+   * @throws IOException if reading fails or the record is corrupt
+   */
+  private byte[] readPayload(long offset) throws IOException {
+    ByteBuffer segment = getSegment(offset, RECORD_HEADER_LENGTH);
+    int length = segment.getInt();
+    int expected = segment.getInt();
+    if ((length < 3) || (length > MAX_RECORD_LENGTH)) {
+      throw new IOException("Corrupt LocationArchive record at offset " + offset);
+    }
+
+    byte[] payload = new byte[length];
+    getSegment(offset + RECORD_HEADER_LENGTH, length).get(payload);
+
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, length);
+    if ((int) crc.getValue() != expected) {
+      throw new IOException("Corrupt LocationArchive record at offset " + offset);
+    }
+    return (payload);
+  }
+
+  /**
+   * Gets the offset of the BinaryCodec document in a payload
+   *
+   * @param payload - A byte[] containing the payload
+   * @return Returns the offset of the document
+   */
+  private static int getDocumentOffset(byte[] payload) {
+    return (3 + (((payload[1] & 0xFF) << 8) | (payload[2] & 0xFF)));
+  }
+
+  /**
+   * Gets a view of a mapped segment positioned at an offset, mapping or extending the segment if
+   * needed. Segments overlap by MAX_RECORD_LENGTH so any record fits in the segment it starts in.
+   *
+   * @param offset - A long containing the file offset
+   * @param length - An int containing the number of bytes needed
+   * @return Returns a ByteBuffer positioned at the offset
+   * @throws IOException if mapping fails
+   */
+  private ByteBuffer getSegment(long offset, int length) throws IOException {
+    int index = (int) (offset / SEGMENT_SIZE);
+    long start = index * SEGMENT_SIZE;
+
+    MappedByteBuffer[] current = segments;
+    if ((index >= current.length)
+        || (current[index] == null)
+        || (current[index].capacity() < offset + length - start)) {
+      current = map(index, offset + length);
+    }
+
+    ByteBuffer view = current[index].duplicate();
+    view.position((int) (offset - start));
+    return (view);
+  }
+
+  /**
+   * Maps, or remaps a longer, segment
+   *
+   * @param index - An int containing the segment index
+   * @param needed - A long containing the file offset that must be mapped
+   * @return Returns the segments
+   * @throws IOException if mapping fails or the offset is past the end
+   */
+  private synchronized MappedByteBuffer[] map(int index, long needed) throws IOException {
+    long limit = end;
+    if (needed > limit) {
+      throw new IOException("Offset past the end of the LocationArchive");
+    }
+
+    MappedByteBuffer[] current = segments;
+    if (index >= current.length) {
+      MappedByteBuffer[] grown = new MappedByteBuffer[index + 1];
+      System.arraycopy(current, 0, grown, 0, current.length);
+      current = grown;
+    } else {
+      current = current.clone();
+    }
+
+    long start = index * SEGMENT_SIZE;
+    long size = Math.min(limit, start + SEGMENT_SIZE + MAX_RECORD_LENGTH) - start;
+    current[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+
+    segments = current;
+    return (current);
+  }
+
+  /**
+   * Gets the index for a document type
+   *
+   * @param type - An int containing the BinaryCodec document type
+   * @return Returns the index, null for unknown types
+   */
+  private Map<String, Long> getIndex(int type) {
+    if (type == BinaryCodec.TYPE_LOCATIONRESULT) {
+      return (results);
+    } else if (type == BinaryCodec.TYPE_LOCATIONREQUEST) {
+      return (requests);
+    }
+    return (null);
+  }
+
+  /**
+   * Reads bytes from the file with the channel
+   *
+   * @param offset - A long containing the file offset
+   * @param length - An int containing the number of bytes
+   * @param size - A long containing the size of the file
+   * @return Returns a heap ByteBuffer containing the bytes
+   * @throws IOException if reading fails or the bytes are past the end of the file
+   */
+  private ByteBuffer readFully(long offset, int length, long size) throws IOException {
+    if (offset + length > size) {
+      throw new IOException("Truncated LocationArchive");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Truncated LocationArchive");
+      }
+    }
+    buffer.flip();
+    return (buffer);
+  }
+
+  /**
+   * Writes bytes to the file
+   *
+   * @param buffer - A ByteBuffer containing the bytes
+   * @param offset - A long containing the file offset
+   * @throws IOException if writing fails
+   */
+  private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /**
+   * main function for the compaction tool
+   *
+   * @param args - A String[] containing the command line arguments, the archives to compact
+   * @throws IOException if compacting fails
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.out.println("Usage: LocationArchive <archive> [<archive> ...]");
+      System.exit(1);
+    }
+
+    for (String name : args) {
+      long reclaimed = compact(Path.of(name));
+      System.out.println("Compacted " + name + ", reclaimed " + reclaimed + " bytes");
+    }
+  }
+}
@@ -1,8 +1,10 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
@@ -59,6 +61,12 @@ public class LocationRequest implements ProcessingInt {
   /** A required vector of input Pick objects for this LocationRequest */
   public ArrayList<Pick> InputData;
 
+  /**
+   * Optional columnar alternative to InputData for large requests, used in place of InputData when
+   * InputData is null or empty
+   */
+  public PickBatch InputBatch;
+
   /** Optional earth model for this LocationRequest, defaults to "ak135" */
   public String EarthModel;
 
@@ -92,6 +100,12 @@ public class LocationRequest implements ProcessingInt {
   /** A LocationResult object to contain the output from the locator */
   public LocationResult OutputData;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
   /** The constructor for the LocationRequest class. Initializes members to null values. */
   public LocationRequest() {
     ID = null;
@@ -102,6 +116,7 @@ public class LocationRequest implements ProcessingInt {
     SourceOriginTime = null;
     SourceDepth = null;
     InputData = null;
+    InputBatch = null;
     EarthModel = "ak135";
     SlabResolution = "2spd";
     IsLocationNew = null;
@@ -331,6 +346,7 @@ public class LocationRequest implements ProcessingInt {
     UseSVD = newUseSVD;
     ReassessInitialPhaseIDs = newReassessInitialPhaseIDs;
     OutputData = null;
+    UnknownKeys = null;
   }
 
   /**
@@ -339,6 +355,7 @@ public class LocationRequest implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public LocationRequest(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Type
@@ -509,6 +526,13 @@ public class LocationRequest implements ProcessingInt {
     } else {
       OutputData = null;
     }
+
+    // keys this class does not know
+    UnknownKeys =
+        RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.LOCATIONREQUEST_KEYS);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "LocationRequest", getInstrumentedSize(), span, 0);
   }
 
   /**
@@ -518,6 +542,7 @@ public class LocationRequest implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -573,6 +598,8 @@ public class LocationRequest implements ProcessingInt {
       if (!dataArray.isEmpty()) {
         newJSONObject.put(INPUTDATA_KEY, dataArray);
       }
+    } else if ((InputBatch != null) && (!InputBatch.isEmpty())) {
+      newJSONObject.put(INPUTDATA_KEY, InputBatch.toJSON());
     }
 
     // optional values
@@ -632,22 +659,135 @@ public class LocationRequest implements ProcessingInt {
       newJSONObject.put(OUTPUTDATA_KEY, OutputData.toJSON());
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "LocationRequest", getInstrumentedSize(), span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // ID
+    if (ID != null) {
+      writer.name(ID_KEY).value(ID);
+    }
+
+    // Source
+    if (Source != null) {
+      writer.name(SOURCE_KEY).value(Source);
+    }
+
+    // Type
+    if (Type != null) {
+      writer.name(TYPE_KEY).value(Type);
+    }
+
+    // SourceLatitude
+    if (SourceLatitude != null) {
+      writer.name(SOURCELATITUDE_KEY).value(SourceLatitude);
+    }
+
+    // SourceLongitude
+    if (SourceLongitude != null) {
+      writer.name(SOURCELONGITUDE_KEY).value(SourceLongitude);
+    }
+
+    // SourceOriginTime
+    if (SourceOriginTime != null) {
+      writer.name(SOURCEORIGINTIME_KEY).value(Utility.formatDate(SourceOriginTime));
+    }
+
+    // SourceDepth
+    if (SourceDepth != null) {
+      writer.name(SOURCEDEPTH_KEY).value(SourceDepth);
+    }
+
+    // InputData
+    if ((InputData != null) && (!InputData.isEmpty())) {
+      writer.name(INPUTDATA_KEY).value(InputData);
+    } else if ((InputBatch != null) && (!InputBatch.isEmpty())) {
+      writer.name(INPUTDATA_KEY);
+      InputBatch.writeJSON(writer);
+    }
+
+    // EarthModel
+    if (EarthModel != null) {
+      writer.name(EARTHMODEL_KEY).value(EarthModel);
+    }
+
+    // SlabResolution
+    if (SlabResolution != null) {
+      writer.name(SLABRESOLUTION_KEY).value(SlabResolution);
+    }
+
+    // IsLocationNew
+    if (IsLocationNew != null) {
+      writer.name(ISLOCATIONNEW_KEY).value(IsLocationNew);
+    }
+
+    // IsLocationHeld
+    if (IsLocationHeld != null) {
+      writer.name(ISLOCATIONHELD_KEY).value(IsLocationHeld);
+    }
+
+    // IsDepthHeld
+    if (IsDepthHeld != null) {
+      writer.name(ISDEPTHHELD_KEY).value(IsDepthHeld);
+    }
+
+    // IsBayesianDepth
+    if (IsBayesianDepth != null) {
+      writer.name(ISBAYESIANDEPTH_KEY).value(IsBayesianDepth);
+    }
+
+    // BayesianDepth
+    if (BayesianDepth != null) {
+      writer.name(BAYESIANDEPTH_KEY).value(BayesianDepth);
+    }
+
+    // BayesianSpread
+    if (BayesianSpread != null) {
+      writer.name(BAYESIANSPREAD_KEY).value(BayesianSpread);
+    }
+
+    // UseSVD
+    if (UseSVD != null) {
+      writer.name(USESVD_KEY).value(UseSVD);
+    }
+
+    // ReassessInitialPhaseIDs
+    if (ReassessInitialPhaseIDs != null) {
+      writer.name(REASSESSINITIALPHASEIDS_KEY).value(ReassessInitialPhaseIDs);
+    }
+
+    // OutputData
+    if (OutputData != null) {
+      writer.name(OUTPUTDATA_KEY).value(OutputData);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -656,84 +796,112 @@ public class LocationRequest implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "LocationRequest", getInstrumentedSize(), span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // Required Keys
     // latitude
     if (SourceLatitude == null) {
       // latitude not found
-      errorList.add("No Source Latitude in LocationRequest Class.");
+      valid = false;
+      sink.add("No Source Latitude in LocationRequest Class.");
     } else if ((SourceLatitude < -90) || (SourceLatitude > 90)) {
       // invalid latitude
-      errorList.add("Source Latitude in LocationRequest Class not in the range of -90 to 90.");
+      valid = false;
+      sink.add("Source Latitude in LocationRequest Class not in the range of -90 to 90.");
     }
 
     // longitude
     if (SourceLongitude == null) {
       // longitude not found
-      errorList.add("No Source Longitude in LocationRequest Class.");
+      valid = false;
+      sink.add("No Source Longitude in LocationRequest Class.");
     } else if ((SourceLongitude < -180) || (SourceLongitude > 180)) {
       // invalid longitude
-      errorList.add("Source Longitude in LocationRequest Class not in the range of -180 to 180.");
+      valid = false;
+      sink.add("Source Longitude in LocationRequest Class not in the range of -180 to 180.");
     }
 
     // time
     if (SourceOriginTime == null) {
       // time not found
-      errorList.add("No Source Origin Time in LocationRequest Class.");
+      valid = false;
+      sink.add("No Source Origin Time in LocationRequest Class.");
     }
 
     // depth
     if (SourceDepth == null) {
       // depth not found
-      errorList.add("No Depth in LocationRequest Class.");
+      valid = false;
+      sink.add("No Depth in LocationRequest Class.");
     } else if ((SourceDepth < -100) || (SourceDepth > 1500)) {
       // invalid depth
-      errorList.add("Source Depth in LocationRequest Class not in the range of -100 to 1500.");
+      valid = false;
+      sink.add("Source Depth in LocationRequest Class not in the range of -100 to 1500.");
+    }
+
+    // no need to walk the picks if we already know the answer
+    if (!valid && sink.isFailFast()) {
+      return (false);
     }
 
     // input data
     if ((InputData != null) && (!InputData.isEmpty())) {
-
-      // enumerate through the whole arraylist
-      for (Iterator<Pick> pickIterator = InputData.iterator(); pickIterator.hasNext(); ) {
-
-        // convert pick to JSON object
-        Pick aPick = ((Pick) pickIterator.next());
-
-        if (!aPick.isValid()) {
-          ArrayList<String> pickErrorList = aPick.getErrors();
-
-          // combine the errors into a single string
-          String errorString = new String();
-          for (int i = 0; i < pickErrorList.size(); i++) {
-            errorString += " " + pickErrorList.get(i);
-          }
-          errorList.add("Invalid Pick in InputData in LocationRequest Class: " + errorString);
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          InputData, sink, "Invalid Pick", " in InputData in LocationRequest Class: ", true)) {
+        valid = false;
+      }
+    } else if ((InputBatch != null) && (!InputBatch.isEmpty())) {
+      if (!InputBatch.validate(sink, "Invalid Pick", " in InputData in LocationRequest Class: ")) {
+        valid = false;
       }
     } else {
       // hypocenter not found
-      errorList.add("No input data in LocationRequest Class.");
+      valid = false;
+      sink.add("No input data in LocationRequest Class.");
     }
 
     // output data
     if (OutputData != null) {
       if (!OutputData.isValid()) {
         // hypocenter invalid
-        errorList.add("Invalid OutputData in LocationRequest Class.");
+        valid = false;
+        sink.add("Invalid OutputData in LocationRequest Class.");
       }
     }
 
     // Source
     if ((Source != null) && (!Source.isValid())) {
       // Source invalid
-      errorList.add("Invalid Source in LocationRequest Class.");
+      valid = false;
+      sink.add("Invalid Source in LocationRequest Class.");
     }
 
     // success
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of picks
+   */
+  private int getInstrumentedSize() {
+    return (InstrumentationRegistry.sizeOf(InputData)
+        + ((InputBatch != null) ? InputBatch.size() : 0));
   }
 }
@@ -0,0 +1,815 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * a conversion class used to create, parse, and validate the changes between two versions of a
+ * LocationRequest, so a relocation can be requested without resending the unchanged picks.
+ *
+ * <p>Picks are identified by their ID. A delta lists the added picks, the modified picks, which
+ * replace the picks with the same ID, and the IDs of the removed picks. The request values that
+ * changed are set, values that are null did not change, and values that were cleared are listed in
+ * ClearedKeys. diff() computes the delta between two requests and apply() applies one to a held
+ * request.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class LocationRequestDelta implements ProcessingInt {
+  /** JSON Keys */
+  public static final String ID_KEY = "ID";
+
+  public static final String SEQUENCE_KEY = "Sequence";
+  public static final String ADDEDPICKS_KEY = "AddedPicks";
+  public static final String MODIFIEDPICKS_KEY = "ModifiedPicks";
+  public static final String REMOVEDPICKIDS_KEY = "RemovedPickIDs";
+  public static final String CLEAREDKEYS_KEY = "ClearedKeys";
+
+  /** The LocationRequest keys of the values a delta can change */
+  public static final List<String> VALUE_KEYS =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              LocationRequest.TYPE_KEY,
+              LocationRequest.SOURCE_KEY,
+              LocationRequest.EARTHMODEL_KEY,
+              LocationRequest.SLABRESOLUTION_KEY,
+              LocationRequest.SOURCELATITUDE_KEY,
+              LocationRequest.SOURCELONGITUDE_KEY,
+              LocationRequest.SOURCEORIGINTIME_KEY,
+              LocationRequest.SOURCEDEPTH_KEY,
+              LocationRequest.ISLOCATIONNEW_KEY,
+              LocationRequest.ISLOCATIONHELD_KEY,
+              LocationRequest.ISDEPTHHELD_KEY,
+              LocationRequest.ISBAYESIANDEPTH_KEY,
+              LocationRequest.BAYESIANDEPTH_KEY,
+              LocationRequest.BAYESIANSPREAD_KEY,
+              LocationRequest.USESVD_KEY,
+              LocationRequest.REASSESSINITIALPHASEIDS_KEY));
+
+  /** Required ID of the LocationRequest, or session, the delta applies to */
+  public String ID;
+
+  /** Optional sequence number of the delta within its session, starting at 1 */
+  public Long Sequence;
+
+  /** Optional picks to add, each with an ID not in the request */
+  public ArrayList<Pick> AddedPicks;
+
+  /** Optional picks replacing the picks in the request with the same ID */
+  public ArrayList<Pick> ModifiedPicks;
+
+  /** Optional IDs of the picks to remove from the request */
+  public ArrayList<String> RemovedPickIDs;
+
+  /** Optional new Type */
+  public String Type;
+
+  /** Optional new Source */
+  public Source Source;
+
+  /** Optional new EarthModel */
+  public String EarthModel;
+
+  /** Optional new SlabResolution */
+  public String SlabResolution;
+
+  /** Optional new starting latitude */
+  public Double SourceLatitude;
+
+  /** Optional new starting longitude */
+  public Double SourceLongitude;
+
+  /** Optional new starting origin time */
+  public Date SourceOriginTime;
+
+  /** Optional new starting depth */
+  public Double SourceDepth;
+
+  /** Optional new IsLocationNew flag */
+  public Boolean IsLocationNew;
+
+  /** Optional new IsLocationHeld flag */
+  public Boolean IsLocationHeld;
+
+  /** Optional new IsDepthHeld flag */
+  public Boolean IsDepthHeld;
+
+  /** Optional new IsBayesianDepth flag */
+  public Boolean IsBayesianDepth;
+
+  /** Optional new BayesianDepth */
+  public Double BayesianDepth;
+
+  /** Optional new BayesianSpread */
+  public Double BayesianSpread;
+
+  /** Optional new UseSVD flag */
+  public Boolean UseSVD;
+
+  /** Optional new ReassessInitialPhaseIDs flag */
+  public Boolean ReassessInitialPhaseIDs;
+
+  /** Optional VALUE_KEYS of the request values to set to null */
+  public ArrayList<String> ClearedKeys;
+
+  /** The constructor for the LocationRequestDelta class. Initializes members to null values. */
+  public LocationRequestDelta() {
+    ID = null;
+    Sequence = null;
+    AddedPicks = null;
+    ModifiedPicks = null;
+    RemovedPickIDs = null;
+    ClearedKeys = null;
+  }
+
+  /**
+   * Constructs the class from a JSONObject, populating members
+   *
+   * @param newJSONObject - A JSONObject.
+   */
+  public LocationRequestDelta(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
+    // ID
+    if (newJSONObject.containsKey(ID_KEY)) {
+      ID = newJSONObject.get(ID_KEY).toString();
+    } else {
+      ID = null;
+    }
+
+    // Sequence
+    if (newJSONObject.get(SEQUENCE_KEY) instanceof Number) {
+      Sequence = ((Number) newJSONObject.get(SEQUENCE_KEY)).longValue();
+    } else {
+      Sequence = null;
+    }
+
+    // picks
+    AddedPicks = readPicks(newJSONObject, ADDEDPICKS_KEY);
+    ModifiedPicks = readPicks(newJSONObject, MODIFIEDPICKS_KEY);
+    RemovedPickIDs = readStrings(newJSONObject, REMOVEDPICKIDS_KEY);
+
+    // values
+    Type = readString(newJSONObject, LocationRequest.TYPE_KEY);
+    if (newJSONObject.containsKey(LocationRequest.SOURCE_KEY)) {
+      Source = new Source((JSONObject) newJSONObject.get(LocationRequest.SOURCE_KEY));
+    } else {
+      Source = null;
+    }
+    EarthModel = readString(newJSONObject, LocationRequest.EARTHMODEL_KEY);
+    SlabResolution = readString(newJSONObject, LocationRequest.SLABRESOLUTION_KEY);
+    SourceLatitude = readDouble(newJSONObject, LocationRequest.SOURCELATITUDE_KEY);
+    SourceLongitude = readDouble(newJSONObject, LocationRequest.SOURCELONGITUDE_KEY);
+    if (newJSONObject.containsKey(LocationRequest.SOURCEORIGINTIME_KEY)) {
+      SourceOriginTime =
+          Utility.getDate(newJSONObject.get(LocationRequest.SOURCEORIGINTIME_KEY).toString());
+    } else {
+      SourceOriginTime = null;
+    }
+    SourceDepth = readDouble(newJSONObject, LocationRequest.SOURCEDEPTH_KEY);
+    IsLocationNew = (Boolean) newJSONObject.get(LocationRequest.ISLOCATIONNEW_KEY);
+    IsLocationHeld = (Boolean) newJSONObject.get(LocationRequest.ISLOCATIONHELD_KEY);
+    IsDepthHeld = (Boolean) newJSONObject.get(LocationRequest.ISDEPTHHELD_KEY);
+    IsBayesianDepth = (Boolean) newJSONObject.get(LocationRequest.ISBAYESIANDEPTH_KEY);
+    BayesianDepth = readDouble(newJSONObject, LocationRequest.BAYESIANDEPTH_KEY);
+    BayesianSpread = readDouble(newJSONObject, LocationRequest.BAYESIANSPREAD_KEY);
+    UseSVD = (Boolean) newJSONObject.get(LocationRequest.USESVD_KEY);
+    ReassessInitialPhaseIDs =
+        (Boolean) newJSONObject.get(LocationRequest.REASSESSINITIALPHASEIDS_KEY);
+
+    // ClearedKeys
+    ClearedKeys = readStrings(newJSONObject, CLEAREDKEYS_KEY);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "LocationRequestDelta", getInstrumentedSize(), span, 0);
+  }
+
+  /**
+   * Computes the delta between two versions of a request, such that delta.apply(previous) has the
+   * picks and values of current. Pick order is not kept, added picks are applied after the existing
+   * picks. Unknown keys and OutputData are not compared.
+   *
+   * @param previous - The LocationRequest held by the receiver
+   * @param current - The new LocationRequest
+   * @return Returns the LocationRequestDelta, with the ID of the current request
+   * @throws IllegalArgumentException if a pick has no ID, or two picks of a request share an ID
+   */
+  public static LocationRequestDelta diff(LocationRequest previous, LocationRequest current) {
+    LocationRequestDelta delta = new LocationRequestDelta();
+    delta.ID = (current.ID != null) ? current.ID : previous.ID;
+
+    // picks
+    LinkedHashMap<String, Pick> previousPicks = indexPicks(getPicks(previous));
+    LinkedHashMap<String, Pick> currentPicks = indexPicks(getPicks(current));
+    for (Map.Entry<String, Pick> entry : currentPicks.entrySet()) {
+      Pick previousPick = previousPicks.remove(entry.getKey());
+      if (previousPick == null) {
+        if (delta.AddedPicks == null) {
+          delta.AddedPicks = new ArrayList<Pick>();
+        }
+        delta.AddedPicks.add(entry.getValue());
+      } else if (!previousPick.toJSON().equals(entry.getValue().toJSON())) {
+        if (delta.ModifiedPicks == null) {
+          delta.ModifiedPicks = new ArrayList<Pick>();
+        }
+        delta.ModifiedPicks.add(entry.getValue());
+      }
+    }
+    if (!previousPicks.isEmpty()) {
+      delta.RemovedPickIDs = new ArrayList<String>(previousPicks.keySet());
+    }
+
+    // values
+    delta.Type = delta.changed(previous.Type, current.Type, LocationRequest.TYPE_KEY);
+    delta.Source =
+        delta.changed(
+            previous.Source,
+            current.Source,
+            LocationRequest.SOURCE_KEY,
+            (previous.Source != null)
+                && (current.Source != null)
+                && previous.Source.toJSON().equals(current.Source.toJSON()));
+    delta.EarthModel =
+        delta.changed(previous.EarthModel, current.EarthModel, LocationRequest.EARTHMODEL_KEY);
+    delta.SlabResolution =
+        delta.changed(
+            previous.SlabResolution, current.SlabResolution, LocationRequest.SLABRESOLUTION_KEY);
+    delta.SourceLatitude =
+        delta.changed(
+            previous.SourceLatitude, current.SourceLatitude, LocationRequest.SOURCELATITUDE_KEY);
+    delta.SourceLongitude =
+        delta.changed(
+            previous.SourceLongitude, current.SourceLongitude, LocationRequest.SOURCELONGITUDE_KEY);
+    delta.SourceOriginTime =
+        delta.changed(
+            previous.SourceOriginTime,
+            current.SourceOriginTime,
+            LocationRequest.SOURCEORIGINTIME_KEY);
+    delta.SourceDepth =
+        delta.changed(previous.SourceDepth, current.SourceDepth, LocationRequest.SOURCEDEPTH_KEY);
+    delta.IsLocationNew =
+        delta.changed(
+            previous.IsLocationNew, current.IsLocationNew, LocationRequest.ISLOCATIONNEW_KEY);
+    delta.IsLocationHeld =
+        delta.changed(
+            previous.IsLocationHeld, current.IsLocationHeld, LocationRequest.ISLOCATIONHELD_KEY);
+    delta.IsDepthHeld =
+        delta.changed(previous.IsDepthHeld, current.IsDepthHeld, LocationRequest.ISDEPTHHELD_KEY);
+    delta.IsBayesianDepth =
+        delta.changed(
+            previous.IsBayesianDepth, current.IsBayesianDepth, LocationRequest.ISBAYESIANDEPTH_KEY);
+    delta.BayesianDepth =
+        delta.changed(
+            previous.BayesianDepth, current.BayesianDepth, LocationRequest.BAYESIANDEPTH_KEY);
+    delta.BayesianSpread =
+        delta.changed(
+            previous.BayesianSpread, current.BayesianSpread, LocationRequest.BAYESIANSPREAD_KEY);
+    delta.UseSVD = delta.changed(previous.UseSVD, current.UseSVD, LocationRequest.USESVD_KEY);
+    delta.ReassessInitialPhaseIDs =
+        delta.changed(
+            previous.ReassessInitialPhaseIDs,
+            current.ReassessInitialPhaseIDs,
+            LocationRequest.REASSESSINITIALPHASEIDS_KEY);
+
+    return (delta);
+  }
+
+  /**
+   * Applies the delta to a held request. The held request is not changed, the returned request
+   * shares its unchanged picks and values. Removed picks are dropped and modified picks replaced in
+   * place, then added picks are appended.
+   *
+   * @param request - The held LocationRequest
+   * @return Returns a new LocationRequest with the delta applied, without OutputData
+   * @throws IllegalArgumentException if a removed or modified pick is not in the request, an added
+   *     pick already is, or a pick is both removed and modified
+   */
+  public LocationRequest apply(LocationRequest request) {
+    ArrayList<Pick> picks = getPicks(request);
+
+    // index the picks with IDs, the others are kept as they are
+    HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+    for (int i = 0; i < picks.size(); i++) {
+      if (picks.get(i).ID != null) {
+        indexes.put(picks.get(i).ID, i);
+      }
+    }
+
+    // check every change before building the new picks
+    Pick[] replaced = new Pick[picks.size()];
+    HashSet<String> removed = new HashSet<String>();
+    if (RemovedPickIDs != null) {
+      for (String id : RemovedPickIDs) {
+        if (!indexes.containsKey(id) || !removed.add(id)) {
+          throw new IllegalArgumentException("Removed pick " + id + " is not in the request");
+        }
+      }
+    }
+    if (ModifiedPicks != null) {
+      for (Pick pick : ModifiedPicks) {
+        Integer index = indexes.get(pick.ID);
+        if ((index == null) || removed.contains(pick.ID)) {
+          throw new IllegalArgumentException("Modified pick " + pick.ID + " is not in the request");
+        }
+        replaced[index] = pick;
+      }
+    }
+    if (AddedPicks != null) {
+      HashSet<String> added = new HashSet<String>();
+      for (Pick pick : AddedPicks) {
+        if ((pick.ID != null)
+            && ((indexes.containsKey(pick.ID) && !removed.contains(pick.ID))
+                || !added.add(pick.ID))) {
+          throw new IllegalArgumentException(
+              "Added pick " + pick.ID + " is already in the request");
+        }
+      }
+    }
+
+    ArrayList<Pick> newPicks =
+        new ArrayList<Pick>(picks.size() + ((AddedPicks != null) ? AddedPicks.size() : 0));
+    for (int i = 0; i < picks.size(); i++) {
+      Pick pick = picks.get(i);
+      if ((pick.ID != null) && removed.contains(pick.ID)) {
+        continue;
+      }
+      newPicks.add((replaced[i] != null) ? replaced[i] : pick);
+    }
+    if (AddedPicks != null) {
+      newPicks.addAll(AddedPicks);
+    }
+
+    LocationRequest newRequest = new LocationRequest();
+    newRequest.ID = request.ID;
+    newRequest.Source = apply(request.Source, Source, LocationRequest.SOURCE_KEY);
+    newRequest.Type = apply(request.Type, Type, LocationRequest.TYPE_KEY);
+    newRequest.EarthModel = apply(request.EarthModel, EarthModel, LocationRequest.EARTHMODEL_KEY);
+    newRequest.SlabResolution =
+        apply(request.SlabResolution, SlabResolution, LocationRequest.SLABRESOLUTION_KEY);
+    newRequest.SourceLatitude =
+        apply(request.SourceLatitude, SourceLatitude, LocationRequest.SOURCELATITUDE_KEY);
+    newRequest.SourceLongitude =
+        apply(request.SourceLongitude, SourceLongitude, LocationRequest.SOURCELONGITUDE_KEY);
+    newRequest.SourceOriginTime =
+        apply(request.SourceOriginTime, SourceOriginTime, LocationRequest.SOURCEORIGINTIME_KEY);
+    newRequest.SourceDepth =
+        apply(request.SourceDepth, SourceDepth, LocationRequest.SOURCEDEPTH_KEY);
+    newRequest.InputData = newPicks;
+    newRequest.IsLocationNew =
+        apply(request.IsLocationNew, IsLocationNew, LocationRequest.ISLOCATIONNEW_KEY);
+    newRequest.IsLocationHeld =
+        apply(request.IsLocationHeld, IsLocationHeld, LocationRequest.ISLOCATIONHELD_KEY);
+    newRequest.IsDepthHeld =
+        apply(request.IsDepthHeld, IsDepthHeld, LocationRequest.ISDEPTHHELD_KEY);
+    newRequest.IsBayesianDepth =
+        apply(request.IsBayesianDepth, IsBayesianDepth, LocationRequest.ISBAYESIANDEPTH_KEY);
+    newRequest.BayesianDepth =
+        apply(request.BayesianDepth, BayesianDepth, LocationRequest.BAYESIANDEPTH_KEY);
+    newRequest.BayesianSpread =
+        apply(request.BayesianSpread, BayesianSpread, LocationRequest.BAYESIANSPREAD_KEY);
+    newRequest.UseSVD = apply(request.UseSVD, UseSVD, LocationRequest.USESVD_KEY);
+    newRequest.ReassessInitialPhaseIDs =
+        apply(
+            request.ReassessInitialPhaseIDs,
+            ReassessInitialPhaseIDs,
+            LocationRequest.REASSESSINITIALPHASEIDS_KEY);
+    newRequest.UnknownKeys = request.UnknownKeys;
+
+    return (newRequest);
+  }
+
+  /**
+   * Checks whether the delta changes nothing
+   *
+   * @return Returns true if there are no pick changes, values, or cleared keys
+   */
+  public boolean isEmpty() {
+    return (getInstrumentedSize() == 0
+        && ((ClearedKeys == null) || ClearedKeys.isEmpty())
+        && (Type == null)
+        && (Source == null)
+        && (EarthModel == null)
+        && (SlabResolution == null)
+        && (SourceLatitude == null)
+        && (SourceLongitude == null)
+        && (SourceOriginTime == null)
+        && (SourceDepth == null)
+        && (IsLocationNew == null)
+        && (IsLocationHeld == null)
+        && (IsDepthHeld == null)
+        && (IsBayesianDepth == null)
+        && (BayesianDepth == null)
+        && (BayesianSpread == null)
+        && (UseSVD == null)
+        && (ReassessInitialPhaseIDs == null));
+  }
+
+  /**
+   * Converts the contents of the class to a json object
+   *
+   * @return Returns a JSONObject containing the class contents
+   */
+  @SuppressWarnings("unchecked")
+  public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
+    JSONObject newJSONObject = new JSONObject();
+
+    // ID
+    if (ID != null) {
+      newJSONObject.put(ID_KEY, ID);
+    }
+
+    // Sequence
+    if (Sequence != null) {
+      newJSONObject.put(SEQUENCE_KEY, Sequence);
+    }
+
+    // picks
+    putPicks(newJSONObject, ADDEDPICKS_KEY, AddedPicks);
+    putPicks(newJSONObject, MODIFIEDPICKS_KEY, ModifiedPicks);
+    putStrings(newJSONObject, REMOVEDPICKIDS_KEY, RemovedPickIDs);
+
+    // values
+    putValue(newJSONObject, LocationRequest.TYPE_KEY, Type);
+    if (Source != null) {
+      newJSONObject.put(LocationRequest.SOURCE_KEY, Source.toJSON());
+    }
+    putValue(newJSONObject, LocationRequest.EARTHMODEL_KEY, EarthModel);
+    putValue(newJSONObject, LocationRequest.SLABRESOLUTION_KEY, SlabResolution);
+    putValue(newJSONObject, LocationRequest.SOURCELATITUDE_KEY, SourceLatitude);
+    putValue(newJSONObject, LocationRequest.SOURCELONGITUDE_KEY, SourceLongitude);
+    if (SourceOriginTime != null) {
+      newJSONObject.put(LocationRequest.SOURCEORIGINTIME_KEY, Utility.formatDate(SourceOriginTime));
+    }
+    putValue(newJSONObject, LocationRequest.SOURCEDEPTH_KEY, SourceDepth);
+    putValue(newJSONObject, LocationRequest.ISLOCATIONNEW_KEY, IsLocationNew);
+    putValue(newJSONObject, LocationRequest.ISLOCATIONHELD_KEY, IsLocationHeld);
+    putValue(newJSONObject, LocationRequest.ISDEPTHHELD_KEY, IsDepthHeld);
+    putValue(newJSONObject, LocationRequest.ISBAYESIANDEPTH_KEY, IsBayesianDepth);
+    putValue(newJSONObject, LocationRequest.BAYESIANDEPTH_KEY, BayesianDepth);
+    putValue(newJSONObject, LocationRequest.BAYESIANSPREAD_KEY, BayesianSpread);
+    putValue(newJSONObject, LocationRequest.USESVD_KEY, UseSVD);
+    putValue(newJSONObject, LocationRequest.REASSESSINITIALPHASEIDS_KEY, ReassessInitialPhaseIDs);
+
+    // ClearedKeys
+    putStrings(newJSONObject, CLEAREDKEYS_KEY, ClearedKeys);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "LocationRequestDelta", getInstrumentedSize(), span, 0);
+    return (newJSONObject);
+  }
+
+  /**
+   * Validates the class.
+   *
+   * @return Returns true if successful
+   */
+  public boolean isValid() {
+    return (validate(ErrorSink.FAIL_FAST));
+  }
+
+  /**
+   * Gets any validation errors in the class.
+   *
+   * @return Returns a List&lt;String&gt; of any errors found
+   */
+  public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "LocationRequestDelta", getInstrumentedSize(), span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
+
+    // Required Keys
+    // ID
+    if (ID == null) {
+      valid = false;
+      sink.add("No ID in LocationRequestDelta Class.");
+    }
+
+    // Optional Keys
+    // Sequence
+    if ((Sequence != null) && (Sequence < 1)) {
+      valid = false;
+      sink.add("Sequence in LocationRequestDelta Class is not positive.");
+    }
+
+    // latitude
+    if ((SourceLatitude != null) && ((SourceLatitude < -90) || (SourceLatitude > 90))) {
+      valid = false;
+      sink.add("Source Latitude in LocationRequestDelta Class not in the range of -90 to 90.");
+    }
+
+    // longitude
+    if ((SourceLongitude != null) && ((SourceLongitude < -180) || (SourceLongitude > 180))) {
+      valid = false;
+      sink.add("Source Longitude in LocationRequestDelta Class not in the range of -180 to 180.");
+    }
+
+    // depth
+    if ((SourceDepth != null) && ((SourceDepth < -100) || (SourceDepth > 1500))) {
+      valid = false;
+      sink.add("Source Depth in LocationRequestDelta Class not in the range of -100 to 1500.");
+    }
+
+    // Source
+    if ((Source != null) && (!Source.isValid())) {
+      valid = false;
+      sink.add("Invalid Source in LocationRequestDelta Class.");
+    }
+
+    // ClearedKeys
+    if (ClearedKeys != null) {
+      for (String key : ClearedKeys) {
+        if (!VALUE_KEYS.contains(key)) {
+          valid = false;
+          sink.add("Invalid Cleared Key " + key + " in LocationRequestDelta Class.");
+        }
+      }
+    }
+
+    // no need to walk the picks if we already know the answer
+    if (!valid && sink.isFailFast()) {
+      return (false);
+    }
+
+    // picks
+    if (!validatePicks(AddedPicks, ADDEDPICKS_KEY, sink)) {
+      valid = false;
+    }
+    if (!validatePicks(ModifiedPicks, MODIFIEDPICKS_KEY, sink)) {
+      valid = false;
+    }
+
+    // success
+    return (valid);
+  }
+
+  /**
+   * Validates a list of picks, each of which must have an ID
+   *
+   * @param picks - The ArrayList&lt;Pick&gt; to validate, or null
+   * @param key - A String containing the key of the list
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the picks are valid
+   */
+  private static boolean validatePicks(ArrayList<Pick> picks, String key, ErrorSink sink) {
+    if ((picks == null) || picks.isEmpty()) {
+      return (true);
+    }
+
+    boolean valid = true;
+    for (Pick pick : picks) {
+      if (pick.ID == null) {
+        valid = false;
+        sink.add("Pick without an ID in " + key + " in LocationRequestDelta Class.");
+        break;
+      }
+    }
+
+    if (!ErrorCollector.validateList(
+        picks, sink, "Invalid Pick", " in " + key + " in LocationRequestDelta Class: ", true)) {
+      valid = false;
+    }
+    return (valid);
+  }
+
+  /**
+   * Gets the picks of a request, from InputData or InputBatch
+   *
+   * @param request - The LocationRequest
+   * @return Returns an ArrayList&lt;Pick&gt; containing the picks, empty if there are none
+   */
+  private static ArrayList<Pick> getPicks(LocationRequest request) {
+    if (request.InputData != null) {
+      return (request.InputData);
+    } else if (request.InputBatch != null) {
+      return (request.InputBatch.toPicks());
+    }
+    return (new ArrayList<Pick>(0));
+  }
+
+  /**
+   * Indexes picks by ID
+   *
+   * @param picks - The ArrayList&lt;Pick&gt; to index
+   * @return Returns a LinkedHashMap&lt;String, Pick&gt; of the picks by ID, in order
+   * @throws IllegalArgumentException if a pick has no ID, or two picks share an ID
+   */
+  private static LinkedHashMap<String, Pick> indexPicks(ArrayList<Pick> picks) {
+    LinkedHashMap<String, Pick> index = new LinkedHashMap<String, Pick>();
+    for (Pick pick : picks) {
+      if (pick.ID == null) {
+        throw new IllegalArgumentException("Cannot diff a pick without an ID");
+      }
+      if (index.put(pick.ID, pick) != null) {
+        throw new IllegalArgumentException("Cannot diff picks sharing the ID " + pick.ID);
+      }
+    }
+    return (index);
+  }
+
+  /**
+   * Gets the delta value of a request value, recording it in ClearedKeys if it was cleared
+   *
+   * @param <T> - The type of the value
+   * @param previous - The previous value
+   * @param current - The current value
+   * @param key - A String containing the key of the value
+   * @return Returns the current value if it changed to a non null value, otherwise null
+   */
+  private <T> T changed(T previous, T current, String key) {
+    return (changed(previous, current, key, Objects.equals(previous, current)));
+  }
+
+  /**
+   * Gets the delta value of a request value, recording it in ClearedKeys if it was cleared
+   *
+   * @param <T> - The type of the value
+   * @param previous - The previous value
+   * @param current - The current value
+   * @param key - A String containing the key of the value
+   * @param same - A boolean, true if the values are equal
+   * @return Returns the current value if it changed to a non null value, otherwise null
+   */
+  private <T> T changed(T previous, T current, String key, boolean same) {
+    if (same || ((previous == null) && (current == null))) {
+      return (null);
+    }
+    if (current == null) {
+      if (ClearedKeys == null) {
+        ClearedKeys = new ArrayList<String>();
+      }
+      ClearedKeys.add(key);
+    }
+    return (current);
+  }
+
+  /**
+   * Applies a delta value to a request value
+   *
+   * @param <T> - The type of the value
+   * @param value - The held value
+   * @param newValue - The delta value, or null if unchanged
+   * @param key - A String containing the key of the value
+   * @return Returns the new value
+   */
+  private <T> T apply(T value, T newValue, String key) {
+    if (newValue != null) {
+      return (newValue);
+    }
+    if ((ClearedKeys != null) && ClearedKeys.contains(key)) {
+      return (null);
+    }
+    return (value);
+  }
+
+  /**
+   * Reads an optional list of picks
+   *
+   * @param newJSONObject - The JSONObject to read
+   * @param key - A String containing the key of the list
+   * @return Returns an ArrayList&lt;Pick&gt; containing the picks, or null if not present
+   */
+  private static ArrayList<Pick> readPicks(JSONObject newJSONObject, String key) {
+    JSONArray dataArray = (JSONArray) newJSONObject.get(key);
+    if (dataArray == null) {
+      return (null);
+    }
+
+    ArrayList<Pick> picks = new ArrayList<Pick>(dataArray.size());
+    for (int i = 0; i < dataArray.size(); i++) {
+      picks.add(new Pick((JSONObject) dataArray.get(i)));
+    }
+    return (picks);
+  }
+
+  /**
+   * Reads an optional list of strings
+   *
+   * @param newJSONObject - The JSONObject to read
+   * @param key - A String containing the key of the list
+   * @return Returns an ArrayList&lt;String&gt; containing the strings, or null if not present
+   */
+  private static ArrayList<String> readStrings(JSONObject newJSONObject, String key) {
+    JSONArray dataArray = (JSONArray) newJSONObject.get(key);
+    if (dataArray == null) {
+      return (null);
+    }
+
+    ArrayList<String> strings = new ArrayList<String>(dataArray.size());
+    for (int i = 0; i < dataArray.size(); i++) {
+      strings.add(dataArray.get(i).toString());
+    }
+    return (strings);
+  }
+
+  /**
+   * Reads an optional string
+   *
+   * @param newJSONObject - The JSONObject to read
+   * @param key - A String containing the key of the value
+   * @return Returns the String, or null if not present
+   */
+  private static String readString(JSONObject newJSONObject, String key) {
+    Object value = newJSONObject.get(key);
+    return ((value != null) ? value.toString() : null);
+  }
+
+  /**
+   * Reads an optional number, which json may have turned into a long
+   *
+   * @param newJSONObject - The JSONObject to read
+   * @param key - A String containing the key of the value
+   * @return Returns the Double, or null if not present
+   */
+  private static Double readDouble(JSONObject newJSONObject, String key) {
+    Object value = newJSONObject.get(key);
+    return ((value instanceof Number) ? ((Number) value).doubleValue() : null);
+  }
+
+  /**
+   * Writes an optional list of picks
+   *
+   * @param newJSONObject - The JSONObject to write
+   * @param key - A String containing the key of the list
+   * @param picks - The ArrayList&lt;Pick&gt; to write, or null
+   */
+  @SuppressWarnings("unchecked")
+  private static void putPicks(JSONObject newJSONObject, String key, ArrayList<Pick> picks) {
+    if ((picks == null) || picks.isEmpty()) {
+      return;
+    }
+
+    JSONArray dataArray = new JSONArray();
+    for (Pick pick : picks) {
+      dataArray.add(pick.toJSON());
+    }
+    newJSONObject.put(key, dataArray);
+  }
+
+  /**
+   * Writes an optional list of strings
+   *
+   * @param newJSONObject - The JSONObject to write
+   * @param key - A String containing the key of the list
+   * @param strings - The ArrayList&lt;String&gt; to write, or null
+   */
+  @SuppressWarnings("unchecked")
+  private static void putStrings(JSONObject newJSONObject, String key, ArrayList<String> strings) {
+    if ((strings == null) || strings.isEmpty()) {
+      return;
+    }
+
+    JSONArray dataArray = new JSONArray();
+    dataArray.addAll(strings);
+    newJSONObject.put(key, dataArray);
+  }
+
+  /**
+   * Writes an optional value
+   *
+   * @param newJSONObject - The JSONObject to write
+   * @param key - A String containing the key of the value
+   * @param value - The value to write, or null
+   */
+  @SuppressWarnings("unchecked")
+  private static void putValue(JSONObject newJSONObject, String key, Object value) {
+    if (value != null) {
+      newJSONObject.put(key, value);
+    }
+  }
+
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of added, modified, and removed picks
+   */
+  private int getInstrumentedSize() {
+    return (InstrumentationRegistry.sizeOf(AddedPicks)
+        + InstrumentationRegistry.sizeOf(ModifiedPicks)
+        + InstrumentationRegistry.sizeOf(RemovedPickIDs));
+  }
+}
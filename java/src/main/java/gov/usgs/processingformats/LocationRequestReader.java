@@ -0,0 +1,1183 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a streaming decoder used to parse location request data directly into LocationRequest, Pick,
+ * Site, and Source objects in a single pass, without building an intermediate JSONObject tree.
+ *
+ * <p>The decoded objects are identical to those produced by the JSONObject constructors. Unknown
+ * keys are kept in the UnknownKeys of the object they belong to, and JSON null values are treated
+ * as absent keys. The readRetainingSource methods also keep the text each Pick, Site, and Source
+ * was decoded from, see RawJSON.
+ *
+ * <p>The readLocationRequest, readPicks, readPick, readSite and readSource methods taking a target
+ * decode into existing objects, and those taking a ProcessingPool take the nested objects from the
+ * pool, so a consumer decoding a stream of requests can recycle them between decodes.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class LocationRequestReader {
+
+  /** LocationRequest keys, in switch order */
+  static final String[] LOCATIONREQUEST_KEYS = {
+    LocationRequest.TYPE_KEY,
+    LocationRequest.SOURCE_KEY,
+    LocationRequest.ID_KEY,
+    LocationRequest.EARTHMODEL_KEY,
+    LocationRequest.SLABRESOLUTION_KEY,
+    LocationRequest.SOURCEORIGINTIME_KEY,
+    LocationRequest.SOURCELATITUDE_KEY,
+    LocationRequest.SOURCELONGITUDE_KEY,
+    LocationRequest.SOURCEDEPTH_KEY,
+    LocationRequest.INPUTDATA_KEY,
+    LocationRequest.ISLOCATIONNEW_KEY,
+    LocationRequest.ISLOCATIONHELD_KEY,
+    LocationRequest.ISDEPTHHELD_KEY,
+    LocationRequest.ISBAYESIANDEPTH_KEY,
+    LocationRequest.BAYESIANDEPTH_KEY,
+    LocationRequest.BAYESIANSPREAD_KEY,
+    LocationRequest.USESVD_KEY,
+    LocationRequest.REASSESSINITIALPHASEIDS_KEY,
+    LocationRequest.OUTPUTDATA_KEY
+  };
+
+  /** LocationResult keys, in switch order */
+  static final String[] LOCATIONRESULT_KEYS = {
+    LocationResult.ID_KEY,
+    LocationResult.SOURCE_KEY,
+    LocationResult.HYPOCENTER_KEY,
+    LocationResult.SUPPORTINGDATA_KEY,
+    LocationResult.ASSOCIATEDSTATIONS_KEY,
+    LocationResult.ASSOCIATEDPHASES_KEY,
+    LocationResult.USEDSTATIONS_KEY,
+    LocationResult.USEDPHASES_KEY,
+    LocationResult.GAP_KEY,
+    LocationResult.SECONDARYGAP_KEY,
+    LocationResult.MINIMUMDISTANCE_KEY,
+    LocationResult.RMS_KEY,
+    LocationResult.QUALITY_KEY,
+    LocationResult.BAYESIANDEPTH_KEY,
+    LocationResult.BAYESIANRANGE_KEY,
+    LocationResult.DEPTHIMPORTANCE_KEY,
+    LocationResult.LOCATOREXITCODE_KEY,
+    LocationResult.ERRORELLIPSE_KEY
+  };
+
+  /** Pick keys, in switch order */
+  static final String[] PICK_KEYS = {
+    Pick.ID_KEY,
+    Pick.SITE_KEY,
+    Pick.SOURCE_KEY,
+    Pick.TIME_KEY,
+    Pick.AFFINITY_KEY,
+    Pick.QUALITY_KEY,
+    Pick.USE_KEY,
+    Pick.PICKED_PHASE_KEY,
+    Pick.ASSOCIATED_PHASE_KEY,
+    Pick.LOCATED_PHASE_KEY,
+    Pick.RESIDUAL_KEY,
+    Pick.DISTANCE_KEY,
+    Pick.AZIMUTH_KEY,
+    Pick.WEIGHT_KEY,
+    Pick.IMPORTANCE_KEY
+  };
+
+  /** Site keys, in switch order */
+  static final String[] SITE_KEYS = {
+    Site.STATION_KEY,
+    Site.CHANNEL_KEY,
+    Site.NETWORK_KEY,
+    Site.LOCATION_KEY,
+    Site.LATITUDE_KEY,
+    Site.LONGITUDE_KEY,
+    Site.ELEVATION_KEY
+  };
+
+  /** Source keys, in switch order */
+  static final String[] SOURCE_KEYS = {Source.AGENCYID_KEY, Source.AUTHOR_KEY, Source.TYPE_KEY};
+
+  /** Hypocenter keys, in switch order */
+  static final String[] HYPOCENTER_KEYS = {
+    Hypocenter.LATITUDE_KEY,
+    Hypocenter.LONGITUDE_KEY,
+    Hypocenter.TIME_KEY,
+    Hypocenter.DEPTH_KEY,
+    Hypocenter.LATITUDE_ERROR_KEY,
+    Hypocenter.LONGITUDE_ERROR_KEY,
+    Hypocenter.TIME_ERROR_KEY,
+    Hypocenter.DEPTH_ERROR_KEY
+  };
+
+  /** ErrorEllipse keys, in switch order */
+  static final String[] ERRORELLIPSE_KEYS = {
+    ErrorEllipse.E0_KEY,
+    ErrorEllipse.E1_KEY,
+    ErrorEllipse.E2_KEY,
+    ErrorEllipse.MAXIMUM_HORIZONTAL_KEY,
+    ErrorEllipse.MAXIMUM_VERTICAL_KEY,
+    ErrorEllipse.EQUIVALENT_HORIZONTAL_KEY
+  };
+
+  /** ErrorEllipseAxis keys, in switch order */
+  static final String[] ERRORELLIPSEAXIS_KEYS = {
+    ErrorEllipseAxis.ERROR_KEY, ErrorEllipseAxis.AZIMUTH_KEY, ErrorEllipseAxis.DIP_KEY
+  };
+
+  /**
+   * Reads a LocationRequest from a Reader
+   *
+   * @param reader - A Reader containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the Reader fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(Reader reader) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(reader), false));
+  }
+
+  /**
+   * Reads a LocationRequest from an InputStream containing UTF-8 encoded JSON
+   *
+   * @param stream - An InputStream containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the InputStream fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(InputStream stream) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(stream), false));
+  }
+
+  /**
+   * Reads a LocationRequest from a byte array containing UTF-8 encoded JSON
+   *
+   * @param bytes - A byte[] containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(byte[] bytes) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(bytes), false));
+  }
+
+  /**
+   * Reads a LocationRequest from a String
+   *
+   * @param jsonString - A String containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(String jsonString) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(jsonString), false));
+  }
+
+  /**
+   * Reads a LocationRequest from a String, keeping the text of each Pick, Site, and Source so
+   * unchanged ones are written back out verbatim
+   *
+   * @param jsonString - A String containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readRetainingSource(String jsonString)
+      throws IOException, ParseException {
+    return (readRetainingSource(jsonString.toCharArray()));
+  }
+
+  /**
+   * Reads a LocationRequest from a char array, keeping the text of each Pick, Site, and Source so
+   * unchanged ones are written back out verbatim
+   *
+   * @param json - A char[] containing the JSON text, which must not be modified afterwards
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readRetainingSource(char[] json)
+      throws IOException, ParseException {
+    JSONStreamReader reader = new JSONStreamReader(json, 0, json.length);
+    reader.setRetainSource(true);
+    return (readDocument(reader, false));
+  }
+
+  /**
+   * Reads a LocationRequest from a Reader, taking the LocationRequest, its Source, InputData list,
+   * and picks with their Site and Source from a ProcessingPool
+   *
+   * @param reader - A Reader containing the JSON text
+   * @param pool - The ProcessingPool to take objects from
+   * @return Returns the decoded LocationRequest, owned by the caller until recycled
+   * @throws IOException if the Reader fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(Reader reader, ProcessingPool pool)
+      throws IOException, ParseException {
+    JSONStreamReader stream = new JSONStreamReader(reader);
+    LocationRequest request = readLocationRequest(stream, false, pool.newLocationRequest(), pool);
+
+    // make sure nothing but whitespace follows
+    stream.peek();
+
+    return (request);
+  }
+
+  /**
+   * Reads a LocationRequest from a InputStream, taking the LocationRequest, its Source, InputData
+   * list, and picks with their Site and Source from a ProcessingPool
+   *
+   * @param stream - An InputStream containing UTF-8 encoded JSON text
+   * @param pool - The ProcessingPool to take objects from
+   * @return Returns the decoded LocationRequest, owned by the caller until recycled
+   * @throws IOException if the InputStream fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(InputStream stream, ProcessingPool pool)
+      throws IOException, ParseException {
+    JSONStreamReader reader = new JSONStreamReader(stream);
+    LocationRequest request = readLocationRequest(reader, false, pool.newLocationRequest(), pool);
+
+    // make sure nothing but whitespace follows
+    reader.peek();
+
+    return (request);
+  }
+
+  /**
+   * Reads a LocationRequest from a byte[], taking the LocationRequest, its Source, InputData list,
+   * and picks with their Site and Source from a ProcessingPool
+   *
+   * @param bytes - A byte[] containing UTF-8 encoded JSON text
+   * @param pool - The ProcessingPool to take objects from
+   * @return Returns the decoded LocationRequest, owned by the caller until recycled
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(byte[] bytes, ProcessingPool pool)
+      throws IOException, ParseException {
+    JSONStreamReader reader = new JSONStreamReader(bytes);
+    LocationRequest request = readLocationRequest(reader, false, pool.newLocationRequest(), pool);
+
+    // make sure nothing but whitespace follows
+    reader.peek();
+
+    return (request);
+  }
+
+  /**
+   * Reads a LocationRequest from a String, taking the LocationRequest, its Source, InputData list,
+   * and picks with their Site and Source from a ProcessingPool
+   *
+   * @param jsonString - A String containing the JSON text
+   * @param pool - The ProcessingPool to take objects from
+   * @return Returns the decoded LocationRequest, owned by the caller until recycled
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest read(String jsonString, ProcessingPool pool)
+      throws IOException, ParseException {
+    JSONStreamReader reader = new JSONStreamReader(jsonString);
+    LocationRequest request = readLocationRequest(reader, false, pool.newLocationRequest(), pool);
+
+    // make sure nothing but whitespace follows
+    reader.peek();
+
+    return (request);
+  }
+
+  /**
+   * Reads a LocationRequest from a Reader, decoding InputData and OutputData SupportingData into
+   * InputBatch and SupportingBatch instead of lists of Pick objects
+   *
+   * @param reader - A Reader containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the Reader fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readColumnar(Reader reader) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(reader), true));
+  }
+
+  /**
+   * Reads a LocationRequest from an InputStream containing UTF-8 encoded JSON, decoding InputData
+   * and OutputData SupportingData into InputBatch and SupportingBatch
+   *
+   * @param stream - An InputStream containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the InputStream fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readColumnar(InputStream stream)
+      throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(stream), true));
+  }
+
+  /**
+   * Reads a LocationRequest from a byte array containing UTF-8 encoded JSON, decoding InputData and
+   * OutputData SupportingData into InputBatch and SupportingBatch
+   *
+   * @param bytes - A byte[] containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readColumnar(byte[] bytes) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(bytes), true));
+  }
+
+  /**
+   * Reads a LocationRequest from a String, decoding InputData and OutputData SupportingData into
+   * InputBatch and SupportingBatch
+   *
+   * @param jsonString - A String containing the JSON text
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if decoding fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readColumnar(String jsonString) throws IOException, ParseException {
+    return (readDocument(new JSONStreamReader(jsonString), true));
+  }
+
+  /**
+   * Reads a complete document containing a single LocationRequest
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param columnar - A boolean flag indicating whether to decode picks into PickBatches
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  private static LocationRequest readDocument(JSONStreamReader reader, boolean columnar)
+      throws IOException, ParseException {
+    LocationRequest request = readLocationRequest(reader, columnar);
+
+    // make sure nothing but whitespace follows
+    reader.peek();
+
+    return (request);
+  }
+
+  /**
+   * Reads a LocationRequest object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readLocationRequest(JSONStreamReader reader)
+      throws IOException, ParseException {
+    return (readLocationRequest(reader, false));
+  }
+
+  /**
+   * Reads a LocationRequest object from the current position of a JSONStreamReader, optionally
+   * decoding picks into PickBatches
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param columnar - A boolean flag indicating whether to decode InputData into InputBatch and
+   *     OutputData SupportingData into SupportingBatch
+   * @return Returns the decoded LocationRequest
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readLocationRequest(JSONStreamReader reader, boolean columnar)
+      throws IOException, ParseException {
+    // the default constructor provides the EarthModel and SlabResolution
+    // defaults
+    return (readLocationRequest(reader, columnar, new LocationRequest(), null));
+  }
+
+  /**
+   * Reads a LocationRequest object from the current position of a JSONStreamReader into an existing
+   * LocationRequest, optionally taking its Source, InputData list, and picks from a ProcessingPool
+   *
+   * <p>Every field of the target is overwritten, as if it were newly constructed. Its previous
+   * Source, InputData, and OutputData are replaced, not reused; recycle them first if they came
+   * from a pool.
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param columnar - A boolean flag indicating whether to decode InputData into InputBatch and
+   *     OutputData SupportingData into SupportingBatch
+   * @param target - The LocationRequest to decode into
+   * @param pool - The ProcessingPool to take nested objects from, null to allocate them
+   * @return Returns the target
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationRequest readLocationRequest(
+      JSONStreamReader reader, boolean columnar, LocationRequest target, ProcessingPool pool)
+      throws IOException, ParseException {
+    LocationRequest request = target;
+    ProcessingPool.reset(request);
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int key = reader.nextKey(LOCATIONREQUEST_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        request.UnknownKeys = RawJSON.readUnknownKey(reader, request.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // Type
+          request.Type = reader.nextString();
+          break;
+        case 1:
+          // Source
+          request.Source = readSource(reader, pool != null ? pool.newSource() : new Source());
+          break;
+        case 2:
+          // ID, the Id *should* be a string, but it *could* be an int
+          request.ID = readID(reader);
+          break;
+        case 3:
+          // EarthModel
+          request.EarthModel = reader.nextString();
+          break;
+        case 4:
+          // SlabResolution
+          request.SlabResolution = reader.nextString();
+          break;
+        case 5:
+          // time
+          request.SourceOriginTime = Utility.getDate(reader.nextString());
+          break;
+        case 6:
+          // latitude
+          request.SourceLatitude = reader.nextDouble();
+          break;
+        case 7:
+          // longitude
+          request.SourceLongitude = reader.nextDouble();
+          break;
+        case 8:
+          // depth, sometimes json has this as an int or long
+          request.SourceDepth = reader.nextDouble();
+          break;
+        case 9:
+          // input data
+          if (columnar) {
+            request.InputBatch = readPickBatch(reader);
+          } else {
+            request.InputData =
+                readPicks(reader, pool != null ? pool.newPickList() : new ArrayList<Pick>(), pool);
+          }
+          break;
+        case 10:
+          // IsLocationNew
+          request.IsLocationNew = reader.nextBoolean();
+          break;
+        case 11:
+          // IsLocationHeld
+          request.IsLocationHeld = reader.nextBoolean();
+          break;
+        case 12:
+          // IsDepthHeld
+          request.IsDepthHeld = reader.nextBoolean();
+          break;
+        case 13:
+          // IsBayesianDepth
+          request.IsBayesianDepth = reader.nextBoolean();
+          break;
+        case 14:
+          // baysian depth
+          request.BayesianDepth = reader.nextDouble();
+          break;
+        case 15:
+          // baysian spread
+          request.BayesianSpread = reader.nextDouble();
+          break;
+        case 16:
+          // UseSVD
+          request.UseSVD = reader.nextBoolean();
+          break;
+        case 17:
+          // ReassessInitialPhaseIDs
+          request.ReassessInitialPhaseIDs = reader.nextBoolean();
+          break;
+        case 18:
+          // OutputData
+          request.OutputData = readLocationResult(reader, columnar);
+          break;
+      }
+    }
+    reader.endObject();
+
+    return (request);
+  }
+
+  /**
+   * Reads a LocationResult object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded LocationResult
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationResult readLocationResult(JSONStreamReader reader)
+      throws IOException, ParseException {
+    return (readLocationResult(reader, false));
+  }
+
+  /**
+   * Reads a LocationResult object from the current position of a JSONStreamReader, optionally
+   * decoding picks into a PickBatch
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param columnar - A boolean flag indicating whether to decode SupportingData into
+   *     SupportingBatch
+   * @return Returns the decoded LocationResult
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static LocationResult readLocationResult(JSONStreamReader reader, boolean columnar)
+      throws IOException, ParseException {
+    LocationResult result = new LocationResult();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int key = reader.nextKey(LOCATIONRESULT_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        result.UnknownKeys = RawJSON.readUnknownKey(reader, result.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // ID
+          result.ID = reader.nextString();
+          break;
+        case 1:
+          // Source
+          result.Source = readSource(reader);
+          break;
+        case 2:
+          // Hypocenter
+          result.Hypocenter = readHypocenter(reader);
+          break;
+        case 3:
+          // supporting data
+          if (columnar) {
+            result.SupportingBatch = readPickBatch(reader);
+          } else {
+            result.SupportingData = readPicks(reader);
+          }
+          break;
+        case 4:
+          // associated stations
+          result.NumberOfAssociatedStations = (int) reader.nextLong();
+          break;
+        case 5:
+          // associated phases
+          result.NumberOfAssociatedPhases = (int) reader.nextLong();
+          break;
+        case 6:
+          // used stations
+          result.NumberOfUsedStations = (int) reader.nextLong();
+          break;
+        case 7:
+          // used phases
+          result.NumberOfUsedPhases = (int) reader.nextLong();
+          break;
+        case 8:
+          // Gap
+          result.Gap = reader.nextDouble();
+          break;
+        case 9:
+          // secondary Gap
+          result.SecondaryGap = reader.nextDouble();
+          break;
+        case 10:
+          // MinimumDistance
+          result.MinimumDistance = reader.nextDouble();
+          break;
+        case 11:
+          // RMS
+          result.RMS = reader.nextDouble();
+          break;
+        case 12:
+          // Quality
+          result.Quality = reader.nextString();
+          break;
+        case 13:
+          // baysian depth
+          result.BayesianDepth = reader.nextDouble();
+          break;
+        case 14:
+          // baysian range
+          result.BayesianRange = reader.nextDouble();
+          break;
+        case 15:
+          // depth importance
+          result.DepthImportance = reader.nextDouble();
+          break;
+        case 16:
+          // LocatorExitCode
+          result.LocatorExitCode = reader.nextString();
+          break;
+        case 17:
+          // error ellipse
+          result.ErrorEllipse = readErrorEllipse(reader);
+          break;
+      }
+    }
+    reader.endObject();
+
+    return (result);
+  }
+
+  /**
+   * Reads an array of Pick objects from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns an ArrayList&lt;Pick&gt; containing the decoded picks
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static ArrayList<Pick> readPicks(JSONStreamReader reader)
+      throws IOException, ParseException {
+    return (readPicks(reader, new ArrayList<Pick>(), null));
+  }
+
+  /**
+   * Reads an array of Pick objects from the current position of a JSONStreamReader into an existing
+   * list, optionally taking the picks from a ProcessingPool
+   *
+   * <p>The list is cleared first; recycle its picks before reusing it if they came from a pool.
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param target - The ArrayList&lt;Pick&gt; to decode into
+   * @param pool - The ProcessingPool to take picks, sites and sources from, null to allocate them
+   * @return Returns the target
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static ArrayList<Pick> readPicks(
+      JSONStreamReader reader, ArrayList<Pick> target, ProcessingPool pool)
+      throws IOException, ParseException {
+    target.clear();
+
+    reader.beginArray();
+    while (reader.hasNext()) {
+      target.add(readPick(reader, pool != null ? pool.newPick() : new Pick(), pool));
+    }
+    reader.endArray();
+
+    return (target);
+  }
+
+  /**
+   * Reads an array of Pick objects from the current position of a JSONStreamReader into a PickBatch
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns a PickBatch containing the decoded picks
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static PickBatch readPickBatch(JSONStreamReader reader)
+      throws IOException, ParseException {
+    PickBatch batch = new PickBatch();
+
+    reader.beginArray();
+    while (reader.hasNext()) {
+      batch.add(readPick(reader));
+    }
+    reader.endArray();
+
+    return (batch);
+  }
+
+  /**
+   * Reads a Pick object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded Pick
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Pick readPick(JSONStreamReader reader) throws IOException, ParseException {
+    return (readPick(reader, new Pick(), null));
+  }
+
+  /**
+   * Reads a Pick object from the current position of a JSONStreamReader into an existing Pick,
+   * optionally taking its Site and Source from a ProcessingPool
+   *
+   * <p>Every field of the target is overwritten. Its previous Site and Source are replaced, not
+   * reused; recycle them first if they came from a pool.
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param target - The Pick to decode into
+   * @param pool - The ProcessingPool to take the Site and Source from, null to allocate them
+   * @return Returns the target
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Pick readPick(JSONStreamReader reader, Pick target, ProcessingPool pool)
+      throws IOException, ParseException {
+    Pick pick = target;
+    ProcessingPool.reset(pick);
+
+    reader.beginObject();
+    int start = (int) reader.getPosition() - 1;
+    while (reader.hasNext()) {
+      int key = reader.nextKey(PICK_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        pick.UnknownKeys = RawJSON.readUnknownKey(reader, pick.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // ID
+          pick.ID = reader.nextString();
+          break;
+        case 1:
+          // Site
+          pick.Site = readSite(reader, pool != null ? pool.newSite() : new Site());
+          break;
+        case 2:
+          // Source
+          pick.Source = readSource(reader, pool != null ? pool.newSource() : new Source());
+          break;
+        case 3:
+          // Time
+          pick.Time = Utility.getDate(reader.nextString());
+          break;
+        case 4:
+          // Affinity
+          pick.Affinity = reader.nextDouble();
+          break;
+        case 5:
+          // Quality
+          pick.Quality = reader.nextDouble();
+          break;
+        case 6:
+          // Use
+          pick.Use = reader.nextBoolean();
+          break;
+        case 7:
+          // PickedPhase
+          pick.PickedPhase = reader.nextString();
+          break;
+        case 8:
+          // AssociatedPhase
+          pick.AssociatedPhase = reader.nextString();
+          break;
+        case 9:
+          // LocatedPhase
+          pick.LocatedPhase = reader.nextString();
+          break;
+        case 10:
+          // Residual
+          pick.Residual = reader.nextDouble();
+          break;
+        case 11:
+          // Distance
+          pick.Distance = reader.nextDouble();
+          break;
+        case 12:
+          // Azimuth
+          pick.Azimuth = reader.nextDouble();
+          break;
+        case 13:
+          // Weight
+          pick.Weight = reader.nextDouble();
+          break;
+        case 14:
+          // Importance
+          pick.Importance = reader.nextDouble();
+          break;
+      }
+    }
+    reader.endObject();
+
+    if (reader.isRetainingSource()) {
+      pick.retainSource(new RawJSON(reader.getText(), start, (int) reader.getPosition()));
+    }
+
+    return (pick);
+  }
+
+  /**
+   * Reads a Site object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded Site
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Site readSite(JSONStreamReader reader) throws IOException, ParseException {
+    return (readSite(reader, new Site()));
+  }
+
+  /**
+   * Reads a Site object from the current position of a JSONStreamReader into an existing Site,
+   * overwriting every field
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param target - The Site to decode into
+   * @return Returns the target
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Site readSite(JSONStreamReader reader, Site target)
+      throws IOException, ParseException {
+    Site site = target;
+    ProcessingPool.reset(site);
+
+    reader.beginObject();
+    int start = (int) reader.getPosition() - 1;
+    while (reader.hasNext()) {
+      int key = reader.nextKey(SITE_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        site.UnknownKeys = RawJSON.readUnknownKey(reader, site.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // Station
+          site.Station = reader.nextString();
+          break;
+        case 1:
+          // Channel
+          site.Channel = reader.nextString();
+          break;
+        case 2:
+          // Network
+          site.Network = reader.nextString();
+          break;
+        case 3:
+          // Location
+          site.Location = reader.nextString();
+          break;
+        case 4:
+          // Latitude
+          site.Latitude = reader.nextDouble();
+          break;
+        case 5:
+          // Longitude
+          site.Longitude = reader.nextDouble();
+          break;
+        case 6:
+          // Elevation, sometimes json has this as an int or long
+          site.Elevation = reader.nextDouble();
+          break;
+      }
+    }
+    reader.endObject();
+
+    if (reader.isRetainingSource()) {
+      site.retainSource(new RawJSON(reader.getText(), start, (int) reader.getPosition()));
+    }
+
+    return (site);
+  }
+
+  /**
+   * Reads a Source object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded Source
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Source readSource(JSONStreamReader reader) throws IOException, ParseException {
+    return (readSource(reader, new Source()));
+  }
+
+  /**
+   * Reads a Source object from the current position of a JSONStreamReader into an existing Source,
+   * overwriting every field
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param target - The Source to decode into
+   * @return Returns the target
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Source readSource(JSONStreamReader reader, Source target)
+      throws IOException, ParseException {
+    Source source = target;
+    ProcessingPool.reset(source);
+
+    reader.beginObject();
+    int start = (int) reader.getPosition() - 1;
+    while (reader.hasNext()) {
+      int key = reader.nextKey(SOURCE_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        source.UnknownKeys = RawJSON.readUnknownKey(reader, source.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // agencyID
+          source.AgencyID = reader.nextString();
+          break;
+        case 1:
+          // Author
+          source.Author = reader.nextString();
+          break;
+        case 2:
+          // Type
+          source.Type = reader.nextString();
+          break;
+      }
+    }
+    reader.endObject();
+
+    if (reader.isRetainingSource()) {
+      source.retainSource(new RawJSON(reader.getText(), start, (int) reader.getPosition()));
+    }
+
+    return (source);
+  }
+
+  /**
+   * Reads a Hypocenter object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded Hypocenter
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static Hypocenter readHypocenter(JSONStreamReader reader)
+      throws IOException, ParseException {
+    Hypocenter hypocenter = new Hypocenter();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int key = reader.nextKey(HYPOCENTER_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        hypocenter.UnknownKeys = RawJSON.readUnknownKey(reader, hypocenter.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // Latitude
+          hypocenter.Latitude = reader.nextDouble();
+          break;
+        case 1:
+          // Longitude
+          hypocenter.Longitude = reader.nextDouble();
+          break;
+        case 2:
+          // Time
+          hypocenter.Time = Utility.getDate(reader.nextString());
+          break;
+        case 3:
+          // Depth, sometimes json has this as an int or long
+          hypocenter.Depth = reader.nextDouble();
+          break;
+        case 4:
+          // Latitude error
+          hypocenter.LatitudeError = reader.nextDouble();
+          break;
+        case 5:
+          // Longitude error
+          hypocenter.LongitudeError = reader.nextDouble();
+          break;
+        case 6:
+          // Time error
+          hypocenter.TimeError = reader.nextDouble();
+          break;
+        case 7:
+          // Depth error
+          hypocenter.DepthError = reader.nextDouble();
+          break;
+      }
+    }
+    reader.endObject();
+
+    return (hypocenter);
+  }
+
+  /**
+   * Reads an ErrorEllipse object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded ErrorEllipse
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static ErrorEllipse readErrorEllipse(JSONStreamReader reader)
+      throws IOException, ParseException {
+    ErrorEllipse ellipse = new ErrorEllipse();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int key = reader.nextKey(ERRORELLIPSE_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        ellipse.UnknownKeys = RawJSON.readUnknownKey(reader, ellipse.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // E0
+          ellipse.E0 = readErrorEllipseAxis(reader);
+          break;
+        case 1:
+          // E1
+          ellipse.E1 = readErrorEllipseAxis(reader);
+          break;
+        case 2:
+          // E2
+          ellipse.E2 = readErrorEllipseAxis(reader);
+          break;
+        case 3:
+          // MaximumHorizontalProjection
+          ellipse.MaximumHorizontalProjection = reader.nextDouble();
+          break;
+        case 4:
+          // MaximumVerticalProjection
+          ellipse.MaximumVerticalProjection = reader.nextDouble();
+          break;
+        case 5:
+          // EquivalentHorizontalRadius
+          ellipse.EquivalentHorizontalRadius = reader.nextDouble();
+          break;
+      }
+    }
+    reader.endObject();
+
+    return (ellipse);
+  }
+
+  /**
+   * Reads an ErrorEllipseAxis object from the current position of a JSONStreamReader
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns the decoded ErrorEllipseAxis
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  public static ErrorEllipseAxis readErrorEllipseAxis(JSONStreamReader reader)
+      throws IOException, ParseException {
+    ErrorEllipseAxis axis = new ErrorEllipseAxis();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int key = reader.nextKey(ERRORELLIPSEAXIS_KEYS);
+
+      // unknown keys are kept so they survive a round trip
+      if (key < 0) {
+        axis.UnknownKeys = RawJSON.readUnknownKey(reader, axis.UnknownKeys);
+        continue;
+      }
+
+      // nulls are treated as absent keys
+      if (reader.skipNull()) {
+        continue;
+      }
+
+      switch (key) {
+        case 0:
+          // error
+          axis.Error = reader.nextDouble();
+          break;
+        case 1:
+          // azimuth
+          axis.Azimuth = reader.nextDouble();
+          break;
+        case 2:
+          // dip
+          axis.Dip = reader.nextDouble();
+          break;
+      }
+    }
+    reader.endObject();
+
+    return (axis);
+  }
+
+  /**
+   * Reads a LocationRequest ID, coercing integer IDs to strings
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @return Returns a String containing the ID, null if it is not a usable id
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  private static String readID(JSONStreamReader reader) throws IOException, ParseException {
+    JSONStreamReader.Token token = reader.peek();
+
+    if (token == JSONStreamReader.Token.STRING) {
+      return (reader.nextString());
+    } else if (token == JSONStreamReader.Token.NUMBER) {
+      String number = reader.nextString();
+
+      // only whole numbers are usable ids
+      for (int i = 0; i < number.length(); i++) {
+        char c = number.charAt(i);
+        if (((c < '0') || (c > '9')) && !((i == 0) && (c == '-'))) {
+          return (null);
+        }
+      }
+      return (number);
+    }
+
+    // any other type isn't a usable id
+    reader.skipValue();
+    return (null);
+  }
+}
@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -44,6 +45,12 @@ public class LocationResult implements ProcessingInt {
   /** A required vector of Pick objects used to generate this location */
   public ArrayList<Pick> SupportingData;
 
+  /**
+   * Optional columnar alternative to SupportingData for large results, used in place of
+   * SupportingData when SupportingData is null or empty
+   */
+  public PickBatch SupportingBatch;
+
   /** Optional integer containing the number of associated stations */
   public Integer NumberOfAssociatedStations;
 
@@ -86,12 +93,19 @@ public class LocationResult implements ProcessingInt {
   /** Optional error ellipse */
   public ErrorEllipse ErrorEllipse;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
   /** The constructor for the LocationResult class. Initializes members to null values. */
   public LocationResult() {
     ID = null;
     Source = null;
     Hypocenter = null;
     SupportingData = null;
+    SupportingBatch = null;
     NumberOfAssociatedStations = null;
     NumberOfAssociatedPhases = null;
     NumberOfUsedStations = null;
@@ -106,6 +120,7 @@ public class LocationResult implements ProcessingInt {
     DepthImportance = null;
     LocatorExitCode = null;
     ErrorEllipse = null;
+    UnknownKeys = null;
   }
 
   /**
@@ -470,6 +485,7 @@ public class LocationResult implements ProcessingInt {
     DepthImportance = newDepthImportance;
     LocatorExitCode = newLocatorExitCode;
     ErrorEllipse = newErrorEllipse;
+    UnknownKeys = null;
   }
 
   /**
@@ -478,6 +494,8 @@ public class LocationResult implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public LocationResult(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
     // Required values
     // Hypocenter
     if (newJSONObject.containsKey(HYPOCENTER_KEY)) {
@@ -635,6 +653,12 @@ public class LocationResult implements ProcessingInt {
     } else {
       ErrorEllipse = null;
     }
+
+    // keys this class does not know
+    UnknownKeys = RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.LOCATIONRESULT_KEYS);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "LocationResult", getInstrumentedSize(), span, 0);
   }
 
   /**
@@ -644,6 +668,7 @@ public class LocationResult implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -678,6 +703,8 @@ public class LocationResult implements ProcessingInt {
       if (!dataArray.isEmpty()) {
         newJSONObject.put(SUPPORTINGDATA_KEY, dataArray);
       }
+    } else if ((SupportingBatch != null) && (!SupportingBatch.isEmpty())) {
+      newJSONObject.put(SUPPORTINGDATA_KEY, SupportingBatch.toJSON());
     }
 
     // number of associated stations
@@ -750,22 +777,130 @@ public class LocationResult implements ProcessingInt {
       newJSONObject.put(ERRORELLIPSE_KEY, ErrorEllipse.toJSON());
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "LocationResult", getInstrumentedSize(), span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // ID
+    if (ID != null) {
+      writer.name(ID_KEY).value(ID);
+    }
+
+    // Source
+    if (Source != null) {
+      writer.name(SOURCE_KEY).value(Source);
+    }
+
+    // Hypocenter
+    if (Hypocenter != null) {
+      writer.name(HYPOCENTER_KEY).value(Hypocenter);
+    }
+
+    // SupportingData
+    if ((SupportingData != null) && (!SupportingData.isEmpty())) {
+      writer.name(SUPPORTINGDATA_KEY).value(SupportingData);
+    } else if ((SupportingBatch != null) && (!SupportingBatch.isEmpty())) {
+      writer.name(SUPPORTINGDATA_KEY);
+      SupportingBatch.writeJSON(writer);
+    }
+
+    // NumberOfAssociatedStations
+    if (NumberOfAssociatedStations != null) {
+      writer.name(ASSOCIATEDSTATIONS_KEY).value(NumberOfAssociatedStations);
+    }
+
+    // NumberOfAssociatedPhases
+    if (NumberOfAssociatedPhases != null) {
+      writer.name(ASSOCIATEDPHASES_KEY).value(NumberOfAssociatedPhases);
+    }
+
+    // NumberOfUsedStations
+    if (NumberOfUsedStations != null) {
+      writer.name(USEDSTATIONS_KEY).value(NumberOfUsedStations);
+    }
+
+    // NumberOfUsedPhases
+    if (NumberOfUsedPhases != null) {
+      writer.name(USEDPHASES_KEY).value(NumberOfUsedPhases);
+    }
+
+    // Gap
+    if (Gap != null) {
+      writer.name(GAP_KEY).value(Gap);
+    }
+
+    // SecondaryGap
+    if (SecondaryGap != null) {
+      writer.name(SECONDARYGAP_KEY).value(SecondaryGap);
+    }
+
+    // MinimumDistance
+    if (MinimumDistance != null) {
+      writer.name(MINIMUMDISTANCE_KEY).value(MinimumDistance);
+    }
+
+    // RMS
+    if (RMS != null) {
+      writer.name(RMS_KEY).value(RMS);
+    }
+
+    // Quality
+    if (Quality != null) {
+      writer.name(QUALITY_KEY).value(Quality);
+    }
+
+    // BayesianDepth
+    if (BayesianDepth != null) {
+      writer.name(BAYESIANDEPTH_KEY).value(BayesianDepth);
+    }
+
+    // BayesianRange
+    if (BayesianRange != null) {
+      writer.name(BAYESIANRANGE_KEY).value(BayesianRange);
+    }
+
+    // DepthImportance
+    if (DepthImportance != null) {
+      writer.name(DEPTHIMPORTANCE_KEY).value(DepthImportance);
+    }
+
+    // LocatorExitCode
+    if (LocatorExitCode != null) {
+      writer.name(LOCATOREXITCODE_KEY).value(LocatorExitCode);
+    }
+
+    // ErrorEllipse
+    if (ErrorEllipse != null) {
+      writer.name(ERRORELLIPSE_KEY).value(ErrorEllipse);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -774,50 +909,67 @@ public class LocationResult implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "LocationResult", getInstrumentedSize(), span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // Hypocenter
     if (Hypocenter == null) {
       // Hypocenter not found
-      errorList.add("No Hypocenter in LocationResult Class.");
+      valid = false;
+      sink.add("No Hypocenter in LocationResult Class.");
     } else if (!Hypocenter.isValid()) {
       // Hypocenter invalid
-      errorList.add("Invalid Hypocenter in LocationResult Class.");
+      valid = false;
+      sink.add("Invalid Hypocenter in LocationResult Class.");
+    }
+
+    // no need to walk the picks if we already know the answer
+    if (!valid && sink.isFailFast()) {
+      return (false);
     }
 
     // Data
     // Picks
     if ((SupportingData != null) && (!SupportingData.isEmpty())) {
-
-      // enumerate through the whole arraylist
-      for (Iterator<Pick> pickIterator = SupportingData.iterator(); pickIterator.hasNext(); ) {
-
-        // convert pick to JSON object
-        Pick jsonPick = ((Pick) pickIterator.next());
-
-        if (!jsonPick.isValid()) {
-          ArrayList<String> pickErrorList = jsonPick.getErrors();
-
-          // combine the errors into a single string
-          String errorString = new String();
-          for (int i = 0; i < pickErrorList.size(); i++) {
-            errorString += " " + pickErrorList.get(i);
-          }
-          errorList.add("Invalid Pick in SupportingData in LocationRequest Class: " + errorString);
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          SupportingData,
+          sink,
+          "Invalid Pick",
+          " in SupportingData in LocationRequest Class: ",
+          true)) {
+        valid = false;
+      }
+    } else if ((SupportingBatch != null) && (!SupportingBatch.isEmpty())) {
+      if (!SupportingBatch.validate(
+          sink, "Invalid Pick", " in SupportingData in LocationRequest Class: ")) {
+        valid = false;
       }
     } else {
       // Hypocenter not found
-      errorList.add("No pick data in LocationResult Class.");
+      valid = false;
+      sink.add("No pick data in LocationResult Class.");
     }
 
     // Gap
     if (Gap != null) {
       if ((Gap < 0) || (Gap > 360)) {
         // invalid Magnitude
-        errorList.add("Gap in LocationResult Class not in the range of 0 to 360.");
+        valid = false;
+        sink.add("Gap in LocationResult Class not in the range of 0 to 360.");
       }
     }
 
@@ -825,7 +977,8 @@ public class LocationResult implements ProcessingInt {
     if (SecondaryGap != null) {
       if ((SecondaryGap < 0) || (SecondaryGap > 360)) {
         // invalid Magnitude
-        errorList.add("Secondary Gap in LocationResult Class not in the range of 0 to 360.");
+        valid = false;
+        sink.add("Secondary Gap in LocationResult Class not in the range of 0 to 360.");
       }
     }
 
@@ -833,7 +986,8 @@ public class LocationResult implements ProcessingInt {
     if (MinimumDistance != null) {
       if (MinimumDistance < 0) {
         // invalid minimum distance
-        errorList.add("MinimumDistance in LocationResult Class is not greater than 0.");
+        valid = false;
+        sink.add("MinimumDistance in LocationResult Class is not greater than 0.");
       }
     }
 
@@ -843,66 +997,41 @@ public class LocationResult implements ProcessingInt {
     if (ErrorEllipse != null) {
       if (!ErrorEllipse.isValid()) {
         // Hypocenter invalid
-        errorList.add("Invalid ErrorEllipse in LocationResult Class.");
+        valid = false;
+        sink.add("Invalid ErrorEllipse in LocationResult Class.");
       }
     }
 
     // Source
     if ((Source != null) && (!Source.isValid())) {
       // Source invalid
-      errorList.add("Invalid Source in LocationResult Class.");
+      valid = false;
+      sink.add("Invalid Source in LocationResult Class.");
     }
 
     // success
-    return (errorList);
+    return (valid);
   }
 
   /**
-   * Converts the contents of the class to a csv formatted summary string
+   * Converts the contents of the class to a csv formatted summary string, use CSVExporter to export
+   * many results. Null values are written as null or zero, and a missing Hypocenter as zeros.
    *
    * @return Returns a String containing the csv formatted summary string
    */
   public String toCSV() {
-    String csvString = "";
-
-    if (ID != null) {
-      csvString += ID + ",";
-    } else {
-      csvString += "null,";
-    }
-
-    csvString += String.format("%f,", Hypocenter.Latitude);
-    csvString += String.format("%f,", Hypocenter.Longitude);
-    csvString += String.format("%f,", Hypocenter.Depth);
-    csvString += String.format("%f,", (Hypocenter.Time.getTime() * 0.001d));
-
-    if (RMS != null) {
-      csvString += String.format("%f,", RMS);
-    } else {
-      csvString += "0.0,";
-    }
-
-    if (MinimumDistance != null) {
-      csvString += String.format("%f,", MinimumDistance);
-    } else {
-      csvString += "0.0,";
-    }
-
-    if (Gap != null) {
-      csvString += String.format("%f,", Gap);
-    } else {
-      csvString += "0.0,";
-    }
-
-    if (NumberOfAssociatedPhases != null) {
-      csvString += String.format("%d,", NumberOfAssociatedPhases);
-    } else {
-      csvString += "0,";
-    }
-
-    csvString += "0.0,"; // mag
-    csvString += "0.0,"; // time
+    StringBuilder csvString = new StringBuilder(128);
+    CSVExporter.summary(csvString).appendRow(this, csvString);
+    return (csvString.toString());
+  }
 
-    return csvString;
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of picks
+   */
+  private int getInstrumentedSize() {
+    return (InstrumentationRegistry.sizeOf(SupportingData)
+        + ((SupportingBatch != null) ? SupportingBatch.size() : 0));
   }
 }
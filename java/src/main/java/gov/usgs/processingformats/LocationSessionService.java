@@ -0,0 +1,27 @@
+package gov.usgs.processingformats;
+
+/**
+ * LocationSessionService extends LocationService with sessions, so a relocation can be requested
+ * with a LocationRequestDelta against the request held for a session instead of the whole request.
+ * Processing a LocationRequest with an ID opens, or replaces, the session with that ID.
+ */
+public interface LocationSessionService extends LocationService {
+
+  /**
+   * Process a LocationRequestDelta against the request held for its session
+   *
+   * @param delta changes to the location inputs of the session delta.ID.
+   * @return calculated location.
+   * @throws LocationException if the delta is invalid, does not match the held request, or there is
+   *     no session with its ID, or if errors occur.
+   */
+  public LocationResult getLocation(final LocationRequestDelta delta) throws LocationException;
+
+  /**
+   * Closes a session, discarding its held request
+   *
+   * @param id the ID of the session.
+   * @return true if the session was open.
+   */
+  public boolean closeSession(final String id);
+}
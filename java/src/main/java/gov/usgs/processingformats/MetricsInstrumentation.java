@@ -0,0 +1,266 @@
+package gov.usgs.processingformats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * an Instrumentation class used to keep counters, latency histograms, and byte counts in memory,
+ * labeled by operation, type, and payload size.
+ *
+ * <p>Payload sizes are grouped into powers of two, 0, 1, 2-3, 4-7, and so on, and latencies into
+ * power of two nanosecond buckets. Nothing is allocated when recording, after the first operation
+ * of each operation, type, and size group.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class MetricsInstrumentation implements Instrumentation {
+  /** JSON Keys */
+  public static final String COUNT_KEY = "Count";
+
+  public static final String NANOS_KEY = "TotalNanos";
+  public static final String BYTES_KEY = "Bytes";
+  public static final String HISTOGRAM_KEY = "LatencyHistogram";
+
+  /** The number of payload size groups, enough for any int */
+  public static final int SIZE_GROUPS = 32;
+
+  /** The number of latency buckets, enough for any long */
+  public static final int LATENCY_BUCKETS = 64;
+
+  /** The metrics for each operation and type, indexed by size group */
+  private final Map<Operation, ConcurrentHashMap<String, AtomicReferenceArray<Metric>>> metrics;
+
+  /**
+   * a class used to hold the metrics of one operation, type, and size group.
+   *
+   * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+   */
+  public static final class Metric {
+    /** The number of operations */
+    private final LongAdder count = new LongAdder();
+
+    /** The total time of the operations in nanoseconds */
+    private final LongAdder nanos = new LongAdder();
+
+    /** The total characters parsed or serialized */
+    private final LongAdder bytes = new LongAdder();
+
+    /** The number of operations in each latency bucket */
+    private final AtomicLongArray histogram = new AtomicLongArray(LATENCY_BUCKETS);
+
+    /**
+     * Gets the number of operations
+     *
+     * @return Returns a long containing the count
+     */
+    public long getCount() {
+      return (count.sum());
+    }
+
+    /**
+     * Gets the total time of the operations
+     *
+     * @return Returns a long containing the time in nanoseconds
+     */
+    public long getTotalNanos() {
+      return (nanos.sum());
+    }
+
+    /**
+     * Gets the total characters parsed or serialized
+     *
+     * @return Returns a long containing the number of characters
+     */
+    public long getBytes() {
+      return (bytes.sum());
+    }
+
+    /**
+     * Gets the latency histogram. Bucket i counts operations taking from 2^(i-1) to 2^i - 1
+     * nanoseconds, bucket 0 those taking no measurable time.
+     *
+     * @return Returns a long[] containing a copy of the bucket counts
+     */
+    public long[] getHistogram() {
+      long[] copy = new long[LATENCY_BUCKETS];
+      for (int i = 0; i < LATENCY_BUCKETS; i++) {
+        copy[i] = histogram.get(i);
+      }
+      return (copy);
+    }
+
+    /**
+     * Estimates a latency quantile from the histogram
+     *
+     * @param quantile - A double containing the quantile, from 0 to 1
+     * @return Returns a long containing the upper bound in nanoseconds of the bucket holding the
+     *     quantile, or 0 if nothing was recorded
+     */
+    public long getQuantileNanos(double quantile) {
+      long[] counts = getHistogram();
+      long total = 0;
+      for (long each : counts) {
+        total += each;
+      }
+      if (total == 0) {
+        return (0);
+      }
+
+      long rank = (long) Math.ceil(quantile * total);
+      long seen = 0;
+      for (int i = 0; i < LATENCY_BUCKETS; i++) {
+        seen += counts[i];
+        if ((seen >= rank) && (counts[i] > 0)) {
+          return ((1L << i) - 1);
+        }
+      }
+      return (Long.MAX_VALUE);
+    }
+
+    /**
+     * Adds one operation
+     *
+     * @param elapsed - A long containing the time in nanoseconds
+     * @param length - A long containing the characters parsed or serialized
+     */
+    void add(long elapsed, long length) {
+      count.increment();
+      nanos.add(elapsed);
+      if (length > 0) {
+        bytes.add(length);
+      }
+      histogram.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(elapsed, 0)));
+    }
+
+    /**
+     * Converts the metric to a JSONObject
+     *
+     * @return Returns a JSONObject containing the count, time, bytes, and histogram
+     */
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSON() {
+      JSONObject newJSONObject = new JSONObject();
+      newJSONObject.put(COUNT_KEY, getCount());
+      newJSONObject.put(NANOS_KEY, getTotalNanos());
+      newJSONObject.put(BYTES_KEY, getBytes());
+
+      // trim trailing empty buckets
+      long[] counts = getHistogram();
+      int last = LATENCY_BUCKETS - 1;
+      while ((last > 0) && (counts[last] == 0)) {
+        last--;
+      }
+      JSONArray histogramArray = new JSONArray();
+      for (int i = 0; i <= last; i++) {
+        histogramArray.add(counts[i]);
+      }
+      newJSONObject.put(HISTOGRAM_KEY, histogramArray);
+
+      return (newJSONObject);
+    }
+  }
+
+  /** The constructor for the MetricsInstrumentation class. */
+  public MetricsInstrumentation() {
+    metrics =
+        new EnumMap<Operation, ConcurrentHashMap<String, AtomicReferenceArray<Metric>>>(
+            Operation.class);
+    for (Operation operation : Operation.values()) {
+      metrics.put(operation, new ConcurrentHashMap<String, AtomicReferenceArray<Metric>>());
+    }
+  }
+
+  /**
+   * Records one completed operation
+   *
+   * @param operation - The Operation that completed
+   * @param type - A String containing the name of the class
+   * @param size - An int containing the payload size
+   * @param nanos - A long containing the elapsed time in nanoseconds
+   * @param bytes - A long containing the number of characters parsed or serialized
+   */
+  public void record(Operation operation, String type, int size, long nanos, long bytes) {
+    AtomicReferenceArray<Metric> groups =
+        metrics
+            .get(operation)
+            .computeIfAbsent(type, key -> new AtomicReferenceArray<Metric>(SIZE_GROUPS));
+
+    int group = getSizeGroup(size);
+    Metric metric = groups.get(group);
+    if (metric == null) {
+      groups.compareAndSet(group, null, new Metric());
+      metric = groups.get(group);
+    }
+    metric.add(nanos, bytes);
+  }
+
+  /**
+   * Gets the metric for an operation, type, and payload size
+   *
+   * @param operation - The Operation
+   * @param type - A String containing the name of the class
+   * @param size - An int containing a payload size in the size group
+   * @return Returns the Metric, or null if nothing was recorded for them
+   */
+  public Metric getMetric(Operation operation, String type, int size) {
+    AtomicReferenceArray<Metric> groups = metrics.get(operation).get(type);
+    if (groups == null) {
+      return (null);
+    }
+    return (groups.get(getSizeGroup(size)));
+  }
+
+  /** Discards everything recorded */
+  public void reset() {
+    for (ConcurrentHashMap<String, AtomicReferenceArray<Metric>> types : metrics.values()) {
+      types.clear();
+    }
+  }
+
+  /**
+   * Converts the recorded metrics to a JSONObject, keyed by operation, type, and the smallest
+   * payload size of each size group
+   *
+   * @return Returns a JSONObject containing the metrics
+   */
+  @SuppressWarnings("unchecked")
+  public JSONObject toJSON() {
+    JSONObject newJSONObject = new JSONObject();
+
+    for (Map.Entry<Operation, ConcurrentHashMap<String, AtomicReferenceArray<Metric>>> operation :
+        metrics.entrySet()) {
+      JSONObject typesObject = new JSONObject();
+      for (Map.Entry<String, AtomicReferenceArray<Metric>> type : operation.getValue().entrySet()) {
+        JSONObject groupsObject = new JSONObject();
+        for (int i = 0; i < SIZE_GROUPS; i++) {
+          Metric metric = type.getValue().get(i);
+          if (metric != null) {
+            groupsObject.put(Long.toString((i == 0) ? 0 : (1L << (i - 1))), metric.toJSON());
+          }
+        }
+        typesObject.put(type.getKey(), groupsObject);
+      }
+      if (!typesObject.isEmpty()) {
+        newJSONObject.put(operation.getKey().name(), typesObject);
+      }
+    }
+
+    return (newJSONObject);
+  }
+
+  /**
+   * Gets the size group of a payload size
+   *
+   * @param size - An int containing the payload size
+   * @return Returns an int containing the group, 0 for 0, 1 for 1, 2 for 2-3, 3 for 4-7, ...
+   */
+  public static int getSizeGroup(int size) {
+    return (32 - Integer.numberOfLeadingZeros(Math.max(size, 0)));
+  }
+}
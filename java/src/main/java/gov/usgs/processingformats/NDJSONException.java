@@ -0,0 +1,50 @@
+package gov.usgs.processingformats;
+
+/**
+ * NDJSONException represents an error that occurred while reading or writing a record of a newline
+ * delimited JSON file, with the location of the record.
+ */
+public class NDJSONException extends RuntimeException {
+
+  /** Default serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /** The byte offset of the record. */
+  private final long offset;
+
+  /** The one based line number of the record. */
+  private final long lineNumber;
+
+  /**
+   * Constructor to wrap another exception.
+   *
+   * @param message description of error.
+   * @param offset byte offset of the record in the uncompressed data.
+   * @param lineNumber one based line number of the record.
+   * @param cause exception that caused error.
+   */
+  public NDJSONException(
+      final String message, final long offset, final long lineNumber, final Throwable cause) {
+    super(message + " at line " + lineNumber + ", byte offset " + offset, cause);
+    this.offset = offset;
+    this.lineNumber = lineNumber;
+  }
+
+  /**
+   * Gets the byte offset of the record, in the uncompressed data.
+   *
+   * @return Returns the byte offset
+   */
+  public long getOffset() {
+    return (offset);
+  }
+
+  /**
+   * Gets the line number of the record.
+   *
+   * @return Returns the one based line number
+   */
+  public long getLineNumber() {
+    return (lineNumber);
+  }
+}
@@ -0,0 +1,467 @@
+package gov.usgs.processingformats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a reader for newline delimited JSON (NDJSON) files, one processing formats object per line, such
+ * as archives of LocationRequest or TravelTimeRequest traffic.
+ *
+ * <p>Records are read lazily through a fixed size buffer from a NIO channel, so archives of any
+ * size are processed in constant memory (bounded by the longest record). Gzip compressed files are
+ * detected automatically by open(). Blank lines are skipped. Each record's byte offset in the
+ * uncompressed data and its line number are available for error reporting, and failures while
+ * iterating are reported as an NDJSONException carrying both. Reading can continue with the next
+ * record after an invalid one.
+ *
+ * @param <T> - The type of the records
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class NDJSONReader<T> implements Iterator<T>, Closeable {
+  /**
+   * an interface used to convert one line of an NDJSON file into a record.
+   *
+   * @param <T> - The type of the records
+   */
+  @FunctionalInterface
+  public interface RecordParser<T> {
+    /**
+     * Parses a line
+     *
+     * @param line - A String containing the JSON text of the record
+     * @return Returns the record
+     * @throws IOException if reading the text fails
+     * @throws ParseException if the text is not valid JSON
+     */
+    public T parse(String line) throws IOException, ParseException;
+  }
+
+  /** Parses LocationRequests with the streaming LocationRequestReader */
+  public static final RecordParser<LocationRequest> LOCATIONREQUEST = LocationRequestReader::read;
+
+  /** Parses LocationResults */
+  public static final RecordParser<LocationResult> LOCATIONRESULT = parser(LocationResult::new);
+
+  /** Parses TravelTimeRequests */
+  public static final RecordParser<TravelTimeRequest> TRAVELTIMEREQUEST =
+      parser(TravelTimeRequest::new);
+
+  /** Parses TravelTimePlotRequests */
+  public static final RecordParser<TravelTimePlotRequest> TRAVELTIMEPLOTREQUEST =
+      parser(TravelTimePlotRequest::new);
+
+  /** The default size of the read buffer */
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+  /** The default longest record allowed, in bytes */
+  public static final int DEFAULT_MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+  /** The channel being read */
+  private ReadableByteChannel channel;
+
+  /** The parser converting lines to records */
+  private RecordParser<T> parser;
+
+  /** The read buffer */
+  private ByteBuffer buffer;
+
+  /** The longest record allowed */
+  private int maxRecordLength;
+
+  /** The bytes of the current line */
+  private byte[] line = new byte[1024];
+
+  /** The number of bytes in the current line */
+  private int lineLength;
+
+  /** The number of bytes consumed from the channel */
+  private long consumed;
+
+  /** The number of lines read */
+  private long lineCount;
+
+  /** Whether the end of the channel has been reached */
+  private boolean endOfInput;
+
+  /** The byte offset of the last record returned */
+  private long offset = -1;
+
+  /** The line number of the last record returned */
+  private long lineNumber;
+
+  /** The record read ahead by hasNext, null if none */
+  private T pending;
+
+  /** The byte offset of the pending record */
+  private long pendingOffset;
+
+  /** The line number of the pending record */
+  private long pendingLineNumber;
+
+  /**
+   * Builds a RecordParser from a JSONObject constructor, such as TravelTimeRequest::new
+   *
+   * @param <T> - The type of the records
+   * @param constructor - A Function building a record from a JSONObject
+   * @return Returns the RecordParser
+   */
+  public static <T> RecordParser<T> parser(Function<JSONObject, T> constructor) {
+    return (line -> constructor.apply(Utility.fromJSONString(line)));
+  }
+
+  /**
+   * Opens an NDJSON file, decompressing it if it is gzip compressed
+   *
+   * @param <T> - The type of the records
+   * @param path - The Path of the file
+   * @param parser - The RecordParser converting lines to records
+   * @return Returns the NDJSONReader
+   * @throws IOException if the file cannot be opened
+   */
+  public static <T> NDJSONReader<T> open(Path path, RecordParser<T> parser) throws IOException {
+    FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+
+    try {
+      // check for the gzip magic number
+      ByteBuffer magic = ByteBuffer.allocate(2);
+      while (magic.hasRemaining() && (file.read(magic) >= 0)) {}
+      file.position(0);
+
+      if ((magic.position() == 2)
+          && ((magic.get(0) & 0xFF) == 0x1F)
+          && ((magic.get(1) & 0xFF) == 0x8B)) {
+        return (new NDJSONReader<T>(
+            Channels.newChannel(
+                new GZIPInputStream(Channels.newInputStream(file), DEFAULT_BUFFER_SIZE)),
+            parser));
+      }
+    } catch (IOException e) {
+      file.close();
+      throw e;
+    }
+
+    return (new NDJSONReader<T>(file, parser));
+  }
+
+  /**
+   * Streams the records of an NDJSON file, decompressing it if it is gzip compressed. The file is
+   * closed when the Stream is closed.
+   *
+   * @param <T> - The type of the records
+   * @param path - The Path of the file
+   * @param parser - The RecordParser converting lines to records
+   * @return Returns a Stream of the records
+   * @throws IOException if the file cannot be opened
+   */
+  public static <T> Stream<T> stream(Path path, RecordParser<T> parser) throws IOException {
+    return (open(path, parser).stream());
+  }
+
+  /**
+   * Constructs the class from an uncompressed channel
+   *
+   * @param newChannel - The ReadableByteChannel to read
+   * @param newParser - The RecordParser converting lines to records
+   */
+  public NDJSONReader(ReadableByteChannel newChannel, RecordParser<T> newParser) {
+    this(newChannel, newParser, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_RECORD_LENGTH);
+  }
+
+  /**
+   * Constructs the class from an uncompressed channel with buffer limits
+   *
+   * @param newChannel - The ReadableByteChannel to read
+   * @param newParser - The RecordParser converting lines to records
+   * @param bufferSize - An int containing the size of the read buffer
+   * @param newMaxRecordLength - An int containing the longest record allowed, in bytes
+   */
+  public NDJSONReader(
+      ReadableByteChannel newChannel,
+      RecordParser<T> newParser,
+      int bufferSize,
+      int newMaxRecordLength) {
+    channel = newChannel;
+    parser = newParser;
+    buffer = ByteBuffer.allocate(bufferSize);
+    buffer.flip();
+    maxRecordLength = newMaxRecordLength;
+  }
+
+  /**
+   * Reads the next record
+   *
+   * @return Returns the next record, null at the end of the file
+   * @throws IOException if reading the channel fails
+   * @throws NDJSONException if the record cannot be parsed or is too long
+   */
+  public T read() throws IOException {
+    if (pending != null) {
+      T record = pending;
+      pending = null;
+      offset = pendingOffset;
+      lineNumber = pendingLineNumber;
+      return (record);
+    }
+
+    long start;
+    do {
+      start = consumed;
+      if (!readLine()) {
+        return (null);
+      }
+    } while (isBlank());
+
+    // the location only moves once the record is returned
+    long recordLineNumber = lineCount;
+    T record;
+    try {
+      record = parser.parse(new String(line, 0, lineLength, StandardCharsets.UTF_8));
+    } catch (ParseException | RuntimeException e) {
+      if (e instanceof NDJSONException) {
+        throw (NDJSONException) e;
+      }
+      throw new NDJSONException("Invalid record", start, recordLineNumber, e);
+    }
+    if (record == null) {
+      throw new NDJSONException("Empty record", start, recordLineNumber, null);
+    }
+
+    offset = start;
+    lineNumber = recordLineNumber;
+    return (record);
+  }
+
+  /**
+   * Gets the byte offset of the last record returned, in the uncompressed data
+   *
+   * @return Returns the byte offset, -1 if no record has been returned
+   */
+  public long getOffset() {
+    return (offset);
+  }
+
+  /**
+   * Gets the line number of the last record returned
+   *
+   * @return Returns the one based line number, 0 if no record has been returned
+   */
+  public long getLineNumber() {
+    return (lineNumber);
+  }
+
+  /**
+   * Checks whether there is another record
+   *
+   * @return Returns true if there is another record
+   * @throws NDJSONException if the next record cannot be read or parsed
+   */
+  public boolean hasNext() {
+    if (pending != null) {
+      return (true);
+    }
+
+    long lastOffset = offset;
+    long lastLineNumber = lineNumber;
+    try {
+      pending = read();
+    } catch (IOException e) {
+      throw new NDJSONException("Failed to read record", consumed, lineCount + 1, e);
+    }
+
+    // read() moved the location to the pending record
+    pendingOffset = offset;
+    pendingLineNumber = lineNumber;
+    offset = lastOffset;
+    lineNumber = lastLineNumber;
+
+    return (pending != null);
+  }
+
+  /**
+   * Gets the next record
+   *
+   * @return Returns the next record
+   * @throws NoSuchElementException if there are no more records
+   * @throws NDJSONException if the next record cannot be read or parsed
+   */
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    try {
+      return (read());
+    } catch (IOException e) {
+      // not reached, the record was read ahead
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Streams the remaining records. Closing the Stream closes the reader.
+   *
+   * @return Returns a sequential Stream of the records
+   */
+  public Stream<T> stream() {
+    return (StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(
+            () -> {
+              try {
+                close();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            }));
+  }
+
+  /**
+   * Closes the channel
+   *
+   * @throws IOException if closing fails
+   */
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Reads the next line into the line buffer, without the line terminator. A line longer than the
+   * maximum record length is consumed through its terminator before it is reported, so reading can
+   * continue with the next line.
+   *
+   * @return Returns false at the end of the channel
+   * @throws IOException if reading fails
+   * @throws NDJSONException if the line is longer than the maximum record length
+   */
+  private boolean readLine() throws IOException {
+    long lineStart = consumed;
+    lineLength = 0;
+    boolean started = false;
+    boolean tooLong = false;
+
+    while (true) {
+      if (!buffer.hasRemaining()) {
+        if (endOfInput || !fill()) {
+          if (started) {
+            lineCount++;
+            if (tooLong) {
+              throw new NDJSONException(
+                  "Record longer than " + maxRecordLength + " bytes", lineStart, lineCount, null);
+            }
+          }
+          return (started);
+        }
+      }
+      started = true;
+
+      // look for the end of the line
+      byte[] array = buffer.array();
+      int start = buffer.arrayOffset() + buffer.position();
+      int end = buffer.arrayOffset() + buffer.limit();
+      int newline = start;
+      while ((newline < end) && (array[newline] != '\n')) {
+        newline++;
+      }
+
+      // skip the rest of a line that is too long
+      if (!tooLong && (lineLength + newline - start > maxRecordLength)) {
+        tooLong = true;
+        lineLength = 0;
+      }
+      if (!tooLong) {
+        append(array, start, newline - start);
+      }
+
+      if (newline < end) {
+        // consume the newline too
+        buffer.position(newline + 1 - buffer.arrayOffset());
+        consumed += newline + 1 - start;
+        lineCount++;
+        if (tooLong) {
+          throw new NDJSONException(
+              "Record longer than " + maxRecordLength + " bytes", lineStart, lineCount, null);
+        }
+
+        // strip a carriage return
+        if ((lineLength > 0) && (line[lineLength - 1] == '\r')) {
+          lineLength--;
+        }
+        return (true);
+      }
+
+      buffer.position(buffer.limit());
+      consumed += end - start;
+    }
+  }
+
+  /**
+   * Refills the read buffer from the channel
+   *
+   * @return Returns false at the end of the channel
+   * @throws IOException if reading fails
+   */
+  private boolean fill() throws IOException {
+    buffer.clear();
+    int count;
+    do {
+      count = channel.read(buffer);
+    } while (count == 0);
+    buffer.flip();
+
+    if (count < 0) {
+      endOfInput = true;
+      return (false);
+    }
+    return (true);
+  }
+
+  /**
+   * Appends bytes to the line buffer
+   *
+   * @param bytes - A byte[] containing the bytes
+   * @param start - An int containing the first byte
+   * @param length - An int containing the number of bytes
+   */
+  private void append(byte[] bytes, int start, int length) {
+    if (lineLength + length > line.length) {
+      line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+    }
+    System.arraycopy(bytes, start, line, lineLength, length);
+    lineLength += length;
+  }
+
+  /**
+   * Checks whether the current line contains only whitespace
+   *
+   * @return Returns true if the line is blank
+   */
+  private boolean isBlank() {
+    for (int i = 0; i < lineLength; i++) {
+      byte b = line[i];
+      if ((b != ' ') && (b != '\t') && (b != '\r')) {
+        return (false);
+      }
+    }
+    return (true);
+  }
+}
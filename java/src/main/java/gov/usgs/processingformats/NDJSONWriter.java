@@ -0,0 +1,200 @@
+package gov.usgs.processingformats;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * a writer for newline delimited JSON (NDJSON) files, one processing formats object per line, the
+ * counterpart of NDJSONReader.
+ *
+ * <p>Records are serialized with writeTo() into a reused character buffer and encoded as UTF-8
+ * through a fixed size byte buffer to a NIO channel, so any number of records are written in
+ * constant memory. Files whose names end in .gz are gzip compressed by open().
+ *
+ * @param <T> - The type of the records
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class NDJSONWriter<T extends ProcessingInt> implements Closeable, Flushable {
+  /** The channel being written */
+  private WritableByteChannel channel;
+
+  /** The write buffer */
+  private ByteBuffer buffer;
+
+  /** The reused serialization buffer */
+  private StringBuilder record = new StringBuilder(1024);
+
+  /** The UTF-8 encoder */
+  private CharsetEncoder encoder =
+      StandardCharsets.UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  /** The number of bytes written to the channel */
+  private long flushed;
+
+  /** The number of records written */
+  private long count;
+
+  /**
+   * Creates or truncates an NDJSON file, gzip compressing it if the file name ends in .gz
+   *
+   * @param <T> - The type of the records
+   * @param path - The Path of the file
+   * @return Returns the NDJSONWriter
+   * @throws IOException if the file cannot be opened
+   */
+  public static <T extends ProcessingInt> NDJSONWriter<T> open(Path path) throws IOException {
+    FileChannel file =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+
+    if (path.getFileName().toString().endsWith(".gz")) {
+      try {
+        return (new NDJSONWriter<T>(
+            Channels.newChannel(
+                new GZIPOutputStream(
+                    Channels.newOutputStream(file), NDJSONReader.DEFAULT_BUFFER_SIZE))));
+      } catch (IOException e) {
+        file.close();
+        throw e;
+      }
+    }
+
+    return (new NDJSONWriter<T>(file));
+  }
+
+  /**
+   * Constructs the class from a channel
+   *
+   * @param newChannel - The WritableByteChannel to write
+   */
+  public NDJSONWriter(WritableByteChannel newChannel) {
+    this(newChannel, NDJSONReader.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructs the class from a channel with a buffer size
+   *
+   * @param newChannel - The WritableByteChannel to write
+   * @param bufferSize - An int containing the size of the write buffer
+   */
+  public NDJSONWriter(WritableByteChannel newChannel, int bufferSize) {
+    channel = newChannel;
+    buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * Writes a record as one line
+   *
+   * @param value - The record to write
+   * @return Returns the byte offset of the record, in the uncompressed data
+   * @throws IOException if writing fails
+   */
+  public long write(T value) throws IOException {
+    long offset = getOffset();
+
+    record.setLength(0);
+    value.writeTo(record);
+    record.append('\n');
+
+    CharBuffer chars = CharBuffer.wrap(record);
+    encoder.reset();
+    while (encoder.encode(chars, buffer, true) == CoderResult.OVERFLOW) {
+      drain();
+    }
+    while (encoder.flush(buffer) == CoderResult.OVERFLOW) {
+      drain();
+    }
+
+    count++;
+    return (offset);
+  }
+
+  /**
+   * Writes all the remaining records of an Iterator, such as an NDJSONReader
+   *
+   * @param values - The Iterator of records to write
+   * @return Returns the number of records written
+   * @throws IOException if writing fails
+   */
+  public long writeAll(Iterator<? extends T> values) throws IOException {
+    long written = 0;
+    while (values.hasNext()) {
+      write(values.next());
+      written++;
+    }
+    return (written);
+  }
+
+  /**
+   * Gets the byte offset the next record will be written at
+   *
+   * @return Returns the number of bytes written so far, in the uncompressed data
+   */
+  public long getOffset() {
+    return (flushed + buffer.position());
+  }
+
+  /**
+   * Gets the number of records written
+   *
+   * @return Returns the number of records
+   */
+  public long getCount() {
+    return (count);
+  }
+
+  /**
+   * Writes the buffered bytes to the channel
+   *
+   * @throws IOException if writing fails
+   */
+  public void flush() throws IOException {
+    drain();
+  }
+
+  /**
+   * Flushes and closes the channel, finishing any compression
+   *
+   * @throws IOException if writing or closing fails
+   */
+  public void close() throws IOException {
+    try {
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Writes the buffered bytes to the channel
+   *
+   * @throws IOException if writing fails
+   */
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      flushed += channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
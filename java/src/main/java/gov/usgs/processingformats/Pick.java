@@ -1,7 +1,9 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import org.json.simple.JSONObject;
 
 /**
@@ -76,6 +78,21 @@ public class Pick implements ProcessingInt {
   /** Optional (output) double containing the importance value */
   public Double Importance;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
+  /** The text this object was decoded from, null if not retained or since modified */
+  private RawJSON rawJSON;
+
+  /** The Site when the text was retained */
+  private Site rawSite;
+
+  /** The Source when the text was retained */
+  private Source rawSource;
+
   /** The constructor for the Pick class. Initializes members to null values. */
   public Pick() {
 
@@ -280,6 +297,10 @@ public class Pick implements ProcessingInt {
     Azimuth = newAzimuth;
     Weight = newWeight;
     Importance = newImportance;
+    UnknownKeys = null;
+    rawJSON = null;
+    rawSite = null;
+    rawSource = null;
   }
 
   /**
@@ -288,6 +309,7 @@ public class Pick implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public Pick(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // ID
@@ -395,6 +417,11 @@ public class Pick implements ProcessingInt {
     } else {
       Importance = null;
     }
+
+    // keys this class does not know
+    UnknownKeys = RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.PICK_KEYS);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.DECODE, "Pick", 1, span, 0);
   }
 
   /**
@@ -404,6 +431,7 @@ public class Pick implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -484,22 +512,159 @@ public class Pick implements ProcessingInt {
       newJSONObject.put(IMPORTANCE_KEY, Importance);
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.ENCODE, "Pick", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    if (!isDirty()) {
+      // unchanged since decoded, copy the source text
+      rawJSON.writeJSON(writer);
+      return;
+    }
+
+    writer.beginObject();
+
+    // ID
+    if (ID != null) {
+      writer.name(ID_KEY).value(ID);
+    }
+
+    // Site
+    if (Site != null) {
+      writer.name(SITE_KEY).value(Site);
+    }
+
+    // Source
+    if (Source != null) {
+      writer.name(SOURCE_KEY).value(Source);
+    }
+
+    // Time
+    if (Time != null) {
+      writer.name(TIME_KEY).value(Utility.formatDate(Time));
+    }
+
+    // Affinity
+    if (Affinity != null) {
+      writer.name(AFFINITY_KEY).value(Affinity);
+    }
+
+    // Quality
+    if (Quality != null) {
+      writer.name(QUALITY_KEY).value(Quality);
+    }
+
+    // Use
+    if (Use != null) {
+      writer.name(USE_KEY).value(Use);
+    }
+
+    // PickedPhase
+    if (PickedPhase != null) {
+      writer.name(PICKED_PHASE_KEY).value(PickedPhase);
+    }
+
+    // AssociatedPhase
+    if (AssociatedPhase != null) {
+      writer.name(ASSOCIATED_PHASE_KEY).value(AssociatedPhase);
+    }
+
+    // LocatedPhase
+    if (LocatedPhase != null) {
+      writer.name(LOCATED_PHASE_KEY).value(LocatedPhase);
+    }
+
+    // Residual
+    if (Residual != null) {
+      writer.name(RESIDUAL_KEY).value(Residual);
+    }
+
+    // Distance
+    if (Distance != null) {
+      writer.name(DISTANCE_KEY).value(Distance);
+    }
+
+    // Azimuth
+    if (Azimuth != null) {
+      writer.name(AZIMUTH_KEY).value(Azimuth);
+    }
+
+    // Weight
+    if (Weight != null) {
+      writer.name(WEIGHT_KEY).value(Weight);
+    }
+
+    // Importance
+    if (Importance != null) {
+      writer.name(IMPORTANCE_KEY).value(Importance);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
+  /**
+   * Keeps the text this object was decoded from, so writeJSON() copies it verbatim until the object
+   * is reloaded or marked dirty
+   *
+   * @param raw - The RawJSON the object was decoded from
+   */
+  void retainSource(RawJSON raw) {
+    rawJSON = raw;
+    rawSite = Site;
+    rawSource = Source;
+  }
+
+  /**
+   * Gets the text this object was decoded from
+   *
+   * @return Returns the RawJSON, or null if not retained or since modified
+   */
+  public RawJSON getRawJSON() {
+    return (rawJSON);
+  }
+
+  /**
+   * Marks the object as modified, so writeJSON() re-encodes it. Must be called after changing the
+   * fields of a Pick decoded with its text retained, reload() does so itself.
+   */
+  public void markDirty() {
+    rawJSON = null;
+  }
+
+  /**
+   * Whether writeJSON() must re-encode the object rather than copy the text it was decoded from
+   *
+   * @return Returns true if the source was not retained or the object was modified
+   */
+  public boolean isDirty() {
+    return ((rawJSON == null)
+        || (Site != rawSite)
+        || (Source != rawSource)
+        || ((Site != null) && Site.isDirty())
+        || ((Source != null) && Source.isDirty()));
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -508,59 +673,82 @@ public class Pick implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(Instrumentation.Operation.VALIDATE, "Pick", 1, span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // Required Keys
     // ID
     if (ID == null) {
       // ID not found
-      errorList.add("No ID in Pick Class.");
+      valid = false;
+      sink.add("No ID in Pick Class.");
     } else if (ID.isEmpty()) {
       // ID empty
-      errorList.add("Empty ID in Pick Class.");
+      valid = false;
+      sink.add("Empty ID in Pick Class.");
     }
 
     // Site
     if (Site == null) {
       // Site not found
-      errorList.add("No Site in Pick Class.");
+      valid = false;
+      sink.add("No Site in Pick Class.");
     } else if (!Site.isValid()) {
       // Site invalid
-      errorList.add("Invalid Site in Pick Class.");
+      valid = false;
+      sink.add("Invalid Site in Pick Class.");
     }
 
     // Source
     if (Source == null) {
       // Source not found
-      errorList.add("No Source in Pick Class.");
+      valid = false;
+      sink.add("No Source in Pick Class.");
     } else if (!Source.isValid()) {
       // Source invalid
-      errorList.add("Invalid Source in Pick Class.");
+      valid = false;
+      sink.add("Invalid Source in Pick Class.");
     }
 
     // Time
     if (Time == null) {
       // Time not found
-      errorList.add("No Time in Pick Class.");
+      valid = false;
+      sink.add("No Time in Pick Class.");
     }
 
     // Affinity
     if (Affinity == null) {
       // Affinity not found
-      errorList.add("No Affinity in Pick Class.");
+      valid = false;
+      sink.add("No Affinity in Pick Class.");
     }
 
     // Quality
     if (Quality == null) {
       // Quality not found
-      errorList.add("No Quality in Pick Class.");
+      valid = false;
+      sink.add("No Quality in Pick Class.");
     }
 
     // Use
     if (Use == null) {
       // Use not found
-      errorList.add("No Use in Pick Class.");
+      valid = false;
+      sink.add("No Use in Pick Class.");
     }
 
     // Optional Keys
@@ -568,7 +756,8 @@ public class Pick implements ProcessingInt {
     if (PickedPhase != null) {
       if (PickedPhase.isEmpty()) {
         // PickedPhase empty
-        errorList.add("Empty Picked Phase in Pick Class.");
+        valid = false;
+        sink.add("Empty Picked Phase in Pick Class.");
       }
     }
 
@@ -576,7 +765,8 @@ public class Pick implements ProcessingInt {
     if (AssociatedPhase != null) {
       if (AssociatedPhase.isEmpty()) {
         // AssociatedPhase empty
-        errorList.add("Empty Associated Phase in Pick Class.");
+        valid = false;
+        sink.add("Empty Associated Phase in Pick Class.");
       }
     }
 
@@ -584,13 +774,14 @@ public class Pick implements ProcessingInt {
     if (LocatedPhase != null) {
       if (LocatedPhase.isEmpty()) {
         // LocatedPhase empty
-        errorList.add("Empty Located Phase in Pick Class.");
+        valid = false;
+        sink.add("Empty Located Phase in Pick Class.");
       }
     }
 
     // Currently no validation criteria for other optional (output) values
 
     // success
-    return (errorList);
+    return (valid);
   }
 }
@@ -0,0 +1,802 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import org.json.simple.JSONArray;
+
+/**
+ * a columnar container for large numbers of picks.
+ *
+ * <p>Numeric pick values are stored in primitive arrays with null masks, times as epoch
+ * milliseconds, and station, channel, network, location, source, and phase strings are dictionary
+ * encoded, so a batch of thousands of picks uses a handful of arrays instead of a dozen objects per
+ * pick. A PickBatch converts to and from ArrayList&lt;Pick&gt;, and can be used in place of
+ * LocationRequest.InputData and LocationResult.SupportingData.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class PickBatch {
+
+  /** The double valued pick columns */
+  public enum DoubleColumn {
+    LATITUDE,
+    LONGITUDE,
+    ELEVATION,
+    AFFINITY,
+    QUALITY,
+    RESIDUAL,
+    DISTANCE,
+    AZIMUTH,
+    WEIGHT,
+    IMPORTANCE
+  }
+
+  /** The dictionary encoded string pick columns */
+  public enum StringColumn {
+    STATION,
+    CHANNEL,
+    NETWORK,
+    LOCATION,
+    AGENCY_ID,
+    AUTHOR,
+    TYPE,
+    PICKED_PHASE,
+    ASSOCIATED_PHASE,
+    LOCATED_PHASE
+  }
+
+  /** a class used to hold a Pick, Site, Source, and Date reused to validate one pick at a time */
+  private class Scratch {
+    /** The scratch Pick */
+    private final Pick pick = new Pick();
+
+    /** The scratch Site */
+    private final Site site = new Site();
+
+    /** The scratch Source */
+    private final Source source = new Source();
+
+    /** The scratch Time */
+    private final Date time = new Date(0);
+
+    /**
+     * Materializes a pick from the batch into the scratch objects
+     *
+     * @param index - An int containing the index of the pick
+     * @return Returns the scratch Pick
+     */
+    private Pick load(int index) {
+      if (hasSite.get(index)) {
+        site.reload(
+            getString(StringColumn.STATION, index),
+            getString(StringColumn.CHANNEL, index),
+            getString(StringColumn.NETWORK, index),
+            getString(StringColumn.LOCATION, index),
+            getBoxedDouble(DoubleColumn.LATITUDE, index),
+            getBoxedDouble(DoubleColumn.LONGITUDE, index),
+            getBoxedDouble(DoubleColumn.ELEVATION, index));
+      }
+      if (hasSource.get(index)) {
+        source.reload(
+            getString(StringColumn.AGENCY_ID, index),
+            getString(StringColumn.AUTHOR, index),
+            getString(StringColumn.TYPE, index));
+      }
+      time.setTime(times[index]);
+
+      pick.reload(
+          ids[index],
+          hasSite.get(index) ? site : null,
+          hasSource.get(index) ? source : null,
+          hasTime.get(index) ? time : null,
+          getBoxedDouble(DoubleColumn.AFFINITY, index),
+          getBoxedDouble(DoubleColumn.QUALITY, index),
+          hasUse.get(index) ? Boolean.valueOf(useFlags.get(index)) : null,
+          getString(StringColumn.PICKED_PHASE, index),
+          getString(StringColumn.ASSOCIATED_PHASE, index),
+          getString(StringColumn.LOCATED_PHASE, index),
+          getBoxedDouble(DoubleColumn.RESIDUAL, index),
+          getBoxedDouble(DoubleColumn.DISTANCE, index),
+          getBoxedDouble(DoubleColumn.AZIMUTH, index),
+          getBoxedDouble(DoubleColumn.WEIGHT, index),
+          getBoxedDouble(DoubleColumn.IMPORTANCE, index));
+      return (pick);
+    }
+  }
+
+  /** Dictionary code used for null strings */
+  public static final int NULL_CODE = -1;
+
+  /** The default initial capacity */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /** The number of picks in the batch */
+  private int size;
+
+  /** Pick IDs, unique per pick so not dictionary encoded */
+  private String[] ids;
+
+  /** Pick times as epoch milliseconds */
+  private long[] times;
+
+  /** Presence mask for pick times */
+  private BitSet hasTime;
+
+  /** The double columns, indexed by DoubleColumn ordinal */
+  private double[][] doubles;
+
+  /** Presence masks for the double columns, indexed by DoubleColumn ordinal */
+  private BitSet[] hasDouble;
+
+  /** The dictionary codes of the string columns, indexed by StringColumn ordinal */
+  private int[][] codes;
+
+  /** The Use flag values */
+  private BitSet useFlags;
+
+  /** Presence mask for the Use flags */
+  private BitSet hasUse;
+
+  /** Presence mask for pick Sites */
+  private BitSet hasSite;
+
+  /** Presence mask for pick Sources */
+  private BitSet hasSource;
+
+  /** The string dictionary, indexed by code */
+  private ArrayList<String> dictionary;
+
+  /** The codes of the strings in the dictionary */
+  private HashMap<String, Integer> dictionaryCodes;
+
+  /** The constructor for the PickBatch class. Initializes an empty batch. */
+  public PickBatch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs an empty batch with the given initial capacity
+   *
+   * @param capacity - An int containing the number of picks to allocate space for
+   */
+  public PickBatch(int capacity) {
+    capacity = Math.max(capacity, 1);
+
+    size = 0;
+    ids = new String[capacity];
+    times = new long[capacity];
+    hasTime = new BitSet(capacity);
+    doubles = new double[DoubleColumn.values().length][capacity];
+    hasDouble = new BitSet[DoubleColumn.values().length];
+    for (int i = 0; i < hasDouble.length; i++) {
+      hasDouble[i] = new BitSet(capacity);
+    }
+    codes = new int[StringColumn.values().length][capacity];
+    useFlags = new BitSet(capacity);
+    hasUse = new BitSet(capacity);
+    hasSite = new BitSet(capacity);
+    hasSource = new BitSet(capacity);
+    dictionary = new ArrayList<String>();
+    dictionaryCodes = new HashMap<String, Integer>();
+  }
+
+  /**
+   * Constructs a batch from a list of picks
+   *
+   * @param picks - A List&lt;Pick&gt; containing the picks to add
+   */
+  public PickBatch(List<Pick> picks) {
+    this(picks.size());
+    for (int i = 0; i < picks.size(); i++) {
+      add(picks.get(i));
+    }
+  }
+
+  /**
+   * Gets the number of picks in the batch
+   *
+   * @return Returns the number of picks
+   */
+  public int size() {
+    return (size);
+  }
+
+  /**
+   * Checks whether the batch is empty
+   *
+   * @return Returns true if the batch contains no picks
+   */
+  public boolean isEmpty() {
+    return (size == 0);
+  }
+
+  /**
+   * Removes all picks from the batch, keeping the allocated arrays. The string dictionary is reset
+   * as well, so a batch reused for many requests does not keep every string it has seen.
+   */
+  public void clear() {
+    Arrays.fill(ids, 0, size, null);
+    hasTime.clear();
+    for (int i = 0; i < hasDouble.length; i++) {
+      hasDouble[i].clear();
+    }
+    useFlags.clear();
+    hasUse.clear();
+    hasSite.clear();
+    hasSource.clear();
+    dictionary.clear();
+    dictionaryCodes.clear();
+    size = 0;
+  }
+
+  /**
+   * Appends a pick to the batch
+   *
+   * @param pick - The Pick to add
+   * @return Returns the index of the added pick
+   */
+  public int add(Pick pick) {
+    if (size == ids.length) {
+      grow();
+    }
+    int index = size++;
+
+    ids[index] = pick.ID;
+
+    if (pick.Time != null) {
+      times[index] = pick.Time.getTime();
+      hasTime.set(index);
+    }
+
+    // Site
+    Site site = pick.Site;
+    if (site != null) {
+      hasSite.set(index);
+      setString(StringColumn.STATION, index, site.Station);
+      setString(StringColumn.CHANNEL, index, site.Channel);
+      setString(StringColumn.NETWORK, index, site.Network);
+      setString(StringColumn.LOCATION, index, site.Location);
+      setDouble(DoubleColumn.LATITUDE, index, site.Latitude);
+      setDouble(DoubleColumn.LONGITUDE, index, site.Longitude);
+      setDouble(DoubleColumn.ELEVATION, index, site.Elevation);
+    } else {
+      setString(StringColumn.STATION, index, null);
+      setString(StringColumn.CHANNEL, index, null);
+      setString(StringColumn.NETWORK, index, null);
+      setString(StringColumn.LOCATION, index, null);
+      setDouble(DoubleColumn.LATITUDE, index, null);
+      setDouble(DoubleColumn.LONGITUDE, index, null);
+      setDouble(DoubleColumn.ELEVATION, index, null);
+    }
+
+    // Source
+    Source source = pick.Source;
+    if (source != null) {
+      hasSource.set(index);
+      setString(StringColumn.AGENCY_ID, index, source.AgencyID);
+      setString(StringColumn.AUTHOR, index, source.Author);
+      setString(StringColumn.TYPE, index, source.Type);
+    } else {
+      setString(StringColumn.AGENCY_ID, index, null);
+      setString(StringColumn.AUTHOR, index, null);
+      setString(StringColumn.TYPE, index, null);
+    }
+
+    setDouble(DoubleColumn.AFFINITY, index, pick.Affinity);
+    setDouble(DoubleColumn.QUALITY, index, pick.Quality);
+
+    if (pick.Use != null) {
+      hasUse.set(index);
+      useFlags.set(index, pick.Use.booleanValue());
+    }
+
+    setString(StringColumn.PICKED_PHASE, index, pick.PickedPhase);
+    setString(StringColumn.ASSOCIATED_PHASE, index, pick.AssociatedPhase);
+    setString(StringColumn.LOCATED_PHASE, index, pick.LocatedPhase);
+    setDouble(DoubleColumn.RESIDUAL, index, pick.Residual);
+    setDouble(DoubleColumn.DISTANCE, index, pick.Distance);
+    setDouble(DoubleColumn.AZIMUTH, index, pick.Azimuth);
+    setDouble(DoubleColumn.WEIGHT, index, pick.Weight);
+    setDouble(DoubleColumn.IMPORTANCE, index, pick.Importance);
+
+    return (index);
+  }
+
+  /**
+   * Materializes a pick from the batch
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns a new Pick
+   */
+  public Pick get(int index) {
+    return (get(index, new Pick()));
+  }
+
+  /**
+   * Materializes a pick from the batch into an existing Pick, reloading it so any unknown keys or
+   * retained source text are discarded. The Site, Source, and Time are newly allocated rather than
+   * overwritten, since those of the existing Pick may be shared or interned.
+   *
+   * @param index - An int containing the index of the pick
+   * @param pick - The Pick to fill
+   * @return Returns the filled Pick
+   */
+  public Pick get(int index, Pick pick) {
+    checkIndex(index);
+
+    Site site = null;
+    if (hasSite.get(index)) {
+      site =
+          new Site(
+              getString(StringColumn.STATION, index),
+              getString(StringColumn.CHANNEL, index),
+              getString(StringColumn.NETWORK, index),
+              getString(StringColumn.LOCATION, index),
+              getBoxedDouble(DoubleColumn.LATITUDE, index),
+              getBoxedDouble(DoubleColumn.LONGITUDE, index),
+              getBoxedDouble(DoubleColumn.ELEVATION, index));
+    }
+
+    Source source = null;
+    if (hasSource.get(index)) {
+      source =
+          new Source(
+              getString(StringColumn.AGENCY_ID, index),
+              getString(StringColumn.AUTHOR, index),
+              getString(StringColumn.TYPE, index));
+    }
+
+    pick.reload(
+        ids[index],
+        site,
+        source,
+        hasTime.get(index) ? new Date(times[index]) : null,
+        getBoxedDouble(DoubleColumn.AFFINITY, index),
+        getBoxedDouble(DoubleColumn.QUALITY, index),
+        hasUse.get(index) ? Boolean.valueOf(useFlags.get(index)) : null,
+        getString(StringColumn.PICKED_PHASE, index),
+        getString(StringColumn.ASSOCIATED_PHASE, index),
+        getString(StringColumn.LOCATED_PHASE, index),
+        getBoxedDouble(DoubleColumn.RESIDUAL, index),
+        getBoxedDouble(DoubleColumn.DISTANCE, index),
+        getBoxedDouble(DoubleColumn.AZIMUTH, index),
+        getBoxedDouble(DoubleColumn.WEIGHT, index),
+        getBoxedDouble(DoubleColumn.IMPORTANCE, index));
+
+    return (pick);
+  }
+
+  /**
+   * Materializes all picks in the batch
+   *
+   * @return Returns an ArrayList&lt;Pick&gt; containing new Picks
+   */
+  public ArrayList<Pick> toPicks() {
+    ArrayList<Pick> picks = new ArrayList<Pick>(size);
+    for (int i = 0; i < size; i++) {
+      picks.add(get(i));
+    }
+    return (picks);
+  }
+
+  /**
+   * Gets the ID of a pick
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns the ID, null if absent
+   */
+  public String getID(int index) {
+    checkIndex(index);
+    return (ids[index]);
+  }
+
+  /**
+   * Checks whether a pick has a Time
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns true if the Time is present
+   */
+  public boolean hasTime(int index) {
+    checkIndex(index);
+    return (hasTime.get(index));
+  }
+
+  /**
+   * Gets the Time of a pick as epoch milliseconds
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns the epoch milliseconds, 0 if absent
+   */
+  public long getTime(int index) {
+    checkIndex(index);
+    return (times[index]);
+  }
+
+  /**
+   * Checks whether a pick has a value in a double column
+   *
+   * @param column - The DoubleColumn to check
+   * @param index - An int containing the index of the pick
+   * @return Returns true if the value is present
+   */
+  public boolean hasDouble(DoubleColumn column, int index) {
+    checkIndex(index);
+    return (hasDouble[column.ordinal()].get(index));
+  }
+
+  /**
+   * Gets a value from a double column
+   *
+   * @param column - The DoubleColumn to read
+   * @param index - An int containing the index of the pick
+   * @return Returns the value, 0 if absent
+   */
+  public double getDouble(DoubleColumn column, int index) {
+    checkIndex(index);
+    return (doubles[column.ordinal()][index]);
+  }
+
+  /**
+   * Sets a value in a double column, such as a computed Distance or Azimuth
+   *
+   * @param column - The DoubleColumn to write
+   * @param index - An int containing the index of the pick
+   * @param value - A double containing the value
+   */
+  public void setDouble(DoubleColumn column, int index, double value) {
+    checkIndex(index);
+    doubles[column.ordinal()][index] = value;
+    hasDouble[column.ordinal()].set(index);
+  }
+
+  /**
+   * Gets the backing array of a double column for tight loops. Only the first size() entries are
+   * meaningful, absent values are 0, and the array must not be modified.
+   *
+   * @param column - The DoubleColumn to get
+   * @return Returns the backing double[]
+   */
+  public double[] getDoubleColumn(DoubleColumn column) {
+    return (doubles[column.ordinal()]);
+  }
+
+  /**
+   * Gets a value from a string column
+   *
+   * @param column - The StringColumn to read
+   * @param index - An int containing the index of the pick
+   * @return Returns the String, null if absent
+   */
+  public String getString(StringColumn column, int index) {
+    int code = getCode(column, index);
+    return (code == NULL_CODE ? null : dictionary.get(code));
+  }
+
+  /**
+   * Gets the dictionary code of a value in a string column, equal strings share a code
+   *
+   * @param column - The StringColumn to read
+   * @param index - An int containing the index of the pick
+   * @return Returns the dictionary code, NULL_CODE if absent
+   */
+  public int getCode(StringColumn column, int index) {
+    checkIndex(index);
+    return (codes[column.ordinal()][index]);
+  }
+
+  /**
+   * Gets the string for a dictionary code
+   *
+   * @param code - An int containing the dictionary code
+   * @return Returns the String, null for NULL_CODE
+   */
+  public String getDictionaryString(int code) {
+    return (code == NULL_CODE ? null : dictionary.get(code));
+  }
+
+  /**
+   * Gets the number of distinct strings in the dictionary
+   *
+   * @return Returns the dictionary size
+   */
+  public int getDictionarySize() {
+    return (dictionary.size());
+  }
+
+  /**
+   * Checks whether a pick has a Use flag
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns true if the Use flag is present
+   */
+  public boolean hasUse(int index) {
+    checkIndex(index);
+    return (hasUse.get(index));
+  }
+
+  /**
+   * Gets the Use flag of a pick
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns the Use flag, false if absent
+   */
+  public boolean getUse(int index) {
+    checkIndex(index);
+    return (useFlags.get(index));
+  }
+
+  /**
+   * Checks whether a pick has a Site
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns true if the Site is present
+   */
+  public boolean hasSite(int index) {
+    checkIndex(index);
+    return (hasSite.get(index));
+  }
+
+  /**
+   * Checks whether a pick has a Source
+   *
+   * @param index - An int containing the index of the pick
+   * @return Returns true if the Source is present
+   */
+  public boolean hasSource(int index) {
+    checkIndex(index);
+    return (hasSource.get(index));
+  }
+
+  /**
+   * Converts the contents of the batch to a json array of pick objects, materializing each pick
+   *
+   * @return Returns a JSONArray containing the batch contents
+   */
+  @SuppressWarnings("unchecked")
+  public JSONArray toJSON() {
+    JSONArray newJSONArray = new JSONArray();
+    Pick pick = new Pick();
+    for (int i = 0; i < size; i++) {
+      newJSONArray.add(get(i, pick).toJSON());
+    }
+    return (newJSONArray);
+  }
+
+  /**
+   * Writes the contents of the batch to a JSONStreamWriter as an array of pick objects, producing
+   * the same text as writing the materialized picks. Values are written straight from the columns,
+   * so no objects are allocated per pick.
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    StringBuilder time = new StringBuilder();
+
+    writer.beginArray();
+    for (int i = 0; i < size; i++) {
+      writer.beginObject();
+
+      // ID
+      if (ids[i] != null) {
+        writer.name(Pick.ID_KEY).value(ids[i]);
+      }
+
+      // Site, in the order of Site.writeJSON()
+      if (hasSite.get(i)) {
+        writer.name(Pick.SITE_KEY).beginObject();
+        writeString(writer, Site.STATION_KEY, StringColumn.STATION, i, true);
+        writeString(writer, Site.NETWORK_KEY, StringColumn.NETWORK, i, true);
+        writeDouble(writer, Site.LATITUDE_KEY, DoubleColumn.LATITUDE, i);
+        writeDouble(writer, Site.LONGITUDE_KEY, DoubleColumn.LONGITUDE, i);
+        writeDouble(writer, Site.ELEVATION_KEY, DoubleColumn.ELEVATION, i);
+        writeString(writer, Site.CHANNEL_KEY, StringColumn.CHANNEL, i, true);
+        writeString(writer, Site.LOCATION_KEY, StringColumn.LOCATION, i, true);
+        writer.endObject();
+      }
+
+      // Source
+      if (hasSource.get(i)) {
+        writer.name(Pick.SOURCE_KEY).beginObject();
+        writeString(writer, Source.AGENCYID_KEY, StringColumn.AGENCY_ID, i, true);
+        writeString(writer, Source.AUTHOR_KEY, StringColumn.AUTHOR, i, true);
+        writeString(writer, Source.TYPE_KEY, StringColumn.TYPE, i, true);
+        writer.endObject();
+      }
+
+      // Time, formatted into a reused builder
+      if (hasTime.get(i)) {
+        time.setLength(0);
+        time.append('"');
+        DateTimeCodec.format(times[i], time);
+        time.append('"');
+        writer.name(Pick.TIME_KEY).rawValue(time);
+      }
+
+      writeDouble(writer, Pick.AFFINITY_KEY, DoubleColumn.AFFINITY, i);
+      writeDouble(writer, Pick.QUALITY_KEY, DoubleColumn.QUALITY, i);
+
+      // Use
+      if (hasUse.get(i)) {
+        writer.name(Pick.USE_KEY).value(Boolean.valueOf(useFlags.get(i)));
+      }
+
+      writeString(writer, Pick.PICKED_PHASE_KEY, StringColumn.PICKED_PHASE, i, false);
+      writeString(writer, Pick.ASSOCIATED_PHASE_KEY, StringColumn.ASSOCIATED_PHASE, i, false);
+      writeString(writer, Pick.LOCATED_PHASE_KEY, StringColumn.LOCATED_PHASE, i, false);
+      writeDouble(writer, Pick.RESIDUAL_KEY, DoubleColumn.RESIDUAL, i);
+      writeDouble(writer, Pick.DISTANCE_KEY, DoubleColumn.DISTANCE, i);
+      writeDouble(writer, Pick.AZIMUTH_KEY, DoubleColumn.AZIMUTH, i);
+      writeDouble(writer, Pick.WEIGHT_KEY, DoubleColumn.WEIGHT, i);
+      writeDouble(writer, Pick.IMPORTANCE_KEY, DoubleColumn.IMPORTANCE, i);
+
+      writer.endObject();
+    }
+    writer.endArray();
+  }
+
+  /**
+   * Validates the picks in the batch, and reports invalid picks to an ErrorSink the same way as
+   * ErrorCollector.validateList(). Each pick is materialized into a scratch Pick, Site, Source, and
+   * Date reused by each task, so only the boxed numeric values are allocated per pick.
+   *
+   * @param sink - The ErrorSink to report to
+   * @param prefix - A String containing the start of the message, e.g. "Invalid Pick"
+   * @param suffix - A String containing the rest of the message
+   * @return Returns true if all picks are valid
+   */
+  public boolean validate(ErrorSink sink, String prefix, String suffix) {
+    if (size < sink.getParallelThreshold()) {
+      // a single walk of each pick
+      Scratch pick = new Scratch();
+      ErrorCollector scratch = (sink != ErrorSink.FAIL_FAST) ? new ErrorCollector() : null;
+      boolean valid = true;
+      for (int i = 0; i < size; i++) {
+        if (!ErrorCollector.validateElement(pick.load(i), i, sink, prefix, suffix, scratch)) {
+          valid = false;
+          if (!sink.isExhaustive()) {
+            break;
+          }
+        }
+      }
+      return (valid);
+    }
+
+    int[] invalid =
+        ErrorCollector.findInvalid(
+            size,
+            () -> {
+              Scratch scratch = new Scratch();
+              return (i -> !scratch.load(i).isValid());
+            },
+            sink);
+
+    Scratch pick = new Scratch();
+    for (int index : invalid) {
+      ErrorCollector.reportElement(pick.load(index), index, sink, prefix, suffix, true);
+    }
+
+    return (invalid.length == 0);
+  }
+
+  /**
+   * Writes a value of a double column as an object member, if present
+   *
+   * @param writer - The JSONStreamWriter to write to
+   * @param key - A String containing the member name
+   * @param column - The DoubleColumn to read
+   * @param index - An int containing the index of the pick
+   * @throws IOException if the underlying Appendable fails
+   */
+  private void writeDouble(JSONStreamWriter writer, String key, DoubleColumn column, int index)
+      throws IOException {
+    if (hasDouble[column.ordinal()].get(index)) {
+      writer.name(key).value(doubles[column.ordinal()][index]);
+    }
+  }
+
+  /**
+   * Writes a value of a string column as an object member, if present
+   *
+   * @param writer - The JSONStreamWriter to write to
+   * @param key - A String containing the member name
+   * @param column - The StringColumn to read
+   * @param index - An int containing the index of the pick
+   * @param skipEmpty - A boolean flag indicating whether empty strings are omitted, as Site and
+   *     Source do
+   * @throws IOException if the underlying Appendable fails
+   */
+  private void writeString(
+      JSONStreamWriter writer, String key, StringColumn column, int index, boolean skipEmpty)
+      throws IOException {
+    int code = codes[column.ordinal()][index];
+    if (code == NULL_CODE) {
+      return;
+    }
+    String value = dictionary.get(code);
+    if (!skipEmpty || !value.isEmpty()) {
+      writer.name(key).value(value);
+    }
+  }
+
+  /**
+   * Stores a value in a double column
+   *
+   * @param column - The DoubleColumn to write
+   * @param index - An int containing the index of the pick
+   * @param value - A Double containing the value, null if absent
+   */
+  private void setDouble(DoubleColumn column, int index, Double value) {
+    if (value != null) {
+      doubles[column.ordinal()][index] = value.doubleValue();
+      hasDouble[column.ordinal()].set(index);
+    } else {
+      doubles[column.ordinal()][index] = 0;
+    }
+  }
+
+  /**
+   * Gets a value from a double column as a Double
+   *
+   * @param column - The DoubleColumn to read
+   * @param index - An int containing the index of the pick
+   * @return Returns the Double, null if absent
+   */
+  private Double getBoxedDouble(DoubleColumn column, int index) {
+    if (hasDouble[column.ordinal()].get(index)) {
+      return (Double.valueOf(doubles[column.ordinal()][index]));
+    }
+    return (null);
+  }
+
+  /**
+   * Stores a value in a string column, adding it to the dictionary if needed
+   *
+   * @param column - The StringColumn to write
+   * @param index - An int containing the index of the pick
+   * @param value - A String containing the value, null if absent
+   */
+  private void setString(StringColumn column, int index, String value) {
+    int code = NULL_CODE;
+    if (value != null) {
+      Integer existing = dictionaryCodes.get(value);
+      if (existing != null) {
+        code = existing.intValue();
+      } else {
+        code = dictionary.size();
+        dictionary.add(value);
+        dictionaryCodes.put(value, Integer.valueOf(code));
+      }
+    }
+    codes[column.ordinal()][index] = code;
+  }
+
+  /** Doubles the capacity of the column arrays */
+  private void grow() {
+    int capacity = ids.length * 2;
+    ids = Arrays.copyOf(ids, capacity);
+    times = Arrays.copyOf(times, capacity);
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = Arrays.copyOf(doubles[i], capacity);
+    }
+    for (int i = 0; i < codes.length; i++) {
+      codes[i] = Arrays.copyOf(codes[i], capacity);
+    }
+  }
+
+  /**
+   * Checks that an index is within the batch
+   *
+   * @param index - An int containing the index to check
+   */
+  private void checkIndex(int index) {
+    if ((index < 0) || (index >= size)) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+  }
+}
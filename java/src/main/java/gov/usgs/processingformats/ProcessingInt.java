@@ -1,5 +1,10 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import org.json.simple.JSONObject;
 
@@ -9,4 +14,55 @@ public interface ProcessingInt {
   public boolean isValid();
 
   public ArrayList<String> getErrors();
+
+  /**
+   * Validates the class in a single walk of its contents, reporting any errors to an ErrorSink. The
+   * default implementation reports the results of getErrors(), classes override it and implement
+   * isValid() and getErrors() on top of it.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public default boolean validate(ErrorSink sink) {
+    ArrayList<String> errorList = getErrors();
+    for (String error : errorList) {
+      sink.add(error);
+    }
+    return (errorList.isEmpty());
+  }
+
+  /**
+   * Writes the contents of the class to a JSONStreamWriter as a JSON object. The default
+   * implementation serializes toJSON(), classes override it to write without intermediate objects.
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public default void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.rawValue(Utility.toJSONString(toJSON()));
+  }
+
+  /**
+   * Writes the contents of the class as serialized JSON to an Appendable, containing the same keys
+   * and values as Utility.toJSONString(toJSON())
+   *
+   * @param out - An Appendable to write to
+   * @throws IOException if the Appendable fails
+   */
+  public default void writeTo(Appendable out) throws IOException {
+    writeJSON(new JSONStreamWriter(out));
+  }
+
+  /**
+   * Writes the contents of the class as UTF-8 encoded serialized JSON to an OutputStream. The
+   * stream is flushed but not closed.
+   *
+   * @param out - An OutputStream to write to
+   * @throws IOException if the OutputStream fails
+   */
+  public default void writeTo(OutputStream out) throws IOException {
+    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    writeTo(writer);
+    writer.flush();
+  }
 }
@@ -0,0 +1,541 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * an object pool class used to recycle LocationRequest, Pick, Site, Source, and pick list instances
+ * between decodes, so a long running consumer decoding a stream of requests through
+ * LocationRequestReader allocates next to nothing in the steady state.
+ *
+ * <p>Ownership rules:
+ *
+ * <ul>
+ *   <li>An object taken from a pool, directly or through a pool aware LocationRequestReader method,
+ *       belongs to the caller until it is passed to recycle().
+ *   <li>recycle() takes back the object and everything the pool hands out that it references: a
+ *       LocationRequest brings its Source, InputData list, and picks with them, and a Pick brings
+ *       its Site and Source. After recycle() the caller must not keep or use any of them; copy
+ *       anything that has to outlive the request first.
+ *   <li>Never recycle an object that is shared with other code, such as a Site from a registry, or
+ *       that is referenced from two places, such as a Site used by two picks.
+ *   <li>A pool is not thread safe. Each thread uses its own, from current(). Recycling into a
+ *       different thread's pool than the one an object came from is allowed.
+ * </ul>
+ *
+ * <p>In debug mode, enabled by the constructor or the gov.usgs.processingformats.pool.debug system
+ * property, recycled objects are poisoned: their strings read RECYCLED and their numbers NaN, so
+ * use after recycle shows up in output and fails validation. Taking an object back out checks that
+ * nothing wrote to it while it was pooled, and recycling an object twice is rejected; both throw an
+ * IllegalStateException whose cause is the stack trace of the recycle.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class ProcessingPool {
+  /** The default maximum number of pooled objects of each type */
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
+  /** The system property enabling debug mode for default pools */
+  public static final String DEBUG_PROPERTY = "gov.usgs.processingformats.pool.debug";
+
+  /** The value of strings in poisoned objects */
+  public static final String RECYCLED = new String("RECYCLED");
+
+  /** The value of numbers in poisoned objects, compared by identity */
+  private static final Double POISON = Double.valueOf(Double.NaN);
+
+  /** A LocationRequest holding the constructor defaults */
+  private static final LocationRequest DEFAULTS = new LocationRequest();
+
+  /** The pool of the current thread */
+  private static final ThreadLocal<ProcessingPool> CURRENT =
+      ThreadLocal.withInitial(ProcessingPool::new);
+
+  /** The maximum number of pooled objects of each type */
+  private final int maxSize;
+
+  /** Whether debug mode is enabled */
+  private final boolean debug;
+
+  /** The pooled objects */
+  private final ArrayDeque<LocationRequest> requests = new ArrayDeque<LocationRequest>();
+
+  private final ArrayDeque<Pick> picks = new ArrayDeque<Pick>();
+  private final ArrayDeque<Site> sites = new ArrayDeque<Site>();
+  private final ArrayDeque<Source> sources = new ArrayDeque<Source>();
+  private final ArrayDeque<ArrayList<Pick>> lists = new ArrayDeque<ArrayList<Pick>>();
+
+  /** In debug mode, where each pooled object was recycled */
+  private final IdentityHashMap<Object, Throwable> recycled;
+
+  /** The number of objects created */
+  private long created;
+
+  /** The number of objects reused */
+  private long reused;
+
+  /**
+   * Gets the pool of the current thread
+   *
+   * @return Returns the ProcessingPool
+   */
+  public static ProcessingPool current() {
+    return (CURRENT.get());
+  }
+
+  /** Creates a pool of the default size, in debug mode if the debug system property is true */
+  public ProcessingPool() {
+    this(DEFAULT_MAX_SIZE, Boolean.getBoolean(DEBUG_PROPERTY));
+  }
+
+  /**
+   * Creates a pool
+   *
+   * @param maxSize - An int containing the maximum number of pooled objects of each type, further
+   *     recycled objects are left to the garbage collector
+   * @param debug - A boolean flag indicating whether to detect use after recycle
+   */
+  public ProcessingPool(int maxSize, boolean debug) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Invalid maximum size " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.debug = debug;
+    recycled = debug ? new IdentityHashMap<Object, Throwable>() : null;
+  }
+
+  /**
+   * Gets an empty LocationRequest, with the constructor defaults
+   *
+   * @return Returns the LocationRequest
+   */
+  public LocationRequest newLocationRequest() {
+    LocationRequest request = take(requests);
+    if (request == null) {
+      return (new LocationRequest());
+    }
+    if (debug && !isPoisoned(request)) {
+      throw modified(request);
+    }
+    reset(request);
+    return (request);
+  }
+
+  /**
+   * Gets an empty Pick
+   *
+   * @return Returns the Pick
+   */
+  public Pick newPick() {
+    Pick pick = take(picks);
+    if (pick == null) {
+      return (new Pick());
+    }
+    if (debug && !isPoisoned(pick)) {
+      throw modified(pick);
+    }
+    reset(pick);
+    return (pick);
+  }
+
+  /**
+   * Gets an empty Site
+   *
+   * @return Returns the Site
+   */
+  public Site newSite() {
+    Site site = take(sites);
+    if (site == null) {
+      return (new Site());
+    }
+    if (debug && !isPoisoned(site)) {
+      throw modified(site);
+    }
+    reset(site);
+    return (site);
+  }
+
+  /**
+   * Gets an empty Source
+   *
+   * @return Returns the Source
+   */
+  public Source newSource() {
+    Source source = take(sources);
+    if (source == null) {
+      return (new Source());
+    }
+    if (debug && !isPoisoned(source)) {
+      throw modified(source);
+    }
+    reset(source);
+    return (source);
+  }
+
+  /**
+   * Gets an empty list of picks
+   *
+   * @return Returns the ArrayList&lt;Pick&gt;
+   */
+  public ArrayList<Pick> newPickList() {
+    ArrayList<Pick> list = take(lists);
+    if (list == null) {
+      return (new ArrayList<Pick>());
+    }
+    if (debug) {
+      Throwable where = recycled.remove(list);
+      if (!list.isEmpty()) {
+        throw new IllegalStateException("ArrayList used after recycle", where);
+      }
+    }
+    return (list);
+  }
+
+  /**
+   * Recycles a LocationRequest with its Source, InputData list and picks. Its OutputData and
+   * InputBatch are not pooled.
+   *
+   * @param request - The LocationRequest to recycle, may be null
+   */
+  public void recycle(LocationRequest request) {
+    if (request == null) {
+      return;
+    }
+    checkRecycled(request);
+    recycle(request.Source);
+    recycle(request.InputData);
+
+    if (debug) {
+      request.reload(
+          RECYCLED, null, RECYCLED, RECYCLED, RECYCLED, POISON, POISON, null, POISON, null, null,
+          null, null, null, POISON, POISON, null, null);
+    } else {
+      request.Source = null;
+      request.InputData = null;
+      request.OutputData = null;
+    }
+    request.InputBatch = null;
+    give(requests, request);
+  }
+
+  /**
+   * Recycles a list of picks with the picks in it
+   *
+   * @param list - The ArrayList&lt;Pick&gt; to recycle, may be null
+   */
+  public void recycle(ArrayList<Pick> list) {
+    if (list == null) {
+      return;
+    }
+    checkRecycled(list);
+    for (Pick pick : list) {
+      recycle(pick);
+    }
+    list.clear();
+    give(lists, list);
+  }
+
+  /**
+   * Recycles a Pick with its Site and Source
+   *
+   * @param pick - The Pick to recycle, may be null
+   */
+  public void recycle(Pick pick) {
+    if (pick == null) {
+      return;
+    }
+    checkRecycled(pick);
+    recycle(pick.Site);
+    recycle(pick.Source);
+
+    if (debug) {
+      pick.reload(
+          RECYCLED, null, null, null, POISON, POISON, null, RECYCLED, RECYCLED, RECYCLED, POISON,
+          POISON, POISON, POISON, POISON);
+    } else {
+      pick.Site = null;
+      pick.Source = null;
+    }
+    give(picks, pick);
+  }
+
+  /**
+   * Recycles a Site
+   *
+   * @param site - The Site to recycle, may be null
+   */
+  public void recycle(Site site) {
+    if (site == null) {
+      return;
+    }
+    checkRecycled(site);
+    if (debug) {
+      site.reload(RECYCLED, RECYCLED, RECYCLED, RECYCLED, POISON, POISON, POISON);
+    }
+    give(sites, site);
+  }
+
+  /**
+   * Recycles a Source
+   *
+   * @param source - The Source to recycle, may be null
+   */
+  public void recycle(Source source) {
+    if (source == null) {
+      return;
+    }
+    checkRecycled(source);
+    if (debug) {
+      source.reload(RECYCLED, RECYCLED, RECYCLED);
+    }
+    give(sources, source);
+  }
+
+  /**
+   * Gets whether debug mode is enabled
+   *
+   * @return Returns true if use after recycle is detected
+   */
+  public boolean isDebug() {
+    return (debug);
+  }
+
+  /**
+   * Gets the number of objects created because the pool was empty
+   *
+   * @return Returns the number of objects created
+   */
+  public long getCreatedCount() {
+    return (created);
+  }
+
+  /**
+   * Gets the number of objects reused from the pool
+   *
+   * @return Returns the number of objects reused
+   */
+  public long getReusedCount() {
+    return (reused);
+  }
+
+  /**
+   * Gets the number of pooled objects of all types
+   *
+   * @return Returns the number of pooled objects
+   */
+  public int getSize() {
+    return (requests.size() + picks.size() + sites.size() + sources.size() + lists.size());
+  }
+
+  /** Empties the pool */
+  public void clear() {
+    requests.clear();
+    picks.clear();
+    sites.clear();
+    sources.clear();
+    lists.clear();
+    if (debug) {
+      recycled.clear();
+    }
+  }
+
+  /**
+   * Resets a LocationRequest to the state of a newly constructed one
+   *
+   * @param request - The LocationRequest to reset
+   */
+  static void reset(LocationRequest request) {
+    request.reload(
+        null,
+        null,
+        null,
+        DEFAULTS.EarthModel,
+        DEFAULTS.SlabResolution,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
+    request.InputBatch = null;
+  }
+
+  /**
+   * Resets a Pick to the state of a newly constructed one
+   *
+   * @param pick - The Pick to reset
+   */
+  static void reset(Pick pick) {
+    pick.reload(
+        null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+  }
+
+  /**
+   * Resets a Site to the state of a newly constructed one
+   *
+   * @param site - The Site to reset
+   */
+  static void reset(Site site) {
+    site.reload(null, null, null, null, null, null, null);
+  }
+
+  /**
+   * Resets a Source to the state of a newly constructed one
+   *
+   * @param source - The Source to reset
+   */
+  static void reset(Source source) {
+    source.reload(null, null, null);
+  }
+
+  /**
+   * Takes an object from a pool
+   *
+   * @param <T> - The type of the objects
+   * @param pool - The pool
+   * @return Returns the object, or null if the pool is empty
+   */
+  private <T> T take(ArrayDeque<T> pool) {
+    T object = pool.pollLast();
+    if (object == null) {
+      created++;
+      return (null);
+    }
+    reused++;
+    return (object);
+  }
+
+  /**
+   * Returns an object to a pool, unless the pool is full
+   *
+   * @param <T> - The type of the objects
+   * @param pool - The pool
+   * @param object - The object
+   */
+  private <T> void give(ArrayDeque<T> pool, T object) {
+    if (pool.size() < maxSize) {
+      pool.addLast(object);
+      if (debug) {
+        recycled.put(object, new Throwable("Recycled here"));
+      }
+    }
+  }
+
+  /**
+   * In debug mode, rejects recycling an object that is already pooled
+   *
+   * @param object - The object being recycled
+   */
+  private void checkRecycled(Object object) {
+    if (debug && recycled.containsKey(object)) {
+      throw new IllegalStateException(
+          object.getClass().getSimpleName() + " recycled twice", recycled.get(object));
+    }
+  }
+
+  /**
+   * Builds the exception for an object that was modified while pooled
+   *
+   * @param object - The object
+   * @return Returns the IllegalStateException
+   */
+  private IllegalStateException modified(Object object) {
+    return (new IllegalStateException(
+        object.getClass().getSimpleName() + " used after recycle", recycled.remove(object)));
+  }
+
+  /**
+   * Checks whether a pooled LocationRequest still holds its poison
+   *
+   * @param request - The LocationRequest
+   * @return Returns true if nothing wrote to it
+   */
+  private boolean isPoisoned(LocationRequest request) {
+    boolean poisoned =
+        request.ID == RECYCLED
+            && request.Source == null
+            && request.Type == RECYCLED
+            && request.EarthModel == RECYCLED
+            && request.SlabResolution == RECYCLED
+            && request.SourceLatitude == POISON
+            && request.SourceLongitude == POISON
+            && request.SourceOriginTime == null
+            && request.SourceDepth == POISON
+            && request.InputData == null
+            && request.InputBatch == null
+            && request.IsLocationNew == null
+            && request.IsLocationHeld == null
+            && request.IsDepthHeld == null
+            && request.IsBayesianDepth == null
+            && request.BayesianDepth == POISON
+            && request.BayesianSpread == POISON
+            && request.UseSVD == null
+            && request.ReassessInitialPhaseIDs == null
+            && request.OutputData == null;
+    return (poisoned && recycled.remove(request) != null);
+  }
+
+  /**
+   * Checks whether a pooled Pick still holds its poison
+   *
+   * @param pick - The Pick
+   * @return Returns true if nothing wrote to it
+   */
+  private boolean isPoisoned(Pick pick) {
+    boolean poisoned =
+        pick.ID == RECYCLED
+            && pick.Site == null
+            && pick.Source == null
+            && pick.Time == null
+            && pick.Affinity == POISON
+            && pick.Quality == POISON
+            && pick.Use == null
+            && pick.PickedPhase == RECYCLED
+            && pick.AssociatedPhase == RECYCLED
+            && pick.LocatedPhase == RECYCLED
+            && pick.Residual == POISON
+            && pick.Distance == POISON
+            && pick.Azimuth == POISON
+            && pick.Weight == POISON
+            && pick.Importance == POISON;
+    return (poisoned && recycled.remove(pick) != null);
+  }
+
+  /**
+   * Checks whether a pooled Site still holds its poison
+   *
+   * @param site - The Site
+   * @return Returns true if nothing wrote to it
+   */
+  private boolean isPoisoned(Site site) {
+    boolean poisoned =
+        site.Station == RECYCLED
+            && site.Channel == RECYCLED
+            && site.Network == RECYCLED
+            && site.Location == RECYCLED
+            && site.Latitude == POISON
+            && site.Longitude == POISON
+            && site.Elevation == POISON;
+    return (poisoned && recycled.remove(site) != null);
+  }
+
+  /**
+   * Checks whether a pooled Source still holds its poison
+   *
+   * @param source - The Source
+   * @return Returns true if nothing wrote to it
+   */
+  private boolean isPoisoned(Source source) {
+    boolean poisoned =
+        source.AgencyID == RECYCLED && source.Author == RECYCLED && source.Type == RECYCLED;
+    return (poisoned && recycled.remove(source) != null);
+  }
+}
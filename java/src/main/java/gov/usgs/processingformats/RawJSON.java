@@ -0,0 +1,240 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.simple.JSONAware;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+
+/**
+ * a class used to hold a range of encoded JSON text, so a value can be written back out verbatim.
+ *
+ * <p>Picks, Sites, and Sources decoded by a JSONStreamReader with setRetainSource(true) keep the
+ * range of text they were decoded from, and writeJSON() copies it instead of re-encoding the object
+ * until the object is reloaded or marked dirty. LocationRequests, Picks, Sites, and Sources also
+ * keep the values of keys they do not know in UnknownKeys, as RawJSON when the source is retained
+ * and as org.json.simple values otherwise, so they survive a round trip.
+ *
+ * <p>A RawJSON shares the character array it was read from, which must not be modified.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public final class RawJSON implements JSONAware {
+
+  /** The encoded text */
+  private final char[] text;
+
+  /** The index of the first character of the value */
+  private final int start;
+
+  /** The index after the last character of the value */
+  private final int end;
+
+  /**
+   * Constructs the class from a range of a character array
+   *
+   * @param newText - A char[] containing the encoded text, used in place
+   * @param newStart - An int containing the index of the first character of the value
+   * @param newEnd - An int containing the index after the last character of the value
+   */
+  public RawJSON(char[] newText, int newStart, int newEnd) {
+    if ((newStart < 0) || (newEnd > newText.length) || (newStart > newEnd)) {
+      throw new IndexOutOfBoundsException("Invalid range " + newStart + " to " + newEnd);
+    }
+    text = newText;
+    start = newStart;
+    end = newEnd;
+  }
+
+  /**
+   * Constructs the class from a String containing an encoded value
+   *
+   * @param json - A String containing the encoded value
+   */
+  public RawJSON(String json) {
+    this(json.toCharArray(), 0, json.length());
+  }
+
+  /**
+   * Gets the length of the encoded value
+   *
+   * @return Returns the number of characters in the value
+   */
+  public int length() {
+    return (end - start);
+  }
+
+  /**
+   * Writes the encoded value to a JSONStreamWriter verbatim
+   *
+   * @param writer - The JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.rawValue(text, start, end - start);
+  }
+
+  /**
+   * Gets the encoded value, used when a JSONObject holding it is serialized
+   *
+   * @return Returns a String containing the encoded value
+   */
+  public String toJSONString() {
+    return (new String(text, start, end - start));
+  }
+
+  /**
+   * Gets the encoded value
+   *
+   * @return Returns a String containing the encoded value
+   */
+  @Override
+  public String toString() {
+    return (toJSONString());
+  }
+
+  /**
+   * Compares the encoded text of two values
+   *
+   * @param other - The object to compare to
+   * @return Returns true if other is a RawJSON holding the same text
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return (true);
+    }
+    if (!(other instanceof RawJSON)) {
+      return (false);
+    }
+
+    RawJSON raw = (RawJSON) other;
+    return (Arrays.equals(text, start, end, raw.text, raw.start, raw.end));
+  }
+
+  /**
+   * Hashes the encoded text
+   *
+   * @return Returns the hash code
+   */
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + text[i];
+    }
+    return (hash);
+  }
+
+  /**
+   * Collects the values of the keys of a JSONObject that are not known
+   *
+   * @param json - The JSONObject
+   * @param knownKeys - A String[] containing the known keys
+   * @return Returns a LinkedHashMap of the unknown keys and values, or null if there are none
+   */
+  static LinkedHashMap<String, Object> readUnknownKeys(JSONObject json, String[] knownKeys) {
+    LinkedHashMap<String, Object> unknownKeys = null;
+
+    for (Object key : json.keySet()) {
+      String name = key.toString();
+      boolean known = false;
+      for (String knownKey : knownKeys) {
+        if (knownKey.equals(name)) {
+          known = true;
+          break;
+        }
+      }
+
+      if (!known) {
+        if (unknownKeys == null) {
+          unknownKeys = new LinkedHashMap<String, Object>();
+        }
+        unknownKeys.put(name, json.get(key));
+      }
+    }
+
+    return (unknownKeys);
+  }
+
+  /**
+   * Reads the value of an unknown key from a JSONStreamReader, just after its name was read
+   *
+   * @param reader - The JSONStreamReader to read from
+   * @param unknownKeys - The LinkedHashMap of unknown keys so far, or null
+   * @return Returns the LinkedHashMap of unknown keys including this one
+   * @throws IOException if the source fails
+   * @throws ParseException if the JSON is malformed
+   */
+  static LinkedHashMap<String, Object> readUnknownKey(
+      JSONStreamReader reader, LinkedHashMap<String, Object> unknownKeys)
+      throws IOException, ParseException {
+    String name = reader.currentName();
+
+    Object value;
+    if (reader.isRetainingSource()) {
+      char[] text = reader.getText();
+      int valueStart = (int) reader.getPosition();
+      while ((valueStart < text.length)
+          && ((text[valueStart] == ':') || Character.isWhitespace(text[valueStart]))) {
+        valueStart++;
+      }
+      reader.skipValue();
+      value = new RawJSON(text, valueStart, (int) reader.getPosition());
+    } else {
+      value = reader.nextValue();
+    }
+
+    if (unknownKeys == null) {
+      unknownKeys = new LinkedHashMap<String, Object>();
+    }
+    unknownKeys.put(name, value);
+    return (unknownKeys);
+  }
+
+  /**
+   * Adds unknown keys to a JSONObject, without replacing known keys
+   *
+   * @param json - The JSONObject to add to
+   * @param unknownKeys - The Map of unknown keys, or null
+   */
+  @SuppressWarnings("unchecked")
+  static void putUnknownKeys(JSONObject json, Map<String, Object> unknownKeys) {
+    if (unknownKeys == null) {
+      return;
+    }
+
+    for (Map.Entry<String, Object> entry : unknownKeys.entrySet()) {
+      if (!json.containsKey(entry.getKey())) {
+        json.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Writes unknown keys to a JSONStreamWriter, the writer must be inside an object
+   *
+   * @param writer - The JSONStreamWriter to write to
+   * @param unknownKeys - The Map of unknown keys, or null
+   * @throws IOException if the underlying Appendable fails
+   */
+  static void writeUnknownKeys(JSONStreamWriter writer, Map<String, Object> unknownKeys)
+      throws IOException {
+    if (unknownKeys == null) {
+      return;
+    }
+
+    for (Map.Entry<String, Object> entry : unknownKeys.entrySet()) {
+      writer.name(entry.getKey());
+      Object value = entry.getValue();
+      if (value instanceof RawJSON) {
+        ((RawJSON) value).writeJSON(writer);
+      } else {
+        writer.rawValue(JSONValue.toJSONString(value));
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * a decorator class used to add sessions to another LocationService, holding the last request of
+ * each session so relocations can be requested with LocationRequestDeltas.
+ *
+ * <p>Processing a LocationRequest with an ID holds it as the session with that ID once it has been
+ * located. Each delta is validated on its own, applied to the held request, and the updated request
+ * forwarded to the wrapped service; it replaces the held request only if it was located, so a
+ * failed delta can be sent again. A delta with a Sequence must be the next delta of its session.
+ * The unchanged picks are shared between the held and updated requests, not copied.
+ *
+ * <p>At most a configured number of sessions are held, evicting the least recently used. Deltas to
+ * one session are applied one at a time, this class is thread safe if the wrapped service is.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class SessionLocationService implements LocationSessionService {
+  /** The wrapped LocationService */
+  private final LocationService delegate;
+
+  /** The maximum number of held sessions */
+  private final int maxSessions;
+
+  /** The held sessions in least recently used order, guarded by itself */
+  private final LinkedHashMap<String, Session> sessions;
+
+  /**
+   * a class used to hold the state of one session, guarded by itself.
+   *
+   * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+   */
+  private static final class Session {
+    /** The held request */
+    LocationRequest request;
+
+    /** The Sequence of the last applied delta, 0 before the first */
+    long sequence;
+
+    /**
+     * Creates a session
+     *
+     * @param newRequest - The LocationRequest to hold
+     */
+    Session(LocationRequest newRequest) {
+      request = newRequest;
+    }
+  }
+
+  /**
+   * Creates a session decorator
+   *
+   * @param delegate - The LocationService to forward requests to
+   * @param maxSessions - An int containing the maximum number of held sessions
+   */
+  public SessionLocationService(LocationService delegate, int maxSessions) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("Missing LocationService");
+    }
+    if (maxSessions < 1) {
+      throw new IllegalArgumentException("Invalid maximum sessions " + maxSessions);
+    }
+
+    this.delegate = delegate;
+    this.maxSessions = maxSessions;
+
+    sessions =
+        new LinkedHashMap<String, Session>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            return (size() > SessionLocationService.this.maxSessions);
+          }
+        };
+  }
+
+  /**
+   * Process a LocationRequest, holding it as the session with its ID
+   *
+   * @param request location inputs.
+   * @return calculated location.
+   * @throws LocationException if errors occur.
+   */
+  @Override
+  public LocationResult getLocation(final LocationRequest request) throws LocationException {
+    LocationResult result = delegate.getLocation(request);
+
+    if ((request != null) && (request.ID != null)) {
+      synchronized (sessions) {
+        sessions.put(request.ID, new Session(request));
+      }
+    }
+    return (result);
+  }
+
+  /**
+   * Process a LocationRequestDelta against the request held for its session
+   *
+   * @param delta changes to the location inputs of the session delta.ID.
+   * @return calculated location.
+   * @throws LocationException if the delta is invalid, does not match the held request, or there is
+   *     no session with its ID, or if errors occur.
+   */
+  @Override
+  public LocationResult getLocation(final LocationRequestDelta delta) throws LocationException {
+    if (delta == null) {
+      throw new LocationException("Missing LocationRequestDelta");
+    }
+
+    ArrayList<String> errors = delta.getErrors();
+    if (!errors.isEmpty()) {
+      throw new LocationException("Invalid LocationRequestDelta: " + String.join(" ", errors));
+    }
+
+    Session session;
+    synchronized (sessions) {
+      session = sessions.get(delta.ID);
+    }
+    if (session == null) {
+      throw new LocationException("No session " + delta.ID);
+    }
+
+    synchronized (session) {
+      if ((delta.Sequence != null) && (delta.Sequence != session.sequence + 1)) {
+        throw new LocationException(
+            "Delta "
+                + delta.Sequence
+                + " of session "
+                + delta.ID
+                + " does not follow delta "
+                + session.sequence);
+      }
+
+      LocationRequest updated;
+      try {
+        updated = delta.apply(session.request);
+      } catch (IllegalArgumentException e) {
+        throw new LocationException("Delta does not match session " + delta.ID, e);
+      }
+
+      LocationResult result = delegate.getLocation(updated);
+
+      session.request = updated;
+      session.sequence = (delta.Sequence != null) ? delta.Sequence : session.sequence + 1;
+      return (result);
+    }
+  }
+
+  /**
+   * Closes a session, discarding its held request
+   *
+   * @param id the ID of the session.
+   * @return true if the session was open.
+   */
+  @Override
+  public boolean closeSession(final String id) {
+    synchronized (sessions) {
+      return (sessions.remove(id) != null);
+    }
+  }
+
+  /**
+   * Gets the request held for a session
+   *
+   * @param id - A String containing the ID of the session
+   * @return Returns the held LocationRequest, or null if there is no session with the ID
+   */
+  public LocationRequest getSessionRequest(String id) {
+    Session session;
+    synchronized (sessions) {
+      session = sessions.get(id);
+    }
+    if (session == null) {
+      return (null);
+    }
+    synchronized (session) {
+      return (session.request);
+    }
+  }
+
+  /**
+   * Gets the number of held sessions
+   *
+   * @return Returns the number of sessions
+   */
+  public int getSessionCount() {
+    synchronized (sessions) {
+      return (sessions.size());
+    }
+  }
+}
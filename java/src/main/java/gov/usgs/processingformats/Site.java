@@ -1,6 +1,9 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 import org.json.simple.*;
 
 /**
@@ -40,6 +43,15 @@ public class Site implements ProcessingInt {
   /** Required Double containing the Elevation in meters */
   public Double Elevation;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
+  /** The text this object was decoded from, null if not retained or since modified */
+  private RawJSON rawJSON;
+
   /** The constructor for the Site class. Initializes members to null values. */
   public Site() {
     Station = null;
@@ -103,6 +115,8 @@ public class Site implements ProcessingInt {
     Latitude = newLatitude;
     Longitude = newLongitude;
     Elevation = newElevation;
+    UnknownKeys = null;
+    rawJSON = null;
   }
 
   /**
@@ -111,6 +125,8 @@ public class Site implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public Site(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
     // required values
     // Station
     if (newJSONObject.containsKey(STATION_KEY)) {
@@ -169,6 +185,11 @@ public class Site implements ProcessingInt {
     } else {
       Location = null;
     }
+
+    // keys this class does not know
+    UnknownKeys = RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.SITE_KEYS);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.DECODE, "Site", 1, span, 0);
   }
 
   /**
@@ -178,6 +199,8 @@ public class Site implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
     JSONObject NewJSONObject = new JSONObject();
 
     // required values
@@ -218,22 +241,113 @@ public class Site implements ProcessingInt {
     }
 
     // return valid object
+    // keys this class does not know
+    RawJSON.putUnknownKeys(NewJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.ENCODE, "Site", 1, span, 0);
     return (NewJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    if (!isDirty()) {
+      // unchanged since decoded, copy the source text
+      rawJSON.writeJSON(writer);
+      return;
+    }
+
+    writer.beginObject();
+
+    // Station
+    if ((Station != null) && (!Station.isEmpty())) {
+      writer.name(STATION_KEY).value(Station);
+    }
+
+    // Network
+    if ((Network != null) && (!Network.isEmpty())) {
+      writer.name(NETWORK_KEY).value(Network);
+    }
+
+    // Latitude
+    if (Latitude != null) {
+      writer.name(LATITUDE_KEY).value(Latitude);
+    }
+
+    // Longitude
+    if (Longitude != null) {
+      writer.name(LONGITUDE_KEY).value(Longitude);
+    }
+
+    // Elevation
+    if (Elevation != null) {
+      writer.name(ELEVATION_KEY).value(Elevation);
+    }
+
+    // Channel
+    if ((Channel != null) && (!Channel.isEmpty())) {
+      writer.name(CHANNEL_KEY).value(Channel);
+    }
+
+    // Location
+    if ((Location != null) && (!Location.isEmpty())) {
+      writer.name(LOCATION_KEY).value(Location);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
+  /**
+   * Keeps the text this object was decoded from, so writeJSON() copies it verbatim until the object
+   * is reloaded or marked dirty
+   *
+   * @param raw - The RawJSON the object was decoded from
+   */
+  void retainSource(RawJSON raw) {
+    rawJSON = raw;
+  }
+
+  /**
+   * Gets the text this object was decoded from
+   *
+   * @return Returns the RawJSON, or null if not retained or since modified
+   */
+  public RawJSON getRawJSON() {
+    return (rawJSON);
+  }
+
+  /**
+   * Marks the object as modified, so writeJSON() re-encodes it. Must be called after changing the
+   * fields of a Site decoded with its text retained, reload() does so itself.
+   */
+  public void markDirty() {
+    rawJSON = null;
+  }
+
+  /**
+   * Whether writeJSON() must re-encode the object rather than copy the text it was decoded from
+   *
+   * @return Returns true if the source was not retained or the object was modified
+   */
+  public boolean isDirty() {
+    return (rawJSON == null);
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -242,52 +356,76 @@ public class Site implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(Instrumentation.Operation.VALIDATE, "Site", 1, span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // check for required keys
     // Station
     if (Station == null) {
       // Station not found
-      errorList.add("No Station in Site Class.");
+      valid = false;
+      sink.add("No Station in Site Class.");
     } else if (Station.isEmpty()) {
       // Station empty
-      errorList.add("Empty Station in Site Class.");
+      valid = false;
+      sink.add("Empty Station in Site Class.");
     }
 
     // Network
     if (Network == null) {
       // Network not found
-      errorList.add("No Network in Site Class.");
+      valid = false;
+      sink.add("No Network in Site Class.");
     } else if (Network.isEmpty()) {
       // Network empty
-      errorList.add("Empty Network in Site Class.");
+      valid = false;
+      sink.add("Empty Network in Site Class.");
     }
 
     // Latitude
     if (Latitude == null) {
       // Latitude not found
-      errorList.add("No Latitude in Site Class.");
+      valid = false;
+      sink.add("No Latitude in Site Class.");
     } else if ((Latitude < -90.0) || (Latitude > 90.0)) {
       // invalid Latitude
-      errorList.add("Latitude in Site Class not in the range of -90 to 90.");
+      valid = false;
+      sink.add("Latitude in Site Class not in the range of -90 to 90.");
     }
 
     // Longitude
     if (Longitude == null) {
       // Longitude not found
-      errorList.add("No Longitude in Site Class.");
+      valid = false;
+      sink.add("No Longitude in Site Class.");
     } else if ((Longitude < -180.0) || (Longitude > 180.0)) {
       // invalid Longitude
-      errorList.add("Longitude in Site Class not in the range of -180 to 180.");
+      valid = false;
+      sink.add("Longitude in Site Class not in the range of -180 to 180.");
     }
 
     // Elevation
     if (Elevation == null) {
       // Elevation not found
-      errorList.add("No Elevation in Site Class.");
+      valid = false;
+      sink.add("No Elevation in Site Class.");
     } else if ((Elevation < -20000) || (Elevation > 10000)) {
       // invalid Longitude
-      errorList.add("Elevation in site class not in the range of -20000 to 10000 meters.");
+      valid = false;
+      sink.add("Elevation in site class not in the range of -20000 to 10000 meters.");
     }
 
     // since Station, Channel, Network, and Location are free text
@@ -297,6 +435,42 @@ public class Site implements ProcessingInt {
     // seed standards.
 
     // success
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Compares two Sites by value
+   *
+   * @param other - The Object to compare to
+   * @return Returns true if other is a Site with equal Station, Channel, Network, Location,
+   *     Latitude, Longitude, and Elevation
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return (true);
+    } else if (!(other instanceof Site)) {
+      return (false);
+    }
+
+    Site site = (Site) other;
+    return (Objects.equals(Station, site.Station)
+        && Objects.equals(Channel, site.Channel)
+        && Objects.equals(Network, site.Network)
+        && Objects.equals(Location, site.Location)
+        && Objects.equals(Latitude, site.Latitude)
+        && Objects.equals(Longitude, site.Longitude)
+        && Objects.equals(Elevation, site.Elevation));
+  }
+
+  /**
+   * Computes a hash code from the values of the Site, consistent with equals(). Since the members
+   * are public, a Site must not be modified while it is a key of a hash based collection.
+   *
+   * @return Returns the hash code
+   */
+  @Override
+  public int hashCode() {
+    return (Objects.hash(Station, Channel, Network, Location, Latitude, Longitude, Elevation));
   }
 }
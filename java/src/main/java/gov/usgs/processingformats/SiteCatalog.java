@@ -0,0 +1,763 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * a thread safe catalog class used to look up Sites by their codes and to find the Sites nearest
+ * to, or within a distance of, a location without scanning every station.
+ *
+ * <p>Sites are keyed on their Network, Station, Location, and Channel. Adding a Site with the key
+ * of a catalogued Site replaces it, so a catalog built from a stream of picks holds the latest
+ * location of each channel. Sites without a Latitude and Longitude are not catalogued. The catalog
+ * holds copies of the Sites added to it and returns copies from its queries, so changing a Site on
+ * either side leaves the catalog as it was.
+ *
+ * <p>Queries search a k-d tree of the unit vectors of the Sites, in which the chord between two
+ * vectors orders Sites as their great circle distance does. Distances are spherical, in degrees, as
+ * the SPHERICAL mode of Geodesy computes them. The tree is immutable and is rebuilt by the first
+ * query after the catalog changes, so any number of threads can query the catalog while others add
+ * to it, and each query sees every Site added before it started.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class SiteCatalog {
+  /** The separator of the codes of a key */
+  private static final char SEPARATOR = '.';
+
+  /** The maximum number of Sites in a leaf of the tree */
+  private static final int LEAF_SIZE = 8;
+
+  /** The slack of the chord of a radius query for rounding, removed by the exact distance */
+  private static final double CHORD_SLACK = 1e-9;
+
+  /** The catalogued Sites by key, guarded by itself */
+  private final LinkedHashMap<String, Site> sites = new LinkedHashMap<String, Site>();
+
+  /** The tree of the catalogued Sites, null when it must be rebuilt */
+  private volatile Index index;
+
+  /**
+   * an immutable k-d tree class used to hold the unit vectors of the catalogued Sites. The tree is
+   * implicit: the node of a range of the arrays is its middle element, splitting the range on the
+   * axis in axes, with the elements of its subtrees before and after it.
+   *
+   * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+   */
+  private static final class Index {
+    /** The keys of the Sites */
+    final String[] keys;
+
+    /** The Sites */
+    final Site[] sites;
+
+    /** The coordinates of the unit vectors, by axis */
+    final double[][] coordinates;
+
+    /** The split axis of each node */
+    final byte[] axes;
+
+    /**
+     * Builds the tree
+     *
+     * @param entries - The LinkedHashMap&lt;String, Site&gt; of the Sites by key
+     */
+    Index(LinkedHashMap<String, Site> entries) {
+      int count = entries.size();
+      keys = new String[count];
+      sites = new Site[count];
+      coordinates = new double[3][count];
+      axes = new byte[count];
+
+      int i = 0;
+      for (Map.Entry<String, Site> entry : entries.entrySet()) {
+        Site site = entry.getValue();
+        keys[i] = entry.getKey();
+        sites[i] = site;
+        toVector(site.Latitude, site.Longitude, coordinates, i);
+        i++;
+      }
+
+      build(0, count);
+    }
+
+    /**
+     * Builds the subtree of a range
+     *
+     * @param lo - The first element of the range
+     * @param hi - The end of the range
+     */
+    private void build(int lo, int hi) {
+      if (hi - lo <= LEAF_SIZE) {
+        return;
+      }
+
+      // split on the axis of the largest extent
+      byte axis = 0;
+      double largest = -1;
+      for (byte a = 0; a < 3; a++) {
+        double[] values = coordinates[a];
+        double min = values[lo];
+        double max = values[lo];
+        for (int i = lo + 1; i < hi; i++) {
+          min = Math.min(min, values[i]);
+          max = Math.max(max, values[i]);
+        }
+        if (max - min > largest) {
+          largest = max - min;
+          axis = a;
+        }
+      }
+
+      int mid = (lo + hi) >>> 1;
+      select(lo, hi - 1, mid, coordinates[axis]);
+      axes[mid] = axis;
+      build(lo, mid);
+      build(mid + 1, hi);
+    }
+
+    /**
+     * Partially sorts a range so the kth element is in place, with no larger values before it and
+     * no smaller values after it
+     *
+     * @param lo - The first element of the range
+     * @param hi - The last element of the range
+     * @param k - The element to place
+     * @param values - The coordinates to sort on
+     */
+    private void select(int lo, int hi, int k, double[] values) {
+      while (hi > lo) {
+        double pivot = values[(lo + hi) >>> 1];
+        int i = lo;
+        int j = hi;
+        while (i <= j) {
+          while (values[i] < pivot) {
+            i++;
+          }
+          while (values[j] > pivot) {
+            j--;
+          }
+          if (i <= j) {
+            swap(i++, j--);
+          }
+        }
+        if (k <= j) {
+          hi = j;
+        } else if (k >= i) {
+          lo = i;
+        } else {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Swaps two elements
+     *
+     * @param i - The first element
+     * @param j - The second element
+     */
+    private void swap(int i, int j) {
+      String key = keys[i];
+      keys[i] = keys[j];
+      keys[j] = key;
+
+      Site site = sites[i];
+      sites[i] = sites[j];
+      sites[j] = site;
+
+      for (double[] values : coordinates) {
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+      }
+    }
+
+    /**
+     * Computes the squared chord from a vector to an element
+     *
+     * @param i - The element
+     * @param vector - The vector
+     * @return Returns the squared chord
+     */
+    private double chord2(int i, double[] vector) {
+      double dx = coordinates[0][i] - vector[0];
+      double dy = coordinates[1][i] - vector[1];
+      double dz = coordinates[2][i] - vector[2];
+      return (dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Searches a subtree for the elements nearest to a vector
+     *
+     * @param lo - The first element of the subtree
+     * @param hi - The end of the subtree
+     * @param vector - The vector
+     * @param heap - The Heap of the nearest elements found
+     */
+    void nearest(int lo, int hi, double[] vector, Heap heap) {
+      if (hi - lo <= LEAF_SIZE) {
+        for (int i = lo; i < hi; i++) {
+          heap.offer(i, chord2(i, vector));
+        }
+        return;
+      }
+
+      int mid = (lo + hi) >>> 1;
+      heap.offer(mid, chord2(mid, vector));
+
+      // the side of the vector first, the other only if it can hold a nearer element
+      double difference = coordinates[axes[mid]][mid] - vector[axes[mid]];
+      if (difference > 0) {
+        nearest(lo, mid, vector, heap);
+        if (difference * difference < heap.getBound()) {
+          nearest(mid + 1, hi, vector, heap);
+        }
+      } else {
+        nearest(mid + 1, hi, vector, heap);
+        if (difference * difference < heap.getBound()) {
+          nearest(lo, mid, vector, heap);
+        }
+      }
+    }
+
+    /**
+     * Searches a subtree for the elements within a chord of a vector
+     *
+     * @param lo - The first element of the subtree
+     * @param hi - The end of the subtree
+     * @param vector - The vector
+     * @param chord - The chord
+     * @param found - The Heap collecting the elements found
+     */
+    void within(int lo, int hi, double[] vector, double chord, Heap found) {
+      double limit = chord * chord;
+      if (hi - lo <= LEAF_SIZE) {
+        for (int i = lo; i < hi; i++) {
+          double chord2 = chord2(i, vector);
+          if (chord2 <= limit) {
+            found.offer(i, chord2);
+          }
+        }
+        return;
+      }
+
+      int mid = (lo + hi) >>> 1;
+      double chord2 = chord2(mid, vector);
+      if (chord2 <= limit) {
+        found.offer(mid, chord2);
+      }
+
+      double difference = coordinates[axes[mid]][mid] - vector[axes[mid]];
+      if (difference >= -chord) {
+        within(lo, mid, vector, chord, found);
+      }
+      if (difference <= chord) {
+        within(mid + 1, hi, vector, chord, found);
+      }
+    }
+
+    /**
+     * Computes the great circle distance from a vector to an element
+     *
+     * @param i - The element
+     * @param vector - The vector
+     * @return Returns the distance in degrees
+     */
+    double distance(int i, double[] vector) {
+      double x = coordinates[0][i];
+      double y = coordinates[1][i];
+      double z = coordinates[2][i];
+      double cx = y * vector[2] - z * vector[1];
+      double cy = z * vector[0] - x * vector[2];
+      double cz = x * vector[1] - y * vector[0];
+      double dot = x * vector[0] + y * vector[1] + z * vector[2];
+      return (Math.toDegrees(Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), dot)));
+    }
+  }
+
+  /**
+   * a collection class used to hold the elements found by a query, as a max heap on their squared
+   * chords that holds at most a bounded number of them.
+   *
+   * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+   */
+  private static final class Heap {
+    /** The maximum number of elements */
+    private final int capacity;
+
+    /** The elements */
+    private int[] elements;
+
+    /** The squared chords of the elements */
+    private double[] chords;
+
+    /** The number of elements */
+    private int size;
+
+    /**
+     * Creates a heap
+     *
+     * @param capacity - The maximum number of elements
+     */
+    Heap(int capacity) {
+      this.capacity = capacity;
+      elements = new int[Math.min(capacity, 16)];
+      chords = new double[elements.length];
+    }
+
+    /**
+     * Gets the squared chord an element must be nearer than to be held
+     *
+     * @return Returns the bound, infinite until the heap is full
+     */
+    double getBound() {
+      return ((size < capacity) ? Double.POSITIVE_INFINITY : chords[0]);
+    }
+
+    /**
+     * Offers an element, holding it if the heap is not full or it is nearer than the farthest
+     *
+     * @param element - The element
+     * @param chord2 - The squared chord of the element
+     */
+    void offer(int element, double chord2) {
+      if (size < capacity) {
+        if (size == elements.length) {
+          elements = Arrays.copyOf(elements, Math.min(capacity, size * 2));
+          chords = Arrays.copyOf(chords, elements.length);
+        }
+
+        // sift up
+        int i = size++;
+        while (i > 0) {
+          int parent = (i - 1) >>> 1;
+          if (chords[parent] >= chord2) {
+            break;
+          }
+          elements[i] = elements[parent];
+          chords[i] = chords[parent];
+          i = parent;
+        }
+        elements[i] = element;
+        chords[i] = chord2;
+      } else if (chord2 < chords[0]) {
+        // replace the farthest and sift down
+        int i = 0;
+        while (true) {
+          int child = 2 * i + 1;
+          if (child >= size) {
+            break;
+          }
+          if ((child + 1 < size) && (chords[child + 1] > chords[child])) {
+            child++;
+          }
+          if (chords[child] <= chord2) {
+            break;
+          }
+          elements[i] = elements[child];
+          chords[i] = chords[child];
+          i = child;
+        }
+        elements[i] = element;
+        chords[i] = chord2;
+      }
+    }
+
+    /**
+     * Gets the held elements, nearest first
+     *
+     * @return Returns an int[] containing the elements
+     */
+    int[] getSorted() {
+      long[] order = new long[size];
+      for (int i = 0; i < size; i++) {
+        // non negative doubles order as their bits do
+        order[i] = Double.doubleToLongBits(chords[i]);
+      }
+
+      Integer[] positions = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        positions[i] = i;
+      }
+      Arrays.sort(
+          positions,
+          (a, b) -> {
+            int compare = Long.compare(order[a], order[b]);
+            return ((compare != 0) ? compare : Integer.compare(elements[a], elements[b]));
+          });
+
+      int[] sorted = new int[size];
+      for (int i = 0; i < size; i++) {
+        sorted[i] = elements[positions[i]];
+      }
+      return (sorted);
+    }
+  }
+
+  /**
+   * Gets the key of a Site, its Network, Station, Location, and Channel separated by periods, with
+   * missing codes empty
+   *
+   * @param site - The Site to key
+   * @return Returns a String containing the key
+   */
+  public static String getKey(Site site) {
+    StringBuilder key = new StringBuilder(24);
+    key.append(site.Network != null ? site.Network : "").append(SEPARATOR);
+    key.append(site.Station != null ? site.Station : "").append(SEPARATOR);
+    key.append(site.Location != null ? site.Location : "").append(SEPARATOR);
+    key.append(site.Channel != null ? site.Channel : "");
+    return (key.toString());
+  }
+
+  /**
+   * Adds a copy of a Site, replacing any catalogued Site with its key
+   *
+   * @param site - The Site to add
+   * @return Returns true if the Site was added, false if it has no Latitude and Longitude
+   */
+  public boolean add(Site site) {
+    synchronized (sites) {
+      return (put(site));
+    }
+  }
+
+  /**
+   * Adds a copy of the Site of a Pick, replacing any catalogued Site with its key
+   *
+   * @param pick - The Pick to add the Site of
+   * @return Returns true if the Site was added, false if the Pick has no Site with a Latitude and
+   *     Longitude
+   */
+  public boolean add(Pick pick) {
+    return ((pick != null) && add(pick.Site));
+  }
+
+  /**
+   * Adds copies of Sites, such as those read by an NDJSONReader, later Sites replacing earlier ones
+   * with their keys
+   *
+   * @param iterator - An Iterator&lt;Site&gt; of the Sites to add
+   * @return Returns the number of Sites added
+   */
+  public int addSites(Iterator<Site> iterator) {
+    int added = 0;
+    synchronized (sites) {
+      while (iterator.hasNext()) {
+        if (put(iterator.next())) {
+          added++;
+        }
+      }
+    }
+    return (added);
+  }
+
+  /**
+   * Adds copies of the Sites of Picks, later Sites replacing earlier ones with their keys
+   *
+   * @param iterator - An Iterator&lt;Pick&gt; of the Picks to add the Sites of
+   * @return Returns the number of Sites added
+   */
+  public int addPicks(Iterator<Pick> iterator) {
+    int added = 0;
+    synchronized (sites) {
+      while (iterator.hasNext()) {
+        Pick pick = iterator.next();
+        if ((pick != null) && put(pick.Site)) {
+          added++;
+        }
+      }
+    }
+    return (added);
+  }
+
+  /**
+   * Removes a Site
+   *
+   * @param key - A String containing the key of the Site
+   * @return Returns true if the Site was catalogued
+   */
+  public boolean remove(String key) {
+    synchronized (sites) {
+      if (sites.remove(key) == null) {
+        return (false);
+      }
+      index = null;
+      return (true);
+    }
+  }
+
+  /** Removes all Sites */
+  public void clear() {
+    synchronized (sites) {
+      sites.clear();
+      index = null;
+    }
+  }
+
+  /**
+   * Gets the number of catalogued Sites
+   *
+   * @return Returns the number of Sites
+   */
+  public int size() {
+    synchronized (sites) {
+      return (sites.size());
+    }
+  }
+
+  /**
+   * Gets a catalogued Site
+   *
+   * @param key - A String containing the key of the Site
+   * @return Returns a copy of the Site, or null if there is none with the key
+   */
+  public Site getSite(String key) {
+    synchronized (sites) {
+      return (copy(sites.get(key)));
+    }
+  }
+
+  /**
+   * Gets the catalogued Sites
+   *
+   * @return Returns an ArrayList&lt;Site&gt; containing copies of the Sites, in the order they were
+   *     first added
+   */
+  public ArrayList<Site> getSites() {
+    synchronized (sites) {
+      ArrayList<Site> copies = new ArrayList<Site>(sites.size());
+      for (Site site : sites.values()) {
+        copies.add(copy(site));
+      }
+      return (copies);
+    }
+  }
+
+  /**
+   * Finds the Sites nearest to a location
+   *
+   * @param latitude - A double containing the latitude in degrees
+   * @param longitude - A double containing the longitude in degrees
+   * @param count - An int containing the number of Sites to find
+   * @return Returns an ArrayList&lt;Site&gt; containing copies of at most count Sites, nearest
+   *     first
+   */
+  public ArrayList<Site> getNearest(double latitude, double longitude, int count) {
+    Index current = getIndex();
+    int[] found = findNearest(current, toVector(latitude, longitude), count);
+
+    ArrayList<Site> nearest = new ArrayList<Site>(found.length);
+    for (int i : found) {
+      nearest.add(copy(current.sites[i]));
+    }
+    return (nearest);
+  }
+
+  /**
+   * Finds the Sites within a distance of a location
+   *
+   * @param latitude - A double containing the latitude in degrees
+   * @param longitude - A double containing the longitude in degrees
+   * @param radius - A double containing the distance in degrees
+   * @return Returns an ArrayList&lt;Site&gt; containing copies of the Sites, nearest first
+   */
+  public ArrayList<Site> getWithin(double latitude, double longitude, double radius) {
+    Index current = getIndex();
+    double[] vector = toVector(latitude, longitude);
+    int[] found = findWithin(current, vector, radius);
+
+    ArrayList<Site> within = new ArrayList<Site>(found.length);
+    for (int i : found) {
+      if (current.distance(i, vector) <= radius) {
+        within.add(copy(current.sites[i]));
+      }
+    }
+    return (within);
+  }
+
+  /**
+   * Builds receivers for the Sites nearest to a TravelTimeSource
+   *
+   * @param source - The TravelTimeSource, with a Latitude and Longitude
+   * @param count - An int containing the number of receivers to build
+   * @return Returns an ArrayList&lt;TravelTimeReceiver&gt; containing at most count receivers,
+   *     nearest first, identified by the keys of their Sites
+   */
+  public ArrayList<TravelTimeReceiver> getNearestReceivers(TravelTimeSource source, int count) {
+    Index current = getIndex();
+    double[] vector = toVector(source.Latitude, source.Longitude);
+    int[] found = findNearest(current, vector, count);
+
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>(found.length);
+    for (int i : found) {
+      receivers.add(toReceiver(current, i, current.distance(i, vector)));
+    }
+    return (receivers);
+  }
+
+  /**
+   * Builds receivers for the Sites within a distance of a TravelTimeSource
+   *
+   * @param source - The TravelTimeSource, with a Latitude and Longitude
+   * @param radius - A double containing the distance in degrees
+   * @return Returns an ArrayList&lt;TravelTimeReceiver&gt; containing the receivers, nearest first,
+   *     identified by the keys of their Sites
+   */
+  public ArrayList<TravelTimeReceiver> getReceivers(TravelTimeSource source, double radius) {
+    Index current = getIndex();
+    double[] vector = toVector(source.Latitude, source.Longitude);
+    int[] found = findWithin(current, vector, radius);
+
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>(found.length);
+    for (int i : found) {
+      double distance = current.distance(i, vector);
+      if (distance <= radius) {
+        receivers.add(toReceiver(current, i, distance));
+      }
+    }
+    return (receivers);
+  }
+
+  /**
+   * Puts a copy of a Site, the caller holding the lock
+   *
+   * @param site - The Site to put
+   * @return Returns true if the Site was put, false if it has no Latitude and Longitude
+   */
+  private boolean put(Site site) {
+    if ((site == null) || (site.Latitude == null) || (site.Longitude == null)) {
+      return (false);
+    }
+
+    sites.put(getKey(site), copy(site));
+    index = null;
+    return (true);
+  }
+
+  /**
+   * Copies the codes and location of a Site
+   *
+   * @param site - The Site to copy, may be null
+   * @return Returns the copy, or null
+   */
+  private static Site copy(Site site) {
+    if (site == null) {
+      return (null);
+    }
+    return (new Site(
+        site.Station,
+        site.Channel,
+        site.Network,
+        site.Location,
+        site.Latitude,
+        site.Longitude,
+        site.Elevation));
+  }
+
+  /**
+   * Gets the tree, rebuilding it if the catalog changed
+   *
+   * @return Returns the Index
+   */
+  private Index getIndex() {
+    Index current = index;
+    if (current == null) {
+      synchronized (sites) {
+        current = index;
+        if (current == null) {
+          current = new Index(sites);
+          index = current;
+        }
+      }
+    }
+    return (current);
+  }
+
+  /**
+   * Finds the elements of a tree nearest to a vector
+   *
+   * @param current - The Index to search
+   * @param vector - The vector
+   * @param count - The number of elements to find
+   * @return Returns an int[] containing the elements, nearest first
+   */
+  private static int[] findNearest(Index current, double[] vector, int count) {
+    int size = current.sites.length;
+    if ((count <= 0) || (size == 0)) {
+      return (new int[0]);
+    }
+
+    Heap heap = new Heap(Math.min(count, size));
+    current.nearest(0, size, vector, heap);
+    return (heap.getSorted());
+  }
+
+  /**
+   * Finds the elements of a tree near a distance of a vector, a few beyond it near its edge
+   *
+   * @param current - The Index to search
+   * @param vector - The vector
+   * @param radius - The distance in degrees
+   * @return Returns an int[] containing the elements, nearest first
+   */
+  private static int[] findWithin(Index current, double[] vector, double radius) {
+    int size = current.sites.length;
+    if ((radius < 0) || (size == 0)) {
+      return (new int[0]);
+    }
+
+    // the chord of the radius, or one past every element from the antipode on
+    double chord = (radius >= 180.0) ? 3.0 : 2.0 * Math.sin(Math.toRadians(radius) / 2.0);
+    Heap found = new Heap(size);
+    current.within(0, size, vector, chord + CHORD_SLACK, found);
+    return (found.getSorted());
+  }
+
+  /**
+   * Builds a receiver for an element of a tree
+   *
+   * @param current - The Index holding the element
+   * @param i - The element
+   * @param distance - The distance to the element in degrees
+   * @return Returns the TravelTimeReceiver
+   */
+  private static TravelTimeReceiver toReceiver(Index current, int i, double distance) {
+    Site site = current.sites[i];
+    return (new TravelTimeReceiver(
+        current.keys[i], distance, site.Elevation, site.Latitude, site.Longitude, null));
+  }
+
+  /**
+   * Computes the unit vector of a location
+   *
+   * @param latitude - The latitude in degrees
+   * @param longitude - The longitude in degrees
+   * @return Returns a double[] containing the vector
+   */
+  private static double[] toVector(double latitude, double longitude) {
+    double phi = Math.toRadians(latitude);
+    double lambda = Math.toRadians(longitude);
+    double cosPhi = Math.cos(phi);
+    return (new double[] {cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)});
+  }
+
+  /**
+   * Computes the unit vector of a location into coordinate arrays
+   *
+   * @param latitude - The latitude in degrees
+   * @param longitude - The longitude in degrees
+   * @param coordinates - The coordinate arrays, by axis
+   * @param i - The element of the arrays to set
+   */
+  private static void toVector(double latitude, double longitude, double[][] coordinates, int i) {
+    double[] vector = toVector(latitude, longitude);
+    for (int axis = 0; axis < 3; axis++) {
+      coordinates[axis][i] = vector[axis];
+    }
+  }
+}
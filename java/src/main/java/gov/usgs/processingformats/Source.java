@@ -1,6 +1,9 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 import org.json.simple.JSONObject;
 
 /**
@@ -24,6 +27,15 @@ public class Source implements ProcessingInt {
   /** Required Type identifier string */
   public String Type;
 
+  /**
+   * Optional values of keys this class does not know, read from JSON and written back out so they
+   * survive a round trip, null if there are none. Values are RawJSON or org.json.simple values.
+   */
+  public LinkedHashMap<String, Object> UnknownKeys;
+
+  /** The text this object was decoded from, null if not retained or since modified */
+  private RawJSON rawJSON;
+
   /** The constructor for the Source class. Initializes members to null values. */
   public Source() {
     AgencyID = null;
@@ -58,6 +70,8 @@ public class Source implements ProcessingInt {
     AgencyID = newAgencyID;
     Author = newAuthor;
     Type = newType;
+    UnknownKeys = null;
+    rawJSON = null;
   }
 
   /**
@@ -66,6 +80,7 @@ public class Source implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public Source(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // required values
     // agencyID
@@ -88,6 +103,11 @@ public class Source implements ProcessingInt {
     } else {
       Type = null;
     }
+
+    // keys this class does not know
+    UnknownKeys = RawJSON.readUnknownKeys(newJSONObject, LocationRequestReader.SOURCE_KEYS);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.DECODE, "Source", 1, span, 0);
   }
 
   /**
@@ -97,6 +117,7 @@ public class Source implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -116,22 +137,93 @@ public class Source implements ProcessingInt {
       newJSONObject.put(TYPE_KEY, Type);
     }
 
+    // keys this class does not know
+    RawJSON.putUnknownKeys(newJSONObject, UnknownKeys);
+
+    InstrumentationRegistry.record(Instrumentation.Operation.ENCODE, "Source", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    if (!isDirty()) {
+      // unchanged since decoded, copy the source text
+      rawJSON.writeJSON(writer);
+      return;
+    }
+
+    writer.beginObject();
+
+    // AgencyID
+    if ((AgencyID != null) && (!AgencyID.isEmpty())) {
+      writer.name(AGENCYID_KEY).value(AgencyID);
+    }
+
+    // Author
+    if ((Author != null) && (!Author.isEmpty())) {
+      writer.name(AUTHOR_KEY).value(Author);
+    }
+
+    // Type
+    if ((Type != null) && (!Type.isEmpty())) {
+      writer.name(TYPE_KEY).value(Type);
+    }
+
+    // keys this class does not know
+    RawJSON.writeUnknownKeys(writer, UnknownKeys);
+
+    writer.endObject();
+  }
+
+  /**
+   * Keeps the text this object was decoded from, so writeJSON() copies it verbatim until the object
+   * is reloaded or marked dirty
+   *
+   * @param raw - The RawJSON the object was decoded from
+   */
+  void retainSource(RawJSON raw) {
+    rawJSON = raw;
+  }
+
+  /**
+   * Gets the text this object was decoded from
+   *
+   * @return Returns the RawJSON, or null if not retained or since modified
+   */
+  public RawJSON getRawJSON() {
+    return (rawJSON);
+  }
+
+  /**
+   * Marks the object as modified, so writeJSON() re-encodes it. Must be called after changing the
+   * fields of a Source decoded with its text retained, reload() does so itself.
+   */
+  public void markDirty() {
+    rawJSON = null;
+  }
+
+  /**
+   * Whether writeJSON() must re-encode the object rather than copy the text it was decoded from
+   *
+   * @return Returns true if the source was not retained or the object was modified
+   */
+  public boolean isDirty() {
+    return (rawJSON == null);
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -140,35 +232,54 @@ public class Source implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(Instrumentation.Operation.VALIDATE, "Source", 1, span, 0);
+    return (errorList.getErrors());
+  }
 
-    ArrayList<String> errorList = new ArrayList<String>();
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // check for required keys
     // agencyID
     if (AgencyID == null) {
       // agencyID not found
-      errorList.add("No AgencyID in Source Class.");
+      valid = false;
+      sink.add("No AgencyID in Source Class.");
     } else if (AgencyID.isEmpty()) {
       // agencyID empty
-      errorList.add("Empty AgencyID in Source Class.");
+      valid = false;
+      sink.add("Empty AgencyID in Source Class.");
     }
 
     // Author
     if (Author == null) {
       // Author not found
-      errorList.add("No Author in Source Class.");
+      valid = false;
+      sink.add("No Author in Source Class.");
     } else if (Author.isEmpty()) {
       // Author empty
-      errorList.add("Empty Author in Source Class.");
+      valid = false;
+      sink.add("Empty Author in Source Class.");
     }
 
     // Type
     if (Type == null) {
       // Type not found
-      errorList.add("No Type in Source Class.");
+      valid = false;
+      sink.add("No Type in Source Class.");
     } else if (Type.isEmpty()) {
       // Type empty
-      errorList.add("Empty Type in Source Class.");
+      valid = false;
+      sink.add("Empty Type in Source Class.");
     } else {
       boolean match = false;
       if (Type.equals("Unknown")) {
@@ -187,11 +298,43 @@ public class Source implements ProcessingInt {
 
       if (!match) {
         // invalid Type
-        errorList.add("Invalid Type in Source Class.");
+        valid = false;
+        sink.add("Invalid Type in Source Class.");
       }
     }
 
     // success
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Compares two Sources by value
+   *
+   * @param other - The Object to compare to
+   * @return Returns true if other is a Source with equal AgencyID, Author, and Type
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return (true);
+    } else if (!(other instanceof Source)) {
+      return (false);
+    }
+
+    Source source = (Source) other;
+    return (Objects.equals(AgencyID, source.AgencyID)
+        && Objects.equals(Author, source.Author)
+        && Objects.equals(Type, source.Type));
+  }
+
+  /**
+   * Computes a hash code from the values of the Source, consistent with equals(). Since the members
+   * are public, a Source must not be modified while it is a key of a hash based collection.
+   *
+   * @return Returns the hash code
+   */
+  @Override
+  public int hashCode() {
+    return (Objects.hash(AgencyID, Author, Type));
   }
 }
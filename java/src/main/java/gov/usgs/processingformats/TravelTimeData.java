@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONObject;
 
@@ -120,6 +121,7 @@ public class TravelTimeData implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimeData(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Phase
@@ -198,6 +200,8 @@ public class TravelTimeData implements ProcessingInt {
     } else {
       AssociationWeightFlag = null;
     }
+
+    InstrumentationRegistry.record(Instrumentation.Operation.DECODE, "TravelTimeData", 1, span, 0);
   }
 
   /**
@@ -276,6 +280,7 @@ public class TravelTimeData implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -334,22 +339,85 @@ public class TravelTimeData implements ProcessingInt {
       newJSONObject.put(ASSOCIATIONWEIGHTFLAG_KEY, AssociationWeightFlag);
     }
 
+    InstrumentationRegistry.record(Instrumentation.Operation.ENCODE, "TravelTimeData", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Phase
+    if (Phase != null) {
+      writer.name(PHASE_KEY).value(Phase);
+    }
+
+    // TravelTime
+    if (TravelTime != null) {
+      writer.name(TRAVELTIME_KEY).value(TravelTime);
+    }
+
+    // DistanceDerivative
+    if (DistanceDerivative != null) {
+      writer.name(DISTANCEDERIVATIVE_KEY).value(DistanceDerivative);
+    }
+
+    // DepthDerivative
+    if (DepthDerivative != null) {
+      writer.name(DEPTHDERIVATIVE_KEY).value(DepthDerivative);
+    }
+
+    // RayDerivative
+    if (RayDerivative != null) {
+      writer.name(RAYDERIVATIVE_KEY).value(RayDerivative);
+    }
+
+    // StatisticalSpread
+    if (StatisticalSpread != null) {
+      writer.name(STATISTICALSPREAD_KEY).value(StatisticalSpread);
+    }
+
+    // Observability
+    if (Observability != null) {
+      writer.name(OBSERVABILITY_KEY).value(Observability);
+    }
+
+    // TeleseismicPhaseGroup
+    if (TeleseismicPhaseGroup != null) {
+      writer.name(TELESEISMICPHASEGROUP_KEY).value(TeleseismicPhaseGroup);
+    }
+
+    // AuxiliaryPhaseGroup
+    if (AuxiliaryPhaseGroup != null) {
+      writer.name(AUXILIARYPHASEGROUP_KEY).value(AuxiliaryPhaseGroup);
+    }
+
+    // LocationUseFlag
+    if (LocationUseFlag != null) {
+      writer.name(LOCATIONUSEFLAG_KEY).value(LocationUseFlag);
+    }
+
+    // AssociationWeightFlag
+    if (AssociationWeightFlag != null) {
+      writer.name(ASSOCIATIONWEIGHTFLAG_KEY).value(AssociationWeightFlag);
+    }
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -358,70 +426,96 @@ public class TravelTimeData implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "TravelTimeData", 1, span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     if (Phase == null) {
       // Phase not found
-      errorList.add("No Phase in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Phase in TravelTimeData Class.");
     } else if (Phase.isEmpty()) {
       // Phase empty
-      errorList.add("Empty Phase in TravelTimeData Class.");
+      valid = false;
+      sink.add("Empty Phase in TravelTimeData Class.");
     }
 
     // travel time
     if (TravelTime == null) {
       // travel time not found
-      errorList.add("No Travel Time in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Travel Time in TravelTimeData Class.");
     }
 
     // distance derivative
     if (DistanceDerivative == null) {
       // distance derivative not found
-      errorList.add("No Distance Derivative in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Distance Derivative in TravelTimeData Class.");
     }
 
     // depth derivative
     if (DepthDerivative == null) {
       // depth derivative not found
-      errorList.add("No Depth Derivative in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Depth Derivative in TravelTimeData Class.");
     }
 
     // ray derivative
     if (RayDerivative == null) {
       // ray derivative not found
-      errorList.add("No Ray Derivative in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Ray Derivative in TravelTimeData Class.");
     }
 
     // statistical spread
     if (StatisticalSpread == null) {
       // statistical spread not found
-      errorList.add("No Statistical Spread in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Statistical Spread in TravelTimeData Class.");
     }
 
     // Observability
     if (Observability == null) {
       // Observability not found
-      errorList.add("No Observability in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Observability in TravelTimeData Class.");
     }
 
     // teleseismic Phase group
     if (TeleseismicPhaseGroup == null) {
       // teleseismic Phase group not found
-      errorList.add("No Teleseismic Phase Group in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Teleseismic Phase Group in TravelTimeData Class.");
     }
 
     // location use flag
     if (LocationUseFlag == null) {
       // location use flag not found
-      errorList.add("No Location Use Flag in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Location Use Flag in TravelTimeData Class.");
     }
 
     // association weight flag
     if (AssociationWeightFlag == null) {
       // association weight flag not found
-      errorList.add("No Association Weight Flag in TravelTimeData Class.");
+      valid = false;
+      sink.add("No Association Weight Flag in TravelTimeData Class.");
     }
 
-    return (errorList);
+    return (valid);
   }
 }
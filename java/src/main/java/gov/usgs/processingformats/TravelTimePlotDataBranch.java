@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -7,6 +8,13 @@ import org.json.simple.JSONObject;
 /**
  * a conversion class used to create, parse, and validate travel time plot branch data
  *
+ * <p>A branch holds its samples either as the Samples list, or packed into parallel double arrays
+ * for branches with many samples, where NaN marks an absent value and an optional array is null
+ * when no sample has that value. Samples is used when it is not null. A packed branch is created
+ * with the array constructor, the packed JSON constructor, or pack(), and is read in place with
+ * getSampleCount() and the per sample getters; getSamples() materializes the Samples list on first
+ * use. Packed arrays are shared by copies and must not be modified.
+ *
  * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
  */
 public class TravelTimePlotDataBranch implements ProcessingInt {
@@ -22,6 +30,24 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
   /** A required ArrayList of TravelTimePlotDataSample objects */
   public ArrayList<TravelTimePlotDataSample> Samples;
 
+  /** The number of packed samples */
+  private int sampleCount;
+
+  /** The packed sample distances in degrees */
+  private double[] distances;
+
+  /** The packed sample travel times in seconds */
+  private double[] travelTimes;
+
+  /** The packed sample statistical spreads in seconds, or null if none are present */
+  private double[] statisticalSpreads;
+
+  /** The packed sample observabilities, or null if none are present */
+  private double[] observabilities;
+
+  /** The packed sample ray parameters in seconds/degree, or null if none are present */
+  private double[] rayParameters;
+
   /** The constructor for the TravelTimePlotDataBranch class. Initializes members to null values. */
   public TravelTimePlotDataBranch() {
 
@@ -42,12 +68,70 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
     reload(newPhase, newSamples);
   }
 
+  /**
+   * Packed constructor
+   *
+   * <p>The packed constructor for the TravelTimePlotDataBranch class. Initializes members to
+   * provided sample arrays, which are used in place and must not be modified afterwards.
+   *
+   * @param newPhase - A String containing the seismic Phase code
+   * @param newDistances - A double[] containing the sample distances in degrees, NaN if absent
+   * @param newTravelTimes - A double[] containing the sample travel times in seconds, NaN if absent
+   * @param newStatisticalSpreads - A double[] containing the sample statistical spreads in seconds,
+   *     NaN if absent, or null
+   * @param newObservabilities - A double[] containing the sample observabilities, NaN if absent, or
+   *     null
+   * @param newRayParameters - A double[] containing the sample ray parameters in seconds/degree,
+   *     NaN if absent, or null
+   */
+  public TravelTimePlotDataBranch(
+      String newPhase,
+      double[] newDistances,
+      double[] newTravelTimes,
+      double[] newStatisticalSpreads,
+      double[] newObservabilities,
+      double[] newRayParameters) {
+    if (newDistances == null || newTravelTimes == null) {
+      throw new IllegalArgumentException("Null distances or travel times");
+    }
+    int count = newDistances.length;
+    for (double[] values :
+        new double[][] {
+          newTravelTimes, newStatisticalSpreads, newObservabilities, newRayParameters
+        }) {
+      if (values != null && values.length != count) {
+        throw new IllegalArgumentException("Sample arrays differ in length");
+      }
+    }
+
+    Phase = newPhase;
+    Samples = null;
+    sampleCount = count;
+    distances = newDistances;
+    travelTimes = newTravelTimes;
+    statisticalSpreads = newStatisticalSpreads;
+    observabilities = newObservabilities;
+    rayParameters = newRayParameters;
+  }
+
   /**
    * Constructs the class from a JSONObject, populating members
    *
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimePlotDataBranch(JSONObject newJSONObject) {
+    this(newJSONObject, false);
+  }
+
+  /**
+   * Constructs the class from a JSONObject, populating members
+   *
+   * @param newJSONObject - A JSONObject.
+   * @param packed - A boolean, true to read the samples straight into packed arrays rather than the
+   *     Samples list
+   */
+  public TravelTimePlotDataBranch(JSONObject newJSONObject, boolean packed) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Phase
@@ -58,7 +142,13 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
     }
 
     // Samples
-    if (newJSONObject.containsKey(SAMPLES_KEY)) {
+    if (packed) {
+      JSONArray samplesArray = (JSONArray) newJSONObject.get(SAMPLES_KEY);
+      if (samplesArray != null) {
+        readPacked(samplesArray);
+      }
+      Samples = null;
+    } else if (newJSONObject.containsKey(SAMPLES_KEY)) {
 
       Samples = new ArrayList<TravelTimePlotDataSample>();
 
@@ -80,6 +170,13 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
     } else {
       Samples = null;
     }
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE,
+        "TravelTimePlotDataBranch",
+        getInstrumentedSize(),
+        span,
+        0);
   }
 
   /**
@@ -91,6 +188,14 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
   public TravelTimePlotDataBranch(TravelTimePlotDataBranch sourceObject) {
 
     reload(sourceObject.Phase, sourceObject.Samples);
+
+    // share the packed arrays, they are never modified
+    sampleCount = sourceObject.sampleCount;
+    distances = sourceObject.distances;
+    travelTimes = sourceObject.travelTimes;
+    statisticalSpreads = sourceObject.statisticalSpreads;
+    observabilities = sourceObject.observabilities;
+    rayParameters = sourceObject.rayParameters;
   }
 
   /**
@@ -105,6 +210,293 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
 
     Phase = newPhase;
     Samples = newSamples;
+    unpack();
+  }
+
+  /**
+   * Reads a JSONArray of samples into packed arrays
+   *
+   * @param samplesArray - The JSONArray of sample JSONObjects
+   */
+  private void readPacked(JSONArray samplesArray) {
+    int count = samplesArray.size();
+    sampleCount = count;
+    distances = new double[count];
+    travelTimes = new double[count];
+
+    for (int i = 0; i < count; i++) {
+      JSONObject sampleObject = (JSONObject) samplesArray.get(i);
+
+      distances[i] = number(sampleObject.get(TravelTimePlotDataSample.DISTANCE_KEY));
+      travelTimes[i] = number(sampleObject.get(TravelTimePlotDataSample.TRAVELTIME_KEY));
+
+      Object value = sampleObject.get(TravelTimePlotDataSample.STATISTICALSPREAD_KEY);
+      if (value != null) {
+        statisticalSpreads = store(statisticalSpreads, i, number(value));
+      }
+      value = sampleObject.get(TravelTimePlotDataSample.OBSERVABILITY_KEY);
+      if (value != null) {
+        observabilities = store(observabilities, i, number(value));
+      }
+      value = sampleObject.get(TravelTimePlotDataSample.RAYPARAMETER_KEY);
+      if (value != null) {
+        rayParameters = store(rayParameters, i, number(value));
+      }
+    }
+  }
+
+  /**
+   * Converts a parsed JSON value to a double
+   *
+   * @param value - The parsed value, possibly null
+   * @return Returns the value, or NaN if absent
+   */
+  private static double number(Object value) {
+    return (value != null ? ((Number) value).doubleValue() : Double.NaN);
+  }
+
+  /**
+   * Stores a value in an optional packed array, allocating it on first use
+   *
+   * @param values - The double[], or null if not yet allocated
+   * @param index - An int containing the index of the sample
+   * @param value - A double containing the value
+   * @return Returns the double[]
+   */
+  private double[] store(double[] values, int index, double value) {
+    if (values == null) {
+      values = new double[sampleCount];
+      Arrays.fill(values, Double.NaN);
+    }
+    values[index] = value;
+    return (values);
+  }
+
+  /**
+   * Converts an optional packed value
+   *
+   * @param values - The double[], or null
+   * @param index - An int containing the index of the sample
+   * @return Returns the value, or null if absent
+   */
+  private static Double optional(double[] values, int index) {
+    if (values == null || Double.isNaN(values[index])) {
+      return (null);
+    }
+    return (values[index]);
+  }
+
+  /**
+   * Converts a sample value to a double
+   *
+   * @param value - The Double, possibly null
+   * @return Returns the value, or NaN if absent
+   */
+  private static double value(Double value) {
+    return (value != null ? value : Double.NaN);
+  }
+
+  /** Drops the packed arrays */
+  private void unpack() {
+    sampleCount = 0;
+    distances = null;
+    travelTimes = null;
+    statisticalSpreads = null;
+    observabilities = null;
+    rayParameters = null;
+  }
+
+  /**
+   * Whether the samples are held in packed arrays rather than the Samples list
+   *
+   * @return Returns true if the branch is packed
+   */
+  public boolean isPacked() {
+    return (Samples == null && distances != null);
+  }
+
+  /**
+   * Packs the Samples list into parallel arrays and releases it. Null samples are dropped.
+   *
+   * @return Returns this branch
+   */
+  public TravelTimePlotDataBranch pack() {
+    if (Samples == null) {
+      return (this);
+    }
+
+    ArrayList<TravelTimePlotDataSample> samples = Samples;
+    int count = 0;
+    for (TravelTimePlotDataSample sample : samples) {
+      if (sample != null) {
+        count++;
+      }
+    }
+
+    sampleCount = count;
+    distances = new double[count];
+    travelTimes = new double[count];
+    statisticalSpreads = null;
+    observabilities = null;
+    rayParameters = null;
+
+    int i = 0;
+    for (TravelTimePlotDataSample sample : samples) {
+      if (sample == null) {
+        continue;
+      }
+      distances[i] = value(sample.Distance);
+      travelTimes[i] = value(sample.TravelTime);
+      if (sample.StatisticalSpread != null) {
+        statisticalSpreads = store(statisticalSpreads, i, sample.StatisticalSpread);
+      }
+      if (sample.Observability != null) {
+        observabilities = store(observabilities, i, sample.Observability);
+      }
+      if (sample.RayParameter != null) {
+        rayParameters = store(rayParameters, i, sample.RayParameter);
+      }
+      i++;
+    }
+
+    Samples = null;
+    return (this);
+  }
+
+  /**
+   * Gets the Samples list, materializing it from the packed arrays on first use. The list then
+   * replaces the packed arrays, so changes to it are kept.
+   *
+   * @return Returns the ArrayList&lt;TravelTimePlotDataSample&gt;, or null if there are no samples
+   */
+  public ArrayList<TravelTimePlotDataSample> getSamples() {
+    if (isPacked()) {
+      ArrayList<TravelTimePlotDataSample> samples =
+          new ArrayList<TravelTimePlotDataSample>(sampleCount);
+      for (int i = 0; i < sampleCount; i++) {
+        samples.add(getSample(i));
+      }
+      Samples = samples;
+      unpack();
+    }
+    return (Samples);
+  }
+
+  /**
+   * Gets the number of samples
+   *
+   * @return Returns the number of samples in the list or packed arrays
+   */
+  public int getSampleCount() {
+    if (Samples != null) {
+      return (Samples.size());
+    }
+    return (sampleCount);
+  }
+
+  /**
+   * Gets a sample without materializing the Samples list, creating a new object if packed
+   *
+   * @param index - An int containing the index of the sample
+   * @return Returns the TravelTimePlotDataSample
+   */
+  public TravelTimePlotDataSample getSample(int index) {
+    if (Samples != null) {
+      return (Samples.get(index));
+    }
+    checkIndex(index);
+    return (new TravelTimePlotDataSample(
+        optional(distances, index),
+        optional(travelTimes, index),
+        optional(statisticalSpreads, index),
+        optional(observabilities, index),
+        optional(rayParameters, index)));
+  }
+
+  /**
+   * Checks a packed sample index
+   *
+   * @param index - An int containing the index of the sample
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= sampleCount) {
+      throw new IndexOutOfBoundsException("Sample " + index + " of " + sampleCount);
+    }
+  }
+
+  /**
+   * Gets the distance of a sample
+   *
+   * @param index - An int containing the index of the sample
+   * @return Returns the distance in degrees, or NaN if absent
+   */
+  public double getDistance(int index) {
+    if (Samples != null) {
+      TravelTimePlotDataSample sample = Samples.get(index);
+      return (sample != null ? value(sample.Distance) : Double.NaN);
+    }
+    checkIndex(index);
+    return (distances[index]);
+  }
+
+  /**
+   * Gets the travel time of a sample
+   *
+   * @param index - An int containing the index of the sample
+   * @return Returns the travel time in seconds, or NaN if absent
+   */
+  public double getTravelTime(int index) {
+    if (Samples != null) {
+      TravelTimePlotDataSample sample = Samples.get(index);
+      return (sample != null ? value(sample.TravelTime) : Double.NaN);
+    }
+    checkIndex(index);
+    return (travelTimes[index]);
+  }
+
+  /**
+   * Gets the statistical spread of a sample
+   *
+   * @param index - An int containing the index of the sample
+   * @return Returns the statistical spread in seconds, or NaN if absent
+   */
+  public double getStatisticalSpread(int index) {
+    if (Samples != null) {
+      TravelTimePlotDataSample sample = Samples.get(index);
+      return (sample != null ? value(sample.StatisticalSpread) : Double.NaN);
+    }
+    checkIndex(index);
+    return (statisticalSpreads != null ? statisticalSpreads[index] : Double.NaN);
+  }
+
+  /**
+   * Gets the observability of a sample
+   *
+   * @param index - An int containing the index of the sample
+   * @return Returns the observability, or NaN if absent
+   */
+  public double getObservability(int index) {
+    if (Samples != null) {
+      TravelTimePlotDataSample sample = Samples.get(index);
+      return (sample != null ? value(sample.Observability) : Double.NaN);
+    }
+    checkIndex(index);
+    return (observabilities != null ? observabilities[index] : Double.NaN);
+  }
+
+  /**
+   * Gets the ray parameter of a sample
+   *
+   * @param index - An int containing the index of the sample
+   * @return Returns the ray parameter in seconds/degree, or NaN if absent
+   */
+  public double getRayParameter(int index) {
+    if (Samples != null) {
+      TravelTimePlotDataSample sample = Samples.get(index);
+      return (sample != null ? value(sample.RayParameter) : Double.NaN);
+    }
+    checkIndex(index);
+    return (rayParameters != null ? rayParameters[index] : Double.NaN);
   }
 
   /**
@@ -114,6 +506,7 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -140,24 +533,82 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
       if (!samplesArray.isEmpty()) {
         newJSONObject.put(SAMPLES_KEY, samplesArray);
       }
+    } else if (isPacked() && (sampleCount > 0)) {
+
+      JSONArray samplesArray = new JSONArray();
+      for (int i = 0; i < sampleCount; i++) {
+        samplesArray.add(getSample(i).toJSON());
+      }
+      newJSONObject.put(SAMPLES_KEY, samplesArray);
     }
 
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE,
+        "TravelTimePlotDataBranch",
+        getInstrumentedSize(),
+        span,
+        0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Phase
+    if (Phase != null) {
+      writer.name(PHASE_KEY).value(Phase);
+    }
+
+    // Samples
+    if ((Samples != null) && (!Samples.isEmpty())) {
+      writer.name(SAMPLES_KEY).value(Samples);
+    } else if (isPacked() && (sampleCount > 0)) {
+      writer.name(SAMPLES_KEY).beginArray();
+      for (int i = 0; i < sampleCount; i++) {
+        writer.beginObject();
+        writePacked(writer, TravelTimePlotDataSample.DISTANCE_KEY, distances, i);
+        writePacked(writer, TravelTimePlotDataSample.TRAVELTIME_KEY, travelTimes, i);
+        writePacked(writer, TravelTimePlotDataSample.STATISTICALSPREAD_KEY, statisticalSpreads, i);
+        writePacked(writer, TravelTimePlotDataSample.OBSERVABILITY_KEY, observabilities, i);
+        writePacked(writer, TravelTimePlotDataSample.RAYPARAMETER_KEY, rayParameters, i);
+        writer.endObject();
+      }
+      writer.endArray();
+    }
+
+    writer.endObject();
+  }
+
+  /**
+   * Writes a packed value, skipping absent values
+   *
+   * @param writer - The JSONStreamWriter to write to
+   * @param key - A String containing the key
+   * @param values - The double[], or null
+   * @param index - An int containing the index of the sample
+   * @throws IOException if the underlying Appendable fails
+   */
+  private static void writePacked(JSONStreamWriter writer, String key, double[] values, int index)
+      throws IOException {
+    if (values != null && !Double.isNaN(values[index])) {
+      writer.name(key).value(values[index]);
+    }
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -166,35 +617,78 @@ public class TravelTimePlotDataBranch implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE,
+        "TravelTimePlotDataBranch",
+        getInstrumentedSize(),
+        span,
+        0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // Phase
     if (Phase == null) {
       // Phase not found
-      errorList.add("No Phase in TravelTimePlotDataBranch Class.");
+      valid = false;
+      sink.add("No Phase in TravelTimePlotDataBranch Class.");
     } else if (Phase.isEmpty()) {
       // Phase empty
-      errorList.add("Empty Phase in TravelTimePlotDataBranch Class.");
+      valid = false;
+      sink.add("Empty Phase in TravelTimePlotDataBranch Class.");
     }
 
     // Samples
     if ((Samples != null) && (!Samples.isEmpty())) {
-
-      // enumerate through the whole arraylist
-      for (Iterator<TravelTimePlotDataSample> samplesIterator = Samples.iterator();
-          samplesIterator.hasNext(); ) {
-
-        // get next sample object
-        TravelTimePlotDataSample sampleObject = ((TravelTimePlotDataSample) samplesIterator.next());
-
-        if (!sampleObject.isValid()) {
-          errorList.add(
-              "Invalid TravelTimePlotDataSample in samples in TravelTimePlotDataBranch Class");
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          Samples,
+          sink,
+          "Invalid TravelTimePlotDataSample",
+          " in samples in TravelTimePlotDataBranch Class",
+          false)) {
+        valid = false;
+      }
+    } else if (isPacked() && (sampleCount > 0)) {
+      // a sample is invalid without a distance or travel time
+      int[] invalid =
+          ErrorCollector.findInvalid(
+              sampleCount,
+              () -> (i -> Double.isNaN(distances[i]) || Double.isNaN(travelTimes[i])),
+              sink);
+      for (int index : invalid) {
+        ErrorCollector.reportElement(
+            getSample(index),
+            index,
+            sink,
+            "Invalid TravelTimePlotDataSample",
+            " in samples in TravelTimePlotDataBranch Class",
+            false);
+      }
+      if (invalid.length > 0) {
+        valid = false;
       }
     }
 
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of samples
+   */
+  private int getInstrumentedSize() {
+    return (getSampleCount());
   }
 }
@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONObject;
 
@@ -67,6 +68,7 @@ public class TravelTimePlotDataSample implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimePlotDataSample(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Distance
@@ -104,6 +106,9 @@ public class TravelTimePlotDataSample implements ProcessingInt {
     } else {
       RayParameter = null;
     }
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "TravelTimePlotDataSample", 1, span, 0);
   }
 
   /**
@@ -153,6 +158,7 @@ public class TravelTimePlotDataSample implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -181,22 +187,56 @@ public class TravelTimePlotDataSample implements ProcessingInt {
       newJSONObject.put(RAYPARAMETER_KEY, RayParameter);
     }
 
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "TravelTimePlotDataSample", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Distance
+    if (Distance != null) {
+      writer.name(DISTANCE_KEY).value(Distance);
+    }
+
+    // TravelTime
+    if (TravelTime != null) {
+      writer.name(TRAVELTIME_KEY).value(TravelTime);
+    }
+
+    // StatisticalSpread
+    if (StatisticalSpread != null) {
+      writer.name(STATISTICALSPREAD_KEY).value(StatisticalSpread);
+    }
+
+    // Observability
+    if (Observability != null) {
+      writer.name(OBSERVABILITY_KEY).value(Observability);
+    }
+
+    // RayParameter
+    if (RayParameter != null) {
+      writer.name(RAYPARAMETER_KEY).value(RayParameter);
+    }
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -205,21 +245,38 @@ public class TravelTimePlotDataSample implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "TravelTimePlotDataSample", 1, span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // Required values
     // Distance
     if (Distance == null) {
       // Distance not found
-      errorList.add("No Distance in TravelTimePlotDataSample Class.");
+      valid = false;
+      sink.add("No Distance in TravelTimePlotDataSample Class.");
     }
 
     // travel time
     if (TravelTime == null) {
       // travel time not found
-      errorList.add("No Travel Time in TravelTimePlotDataSample Class.");
+      valid = false;
+      sink.add("No Travel Time in TravelTimePlotDataSample Class.");
     }
 
-    return (errorList);
+    return (valid);
   }
 }
@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -113,6 +114,18 @@ public class TravelTimePlotRequest implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimePlotRequest(JSONObject newJSONObject) {
+    this(newJSONObject, false);
+  }
+
+  /**
+   * Constructs the class from a JSONObject, populating members
+   *
+   * @param newJSONObject - A JSONObject.
+   * @param packed - A boolean, true to read the samples of the Response branches into packed arrays
+   *     rather than Samples lists
+   */
+  public TravelTimePlotRequest(JSONObject newJSONObject, boolean packed) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Source
@@ -212,13 +225,16 @@ public class TravelTimePlotRequest implements ProcessingInt {
           // get the object
           JSONObject DataObject = (JSONObject) DataArray.get(i);
 
-          Response.add(new TravelTimePlotDataBranch(DataObject));
+          Response.add(new TravelTimePlotDataBranch(DataObject, packed));
         }
 
       } else {
         Response = null;
       }
     }
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "TravelTimePlotRequest", getInstrumentedSize(), span, 0);
   }
 
   /**
@@ -290,6 +306,7 @@ public class TravelTimePlotRequest implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -371,22 +388,81 @@ public class TravelTimePlotRequest implements ProcessingInt {
       }
     }
 
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "TravelTimePlotRequest", getInstrumentedSize(), span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Source
+    if (Source != null) {
+      writer.name(SOURCE_KEY).value(Source);
+    }
+
+    // EarthModel
+    if (EarthModel != null) {
+      writer.name(EARTHMODEL_KEY).value(EarthModel);
+    }
+
+    // PhaseTypes
+    if ((PhaseTypes != null) && (!PhaseTypes.isEmpty())) {
+      writer.name(PHASETYPES_KEY).value(PhaseTypes);
+    }
+
+    // ReturnAllPhases
+    if (ReturnAllPhases != null) {
+      writer.name(RETURNALLPHASES_KEY).value(ReturnAllPhases);
+    }
+
+    // ReturnBackBranches
+    if (ReturnBackBranches != null) {
+      writer.name(RETURNBACKBRANCHES_KEY).value(ReturnBackBranches);
+    }
+
+    // ConvertTectonic
+    if (ConvertTectonic != null) {
+      writer.name(CONVERTTECTONIC_KEY).value(ConvertTectonic);
+    }
+
+    // MaximumDistance
+    if (MaximumDistance != null) {
+      writer.name(MAXIMUMDISTANCE_KEY).value(MaximumDistance);
+    }
+
+    // DistanceStep
+    if (DistanceStep != null) {
+      writer.name(DISTANCESTEP_KEY).value(DistanceStep);
+    }
+
+    // MaximumTravelTime
+    if (MaximumTravelTime != null) {
+      writer.name(MAXIMUMTRAVELTIME_KEY).value(MaximumTravelTime);
+    }
+
+    // Response
+    if ((Response != null) && (!Response.isEmpty())) {
+      writer.name(RESPONSE_KEY).value(Response);
+    }
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -395,35 +471,55 @@ public class TravelTimePlotRequest implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE,
+        "TravelTimePlotRequest",
+        getInstrumentedSize(),
+        span,
+        0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // required values
     // Source
     if (Source == null) {
       // Source not found
-      errorList.add("No Source in TravelTimePlotRequest Class.");
+      valid = false;
+      sink.add("No Source in TravelTimePlotRequest Class.");
     } else if (!Source.isValid()) {
       // Hypocenter invalid
-      errorList.add("Invalid Source in TravelTimePlotRequest Class.");
+      valid = false;
+      sink.add("Invalid Source in TravelTimePlotRequest Class.");
     }
 
     // Optional Output Response
     if ((Response != null) && (!Response.isEmpty())) {
-
-      // enumerate through the whole arraylist
-      for (Iterator<TravelTimePlotDataBranch> responseIterator = Response.iterator();
-          responseIterator.hasNext(); ) {
-
-        // convert recever to JSON object
-        TravelTimePlotDataBranch jsonResponse =
-            ((TravelTimePlotDataBranch) responseIterator.next());
-
-        if (!jsonResponse.isValid()) {
-          errorList.add("Invalid Response in TravelTimePlotRequest Class.");
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          Response, sink, "Invalid Response", " in TravelTimePlotRequest Class.", false)) {
+        valid = false;
       }
     }
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of branches
+   */
+  private int getInstrumentedSize() {
+    return (InstrumentationRegistry.sizeOf(Response));
   }
 }
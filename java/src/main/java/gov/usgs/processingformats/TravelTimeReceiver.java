@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -79,6 +80,7 @@ public class TravelTimeReceiver implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimeReceiver(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // ID
@@ -139,6 +141,9 @@ public class TravelTimeReceiver implements ProcessingInt {
     } else {
       Branches = null;
     }
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "TravelTimeReceiver", getInstrumentedSize(), span, 0);
   }
 
   /**
@@ -196,6 +201,7 @@ public class TravelTimeReceiver implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -242,22 +248,61 @@ public class TravelTimeReceiver implements ProcessingInt {
       }
     }
 
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "TravelTimeReceiver", getInstrumentedSize(), span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // ID
+    if (ID != null) {
+      writer.name(ID_KEY).value(ID);
+    }
+
+    // Distance
+    if (Distance != null) {
+      writer.name(DISTANCE_KEY).value(Distance);
+    }
+
+    // Elevation
+    if (Elevation != null) {
+      writer.name(ELEVATION_KEY).value(Elevation);
+    }
+
+    // Latitude
+    if (Latitude != null) {
+      writer.name(LATITUDE_KEY).value(Latitude);
+    }
+
+    // Longitude
+    if (Longitude != null) {
+      writer.name(LONGITUDE_KEY).value(Longitude);
+    }
+
+    // Branches
+    if ((Branches != null) && (!Branches.isEmpty())) {
+      writer.name(BRANCHES_KEY).value(Branches);
+    }
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -266,39 +311,60 @@ public class TravelTimeReceiver implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "TravelTimeReceiver", getInstrumentedSize(), span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // required values
     // ID
     if (ID == null) {
       // ID not found
-      errorList.add("No ID in TravelTimeReceiver Class.");
+      valid = false;
+      sink.add("No ID in TravelTimeReceiver Class.");
     } else if (ID.isEmpty()) {
       // ID empty
-      errorList.add("Empty ID in TravelTimeReceiver Class.");
+      valid = false;
+      sink.add("Empty ID in TravelTimeReceiver Class.");
     }
 
     // Distance / Lat Lon check, need one or the other
     if ((Distance == null) && ((Latitude == null) || (Longitude == null))) {
       // Distance not found
-      errorList.add("No Distance or Latitude/Longitude in TravelTimeReceiver Class.");
+      valid = false;
+      sink.add("No Distance or Latitude/Longitude in TravelTimeReceiver Class.");
     }
 
     // Distance
     if (Distance != null) {
       if ((Distance < 0) || (Distance > 360)) {
         // invalid Distance
-        errorList.add("Distance in TravelTimeReceiver not in the range of 0 to 360.");
+        valid = false;
+        sink.add("Distance in TravelTimeReceiver not in the range of 0 to 360.");
       }
     }
 
     // Elevation
     if (Elevation == null) {
       // Elevation not found
-      errorList.add("No Elevation in TravelTimeReceiver Class.");
+      valid = false;
+      sink.add("No Elevation in TravelTimeReceiver Class.");
     } else if ((Elevation < -100) || (Elevation > 1000)) {
       // invalid Elevation
-      errorList.add("Elevation in TravelTimeReceiver not in the range of -100 to 1000.");
+      valid = false;
+      sink.add("Elevation in TravelTimeReceiver not in the range of -100 to 1000.");
     }
 
     // optional values
@@ -306,7 +372,8 @@ public class TravelTimeReceiver implements ProcessingInt {
     if (Latitude != null) {
       if ((Latitude < -90) || (Latitude > 90)) {
         // invalid Latitude
-        errorList.add("Latitude in TravelTimeReceiver not in the range of -90 to 90.");
+        valid = false;
+        sink.add("Latitude in TravelTimeReceiver not in the range of -90 to 90.");
       }
     }
 
@@ -314,25 +381,28 @@ public class TravelTimeReceiver implements ProcessingInt {
     if (Longitude != null) {
       if ((Longitude < -180) || (Longitude > 180)) {
         // invalid Longitude
-        errorList.add("Longitude in TravelTimeReceiver not in the range of -180 to 180.");
+        valid = false;
+        sink.add("Longitude in TravelTimeReceiver not in the range of -180 to 180.");
       }
     }
 
     // Branches
     if (Branches != null) {
-      // enumerate through the whole arraylist
-      for (Iterator<TravelTimeData> DataIterator = Branches.iterator(); DataIterator.hasNext(); ) {
-
-        // convert pick to JSON object
-        TravelTimeData TTData = ((TravelTimeData) DataIterator.next());
-
-        if (!TTData.isValid()) {
-          errorList.add("Invalid Branch TravelTimeData in TravelTimeReceiver.");
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          Branches, sink, "Invalid Branch TravelTimeData", " in TravelTimeReceiver.", false)) {
+        valid = false;
       }
     }
 
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of branches
+   */
+  private int getInstrumentedSize() {
+    return (InstrumentationRegistry.sizeOf(Branches));
   }
 }
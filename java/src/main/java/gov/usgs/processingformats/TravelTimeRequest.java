@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -100,6 +101,7 @@ public class TravelTimeRequest implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimeRequest(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
     // Source
@@ -208,6 +210,9 @@ public class TravelTimeRequest implements ProcessingInt {
         Response = null;
       }
     }
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "TravelTimeRequest", getInstrumentedSize(), span, 0);
   }
 
   /**
@@ -273,6 +278,7 @@ public class TravelTimeRequest implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -358,22 +364,71 @@ public class TravelTimeRequest implements ProcessingInt {
       }
     }
 
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "TravelTimeRequest", getInstrumentedSize(), span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Source
+    if (Source != null) {
+      writer.name(SOURCE_KEY).value(Source);
+    }
+
+    // Receivers
+    if ((Receivers != null) && (!Receivers.isEmpty())) {
+      writer.name(RECEIVERS_KEY).value(Receivers);
+    }
+
+    // EarthModel
+    if (EarthModel != null) {
+      writer.name(EARTHMODEL_KEY).value(EarthModel);
+    }
+
+    // PhaseTypes
+    if ((PhaseTypes != null) && (!PhaseTypes.isEmpty())) {
+      writer.name(PHASETYPES_KEY).value(PhaseTypes);
+    }
+
+    // ReturnAllPhases
+    if (ReturnAllPhases != null) {
+      writer.name(RETURNALLPHASES_KEY).value(ReturnAllPhases);
+    }
+
+    // ReturnBackBranches
+    if (ReturnBackBranches != null) {
+      writer.name(RETURNBACKBRANCHES_KEY).value(ReturnBackBranches);
+    }
+
+    // ConvertTectonic
+    if (ConvertTectonic != null) {
+      writer.name(CONVERTTECTONIC_KEY).value(ConvertTectonic);
+    }
+
+    // Response
+    if ((Response != null) && (!Response.isEmpty())) {
+      writer.name(RESPONSE_KEY).value(Response);
+    }
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -382,56 +437,72 @@ public class TravelTimeRequest implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "TravelTimeRequest", getInstrumentedSize(), span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // required values
     // Source
     if (Source == null) {
       // Source not found
-      errorList.add("No Source in TravelTimeRequest Class.");
+      valid = false;
+      sink.add("No Source in TravelTimeRequest Class.");
     } else if (!Source.isValid()) {
       // Hypocenter invalid
-      errorList.add("Invalid Source in TravelTimeRequest Class.");
+      valid = false;
+      sink.add("Invalid Source in TravelTimeRequest Class.");
     }
 
     // Receivers
     if (Receivers == null) {
       // Receivers not found
-      errorList.add("No Receivers in TravelTimeRequest Class.");
+      valid = false;
+      sink.add("No Receivers in TravelTimeRequest Class.");
     } else if (Receivers.isEmpty()) {
       // Receivers not found
-      errorList.add("Empty Receivers in TravelTimeRequest Class.");
+      valid = false;
+      sink.add("Empty Receivers in TravelTimeRequest Class.");
     } else {
-      // enumerate through the whole arraylist
-      for (Iterator<TravelTimeReceiver> receiverIterator = Receivers.iterator();
-          receiverIterator.hasNext(); ) {
-
-        // convert recever to JSON object
-        TravelTimeReceiver jsonReceiver = ((TravelTimeReceiver) receiverIterator.next());
-
-        if (!jsonReceiver.isValid()) {
-          errorList.add("Invalid Receiver in TravelTimeRequest Class.");
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          Receivers, sink, "Invalid Receiver", " in TravelTimeRequest Class.", false)) {
+        valid = false;
       }
     }
 
+    // no need to walk the responses if we already know the answer
+    if (!valid && sink.isFailFast()) {
+      return (false);
+    }
+
     // Optional Output Response
     if ((Response != null) && (!Response.isEmpty())) {
-
-      // enumerate through the whole arraylist
-      for (Iterator<TravelTimeReceiver> responseIterator = Response.iterator();
-          responseIterator.hasNext(); ) {
-
-        // convert recever to JSON object
-        TravelTimeReceiver jsonResponse = ((TravelTimeReceiver) responseIterator.next());
-
-        if (!jsonResponse.isValid()) {
-          errorList.add("Invalid Response in TravelTimeRequest Class.");
-          break;
-        }
+      if (!ErrorCollector.validateList(
+          Response, sink, "Invalid Response", " in TravelTimeRequest Class.", false)) {
+        valid = false;
       }
     }
-    return (errorList);
+    return (valid);
+  }
+
+  /**
+   * Gets the payload size recorded by the instrumentation
+   *
+   * @return Returns an int containing the number of receivers
+   */
+  private int getInstrumentedSize() {
+    return (InstrumentationRegistry.sizeOf(Receivers));
   }
 }
@@ -0,0 +1,456 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * a builder class used to create compact travel time requests for many receivers of one source,
+ * sending each distinct receiver geometry once and fanning the Response back out to every receiver.
+ *
+ * <p>Receivers are added with a Distance, or as Sites or receivers with a Latitude and Longitude
+ * whose Distance from the Source is computed with Geodesy. Receivers whose Distance and Elevation
+ * round to the same multiples of the configured quanta map to one distinct receiver, which is sent
+ * at the center of its quanta with an ID of its position in the compact request. The Branches
+ * returned for it are copied to every receiver mapped to it, so the travel times of a receiver
+ * differ by at most half a quantum of Distance and Elevation from exact ones.
+ *
+ * <p>A builder is not thread safe, it is intended to be filled and sent by one thread.
+ *
+ * @author U.S. Geological Survey &lt;jpatton at usgs.gov&gt;
+ */
+public class TravelTimeRequestBuilder {
+  /** The request holding the Source and options */
+  private final TravelTimeRequest template;
+
+  /** The Mode Distances are computed with */
+  private final Geodesy.Mode mode;
+
+  /** The Distance quantum, or 0 for exact Distances */
+  private final double distanceQuantum;
+
+  /** The Elevation quantum, or 0 for exact Elevations */
+  private final double elevationQuantum;
+
+  /** The added receivers, without Branches */
+  private final ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>();
+
+  /** The distinct receiver of each added receiver */
+  private int[] groups = new int[16];
+
+  /** The distinct receivers */
+  private final ArrayList<TravelTimeReceiver> distinct = new ArrayList<TravelTimeReceiver>();
+
+  /** The distinct receivers by quantized geometry */
+  private final HashMap<Key, Integer> distinctByKey = new HashMap<Key, Integer>();
+
+  /**
+   * Creates a builder for a source with the default quanta of CachingTravelTimeService
+   *
+   * @param source - The TravelTimeSource of the request
+   */
+  public TravelTimeRequestBuilder(TravelTimeSource source) {
+    this(
+        new TravelTimeRequest(source, null, null, null, null, null, null, null),
+        Geodesy.Mode.SPHERICAL,
+        CachingTravelTimeService.DEFAULT_DISTANCE_QUANTUM,
+        CachingTravelTimeService.DEFAULT_ELEVATION_QUANTUM);
+  }
+
+  /**
+   * Creates a builder
+   *
+   * @param template - The TravelTimeRequest providing the Source, EarthModel, PhaseTypes,
+   *     ReturnAllPhases, ReturnBackBranches, and ConvertTectonic of the request, and any Receivers
+   *     to add
+   * @param mode - The Geodesy.Mode to compute Distances with
+   * @param distanceQuantum - A double containing the receiver Distance quantum in degrees, 0 to
+   *     keep exact Distances
+   * @param elevationQuantum - A double containing the receiver Elevation quantum in meters, 0 to
+   *     keep exact Elevations
+   */
+  public TravelTimeRequestBuilder(
+      TravelTimeRequest template,
+      Geodesy.Mode mode,
+      double distanceQuantum,
+      double elevationQuantum) {
+    if ((template == null) || (template.Source == null)) {
+      throw new IllegalArgumentException("Missing TravelTimeSource");
+    }
+    if (!(distanceQuantum >= 0) || !(elevationQuantum >= 0)) {
+      throw new IllegalArgumentException("Invalid quantum");
+    }
+
+    this.template = new TravelTimeRequest(template);
+    this.template.Receivers = null;
+    this.template.Response = null;
+    this.mode = mode;
+    this.distanceQuantum = distanceQuantum;
+    this.elevationQuantum = elevationQuantum;
+
+    if (template.Receivers != null) {
+      addReceivers(template.Receivers);
+    }
+  }
+
+  /**
+   * Adds a receiver at a distance
+   *
+   * @param id - A String containing the receiver ID
+   * @param distance - A double containing the Distance from the Source in degrees
+   * @param elevation - A Double containing the Elevation in meters
+   */
+  public void addDistance(String id, double distance, Double elevation) {
+    add(new TravelTimeReceiver(id, distance, elevation, null, null, null));
+  }
+
+  /**
+   * Adds a receiver, computing its Distance from its Latitude and Longitude if it has none
+   *
+   * @param receiver - The TravelTimeReceiver to add, its Branches are ignored
+   * @throws IllegalArgumentException if the receiver has neither a Distance nor a Latitude and
+   *     Longitude
+   */
+  public void addReceiver(TravelTimeReceiver receiver) {
+    TravelTimeReceiver added =
+        new TravelTimeReceiver(
+            receiver.ID,
+            receiver.Distance,
+            receiver.Elevation,
+            receiver.Latitude,
+            receiver.Longitude,
+            null);
+    if (added.Distance == null) {
+      if ((added.Latitude == null) || (added.Longitude == null)) {
+        throw new IllegalArgumentException("No Distance or location for receiver " + added.ID);
+      }
+      added.Distance = computeDistance(added.Latitude, added.Longitude);
+    }
+    add(added);
+  }
+
+  /**
+   * Adds receivers, computing the Distance of those without one
+   *
+   * @param newReceivers - A List&lt;TravelTimeReceiver&gt; of the receivers to add
+   * @throws IllegalArgumentException if a receiver has neither a Distance nor a Latitude and
+   *     Longitude
+   */
+  public void addReceivers(List<TravelTimeReceiver> newReceivers) {
+    for (TravelTimeReceiver receiver : newReceivers) {
+      addReceiver(receiver);
+    }
+  }
+
+  /**
+   * Adds Sites as receivers identified by their SiteCatalog keys, computing their Distances in one
+   * pass
+   *
+   * @param sites - A List&lt;Site&gt; of the Sites to add
+   * @return Returns the number of Sites added, those without a Latitude and Longitude are skipped
+   */
+  public int addSites(List<Site> sites) {
+    int count = sites.size();
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    Site[] located = new Site[count];
+    int added = 0;
+    for (Site site : sites) {
+      if ((site != null) && (site.Latitude != null) && (site.Longitude != null)) {
+        latitudes[added] = site.Latitude;
+        longitudes[added] = site.Longitude;
+        located[added++] = site;
+      }
+    }
+
+    double[] distances = new double[added];
+    Geodesy.computeDistances(
+        mode,
+        template.Source.Latitude,
+        template.Source.Longitude,
+        latitudes,
+        longitudes,
+        added,
+        distances,
+        null);
+
+    for (int i = 0; i < added; i++) {
+      Site site = located[i];
+      add(
+          new TravelTimeReceiver(
+              SiteCatalog.getKey(site),
+              distances[i],
+              site.Elevation,
+              site.Latitude,
+              site.Longitude,
+              null));
+    }
+    return (added);
+  }
+
+  /**
+   * Gets the number of added receivers
+   *
+   * @return Returns the receiver count
+   */
+  public int getReceiverCount() {
+    return (receivers.size());
+  }
+
+  /**
+   * Gets the number of distinct receivers sent by the compact request
+   *
+   * @return Returns the distinct receiver count
+   */
+  public int getDistinctCount() {
+    return (distinct.size());
+  }
+
+  /**
+   * Gets the added receivers
+   *
+   * @return Returns an ArrayList&lt;TravelTimeReceiver&gt; containing copies of the receivers, in
+   *     the order they were added
+   */
+  public ArrayList<TravelTimeReceiver> getReceivers() {
+    ArrayList<TravelTimeReceiver> copies = new ArrayList<TravelTimeReceiver>(receivers.size());
+    for (TravelTimeReceiver receiver : receivers) {
+      copies.add(new TravelTimeReceiver(receiver));
+    }
+    return (copies);
+  }
+
+  /**
+   * Builds the compact request of the distinct receivers
+   *
+   * @return Returns the TravelTimeRequest
+   */
+  public TravelTimeRequest build() {
+    ArrayList<TravelTimeReceiver> compact = new ArrayList<TravelTimeReceiver>(distinct.size());
+    for (TravelTimeReceiver receiver : distinct) {
+      compact.add(new TravelTimeReceiver(receiver));
+    }
+
+    TravelTimeRequest request = new TravelTimeRequest(template);
+    request.Receivers = compact;
+    return (request);
+  }
+
+  /**
+   * Fans the Response to a compact request back out to the added receivers
+   *
+   * @param answer - The TravelTimeRequest answering the request from build()
+   * @return Returns an ArrayList&lt;TravelTimeReceiver&gt; containing the added receivers, in the
+   *     order they were added, with the Branches of their distinct receivers
+   * @throws TravelTimeException if the Response is missing or does not answer every distinct
+   *     receiver
+   */
+  public ArrayList<TravelTimeReceiver> fanOut(TravelTimeRequest answer) throws TravelTimeException {
+    List<TravelTimeReceiver> response = (answer != null) ? answer.Response : null;
+    if (response == null) {
+      throw new TravelTimeException("Missing travel time Response");
+    }
+
+    // match by position when the Response lines up with the request, otherwise by ID
+    ArrayList<ArrayList<TravelTimeData>> branches =
+        new ArrayList<ArrayList<TravelTimeData>>(distinct.size());
+    if ((response.size() == distinct.size()) && sameIDs(response)) {
+      for (TravelTimeReceiver receiver : response) {
+        branches.add(receiver.Branches);
+      }
+    } else {
+      HashMap<String, TravelTimeReceiver> byID = new HashMap<String, TravelTimeReceiver>();
+      for (TravelTimeReceiver receiver : response) {
+        if ((receiver != null) && (receiver.ID != null)) {
+          byID.putIfAbsent(receiver.ID, receiver);
+        }
+      }
+      for (TravelTimeReceiver receiver : distinct) {
+        TravelTimeReceiver match = byID.get(receiver.ID);
+        if (match == null) {
+          throw new TravelTimeException(
+              "Missing travel time Response for distinct receiver " + receiver.ID);
+        }
+        branches.add(match.Branches);
+      }
+    }
+
+    ArrayList<TravelTimeReceiver> fanned = new ArrayList<TravelTimeReceiver>(receivers.size());
+    for (int i = 0; i < receivers.size(); i++) {
+      TravelTimeReceiver receiver = new TravelTimeReceiver(receivers.get(i));
+      receiver.Branches = copy(branches.get(groups[i]));
+      fanned.add(receiver);
+    }
+    return (fanned);
+  }
+
+  /**
+   * Sends the compact request to a service and fans its Response back out
+   *
+   * @param service - The TravelTimeService to send the request to
+   * @return Returns a TravelTimeRequest with the added receivers as its Receivers, and with them
+   *     and their Branches as its Response
+   * @throws TravelTimeException if the service fails or its Response does not match
+   */
+  public TravelTimeRequest getTravelTimes(TravelTimeService service) throws TravelTimeException {
+    ArrayList<TravelTimeReceiver> response = fanOut(service.getTravelTimes(build()));
+
+    TravelTimeRequest result = new TravelTimeRequest(template);
+    result.Receivers = getReceivers();
+    result.Response = response;
+    return (result);
+  }
+
+  /**
+   * Adds a receiver with a Distance, mapping it to its distinct receiver
+   *
+   * @param receiver - The TravelTimeReceiver to add, owned by the builder
+   */
+  private void add(TravelTimeReceiver receiver) {
+    long distance = quantize(receiver.Distance, distanceQuantum);
+    long elevation = quantize(receiver.Elevation, elevationQuantum);
+    Key key = new Key(distance, elevation);
+
+    Integer group = distinctByKey.get(key);
+    if (group == null) {
+      group = distinct.size();
+      distinctByKey.put(key, group);
+      distinct.add(
+          new TravelTimeReceiver(
+              Integer.toString(group),
+              center(receiver.Distance, distance, distanceQuantum),
+              center(receiver.Elevation, elevation, elevationQuantum),
+              null,
+              null,
+              null));
+    }
+
+    if (receivers.size() == groups.length) {
+      groups = Arrays.copyOf(groups, groups.length * 2);
+    }
+    groups[receivers.size()] = group;
+    receivers.add(receiver);
+  }
+
+  /**
+   * Computes the Distance of a location from the Source
+   *
+   * @param latitude - The latitude in degrees
+   * @param longitude - The longitude in degrees
+   * @return Returns the Distance in degrees
+   */
+  private double computeDistance(double latitude, double longitude) {
+    double[] distances = new double[1];
+    Geodesy.computeDistances(
+        mode,
+        template.Source.Latitude,
+        template.Source.Longitude,
+        new double[] {latitude},
+        new double[] {longitude},
+        1,
+        distances,
+        null);
+    return (distances[0]);
+  }
+
+  /**
+   * Checks whether a Response has the IDs of the distinct receivers, position by position
+   *
+   * @param response - The returned receivers
+   * @return Returns true if the IDs match
+   */
+  private boolean sameIDs(List<TravelTimeReceiver> response) {
+    for (int i = 0; i < distinct.size(); i++) {
+      if ((response.get(i) == null) || !Objects.equals(distinct.get(i).ID, response.get(i).ID)) {
+        return (false);
+      }
+    }
+    return (true);
+  }
+
+  /**
+   * Copies Branches, so receivers mapped to one distinct receiver do not share them
+   *
+   * @param branches - The Branches to copy, possibly null
+   * @return Returns the copy, or null
+   */
+  private static ArrayList<TravelTimeData> copy(ArrayList<TravelTimeData> branches) {
+    if (branches == null) {
+      return (null);
+    }
+    ArrayList<TravelTimeData> copy = new ArrayList<TravelTimeData>(branches.size());
+    for (TravelTimeData data : branches) {
+      copy.add((data != null) ? new TravelTimeData(data) : null);
+    }
+    return (copy);
+  }
+
+  /**
+   * Quantizes a value
+   *
+   * @param value - The Double to quantize, possibly null
+   * @param quantum - The quantum, or 0 for the exact value
+   * @return Returns the quantized value
+   */
+  private static long quantize(Double value, double quantum) {
+    if (value == null) {
+      return (Long.MIN_VALUE);
+    } else if (quantum == 0) {
+      return (Double.doubleToLongBits(value));
+    }
+    return (Math.round(value / quantum));
+  }
+
+  /**
+   * Gets the value sent for a quantized value
+   *
+   * @param value - The first Double quantized to it, possibly null
+   * @param quantized - The quantized value
+   * @param quantum - The quantum, or 0 for exact values
+   * @return Returns the center of the quantum, or the value when exact or null
+   */
+  private static Double center(Double value, long quantized, double quantum) {
+    if ((value == null) || (quantum == 0)) {
+      return (value);
+    }
+    return (quantized * quantum);
+  }
+
+  /** a quantized receiver geometry */
+  private static final class Key {
+    /** The quantized receiver Distance, see quantize() */
+    private final long distance;
+
+    /** The quantized receiver Elevation, see quantize() */
+    private final long elevation;
+
+    /**
+     * Creates a key
+     *
+     * @param distance - The quantized receiver Distance
+     * @param elevation - The quantized receiver Elevation
+     */
+    private Key(long distance, long elevation) {
+      this.distance = distance;
+      this.elevation = elevation;
+    }
+
+    @Override
+    public int hashCode() {
+      return (Long.hashCode(distance) * 31 + Long.hashCode(elevation));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return (true);
+      } else if (!(other instanceof Key)) {
+        return (false);
+      }
+      Key key = (Key) other;
+      return ((distance == key.distance) && (elevation == key.elevation));
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.*;
 import org.json.simple.JSONObject;
 
@@ -53,6 +54,7 @@ public class TravelTimeSource implements ProcessingInt {
    * @param newJSONObject - A JSONObject.
    */
   public TravelTimeSource(JSONObject newJSONObject) {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     // Required values
 
@@ -76,6 +78,9 @@ public class TravelTimeSource implements ProcessingInt {
     } else {
       Depth = null;
     }
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.DECODE, "TravelTimeSource", 1, span, 0);
   }
 
   /**
@@ -112,6 +117,7 @@ public class TravelTimeSource implements ProcessingInt {
    */
   @SuppressWarnings("unchecked")
   public JSONObject toJSON() {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
 
     JSONObject newJSONObject = new JSONObject();
 
@@ -131,22 +137,46 @@ public class TravelTimeSource implements ProcessingInt {
       newJSONObject.put(DEPTH_KEY, Depth);
     }
 
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.ENCODE, "TravelTimeSource", 1, span, 0);
     return (newJSONObject);
   }
 
+  /**
+   * Writes the contents of the class to a JSONStreamWriter, producing the same keys and values as
+   * toJSON()
+   *
+   * @param writer - A JSONStreamWriter to write to
+   * @throws IOException if the underlying Appendable fails
+   */
+  public void writeJSON(JSONStreamWriter writer) throws IOException {
+    writer.beginObject();
+
+    // Latitude
+    if (Latitude != null) {
+      writer.name(LATITUDE_KEY).value(Latitude);
+    }
+
+    // Longitude
+    if (Longitude != null) {
+      writer.name(LONGITUDE_KEY).value(Longitude);
+    }
+
+    // Depth
+    if (Depth != null) {
+      writer.name(DEPTH_KEY).value(Depth);
+    }
+
+    writer.endObject();
+  }
+
   /**
    * Validates the class.
    *
    * @return Returns true if successful
    */
   public boolean isValid() {
-    if (getErrors() == null) {
-      return (true);
-    } else if (getErrors().size() == 0) {
-      return (true);
-    } else {
-      return (false);
-    }
+    return (validate(ErrorSink.FAIL_FAST));
   }
 
   /**
@@ -155,36 +185,57 @@ public class TravelTimeSource implements ProcessingInt {
    * @return Returns a List&lt;String&gt; of any errors found
    */
   public ArrayList<String> getErrors() {
-    ArrayList<String> errorList = new ArrayList<String>();
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    ErrorCollector errorList = new ErrorCollector();
+    validate(errorList);
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.VALIDATE, "TravelTimeSource", 1, span, 0);
+    return (errorList.getErrors());
+  }
+
+  /**
+   * Validates the class in a single walk, reporting any errors to an ErrorSink.
+   *
+   * @param sink - The ErrorSink to report errors to
+   * @return Returns true if the class is valid
+   */
+  public boolean validate(ErrorSink sink) {
+    boolean valid = true;
 
     // required values
     // Latitude
     if (Latitude == null) {
       // Latitude not found
-      errorList.add("No Latitude in TravelTimeSource Class.");
+      valid = false;
+      sink.add("No Latitude in TravelTimeSource Class.");
     } else if ((Latitude < -90) || (Latitude > 90)) {
       // invalid Latitude
-      errorList.add("Latitude in TravelTimeSource not in the range of -90 to 90.");
+      valid = false;
+      sink.add("Latitude in TravelTimeSource not in the range of -90 to 90.");
     }
 
     // Longitude
     if (Longitude == null) {
       // Longitude not found
-      errorList.add("No Longitude in TravelTimeSource Class.");
+      valid = false;
+      sink.add("No Longitude in TravelTimeSource Class.");
     } else if ((Longitude < -180) || (Longitude > 180)) {
       // invalid Longitude
-      errorList.add("Longitude in TravelTimeSource not in the range of -180 to 180.");
+      valid = false;
+      sink.add("Longitude in TravelTimeSource not in the range of -180 to 180.");
     }
 
     // Depth
     if (Depth == null) {
       // Depth not found
-      errorList.add("No Depth in TravelTimeSource Class.");
+      valid = false;
+      sink.add("No Depth in TravelTimeSource Class.");
     } else if ((Depth < -100) || (Depth > 1000)) {
       // invalid Longitude
-      errorList.add("Depth in TravelTimeSource not in the range of -100 to 1000.");
+      valid = false;
+      sink.add("Depth in TravelTimeSource not in the range of -100 to 1000.");
     }
 
-    return (errorList);
+    return (valid);
   }
 }
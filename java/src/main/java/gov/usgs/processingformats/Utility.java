@@ -4,6 +4,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
+import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeConstants;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
@@ -18,6 +19,20 @@ import org.json.simple.parser.ParseException;
  */
 public class Utility {
 
+  /**
+   * DatatypeFactory.newInstance() performs a service lookup on every call, so keep one factory per
+   * thread for the XMLGregorianCalendar based date methods
+   */
+  private static final ThreadLocal<DatatypeFactory> DATATYPE_FACTORY =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return DatatypeFactory.newInstance();
+            } catch (DatatypeConfigurationException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
   /**
    * Converts the provided string from a serialized JSON string, populating members
    *
@@ -26,9 +41,15 @@ public class Utility {
    * @throws ParseException if one occurs
    */
   public static JSONObject fromJSONString(String jsonString) throws ParseException {
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+
     // use a parser to convert to a string
     JSONParser parser = new JSONParser();
-    return ((JSONObject) parser.parse(jsonString));
+    JSONObject newJSONObject = (JSONObject) parser.parse(jsonString);
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.PARSE, "JSON", 1, span, jsonString.length());
+    return (newJSONObject);
   }
 
   /**
@@ -38,7 +59,12 @@ public class Utility {
    * @return Returns a String containing the serialized JSON data
    */
   public static String toJSONString(JSONObject newJSONObject) {
-    return (newJSONObject.toJSONString());
+    InstrumentationRegistry.Span span = InstrumentationRegistry.start();
+    String jsonString = newJSONObject.toJSONString();
+
+    InstrumentationRegistry.record(
+        Instrumentation.Operation.SERIALIZE, "JSON", 1, span, jsonString.length());
+    return (jsonString);
   }
 
   /**
@@ -74,9 +100,7 @@ public class Utility {
     if (date == null) {
       return null;
     }
-    GregorianCalendar calendar = new GregorianCalendar();
-    calendar.setTimeInMillis(date.getTime());
-    return formatGregorianCalendar(calendar);
+    return DateTimeCodec.format(date.getTime());
   }
 
   /**
@@ -87,10 +111,7 @@ public class Utility {
    */
   public static String formatGregorianCalendar(final GregorianCalendar calendar) {
     try {
-      return DatatypeFactory.newInstance()
-          .newXMLGregorianCalendar(calendar)
-          .normalize()
-          .toXMLFormat();
+      return DATATYPE_FACTORY.get().newXMLGregorianCalendar(calendar).normalize().toXMLFormat();
     } catch (Exception e) {
       return null;
     }
@@ -104,12 +125,7 @@ public class Utility {
    * @return the parsed Date object.
    */
   public static Date getDate(final String toParse) {
-    XMLGregorianCalendar calendar = getXMLGregorianCalendar(toParse);
-    if (calendar != null) {
-      return new Date(calendar.toGregorianCalendar().getTimeInMillis());
-    } else {
-      return null;
-    }
+    return DateTimeCodec.parseDate(toParse);
   }
 
   /**
@@ -135,7 +151,7 @@ public class Utility {
    */
   public static XMLGregorianCalendar getXMLGregorianCalendar(final String toParse) {
     try {
-      return DatatypeFactory.newInstance().newXMLGregorianCalendar(toParse);
+      return DATATYPE_FACTORY.get().newXMLGregorianCalendar(toParse);
     } catch (Exception e) {
       return null;
     }
@@ -0,0 +1,175 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AsyncLocationServiceAdapterTest {
+
+  /**
+   * Builds location requests with different IDs
+   *
+   * @param count - The number of requests
+   * @return Returns the requests
+   */
+  public static ArrayList<LocationRequest> buildRequests(int count) throws ParseException {
+    ArrayList<LocationRequest> requests = new ArrayList<LocationRequest>();
+    for (int i = 0; i < count; i++) {
+      LocationRequest request =
+          new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+      request.ID = "Request" + i;
+      requests.add(request);
+    }
+    return (requests);
+  }
+
+  /** Preserves request order and IDs, and maps failures onto the futures */
+  @Test
+  public void preservesOrder() throws Exception {
+    LocationService service =
+        request -> {
+          int index = Integer.parseInt(request.ID.substring(7));
+          if (index % 10 == 3) {
+            throw new LocationException("Failed " + request.ID);
+          } else if (index % 10 == 7) {
+            throw new IllegalStateException("Broken " + request.ID);
+          }
+          try {
+            // finish out of order
+            Thread.sleep(index % 5);
+          } catch (InterruptedException e) {
+            throw new LocationException("Interrupted", e);
+          }
+          LocationResult result = new LocationResult();
+          result.NumberOfAssociatedStations = index;
+          return (result);
+        };
+
+    try (AsyncLocationServiceAdapter adapter = new AsyncLocationServiceAdapter(service, 4, 8)) {
+      List<CompletableFuture<LocationResult>> futures =
+          adapter.getLocationsAsync(buildRequests(50));
+
+      Assertions.assertEquals(50, futures.size(), "Futures");
+      for (int i = 0; i < 50; i++) {
+        CompletableFuture<LocationResult> future = futures.get(i);
+        if (i % 10 == 3 || i % 10 == 7) {
+          ExecutionException error =
+              Assertions.assertThrows(ExecutionException.class, () -> future.get(), "Fails " + i);
+          Assertions.assertTrue(error.getCause() instanceof LocationException, "Cause " + i);
+        } else {
+          LocationResult result = future.get();
+          Assertions.assertEquals("Request" + i, result.ID, "ID " + i);
+          Assertions.assertEquals(i, result.NumberOfAssociatedStations, "Result " + i);
+        }
+      }
+      Assertions.assertEquals(0, adapter.getPending(), "Pending");
+    }
+  }
+
+  /** Limits concurrency and blocks submission when too many requests are pending */
+  @Test
+  public void appliesBackpressure() throws Exception {
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    LocationService service =
+        request -> {
+          maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new LocationException("Interrupted", e);
+          } finally {
+            active.decrementAndGet();
+          }
+          return (new LocationResult());
+        };
+
+    try (AsyncLocationServiceAdapter adapter = new AsyncLocationServiceAdapter(service, 2, 4)) {
+      ArrayList<LocationRequest> requests = buildRequests(5);
+      ArrayList<CompletableFuture<LocationResult>> futures =
+          new ArrayList<CompletableFuture<LocationResult>>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(adapter.getLocationAsync(requests.get(i)));
+      }
+      Assertions.assertEquals(4, adapter.getPending(), "Pending");
+
+      // the fifth submission blocks until a request completes
+      CompletableFuture<CompletableFuture<LocationResult>> submitted =
+          CompletableFuture.supplyAsync(() -> adapter.getLocationAsync(requests.get(4)));
+      Assertions.assertThrows(
+          TimeoutException.class, () -> submitted.get(100, TimeUnit.MILLISECONDS), "Blocked");
+
+      release.countDown();
+      futures.add(submitted.get(10, TimeUnit.SECONDS));
+      for (int i = 0; i < 5; i++) {
+        Assertions.assertEquals("Request" + i, futures.get(i).get().ID, "ID " + i);
+      }
+      Assertions.assertTrue(maxActive.get() <= 2, "Concurrency " + maxActive.get());
+    }
+  }
+
+  /** Fails requests after close */
+  @Test
+  public void rejectsAfterClose() throws Exception {
+    AsyncLocationServiceAdapter adapter =
+        new AsyncLocationServiceAdapter(request -> new LocationResult(), 1);
+    adapter.close();
+
+    CompletableFuture<LocationResult> future = adapter.getLocationAsync(buildRequests(1).get(0));
+    ExecutionException error =
+        Assertions.assertThrows(ExecutionException.class, () -> future.get());
+    Assertions.assertTrue(error.getCause() instanceof LocationException, "Cause");
+    Assertions.assertEquals(0, adapter.getPending(), "Pending");
+  }
+
+  /** Completes the future when the service throws an Error */
+  @Test
+  public void completesOnError() throws Exception {
+    LocationService service =
+        request -> {
+          throw new AssertionError("Broken");
+        };
+
+    try (AsyncLocationServiceAdapter adapter = new AsyncLocationServiceAdapter(service, 1)) {
+      CompletableFuture<LocationResult> future = adapter.getLocationAsync(buildRequests(1).get(0));
+      ExecutionException error =
+          Assertions.assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(error.getCause() instanceof LocationException, "Cause");
+      Assertions.assertTrue(error.getCause().getCause() instanceof AssertionError, "Error");
+    }
+  }
+
+  /** Leaves a given executor running */
+  @Test
+  public void keepsGivenExecutor() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      AsyncLocationServiceAdapter adapter =
+          new AsyncLocationServiceAdapter(request -> new LocationResult(), 2, 2, executor);
+      CompletableFuture<LocationResult> future = adapter.getLocationAsync(buildRequests(1).get(0));
+      adapter.close();
+
+      Assertions.assertNotNull(future.get(10, TimeUnit.SECONDS), "Completed");
+      Assertions.assertEquals(0, adapter.getPending(), "Waited for pending");
+      Assertions.assertFalse(executor.isShutdown(), "Not shut down");
+      Assertions.assertThrows(
+          ExecutionException.class,
+          () -> adapter.getLocationAsync(buildRequests(1).get(0)).get(),
+          "Closed");
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BinaryCodecTest {
+
+  /** Round trips the test LocationRequest */
+  @Test
+  public void roundTripsLocationRequest() throws IOException, ParseException {
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    request.OutputData =
+        new LocationResult(Utility.fromJSONString(LocationRequestTest.OUTPUTDATA_STRING));
+
+    byte[] bytes = BinaryCodec.toBytes(request);
+    Assertions.assertEquals(BinaryCodec.TYPE_LOCATIONREQUEST, BinaryCodec.getType(bytes), "Type");
+
+    LocationRequest decoded = BinaryCodec.readLocationRequest(bytes);
+    Assertions.assertEquals(request.toJSON(), decoded.toJSON(), "Round trip");
+
+    // streams
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCodec.write(request, out);
+    Assertions.assertArrayEquals(bytes, out.toByteArray(), "Write");
+    Assertions.assertEquals(
+        request.toJSON(),
+        BinaryCodec.readLocationRequest(new ByteArrayInputStream(bytes)).toJSON(),
+        "Read stream");
+  }
+
+  /** Round trips the test LocationResult */
+  @Test
+  public void roundTripsLocationResult() throws IOException, ParseException {
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+
+    byte[] bytes = BinaryCodec.toBytes(result);
+    Assertions.assertEquals(BinaryCodec.TYPE_LOCATIONRESULT, BinaryCodec.getType(bytes), "Type");
+    Assertions.assertEquals(
+        result.toJSON(), BinaryCodec.readLocationResult(bytes).toJSON(), "Round trip");
+
+    // empty objects
+    LocationResult empty = new LocationResult();
+    Assertions.assertEquals(
+        empty.toJSON(),
+        BinaryCodec.readLocationResult(BinaryCodec.toBytes(empty)).toJSON(),
+        "Empty");
+  }
+
+  /** Round trips picks with absent values and batches, smaller than JSON */
+  @Test
+  public void roundTripsPicks() throws IOException, ParseException {
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    request.InputData = PickBatchTest.buildPicks(500);
+    request.InputData.get(3).Residual = Double.NaN;
+    request.InputData.get(4).Site.Station = "ÅSBY";
+
+    byte[] bytes = BinaryCodec.toBytes(request);
+    LocationRequest decoded = BinaryCodec.readLocationRequest(bytes);
+    for (int i = 0; i < request.InputData.size(); i++) {
+      Assertions.assertEquals(
+          request.InputData.get(i).toJSON(), decoded.InputData.get(i).toJSON(), "Pick " + i);
+    }
+    Assertions.assertTrue(decoded.InputData.get(3).Residual.isNaN(), "NaN");
+
+    int jsonLength = Utility.toJSONString(request.toJSON()).getBytes(StandardCharsets.UTF_8).length;
+    Assertions.assertTrue(bytes.length * 3 < jsonLength, "Size " + bytes.length);
+
+    // batches encode as lists
+    LocationRequest batchRequest =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    batchRequest.InputData = null;
+    batchRequest.InputBatch = new PickBatch(request.InputData);
+    Assertions.assertArrayEquals(bytes, BinaryCodec.toBytes(batchRequest), "Batch");
+  }
+
+  /** Rejects other documents */
+  @Test
+  public void rejectsMalformed() throws ParseException {
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    byte[] bytes = BinaryCodec.toBytes(result);
+
+    Assertions.assertThrows(
+        IOException.class, () -> BinaryCodec.readLocationRequest(bytes), "Wrong type");
+    Assertions.assertThrows(
+        IOException.class,
+        () -> BinaryCodec.readLocationResult(Arrays.copyOf(bytes, bytes.length - 1)),
+        "Truncated");
+    Assertions.assertThrows(
+        IOException.class,
+        () -> BinaryCodec.readLocationResult(Arrays.copyOf(bytes, bytes.length + 1)),
+        "Trailing");
+
+    byte[] newer = bytes.clone();
+    newer[3] = (byte) (BinaryCodec.VERSION + 1);
+    Assertions.assertThrows(
+        IOException.class, () -> BinaryCodec.readLocationResult(newer), "Newer version");
+
+    Assertions.assertThrows(
+        IOException.class,
+        () -> BinaryCodec.readLocationResult("{}".getBytes(StandardCharsets.UTF_8)),
+        "JSON");
+
+    // a string reference that overflows to a negative number
+    LocationResult named = new LocationResult();
+    named.ID = "A";
+    byte[] reference = BinaryCodec.toBytes(named);
+    int start = reference.length - 3;
+    byte[] negative = Arrays.copyOf(reference, start + 10);
+    Arrays.fill(negative, start, start + 9, (byte) 0xFF);
+    negative[start + 9] = 0x01;
+    Assertions.assertThrows(
+        IOException.class, () -> BinaryCodec.readLocationResult(negative), "Negative reference");
+  }
+}
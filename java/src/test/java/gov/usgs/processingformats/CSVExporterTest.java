@@ -0,0 +1,167 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Random;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CSVExporterTest {
+
+  /**
+   * Builds the summary string the way toCSV() used to, with String.format
+   *
+   * @param result - The LocationResult to summarize
+   * @return Returns the summary string
+   */
+  public static String buildSummary(LocationResult result) {
+    return (result.ID
+        + ","
+        + String.format(Locale.ROOT, "%f,", result.Hypocenter.Latitude)
+        + String.format(Locale.ROOT, "%f,", result.Hypocenter.Longitude)
+        + String.format(Locale.ROOT, "%f,", result.Hypocenter.Depth)
+        + String.format(Locale.ROOT, "%f,", (result.Hypocenter.Time.getTime() * 0.001d))
+        + String.format(Locale.ROOT, "%f,", result.RMS)
+        + String.format(Locale.ROOT, "%f,", result.MinimumDistance)
+        + String.format(Locale.ROOT, "%f,", result.Gap)
+        + String.format("%d,", result.NumberOfAssociatedPhases)
+        + "0.0,0.0,");
+  }
+
+  /** Keeps the toCSV() layout */
+  @Test
+  public void writesSummary() throws Exception {
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    Assertions.assertEquals(buildSummary(result), result.toCSV(), "Summary");
+
+    StringWriter writer = new StringWriter();
+    CSVExporter exporter = CSVExporter.summary(writer);
+    exporter.write(result);
+    exporter.write(result);
+    Assertions.assertEquals(
+        result.toCSV() + "\n" + result.toCSV() + "\n", writer.toString(), "Rows");
+    Assertions.assertEquals(2, exporter.getCount(), "Count");
+
+    // nulls as in toCSV()
+    LocationResult empty = new LocationResult();
+    Assertions.assertEquals("null,0.0,0.0,0.0,0.0,0.0,0.0,0.0,0,0.0,0.0,", empty.toCSV(), "Empty");
+    result.Hypocenter.Latitude = null;
+    result.Hypocenter.Longitude = null;
+    result.Hypocenter.Depth = null;
+    Assertions.assertEquals(buildSummary(result), result.toCSV(), "Null hypocenter values");
+    Assertions.assertTrue(result.toCSV().contains(",null,null,null,"), "Written as null");
+  }
+
+  /** Formats doubles as String.format does */
+  @Test
+  public void formatsDoubles() {
+    double[] values = {
+      0.0,
+      -0.0,
+      5e-7,
+      1.5e-6,
+      2.5e-6,
+      -1e-7,
+      0.15,
+      0.125,
+      1.0000005,
+      123.4567895,
+      -121.44,
+      1e12,
+      1e20,
+      -1e300,
+      Double.MIN_VALUE,
+      Double.NaN,
+      Double.POSITIVE_INFINITY
+    };
+    StringBuilder builder = new StringBuilder();
+    for (int decimals = 0; decimals <= CSVExporter.MAX_DECIMALS; decimals++) {
+      String format = "%." + decimals + "f";
+      for (double value : values) {
+        builder.setLength(0);
+        CSVExporter.appendDouble(value, decimals, builder);
+        Assertions.assertEquals(
+            String.format(Locale.ROOT, format, value), builder.toString(), format + " " + value);
+      }
+    }
+
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14) - 4);
+      int decimals = random.nextInt(CSVExporter.MAX_DECIMALS + 1);
+      builder.setLength(0);
+      CSVExporter.appendDouble(value, decimals, builder);
+      Assertions.assertEquals(
+          String.format(Locale.ROOT, "%." + decimals + "f", value), builder.toString(), "Random");
+
+      long millis = random.nextLong() % 4000000000000L;
+      builder.setLength(0);
+      CSVExporter.appendSeconds(millis, decimals, builder);
+      Assertions.assertEquals(
+          String.format(Locale.ROOT, "%." + decimals + "f", millis * 0.001d),
+          builder.toString(),
+          "Seconds " + millis);
+    }
+  }
+
+  /** Writes configured columns, headers, and the pick table */
+  @Test
+  public void writesTables() throws ParseException, IOException {
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    result.Quality = "A,\"B\"";
+    LocationResult batched =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    batched.ID = "batched";
+    batched.SupportingBatch = new PickBatch(batched.SupportingData);
+    batched.SupportingData = null;
+
+    StringWriter writer = new StringWriter();
+    ByteArrayOutputStream picks = new ByteArrayOutputStream();
+    CSVExporter exporter =
+        new CSVExporter(
+            writer,
+            Arrays.asList(
+                CSVExporter.ResultColumn.ID,
+                CSVExporter.ResultColumn.ISO_TIME,
+                CSVExporter.ResultColumn.SECONDARY_GAP,
+                CSVExporter.ResultColumn.QUALITY,
+                CSVExporter.ResultColumn.MAGNITUDE));
+    exporter.setDecimals(2);
+    exporter.setPickTable(
+        picks,
+        Arrays.asList(
+            CSVExporter.PickColumn.RESULT_ID,
+            CSVExporter.PickColumn.STATION,
+            CSVExporter.PickColumn.TIME,
+            CSVExporter.PickColumn.USE));
+    Assertions.assertEquals(2, exporter.writeAll(Arrays.asList(result, batched).iterator()));
+    exporter.close();
+
+    Assertions.assertEquals(
+        "ID,ISOTime,SecondaryGap,Quality,Magnitude\n"
+            + "12345678,2015-12-28T21:32:24.017Z,33.67,\"A,\"\"B\"\"\",\n"
+            + "batched,2015-12-28T21:32:24.017Z,33.67,A,\n",
+        writer.toString(),
+        "Results");
+    Assertions.assertEquals(
+        "ResultID,Station,Time,Use\n"
+            + "12345678,BOZ,1451338344.02,true\n"
+            + "batched,BOZ,1451338344.02,true\n",
+        new String(picks.toByteArray(), StandardCharsets.UTF_8),
+        "Picks");
+    Assertions.assertEquals(2, exporter.getPickCount(), "Pick count");
+
+    // header only
+    StringWriter headerOnly = new StringWriter();
+    new CSVExporter(headerOnly, Collections.singletonList(CSVExporter.ResultColumn.GAP)).close();
+    Assertions.assertEquals("Gap\n", headerOnly.toString(), "Header");
+  }
+}
@@ -0,0 +1,166 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CachingTravelTimeServiceTest {
+
+  /** a fake travel time service recording what is forwarded to it */
+  public static class FakeService implements TravelTimeService {
+    /** The number of receivers forwarded */
+    public int forwarded;
+
+    /** Whether to reverse the Response */
+    public boolean reverse;
+
+    @Override
+    public TravelTimeRequest getTravelTimes(TravelTimeRequest request) {
+      ArrayList<TravelTimeReceiver> response = new ArrayList<TravelTimeReceiver>();
+      for (TravelTimeReceiver receiver : request.Receivers) {
+        forwarded++;
+        TravelTimeReceiver answer = new TravelTimeReceiver(receiver);
+        TravelTimeData data = new TravelTimeData();
+        data.Phase = "P";
+        // receivers without a Distance are north or south of the source
+        double distance =
+            (receiver.Distance != null)
+                ? receiver.Distance
+                : Math.abs(receiver.Latitude - request.Source.Latitude);
+        data.TravelTime = distance * 10.0 + request.Source.Depth;
+        answer.Branches = new ArrayList<TravelTimeData>(Arrays.asList(data));
+        response.add(reverse ? 0 : response.size(), answer);
+      }
+      TravelTimeRequest result = new TravelTimeRequest(request);
+      result.Response = response;
+      return (result);
+    }
+
+    @Override
+    public TravelTimePlotRequest getTravelTimePlot(TravelTimePlotRequest request) {
+      return (request);
+    }
+  }
+
+  /**
+   * Builds a travel time request
+   *
+   * @param depth - The source depth
+   * @param distances - The receiver distances
+   * @return Returns the request
+   */
+  public static TravelTimeRequest buildRequest(double depth, double... distances) {
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>();
+    for (int i = 0; i < distances.length; i++) {
+      receivers.add(new TravelTimeReceiver("R" + i, distances[i], 15.0, null, null, null));
+    }
+    return (new TravelTimeRequest(
+        new TravelTimeSource(45.0, -112.0, depth),
+        receivers,
+        "AK135",
+        new ArrayList<String>(Arrays.asList("P", "S")),
+        true,
+        false,
+        false,
+        null));
+  }
+
+  /** Forwards only uncached receivers and merges in order */
+  @Test
+  public void forwardsMisses() throws TravelTimeException {
+    FakeService fake = new FakeService();
+    CachingTravelTimeService service = new CachingTravelTimeService(fake, 100);
+
+    TravelTimeRequest first = service.getTravelTimes(buildRequest(10.0, 1.0, 2.0, 1.0));
+    Assertions.assertEquals(2, fake.forwarded, "Distinct receivers forwarded");
+    Assertions.assertEquals(2, service.getSize(), "Size");
+
+    // within the distance quantum of 1.0, plus two new ones
+    TravelTimeRequest second = service.getTravelTimes(buildRequest(10.0, 3.0, 1.0004, 2.0, 4.0));
+    Assertions.assertEquals(4, fake.forwarded, "Only misses forwarded");
+    Assertions.assertEquals(4, second.Response.size(), "Response size");
+    double[] expected = {40.0, 20.0, 30.0, 50.0};
+    for (int i = 0; i < expected.length; i++) {
+      Assertions.assertEquals("R" + i, second.Response.get(i).ID, "ID " + i);
+      Assertions.assertEquals(
+          expected[i], second.Response.get(i).Branches.get(0).TravelTime, 1e-9, "Time " + i);
+    }
+    Assertions.assertEquals(3, first.Response.size(), "First response");
+    Assertions.assertEquals(1.0004, second.Response.get(1).Distance, "Keeps receiver geometry");
+
+    Assertions.assertEquals(2, service.getHitCount(), "Hits");
+    Assertions.assertEquals(5, service.getMissCount(), "Misses");
+
+    // a different depth or earth model is a different key
+    service.getTravelTimes(buildRequest(20.0, 1.0));
+    TravelTimeRequest model = buildRequest(10.0, 1.0);
+    model.EarthModel = "IASP91";
+    service.getTravelTimes(model);
+    Assertions.assertEquals(6, fake.forwarded, "Keyed on depth and model");
+  }
+
+  /** Protects cached values and evicts the least recently used */
+  @Test
+  public void evicts() throws TravelTimeException {
+    FakeService fake = new FakeService();
+    fake.reverse = true;
+    CachingTravelTimeService service = new CachingTravelTimeService(fake, 2, 0, 0, 0);
+
+    // reversed Responses are matched by ID
+    TravelTimeRequest result = service.getTravelTimes(buildRequest(10.0, 1.0, 2.0));
+    Assertions.assertEquals(10.0 + 10.0, result.Response.get(0).Branches.get(0).TravelTime, "Id");
+    result.Response.get(0).Branches.get(0).TravelTime = -1.0;
+
+    service.getTravelTimes(buildRequest(10.0, 1.0));
+    service.getTravelTimes(buildRequest(10.0, 3.0));
+    Assertions.assertEquals(1, service.getEvictionCount(), "Evictions");
+    Assertions.assertEquals(2, service.getSize(), "Size");
+
+    result = service.getTravelTimes(buildRequest(10.0, 1.0));
+    Assertions.assertEquals(20.0, result.Response.get(0).Branches.get(0).TravelTime, "Copied");
+    Assertions.assertEquals(3, fake.forwarded, "1.0 was recently used");
+
+    service.getTravelTimes(buildRequest(10.0, 2.0));
+    Assertions.assertEquals(4, fake.forwarded, "2.0 was evicted");
+
+    service.clear();
+    Assertions.assertEquals(0, service.getSize(), "Cleared");
+    Assertions.assertEquals(0, service.getHitRate(), "Reset");
+  }
+
+  /** Keys receivers without a Distance on their locations */
+  @Test
+  public void keysLocations() throws TravelTimeException {
+    FakeService fake = new FakeService();
+    CachingTravelTimeService service = new CachingTravelTimeService(fake, 100);
+
+    TravelTimeRequest request = buildRequest(0.0, 1.0, 2.0, 3.0);
+    for (TravelTimeReceiver receiver : request.Receivers) {
+      receiver.Latitude = request.Source.Latitude + receiver.Distance * 10.0;
+      receiver.Longitude = request.Source.Longitude;
+      receiver.Distance = null;
+    }
+
+    TravelTimeRequest result = service.getTravelTimes(request);
+    Assertions.assertEquals(3, fake.forwarded, "Distinct locations");
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertEquals(
+          100.0 * (i + 1),
+          result.Response.get(i).Branches.get(0).TravelTime,
+          1e-9,
+          "Travel time " + i);
+    }
+
+    result = service.getTravelTimes(request);
+    Assertions.assertEquals(3, fake.forwarded, "Cached");
+    Assertions.assertEquals(300.0, result.Response.get(2).Branches.get(0).TravelTime, 1e-9, "Hit");
+
+    // another source
+    request.Source.Latitude -= 5.0;
+    result = service.getTravelTimes(request);
+    Assertions.assertEquals(6, fake.forwarded, "Keyed on the source location");
+    Assertions.assertEquals(
+        150.0, result.Response.get(0).Branches.get(0).TravelTime, 1e-9, "Moved");
+  }
+}
@@ -0,0 +1,173 @@
+package gov.usgs.processingformats;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import javax.xml.datatype.XMLGregorianCalendar;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DateTimeCodecTest {
+
+  /** Shapes handled by the fast path */
+  public static final String[] FAST_CORPUS = {
+    "2015-12-28T21:32:24.017Z",
+    "2015-12-28T21:32:24Z",
+    "2015-12-28T21:32:24.1Z",
+    "2015-12-28T21:32:24.12Z",
+    "2015-12-28T21:32:24.0175Z",
+    "2015-12-28T21:32:24.0179999Z",
+    "2015-12-28T21:32:24.017+02:00",
+    "2015-12-28T21:32:24.017-09:30",
+    "2015-12-28T21:32:24+13:59",
+    "2016-02-29T23:59:59.999Z",
+    "2000-02-29T00:00:00.000Z",
+    "1970-01-01T00:00:00.000Z",
+    "1969-12-31T23:59:59.999Z",
+    "1583-01-01T00:00:00.000Z",
+    "9999-12-31T23:59:59.999Z",
+    "1900-01-01T00:00:00.000-05:00"
+  };
+
+  /** Shapes that fall back to the XMLGregorianCalendar parser */
+  public static final String[] FALLBACK_CORPUS = {
+    "2015-12-28T24:00:00Z",
+    "2015-12-28T21:32:60Z",
+    "2015-12-28",
+    "2015-12-28T21:32:24.",
+    "2015-12-28T21:32:24.017+14:00",
+    "2015-02-30T00:00:00Z",
+    "2015-13-01T00:00:00Z",
+    "2015-12-28t21:32:24Z",
+    "-0001-01-01T00:00:00Z",
+    "1200-06-01T00:00:00Z",
+    "12015-12-28T21:32:24Z",
+    " 2015-12-28T21:32:24Z",
+    "2015-12-28T21:32:24Z ",
+    "2015-12-28T21:32:24+0200",
+    "bogus",
+    ""
+  };
+
+  /** Parses the fast path corpus exactly like the legacy parser */
+  @Test
+  public void parsesFastCorpus() {
+    for (String text : FAST_CORPUS) {
+      long expected = legacyParse(text).getTime();
+
+      Assertions.assertEquals(expected, DateTimeCodec.parseMillis(text), "ParseMillis " + text);
+      Assertions.assertEquals(
+          expected, DateTimeCodec.parseDate(text).getTime(), "ParseDate " + text);
+      Assertions.assertEquals(expected, Utility.getDate(text).getTime(), "GetDate " + text);
+
+      // byte ranges
+      byte[] bytes = ("[\"" + text + "\"]").getBytes(StandardCharsets.US_ASCII);
+      Assertions.assertEquals(
+          expected,
+          DateTimeCodec.parseMillis(bytes, 2, bytes.length - 2),
+          "ParseMillis bytes " + text);
+    }
+  }
+
+  /** Falls back to the legacy parser for other shapes */
+  @Test
+  public void parsesFallbackCorpus() {
+    for (String text : FALLBACK_CORPUS) {
+      Assertions.assertEquals(
+          DateTimeCodec.INVALID, DateTimeCodec.parseMillis(text), "Not fast path " + text);
+      Assertions.assertEquals(legacyParse(text), Utility.getDate(text), "GetDate " + text);
+    }
+  }
+
+  /** Parses random timestamps exactly like the legacy parser */
+  @Test
+  public void parsesRandom() {
+    Random random = new Random(8601);
+    for (int i = 0; i < 5000; i++) {
+      String text =
+          String.format(
+              "%04d-%02d-%02dT%02d:%02d:%02d%s%s",
+              1583 + random.nextInt(8417),
+              1 + random.nextInt(12),
+              1 + random.nextInt(31),
+              random.nextInt(25),
+              random.nextInt(60),
+              random.nextInt(61),
+              random.nextBoolean() ? "" : "." + random.nextInt(100000),
+              random.nextBoolean()
+                  ? "Z"
+                  : String.format(
+                      "%s%02d:%02d",
+                      random.nextBoolean() ? "+" : "-", random.nextInt(15), random.nextInt(60)));
+
+      Assertions.assertEquals(legacyParse(text), Utility.getDate(text), "GetDate " + text);
+    }
+  }
+
+  /** Formats the edges of the fast path range */
+  @Test
+  public void formatsEdges() {
+    Assertions.assertEquals("1970-01-01T00:00:00.000Z", DateTimeCodec.format(0L), "Epoch");
+    Assertions.assertEquals("1969-12-31T23:59:59.999Z", DateTimeCodec.format(-1L), "Before epoch");
+    Assertions.assertEquals(
+        "2015-12-28T21:32:24.017Z", DateTimeCodec.format(1451338344017L), "Millis");
+    Assertions.assertEquals(
+        "2015-12-28T21:32:24.000Z", DateTimeCodec.format(1451338344000L), "Zero millis");
+    Assertions.assertEquals(
+        "1583-01-01T00:00:00.000Z", DateTimeCodec.format(-12212553600000L), "First year");
+    Assertions.assertEquals(
+        "9999-12-31T23:59:59.999Z", DateTimeCodec.format(253402300799999L), "Last year");
+
+    // outside the fast path range
+    Assertions.assertEquals(
+        legacyFormat(253402300800000L), DateTimeCodec.format(253402300800000L), "Year 10000");
+    Assertions.assertEquals(
+        legacyFormat(-62198755200000L), DateTimeCodec.format(-62198755200000L), "Negative year");
+  }
+
+  /** Formats random times exactly like the legacy formatter */
+  @Test
+  public void formatsRandom() {
+    Random random = new Random(1970);
+    for (int i = 0; i < 5000; i++) {
+      // 1972 through 2100, avoiding historical sub minute zone offsets that the legacy formatter
+      // truncates when the default time zone is not UTC
+      long millis = 63072000000L + (long) (random.nextDouble() * 4039372800000L);
+
+      String formatted = DateTimeCodec.format(millis);
+      Assertions.assertEquals(legacyFormat(millis), formatted, "Format " + millis);
+      Assertions.assertEquals(
+          formatted, Utility.formatDate(new Date(millis)), "FormatDate " + millis);
+
+      // round trip
+      Assertions.assertEquals(millis, DateTimeCodec.parseMillis(formatted), "Round trip");
+    }
+  }
+
+  /**
+   * Parses using the XMLGregorianCalendar based code
+   *
+   * @param text - The text to parse
+   * @return Returns the parsed Date, or null
+   */
+  public Date legacyParse(String text) {
+    XMLGregorianCalendar calendar = Utility.getXMLGregorianCalendar(text);
+    if (calendar == null) {
+      return (null);
+    }
+    return (new Date(calendar.toGregorianCalendar().getTimeInMillis()));
+  }
+
+  /**
+   * Formats using the XMLGregorianCalendar based code
+   *
+   * @param millis - The epoch milliseconds to format
+   * @return Returns the formatted String
+   */
+  public String legacyFormat(long millis) {
+    GregorianCalendar calendar = new GregorianCalendar();
+    calendar.setTimeInMillis(millis);
+    return (Utility.formatGregorianCalendar(calendar));
+  }
+}
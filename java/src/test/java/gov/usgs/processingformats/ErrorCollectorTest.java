@@ -0,0 +1,212 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ErrorCollectorTest {
+
+  /**
+   * Builds a LocationRequest with two invalid picks
+   *
+   * @return Returns the LocationRequest
+   */
+  public static LocationRequest buildInvalidRequest() throws ParseException {
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    request.InputData = PickBatchTest.buildPicks(20);
+    request.InputData.get(3).ID = null;
+    request.InputData.get(12).Site.Latitude = 100.0;
+    request.InputData.get(12).Affinity = null;
+    request.InputData.remove(19);
+
+    return (request);
+  }
+
+  /** Keeps the getErrors messages */
+  @Test
+  public void unchangedMessages() throws ParseException {
+    LocationRequest request = buildInvalidRequest();
+
+    ArrayList<String> expected = new ArrayList<String>();
+    expected.add("Invalid Pick in InputData in LocationRequest Class:  No ID in Pick Class.");
+    Assertions.assertEquals(expected, request.getErrors(), "GetErrors");
+    Assertions.assertEquals(false, request.isValid(), "IsValid");
+
+    Pick pick = request.InputData.get(12);
+    expected.clear();
+    expected.add("Invalid Site in Pick Class.");
+    expected.add("No Affinity in Pick Class.");
+    Assertions.assertEquals(expected, pick.getErrors(), "Pick GetErrors");
+
+    // columnar picks report the same way
+    request.InputBatch = new PickBatch(request.InputData);
+    request.InputData = null;
+    Assertions.assertEquals(
+        "Invalid Pick in InputData in LocationRequest Class:  No ID in Pick Class.",
+        request.getErrors().get(0),
+        "Batch GetErrors");
+  }
+
+  /** Reports every invalid pick with its index */
+  @Test
+  public void exhaustive() throws ParseException {
+    LocationRequest request = buildInvalidRequest();
+
+    ErrorCollector collector = new ErrorCollector(true);
+    Assertions.assertEquals(false, request.validate(collector), "Validate");
+
+    ArrayList<String> expected = new ArrayList<String>();
+    expected.add("Invalid Pick 3 in InputData in LocationRequest Class:  No ID in Pick Class.");
+    expected.add(
+        "Invalid Pick 12 in InputData in LocationRequest Class:  Invalid Site in Pick Class."
+            + " No Affinity in Pick Class.");
+    Assertions.assertEquals(expected, collector.getErrors(), "Exhaustive");
+
+    // columnar picks report the same way
+    request.InputBatch = new PickBatch(request.InputData);
+    request.InputData = null;
+    collector.clear();
+    request.validate(collector);
+    Assertions.assertEquals(expected, collector.getErrors(), "Batch exhaustive");
+
+    // other lists
+    TravelTimeRequest ttRequest =
+        new TravelTimeRequest(
+            Utility.fromJSONString(TravelTimeRequestTest.TRAVELTIMEREQUEST_STRING));
+    ttRequest.Receivers.add(new TravelTimeReceiver());
+    collector.clear();
+    ttRequest.validate(collector);
+    Assertions.assertEquals(
+        "Invalid Receiver " + (ttRequest.Receivers.size() - 1) + " in TravelTimeRequest Class.",
+        collector.getErrors().get(0),
+        "Receivers");
+  }
+
+  /** Stops at the first error without reporting */
+  @Test
+  public void failFast() throws ParseException {
+    LocationRequest request = buildInvalidRequest();
+
+    Assertions.assertEquals(false, request.validate(ErrorSink.FAIL_FAST), "Invalid");
+
+    request.InputData.get(3).ID = "Pick3";
+    request.InputData.get(12).Site.Latitude = 40.0;
+    request.InputData.get(12).Affinity = 1.0;
+    Assertions.assertEquals(true, request.validate(ErrorSink.FAIL_FAST), "Valid");
+    Assertions.assertEquals(true, request.getErrors().isEmpty(), "No errors");
+  }
+
+  /** an invalid list element counting its walks */
+  public static class CountingElement implements ProcessingInt {
+    /** The number of walks */
+    public int walks;
+
+    @Override
+    public JSONObject toJSON() {
+      return (new JSONObject());
+    }
+
+    @Override
+    public boolean isValid() {
+      return (validate(ErrorSink.FAIL_FAST));
+    }
+
+    @Override
+    public ArrayList<String> getErrors() {
+      ErrorCollector collector = new ErrorCollector();
+      validate(collector);
+      return (collector.getErrors());
+    }
+
+    @Override
+    public boolean validate(ErrorSink sink) {
+      walks++;
+      sink.add("Broken.");
+      return (false);
+    }
+  }
+
+  /** Walks each element once when reporting its details */
+  @Test
+  public void walksOnce() {
+    ArrayList<CountingElement> list = new ArrayList<CountingElement>();
+    for (int i = 0; i < 3; i++) {
+      list.add(new CountingElement());
+    }
+
+    ErrorCollector collector = new ErrorCollector(true);
+    Assertions.assertEquals(
+        false, ErrorCollector.validateList(list, collector, "Invalid Element", ":", true), "Valid");
+    Assertions.assertEquals("Invalid Element 2: Broken.", collector.getErrors().get(2), "Details");
+    for (CountingElement element : list) {
+      Assertions.assertEquals(1, element.walks, "Walks");
+    }
+
+    // fail fast stops at the first
+    Assertions.assertEquals(
+        false, ErrorCollector.validateList(list, ErrorSink.FAIL_FAST, "", "", true), "Fail fast");
+    Assertions.assertEquals(2, list.get(0).walks, "First walked");
+    Assertions.assertEquals(1, list.get(1).walks, "Second not walked");
+  }
+
+  /** Reports the same errors in the same order when validating in parallel */
+  @Test
+  public void parallel() throws ParseException {
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    request.InputData = PickBatchTest.buildPicks(5000);
+    for (int i = 7; i < 5000; i += 613) {
+      request.InputData.get(i).ID = null;
+    }
+    request.InputData.get(4999).Affinity = null;
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (boolean exhaustive : new boolean[] {false, true}) {
+        ErrorCollector sequential = new ErrorCollector(exhaustive);
+        ErrorCollector parallel = new ErrorCollector(exhaustive, 1000, pool);
+        Assertions.assertEquals(false, request.validate(sequential), "Sequential");
+        Assertions.assertEquals(false, request.validate(parallel), "Parallel");
+        Assertions.assertEquals(
+            exhaustive ? 10 : 1, sequential.getErrors().size(), "Count " + exhaustive);
+        Assertions.assertEquals(
+            sequential.getErrors(), parallel.getErrors(), "Ordered " + exhaustive);
+      }
+
+      // results and columnar picks split the same way
+      LocationResult result = new LocationResult();
+      result.SupportingData = request.InputData;
+      ErrorCollector sequential = new ErrorCollector(true);
+      ErrorCollector parallel = new ErrorCollector(true, 1000, pool);
+      result.validate(sequential);
+      result.validate(parallel);
+      Assertions.assertEquals(sequential.getErrors(), parallel.getErrors(), "Result");
+
+      PickBatch batch = new PickBatch(request.InputData);
+      sequential.clear();
+      parallel.clear();
+      batch.validate(sequential, "Invalid Pick", ".");
+      batch.validate(parallel, "Invalid Pick", ".");
+      Assertions.assertEquals(10, parallel.getErrors().size(), "Batch count");
+      Assertions.assertEquals(sequential.getErrors(), parallel.getErrors(), "Batch");
+
+      // valid lists
+      request.InputData.remove(4999);
+      for (Pick pick : request.InputData) {
+        pick.ID = "Pick";
+        pick.Affinity = 1.0;
+      }
+      parallel.clear();
+      Assertions.assertEquals(true, request.validate(parallel), "Valid");
+      Assertions.assertEquals(true, parallel.isEmpty(), "No errors");
+    } finally {
+      pool.shutdown();
+    }
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new ErrorCollector(true, 0));
+  }
+}
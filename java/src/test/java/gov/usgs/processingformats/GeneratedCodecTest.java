@@ -0,0 +1,131 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeneratedCodecTest {
+
+  /** Uses the same keys as the hand written classes */
+  @Test
+  public void matchesKeys() {
+    Assertions.assertEquals(
+        new HashSet<String>(Arrays.asList(LocationRequestReader.LOCATIONREQUEST_KEYS)),
+        new HashSet<String>(Arrays.asList(LocationRequestCodec.KEYS)),
+        "LocationRequest");
+    Assertions.assertEquals(
+        new HashSet<String>(Arrays.asList(LocationRequestReader.PICK_KEYS)),
+        new HashSet<String>(Arrays.asList(PickCodec.KEYS)),
+        "Pick");
+    Assertions.assertEquals(
+        new HashSet<String>(Arrays.asList(LocationRequestReader.SITE_KEYS)),
+        new HashSet<String>(Arrays.asList(SiteCodec.KEYS)),
+        "Site");
+    Assertions.assertEquals(
+        new HashSet<String>(Arrays.asList(LocationRequestReader.SOURCE_KEYS)),
+        new HashSet<String>(Arrays.asList(SourceCodec.KEYS)),
+        "Source");
+  }
+
+  /** Reads and writes a LocationRequest the same as the hand written class */
+  @Test
+  public void locationRequest() throws IOException, ParseException {
+    JSONObject json = Utility.fromJSONString(RawJSONTest.buildJSON());
+    json.put(
+        LocationRequest.OUTPUTDATA_KEY,
+        Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    LocationRequest expected = new LocationRequest(json);
+
+    LocationRequest request =
+        LocationRequestCodec.read(new JSONStreamReader(Utility.toJSONString(json)));
+    Assertions.assertEquals(expected.toJSON(), request.toJSON(), "Read");
+    Assertions.assertEquals("A", request.InputData.get(0).Site.UnknownKeys.get("Vault"), "Vault");
+
+    StringBuilder out = new StringBuilder();
+    LocationRequestCodec.write(expected, new JSONStreamWriter(out));
+    Assertions.assertEquals(
+        expected.toJSON(),
+        new LocationRequest(Utility.fromJSONString(out.toString())).toJSON(),
+        "Write");
+
+    // validation agrees
+    Assertions.assertEquals(true, expected.isValid(), "Valid");
+    Assertions.assertEquals(
+        true, LocationRequestCodec.validate(request, ErrorSink.FAIL_FAST), "Codec valid");
+
+    request.InputData.get(1).Site.Latitude = 95.0;
+    request.InputData.get(1).Source.Type = "Other";
+    request.SourceDepth = null;
+    ErrorCollector errors = new ErrorCollector();
+    Assertions.assertEquals(false, request.isValid(), "Invalid");
+    Assertions.assertEquals(false, LocationRequestCodec.validate(request, errors), "Codec invalid");
+    Assertions.assertEquals(
+        Arrays.asList(
+            "No SourceDepth in LocationRequest Class.",
+            "Invalid Pick 1 in InputData in LocationRequest Class."),
+        errors.getErrors(),
+        "Errors");
+
+    ErrorCollector pickErrors = new ErrorCollector();
+    PickCodec.validate(request.InputData.get(1), pickErrors);
+    Assertions.assertEquals(
+        Arrays.asList("Invalid Site in Pick Class.", "Invalid Source in Pick Class."),
+        pickErrors.getErrors(),
+        "Pick errors");
+  }
+
+  /** Reads and writes the travel time formats the same as the hand written classes */
+  @Test
+  public void travelTimes() throws IOException, ParseException {
+    JSONObject json = Utility.fromJSONString(TravelTimeRequestTest.TRAVELTIMEREQUEST_STRING);
+    TravelTimeRequest expected = new TravelTimeRequest(json);
+
+    TravelTimeRequest request =
+        TravelTimeRequestCodec.read(
+            new JSONStreamReader(TravelTimeRequestTest.TRAVELTIMEREQUEST_STRING));
+    Assertions.assertEquals(expected.toJSON(), request.toJSON(), "Read");
+
+    StringBuilder out = new StringBuilder();
+    TravelTimeRequestCodec.write(expected, new JSONStreamWriter(out));
+    Assertions.assertEquals(expected.toJSON(), Utility.fromJSONString(out.toString()), "Write");
+    Assertions.assertEquals(
+        expected.isValid(),
+        TravelTimeRequestCodec.validate(request, ErrorSink.FAIL_FAST),
+        "Validate");
+
+    // packed branches are written through getSamples()
+    TravelTimePlotRequest plot =
+        new TravelTimePlotRequest(
+            Utility.fromJSONString(TravelTimePlotRequestTest.TRAVELTIMEPLOTREQUEST_STRING), true);
+    out.setLength(0);
+    TravelTimePlotRequestCodec.write(plot, new JSONStreamWriter(out));
+    TravelTimePlotRequest read =
+        TravelTimePlotRequestCodec.read(new JSONStreamReader(out.toString()));
+    Assertions.assertEquals(plot.toJSON(), read.toJSON(), "Plot");
+    Assertions.assertEquals(
+        true, TravelTimePlotRequestCodec.validate(read, ErrorSink.FAIL_FAST), "Plot valid");
+  }
+
+  /** Skips null values and unknown keys of types that do not keep them */
+  @Test
+  public void skipsUnknown() throws IOException, ParseException {
+    TravelTimeSource source =
+        TravelTimeSourceCodec.read(
+            new JSONStreamReader(
+                "{\"Latitude\":45.9,\"Extra\":{\"Latitude\":1.0},\"Longitude\":null,"
+                    + "\"Depth\":15}"));
+
+    Assertions.assertEquals(45.9, source.Latitude, "Latitude");
+    Assertions.assertNull(source.Longitude, "Longitude");
+    Assertions.assertEquals(15.0, source.Depth, "Depth");
+
+    ErrorCollector errors = new ErrorCollector();
+    TravelTimeSourceCodec.validate(source, errors);
+    Assertions.assertEquals(
+        Arrays.asList("No Longitude in TravelTimeSource Class."), errors.getErrors(), "Errors");
+  }
+}
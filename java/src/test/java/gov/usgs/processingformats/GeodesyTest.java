@@ -0,0 +1,218 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeodesyTest {
+
+  /** Computes the WGS84 geodesic, checked against Vincenty's Flinders Peak to Buninyong */
+  @Test
+  public void computesEllipsoidal() {
+    double[] distances = new double[1];
+    double[] azimuths = new double[1];
+    Geodesy.computeDistances(
+        Geodesy.Mode.ELLIPSOIDAL,
+        -(37.0 + 57.0 / 60.0 + 3.72030 / 3600.0),
+        144.0 + 25.0 / 60.0 + 29.52440 / 3600.0,
+        new double[] {-(37.0 + 39.0 / 60.0 + 10.15610 / 3600.0)},
+        new double[] {143.0 + 55.0 / 60.0 + 35.38390 / 3600.0},
+        1,
+        distances,
+        azimuths);
+
+    Assertions.assertEquals(54.972271, distances[0] * Geodesy.KM_PER_DEGREE, 1e-6, "Distance");
+    Assertions.assertEquals(306.0 + 52.0 / 60.0 + 5.37 / 3600.0, azimuths[0], 1e-5, "Azimuth");
+  }
+
+  /** Keeps the spherical mode within its documented error of the ellipsoidal mode */
+  @Test
+  public void computesSpherical() {
+    int count = 0;
+    double[] latitudes = new double[400];
+    double[] longitudes = new double[400];
+    for (int lat = -80; lat <= 80; lat += 20) {
+      for (int lon = -170; lon <= 170; lon += 10) {
+        if (count < latitudes.length) {
+          latitudes[count] = lat + 0.5;
+          longitudes[count] = lon + 0.25;
+          count++;
+        }
+      }
+    }
+
+    double[] spherical = new double[count];
+    double[] sphericalAzimuths = new double[count];
+    double[] ellipsoidal = new double[count];
+    double[] ellipsoidalAzimuths = new double[count];
+    Geodesy.computeDistances(
+        Geodesy.Mode.SPHERICAL,
+        35.0,
+        -118.0,
+        latitudes,
+        longitudes,
+        count,
+        spherical,
+        sphericalAzimuths);
+    Geodesy.computeDistances(
+        Geodesy.Mode.ELLIPSOIDAL,
+        35.0,
+        -118.0,
+        latitudes,
+        longitudes,
+        count,
+        ellipsoidal,
+        ellipsoidalAzimuths);
+
+    for (int i = 0; i < count; i++) {
+      Assertions.assertEquals(
+          ellipsoidal[i], spherical[i], 0.006 * ellipsoidal[i] + 1e-9, "Distance " + i);
+      if (ellipsoidal[i] < 170.0) {
+        double difference = Math.abs(ellipsoidalAzimuths[i] - sphericalAzimuths[i]);
+        Assertions.assertTrue(Math.min(difference, 360.0 - difference) < 1.5, "Azimuth " + i);
+      }
+    }
+
+    // along a meridian the spherical distance is the difference in latitude
+    double[] distances = new double[1];
+    double[] azimuths = new double[1];
+    Geodesy.computeDistances(
+        Geodesy.Mode.SPHERICAL,
+        10.0,
+        20.0,
+        new double[] {-5.0},
+        new double[] {20.0},
+        1,
+        distances,
+        null);
+    Assertions.assertEquals(15.0, distances[0], 1e-9, "Meridian");
+
+    // azimuths are from north, clockwise
+    Geodesy.computeDistances(
+        Geodesy.Mode.SPHERICAL,
+        0.0,
+        179.0,
+        new double[] {0.0},
+        new double[] {-179.0},
+        1,
+        distances,
+        azimuths);
+    Assertions.assertEquals(2.0, distances[0], 1e-9, "Dateline");
+    Assertions.assertEquals(90.0, azimuths[0], 1e-9, "East");
+  }
+
+  /** Falls back to the spherical mode near the antipode */
+  @Test
+  public void computesAntipode() {
+    double[] distances = new double[1];
+    Geodesy.computeDistances(
+        Geodesy.Mode.ELLIPSOIDAL,
+        0.0,
+        0.0,
+        new double[] {0.0},
+        new double[] {179.9},
+        1,
+        distances,
+        null);
+
+    Assertions.assertEquals(179.9, distances[0], 0.5, "Distance");
+  }
+
+  /** Writes the computed values of picks decoded with their text retained */
+  @Test
+  public void updatesRetainedPicks() throws Exception {
+    LocationRequest request = LocationRequestReader.readRetainingSource(RawJSONTest.buildJSON());
+    Hypocenter hypocenter = new Hypocenter();
+    hypocenter.Latitude = 35.0;
+    hypocenter.Longitude = -118.0;
+    Geodesy.computeDistances(Geodesy.Mode.SPHERICAL, hypocenter, request.InputData);
+
+    Pick pick = request.InputData.get(0);
+    Assertions.assertTrue(pick.isDirty(), "Dirty");
+
+    StringBuilder out = new StringBuilder();
+    pick.writeTo(out);
+    Pick written = new Pick(Utility.fromJSONString(out.toString()));
+    Assertions.assertEquals(pick.Distance, written.Distance, "Distance");
+    Assertions.assertEquals(pick.Azimuth, written.Azimuth, "Azimuth");
+  }
+
+  /** Computes the gap and secondary gap */
+  @Test
+  public void computesGaps() {
+    double[] gaps = Geodesy.computeGaps(new double[] {0.0, 90.0, 180.0, 270.0}, 4);
+    Assertions.assertEquals(90.0, gaps[0], 1e-9, "Gap");
+    Assertions.assertEquals(180.0, gaps[1], 1e-9, "Secondary gap");
+
+    // a lone station to the east, equal and negative azimuths
+    gaps = Geodesy.computeGaps(new double[] {350.0, -10.0, 10.0, 100.0, 20.0}, 5);
+    Assertions.assertEquals(250.0, gaps[0], 1e-9, "Gap with lone station");
+    Assertions.assertEquals(330.0, gaps[1], 1e-9, "Secondary gap with lone station");
+
+    gaps = Geodesy.computeGaps(new double[] {45.0, 45.0}, 2);
+    Assertions.assertEquals(360.0, gaps[0], 1e-9, "Gap of one station");
+    Assertions.assertEquals(360.0, gaps[1], 1e-9, "Secondary gap of one station");
+  }
+
+  /** Computes the statistics of a result from either pick representation */
+  @Test
+  public void computesStatistics() throws Exception {
+    ArrayList<Pick> picks = PickBatchTest.buildPicks(12);
+    for (Pick pick : picks) {
+      pick.Use = null;
+    }
+    picks.get(3).Use = false;
+    picks.get(5).Site.Latitude = null;
+
+    LocationResult listResult =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    listResult.SupportingData = new ArrayList<Pick>();
+    for (Pick pick : picks) {
+      listResult.SupportingData.add(new Pick(pick.toJSON()));
+    }
+    Geodesy.computeStatistics(Geodesy.Mode.ELLIPSOIDAL, listResult);
+
+    LocationResult batchResult =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    batchResult.SupportingData = null;
+    batchResult.SupportingBatch = new PickBatch(picks);
+    Geodesy.computeStatistics(Geodesy.Mode.ELLIPSOIDAL, batchResult);
+
+    for (int i = 0; i < picks.size(); i++) {
+      Pick pick = listResult.SupportingData.get(i);
+      if ((i == 5) || (i == 11)) {
+        Assertions.assertEquals(picks.get(i).Distance, pick.Distance, "Unlocated distance");
+        continue;
+      }
+      Assertions.assertEquals(
+          pick.Distance,
+          batchResult.SupportingBatch.getDouble(PickBatch.DoubleColumn.DISTANCE, i),
+          1e-12,
+          "Distance " + i);
+      Assertions.assertEquals(
+          pick.Azimuth,
+          batchResult.SupportingBatch.getDouble(PickBatch.DoubleColumn.AZIMUTH, i),
+          1e-12,
+          "Azimuth " + i);
+    }
+
+    // the stations are in a line to the east, the last has no site
+    Assertions.assertEquals(listResult.Gap, batchResult.Gap, 1e-12, "Gap");
+    Assertions.assertEquals(
+        listResult.SecondaryGap, batchResult.SecondaryGap, 1e-12, "Secondary gap");
+    Assertions.assertEquals(
+        listResult.SupportingData.get(10).Distance,
+        listResult.MinimumDistance,
+        1e-12,
+        "Minimum distance");
+    Assertions.assertTrue(listResult.Gap > 300.0, "Gap of a line");
+
+    // left unchanged without used picks
+    LocationResult unused =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    Double gap = unused.Gap;
+    unused.SupportingData.get(0).Use = false;
+    Geodesy.computeStatistics(Geodesy.Mode.SPHERICAL, unused);
+    Assertions.assertEquals(gap, unused.Gap, "Unchanged gap");
+  }
+}
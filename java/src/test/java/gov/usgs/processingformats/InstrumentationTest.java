@@ -0,0 +1,122 @@
+package gov.usgs.processingformats;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.json.simple.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InstrumentationTest {
+
+  /** Records nothing by default */
+  @Test
+  public void defaultsToNoop() {
+    Assertions.assertSame(Instrumentation.NOOP, InstrumentationRegistry.get(), "Default");
+    Assertions.assertNull(InstrumentationRegistry.start(), "Not started");
+    Assertions.assertSame(
+        Instrumentation.NOOP,
+        InstrumentationRegistry.combine(Instrumentation.NOOP, null),
+        "Combined noop");
+  }
+
+  /** Counts operations labeled by type and payload size */
+  @Test
+  public void recordsMetrics() throws Exception {
+    MetricsInstrumentation metrics = new MetricsInstrumentation();
+    MetricsInstrumentation other = new MetricsInstrumentation();
+    InstrumentationRegistry.set(InstrumentationRegistry.combine(metrics, other));
+
+    try {
+      LocationRequest request =
+          new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+      int picks = request.InputData.size();
+      request.toJSON();
+      request.getErrors();
+
+      // parse
+      MetricsInstrumentation.Metric parse =
+          metrics.getMetric(Instrumentation.Operation.PARSE, "JSON", 1);
+      Assertions.assertEquals(1, parse.getCount(), "Parse count");
+      Assertions.assertEquals(
+          LocationRequestTest.LOCATIONREQUEST_STRING.length(), parse.getBytes(), "Parse bytes");
+
+      // decode, labeled by pick count, with the nested picks and sites
+      MetricsInstrumentation.Metric decode =
+          metrics.getMetric(Instrumentation.Operation.DECODE, "LocationRequest", picks);
+      Assertions.assertEquals(1, decode.getCount(), "Decode count");
+      Assertions.assertNull(
+          metrics.getMetric(Instrumentation.Operation.DECODE, "LocationRequest", picks * 4),
+          "Other size");
+      Assertions.assertEquals(
+          picks,
+          metrics.getMetric(Instrumentation.Operation.DECODE, "Site", 1).getCount(),
+          "Sites");
+
+      // encode and validate
+      Assertions.assertEquals(
+          1,
+          metrics.getMetric(Instrumentation.Operation.ENCODE, "LocationRequest", picks).getCount(),
+          "Encode count");
+      MetricsInstrumentation.Metric validate =
+          metrics.getMetric(Instrumentation.Operation.VALIDATE, "LocationRequest", picks);
+      Assertions.assertEquals(1, validate.getCount(), "Validate count");
+      Assertions.assertEquals(
+          validate.getTotalNanos() > 0, validate.getQuantileNanos(0.5) > 0, "Quantile");
+
+      // both combined instrumentations recorded
+      Assertions.assertEquals(metrics.toJSON(), other.toJSON(), "Combined");
+      JSONObject report = metrics.toJSON();
+      Assertions.assertTrue(report.containsKey("VALIDATE"), "Report");
+
+      metrics.reset();
+      Assertions.assertNull(metrics.getMetric(Instrumentation.Operation.PARSE, "JSON", 1));
+    } finally {
+      InstrumentationRegistry.set(null);
+    }
+  }
+
+  /** Groups payload sizes by powers of two */
+  @Test
+  public void groupsSizes() {
+    Assertions.assertEquals(0, MetricsInstrumentation.getSizeGroup(0), "0");
+    Assertions.assertEquals(1, MetricsInstrumentation.getSizeGroup(1), "1");
+    Assertions.assertEquals(2, MetricsInstrumentation.getSizeGroup(3), "3");
+    Assertions.assertEquals(3, MetricsInstrumentation.getSizeGroup(4), "4");
+    Assertions.assertEquals(31, MetricsInstrumentation.getSizeGroup(Integer.MAX_VALUE), "Max");
+  }
+
+  /** Emits flight recorder events */
+  @Test
+  public void emitsEvents() throws Exception {
+    Path file = Files.createTempFile("instrumentation", ".jfr");
+    InstrumentationRegistry.set(new JFRInstrumentation());
+
+    try (Recording recording = new Recording()) {
+      recording.enable("gov.usgs.processingformats.Operation");
+      recording.start();
+      new Site(Utility.fromJSONString(SiteTest.SITE_STRING)).getErrors();
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+      Assertions.assertEquals(3, events.size(), "Events");
+      Assertions.assertEquals("PARSE", events.get(0).getString("operation"), "Parse");
+      Assertions.assertEquals(
+          SiteTest.SITE_STRING.length(), events.get(0).getLong("characters"), "Characters");
+      Assertions.assertTrue(events.get(0).getDuration().toNanos() > 0, "Spans the parse");
+      Assertions.assertTrue(
+          events.get(0).getEndTime().compareTo(events.get(1).getStartTime()) <= 0, "In order");
+      Assertions.assertEquals("Site", events.get(2).getString("type"), "Type");
+      Assertions.assertEquals("VALIDATE", events.get(2).getString("operation"), "Validate");
+    } finally {
+      InstrumentationRegistry.set(null);
+      Files.deleteIfExists(file);
+    }
+  }
+}
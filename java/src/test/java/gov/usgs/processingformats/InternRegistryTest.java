@@ -0,0 +1,98 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InternRegistryTest {
+
+  /** Shares equal Sites and Sources between decoded requests */
+  @Test
+  public void sharesInstances() throws IOException, ParseException {
+    InternRegistry registry = new InternRegistry();
+    String json = LocationRequestTest.LOCATIONREQUEST_STRING;
+
+    LocationRequest first = registry.intern(LocationRequestReader.read(json));
+    LocationRequest second = registry.intern(new LocationRequest(Utility.fromJSONString(json)));
+
+    Pick firstPick = first.InputData.get(0);
+    Pick secondPick = second.InputData.get(0);
+    Assertions.assertNotSame(firstPick, secondPick, "Distinct picks");
+    Assertions.assertSame(firstPick.Site, secondPick.Site, "Shared Site");
+    Assertions.assertSame(firstPick.Source, secondPick.Source, "Shared Source");
+    Assertions.assertSame(first.Source, second.Source, "Shared request Source");
+    Assertions.assertEquals(Utility.fromJSONString(json), second.toJSON(), "Values are unchanged");
+
+    Assertions.assertTrue(registry.getHitCount() > 0, "Hits");
+    Assertions.assertEquals(1, registry.getSites().size(), "Sites");
+  }
+
+  /** Leaves Sites and Sources with unknown keys or retained text as they are */
+  @Test
+  public void keepsUnknownKeys() throws IOException, ParseException {
+    InternRegistry registry = new InternRegistry();
+    String json = RawJSONTest.buildJSON();
+
+    // registered first without unknown keys
+    Site plain = registry.intern(PickBatchTest.buildPicks(2).get(0).Site);
+    LocationRequest request = registry.intern(new LocationRequest(Utility.fromJSONString(json)));
+    Site site = request.InputData.get(0).Site;
+    Assertions.assertEquals(plain, site, "Equal Site");
+    Assertions.assertNotSame(plain, site, "Not replaced");
+    Assertions.assertEquals("A", site.UnknownKeys.get("Vault"), "Vault");
+    Assertions.assertEquals(7L, request.Source.UnknownKeys.get("Region"), "Region");
+    Assertions.assertEquals(Utility.fromJSONString(json), request.toJSON(), "Values are unchanged");
+
+    // not registered
+    InternRegistry empty = new InternRegistry();
+    empty.intern(new LocationRequest(Utility.fromJSONString(json)));
+    empty.intern(
+        LocationRequestReader.readRetainingSource(LocationRequestTest.LOCATIONREQUEST_STRING));
+    Assertions.assertEquals(0, empty.getSize(), "Unregistered");
+    Assertions.assertTrue(empty.getMissCount() > 0, "Misses");
+  }
+
+  /** Agrees on one instance across threads */
+  @Test
+  public void internsConcurrently() throws Exception {
+    InternRegistry registry = new InternRegistry();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      ArrayList<Future<Site>> futures = new ArrayList<Future<Site>>();
+      for (int i = 0; i < 64; i++) {
+        futures.add(
+            executor.submit(
+                () ->
+                    registry.intern(
+                        new Site("BOZ", "BHZ", "US", "00", 45.59697, -111.62967, 1589.0))));
+      }
+      Site canonical = futures.get(0).get();
+      for (Future<Site> future : futures) {
+        Assertions.assertSame(canonical, future.get(), "Same instance");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Leaves values as they are once full */
+  @Test
+  public void boundsRetention() {
+    InternRegistry registry = new InternRegistry(1);
+    Source first = registry.intern(new Source("US", "A", "Unknown"));
+    Source other = new Source("US", "B", "Unknown");
+
+    Assertions.assertSame(other, registry.intern(other), "Not registered");
+    Assertions.assertSame(
+        first, registry.intern(new Source("US", "A", "Unknown")), "Still registered");
+    Assertions.assertEquals(1, registry.getSize(), "Size");
+
+    registry.clear();
+    Assertions.assertEquals(0, registry.getSize(), "Cleared");
+  }
+}
@@ -0,0 +1,321 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class InterpolatingTravelTimeServiceTest {
+
+  /** Kilometers per degree */
+  public static final double KM_PER_DEGREE = 111.19;
+
+  /**
+   * An analytic travel time through a uniform half space
+   *
+   * @param distance - The distance in degrees
+   * @param depth - The depth in kilometers
+   * @param velocity - The velocity in kilometers per second
+   * @return Returns the travel time in seconds
+   */
+  public static double time(double distance, double depth, double velocity) {
+    double x = distance * KM_PER_DEGREE;
+    return (Math.sqrt(x * x + depth * depth) / velocity);
+  }
+
+  /**
+   * The slope of the analytic travel time
+   *
+   * @param distance - The distance in degrees
+   * @param depth - The depth in kilometers
+   * @param velocity - The velocity in kilometers per second
+   * @return Returns the slope in seconds per degree
+   */
+  public static double slope(double distance, double depth, double velocity) {
+    double x = distance * KM_PER_DEGREE;
+    return (x * KM_PER_DEGREE / (velocity * Math.sqrt(x * x + depth * depth)));
+  }
+
+  /** a fake travel time server tabulating analytic P and S curves, and a slow P back branch */
+  public static class FakeServer implements TravelTimeService {
+    /** The number of plot requests */
+    public int plots;
+
+    @Override
+    public TravelTimeRequest getTravelTimes(TravelTimeRequest request) {
+      return (request);
+    }
+
+    @Override
+    public TravelTimePlotRequest getTravelTimePlot(TravelTimePlotRequest request) {
+      plots++;
+      double depth = request.Source.Depth;
+      ArrayList<TravelTimePlotDataBranch> response = new ArrayList<TravelTimePlotDataBranch>();
+      Object[][] phases =
+          Boolean.TRUE.equals(request.ReturnBackBranches)
+              ? new Object[][] {{"Pg", 6.0}, {"Sg", 3.5}, {"Pg", 2.5}}
+              : new Object[][] {{"Pg", 6.0}, {"Sg", 3.5}};
+      for (Object[] phase : phases) {
+        double velocity = (Double) phase[1];
+        ArrayList<TravelTimePlotDataSample> samples = new ArrayList<TravelTimePlotDataSample>();
+        for (double distance = 0; distance <= request.MaximumDistance; ) {
+          samples.add(
+              new TravelTimePlotDataSample(
+                  distance,
+                  time(distance, depth, velocity),
+                  1.0 + distance / 10.0,
+                  null,
+                  slope(distance, depth, velocity)));
+          distance += request.DistanceStep;
+        }
+        response.add(new TravelTimePlotDataBranch((String) phase[0], samples));
+      }
+
+      TravelTimePlotRequest result = new TravelTimePlotRequest(request);
+      result.Response = response;
+      return (result);
+    }
+  }
+
+  /**
+   * Builds a table over depths 0 to 50 kilometers and distances 0 to 20 degrees
+   *
+   * @param server - The server to tabulate
+   * @return Returns the table
+   */
+  public static InterpolatingTravelTimeService buildTable(FakeServer server)
+      throws TravelTimeException {
+    TravelTimePlotRequest template =
+        new TravelTimePlotRequest(
+            new TravelTimeSource(0.0, 0.0, 0.0),
+            "AK135",
+            null,
+            false,
+            false,
+            false,
+            20.0,
+            0.5,
+            null,
+            null);
+    return (InterpolatingTravelTimeService.build(
+        server, template, new double[] {0, 10, 20, 30, 40, 50}));
+  }
+
+  /** Interpolates travel times between samples and depths */
+  @Test
+  public void interpolates() throws TravelTimeException {
+    FakeServer server = new FakeServer();
+    InterpolatingTravelTimeService table = buildTable(server);
+    Assertions.assertEquals(6, server.plots, "Plots");
+
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>();
+    receivers.add(new TravelTimeReceiver("A", 7.3, 0.0, null, null, null));
+    receivers.add(new TravelTimeReceiver("B", 20.0, 0.0, null, null, null));
+    receivers.add(new TravelTimeReceiver("C", 25.0, 0.0, null, null, null));
+    TravelTimeRequest request =
+        new TravelTimeRequest(
+            new TravelTimeSource(35.0, -117.0, 23.7),
+            receivers,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null);
+
+    TravelTimeRequest result = table.getTravelTimes(request);
+    Assertions.assertEquals(3, result.Response.size(), "Response");
+
+    ArrayList<TravelTimeData> a = result.Response.get(0).Branches;
+    Assertions.assertEquals(2, a.size(), "Phases");
+    Assertions.assertEquals("Pg", a.get(0).Phase, "First arrival");
+    Assertions.assertEquals(time(7.3, 23.7, 6.0), a.get(0).TravelTime, 0.01, "Pg time");
+    Assertions.assertEquals(time(7.3, 23.7, 3.5), a.get(1).TravelTime, 0.01, "Sg time");
+    Assertions.assertEquals(slope(7.3, 23.7, 6.0), a.get(0).DistanceDerivative, 0.01, "Slope");
+    Assertions.assertEquals(
+        (time(7.3, 30, 6.0) - time(7.3, 20, 6.0)) / 10.0,
+        a.get(0).DepthDerivative,
+        1e-4,
+        "Depth derivative");
+    Assertions.assertEquals(1.73, a.get(0).StatisticalSpread, 1e-9, "Spread");
+    Assertions.assertNull(a.get(0).Observability, "Observability");
+
+    Assertions.assertEquals(2, result.Response.get(1).Branches.size(), "End of branch");
+    Assertions.assertEquals(0, result.Response.get(2).Branches.size(), "Beyond branch");
+
+    // error bounds cover the actual errors
+    double error = 0;
+    for (double depth = 0; depth <= 50; depth += 1.3) {
+      for (double distance = 0.1; distance <= 20; distance += 0.37) {
+        ArrayList<TravelTimeData> data = table.getTravelTimes(depth, distance);
+        error = Math.max(error, Math.abs(data.get(0).TravelTime - time(distance, depth, 6.0)));
+      }
+    }
+    Assertions.assertTrue(table.getDistanceErrorBound() > 0, "Distance bound");
+    Assertions.assertTrue(table.getDepthErrorBound() > 0, "Depth bound");
+    Assertions.assertTrue(
+        error <= table.getDistanceErrorBound() + table.getDepthErrorBound(), "Bounded " + error);
+
+    // outside the table
+    request.Source.Depth = 60.0;
+    Assertions.assertThrows(TravelTimeException.class, () -> table.getTravelTimes(request));
+    request.Source.Depth = 10.0;
+    request.EarthModel = "IASP91";
+    Assertions.assertThrows(TravelTimeException.class, () -> table.getTravelTimes(request));
+  }
+
+  /** Locates receivers without a distance */
+  @Test
+  public void locatesReceivers() throws TravelTimeException {
+    InterpolatingTravelTimeService table = buildTable(new FakeServer());
+
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>();
+    receivers.add(new TravelTimeReceiver("A", null, 0.0, 7.3, 0.0, null));
+    receivers.add(new TravelTimeReceiver("B", 2.0, 0.0, 40.0, 40.0, null));
+    TravelTimeRequest request =
+        new TravelTimeRequest(
+            new TravelTimeSource(0.0, 0.0, 23.7), receivers, null, null, null, null, null, null);
+
+    TravelTimeRequest result = table.getTravelTimes(request);
+    TravelTimeReceiver a = result.Response.get(0);
+    Assertions.assertEquals(7.3, a.Distance, 1e-9, "Distance");
+    Assertions.assertEquals(
+        time(7.3, 23.7, 6.0), a.Branches.get(0).TravelTime, 0.01, "Located Pg time");
+    Assertions.assertNull(receivers.get(0).Distance, "Request unchanged");
+
+    // a given distance is kept
+    Assertions.assertEquals(2.0, result.Response.get(1).Distance, "Given distance");
+    Assertions.assertEquals(
+        time(2.0, 23.7, 6.0),
+        result.Response.get(1).Branches.get(0).TravelTime,
+        0.01,
+        "Given Pg time");
+
+    // neither a distance nor a location
+    receivers.set(1, new TravelTimeReceiver("C", null, 0.0, null, null, null));
+    Assertions.assertThrows(TravelTimeException.class, () -> table.getTravelTimes(request));
+  }
+
+  /** Returns the requested phases and arrivals */
+  @Test
+  public void filtersPhases(@TempDir Path directory) throws IOException, TravelTimeException {
+    TravelTimePlotRequest template = buildPlotRequest(0.0);
+    template.ReturnBackBranches = true;
+    InterpolatingTravelTimeService table =
+        InterpolatingTravelTimeService.build(
+            new FakeServer(), template, new double[] {0, 10, 20, 30, 40, 50});
+
+    ArrayList<TravelTimeReceiver> receivers = new ArrayList<TravelTimeReceiver>();
+    receivers.add(new TravelTimeReceiver("A", 7.3, 0.0, null, null, null));
+    TravelTimeRequest request =
+        new TravelTimeRequest(
+            new TravelTimeSource(0.0, 0.0, 23.7), receivers, null, null, null, null, null, null);
+
+    // first arrivals by default
+    ArrayList<TravelTimeData> data = table.getTravelTimes(request).Response.get(0).Branches;
+    Assertions.assertEquals(2, data.size(), "First arrivals");
+    Assertions.assertEquals("Pg", data.get(0).Phase, "First Pg");
+    Assertions.assertEquals("Sg", data.get(1).Phase, "First Sg");
+
+    // back branches
+    request.ReturnBackBranches = true;
+    data = table.getTravelTimes(request).Response.get(0).Branches;
+    Assertions.assertEquals(3, data.size(), "Back branches");
+    Assertions.assertEquals("Pg", data.get(2).Phase, "Back branch");
+    Assertions.assertEquals(time(7.3, 23.7, 2.5), data.get(2).TravelTime, 0.01, "Back time");
+
+    // phase types
+    request.PhaseTypes = new ArrayList<String>();
+    request.PhaseTypes.add("Pg");
+    data = table.getTravelTimes(request).Response.get(0).Branches;
+    Assertions.assertEquals(2, data.size(), "Pg branches");
+    Assertions.assertEquals("Pg", data.get(1).Phase, "Only Pg");
+    request.ReturnBackBranches = null;
+    request.PhaseTypes.set(0, "Sg");
+    data = table.getTravelTimes(request).Response.get(0).Branches;
+    Assertions.assertEquals(1, data.size(), "Sg branch");
+    Assertions.assertEquals("Sg", data.get(0).Phase, "Only Sg");
+
+    // the options survive a save
+    Path path = directory.resolve("back.pft");
+    table.save(path);
+    request.ReturnBackBranches = true;
+    request.PhaseTypes = null;
+    data =
+        InterpolatingTravelTimeService.load(path).getTravelTimes(request).Response.get(0).Branches;
+    Assertions.assertEquals(3, data.size(), "Loaded back branches");
+
+    // more than is tabulated
+    request.ReturnAllPhases = true;
+    Assertions.assertThrows(TravelTimeException.class, () -> table.getTravelTimes(request));
+    request.ReturnAllPhases = null;
+    Assertions.assertThrows(
+        TravelTimeException.class, () -> buildTable(new FakeServer()).getTravelTimes(request));
+
+    template.PhaseTypes = new ArrayList<String>();
+    template.PhaseTypes.add("Pg");
+    InterpolatingTravelTimeService pTable =
+        InterpolatingTravelTimeService.build(new FakeServer(), template, new double[] {0, 50});
+    request.PhaseTypes = new ArrayList<String>();
+    request.PhaseTypes.add("Sg");
+    Assertions.assertThrows(TravelTimeException.class, () -> pTable.getTravelTimes(request));
+    request.PhaseTypes = null;
+    Assertions.assertThrows(TravelTimeException.class, () -> pTable.getTravelTimes(request));
+  }
+
+  /** Saves and loads a table */
+  @Test
+  public void persists(@TempDir Path directory) throws IOException, TravelTimeException {
+    InterpolatingTravelTimeService table = buildTable(new FakeServer());
+    Path path = directory.resolve("ak135.pft");
+    table.save(path);
+
+    InterpolatingTravelTimeService loaded = InterpolatingTravelTimeService.load(path);
+    Assertions.assertEquals("AK135", loaded.getEarthModel(), "Earth model");
+    Assertions.assertArrayEquals(table.getDepths(), loaded.getDepths(), "Depths");
+    Assertions.assertEquals(
+        table.getDistanceErrorBound(), loaded.getDistanceErrorBound(), "Distance bound");
+    Assertions.assertEquals(table.getDepthErrorBound(), loaded.getDepthErrorBound(), "Depth bound");
+
+    for (double depth : new double[] {0, 12.5, 50}) {
+      for (double distance : new double[] {0, 3.3, 19.9}) {
+        ArrayList<TravelTimeData> expected = table.getTravelTimes(depth, distance);
+        ArrayList<TravelTimeData> actual = loaded.getTravelTimes(depth, distance);
+        Assertions.assertEquals(expected.size(), actual.size(), "Count");
+        for (int i = 0; i < expected.size(); i++) {
+          Assertions.assertEquals(expected.get(i).toJSON(), actual.get(i).toJSON(), "Data " + i);
+        }
+      }
+    }
+
+    // plots at tabulated depths come back out
+    TravelTimePlotRequest plot = new TravelTimePlotRequest();
+    plot.Source = new TravelTimeSource(0.0, 0.0, 20.0);
+    Assertions.assertEquals(
+        new FakeServer().getTravelTimePlot(buildPlotRequest(20.0)).Response.get(1).toJSON(),
+        loaded.getTravelTimePlot(plot).Response.get(1).toJSON(),
+        "Plot");
+  }
+
+  /**
+   * Builds a plot request matching buildTable()
+   *
+   * @param depth - The depth
+   * @return Returns the request
+   */
+  public static TravelTimePlotRequest buildPlotRequest(double depth) {
+    return (new TravelTimePlotRequest(
+        new TravelTimeSource(0.0, 0.0, depth),
+        "AK135",
+        null,
+        false,
+        false,
+        false,
+        20.0,
+        0.5,
+        null,
+        null));
+  }
+}
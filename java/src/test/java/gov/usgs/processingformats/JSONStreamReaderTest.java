@@ -0,0 +1,115 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JSONStreamReaderTest {
+
+  public static final String[] KEYS = {"Alpha", "Beta", "Gamma"};
+
+  /** Able to read tokens */
+  @Test
+  public void readsTokens() throws IOException, ParseException {
+
+    JSONStreamReader reader =
+        new JSONStreamReader(
+            "{\"Beta\": [1, -2.5, 3e2], \"Gamma\":\"a\\\"b\\u0041\\/\",\n"
+                + "\"Delta\":true, \"Alpha\":null}");
+
+    reader.beginObject();
+
+    Assertions.assertEquals(1, reader.nextKey(KEYS), "ReadsTokens Beta key");
+    reader.beginArray();
+    Assertions.assertEquals(1L, reader.nextLong(), "ReadsTokens long");
+    Assertions.assertEquals(-2.5, reader.nextDouble(), 0, "ReadsTokens double");
+    Assertions.assertEquals(300.0, reader.nextDouble(), 0, "ReadsTokens exponent");
+    Assertions.assertEquals(false, reader.hasNext(), "ReadsTokens array end");
+    reader.endArray();
+
+    Assertions.assertEquals(2, reader.nextKey(KEYS), "ReadsTokens Gamma key");
+    Assertions.assertEquals("a\"bA/", reader.nextString(), "ReadsTokens escapes");
+
+    Assertions.assertEquals(-1, reader.nextKey(KEYS), "ReadsTokens unknown key");
+    Assertions.assertEquals(true, reader.nextBoolean(), "ReadsTokens boolean");
+
+    Assertions.assertEquals("Alpha", reader.nextName(), "ReadsTokens name");
+    Assertions.assertEquals(true, reader.skipNull(), "ReadsTokens null");
+
+    reader.endObject();
+    Assertions.assertEquals(
+        JSONStreamReader.Token.END_DOCUMENT, reader.peek(), "ReadsTokens end of document");
+  }
+
+  /** Able to skip nested values */
+  @Test
+  public void skipsValues() throws IOException, ParseException {
+
+    JSONStreamReader reader =
+        new JSONStreamReader(
+            new StringReader("[{\"a\":[{\"b\":{}},[]],\"c\":\"}\"},\"x\",7,false,null]"));
+
+    reader.beginArray();
+    reader.skipValue();
+    Assertions.assertEquals("x", reader.nextString(), "SkipsValues string");
+    reader.skipValue();
+    reader.skipValue();
+    reader.skipValue();
+    reader.endArray();
+  }
+
+  /** Parses doubles exactly like Double.parseDouble */
+  @Test
+  public void parsesDoubles() throws IOException, ParseException {
+
+    Random random = new Random(42);
+    StringBuilder json = new StringBuilder("[");
+    double[] expected = new double[1000];
+
+    for (int i = 0; i < expected.length; i++) {
+      String value;
+      if (i % 3 == 0) {
+        value = Double.toString(random.nextDouble() * 360.0 - 180.0);
+      } else if (i % 3 == 1) {
+        value = String.format("%.5f", random.nextDouble() * 1000.0);
+      } else {
+        value = Double.toString(random.nextGaussian() * 1e-7);
+      }
+      expected[i] = Double.parseDouble(value);
+      json.append(i > 0 ? "," : "").append(value);
+    }
+    json.append("]");
+
+    JSONStreamReader reader = new JSONStreamReader(json.toString());
+    reader.beginArray();
+    for (int i = 0; i < expected.length; i++) {
+      Assertions.assertEquals(expected[i], reader.nextDouble(), 0, "ParsesDoubles " + i);
+    }
+    reader.endArray();
+  }
+
+  /** Rejects malformed JSON */
+  @Test
+  public void malformed() {
+
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> new JSONStreamReader("{\"a\" 1}").skipValue(),
+        "Malformed missing colon");
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> new JSONStreamReader("[1 2]").skipValue(),
+        "Malformed missing comma");
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> new JSONStreamReader("\"abc").nextString(),
+        "Malformed unterminated string");
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> new JSONStreamReader("\"abc\"").beginObject(),
+        "Malformed wrong token");
+  }
+}
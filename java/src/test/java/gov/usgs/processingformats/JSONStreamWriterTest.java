@@ -0,0 +1,127 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JSONStreamWriterTest {
+
+  public static final String ESCAPE_STRING =
+      "quote\" slash/ back\\ ctl\b\f\n\r\t\u0001 del\u007F\u0085"
+          + " punct\u2000\u2028 euro\u20AC other\u00E9\u4E2D";
+
+  /** Escapes strings like org.json.simple */
+  @Test
+  public void escapes() throws IOException {
+
+    StringBuilder builder = new StringBuilder();
+    new JSONStreamWriter(builder).value(ESCAPE_STRING);
+
+    Assertions.assertEquals(
+        "\"" + JSONValue.escape(ESCAPE_STRING) + "\"", builder.toString(), "Escapes");
+  }
+
+  /** Formats values like org.json.simple */
+  @Test
+  public void values() throws IOException {
+
+    StringWriter stringWriter = new StringWriter();
+    JSONStreamWriter writer = new JSONStreamWriter(stringWriter);
+
+    writer.beginArray();
+    writer.value(1.0e-7).value(-12.5).value(Double.NaN).value(Double.POSITIVE_INFINITY);
+    writer.value(Integer.valueOf(42)).value(Boolean.FALSE).value((String) null);
+    writer.beginObject().name("A").value(1e21).endObject();
+    writer.endArray();
+
+    Assertions.assertEquals(
+        "[1.0E-7,-12.5,null,null,42,false,null,{\"A\":1.0E21}]", stringWriter.toString(), "Values");
+  }
+
+  /** Produces the same keys and values as toJSON for every class */
+  @Test
+  public void matchesToJSON() throws IOException, ParseException {
+
+    checkMatches(new ErrorEllipse(Utility.fromJSONString(ErrorEllipseTest.ELLIPSE_STRING)));
+    checkMatches(new Hypocenter(Utility.fromJSONString(HypocenterTest.HYPO_STRING)));
+    checkMatches(
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING)));
+    checkMatches(
+        new LocationRequest(
+            Utility.fromJSONString(LocationRequestReaderTest.REQUEST_WITH_OUTPUT_STRING)));
+    checkMatches(
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING)));
+    checkMatches(new Pick(Utility.fromJSONString(PickTest.PICK_STRING)));
+    checkMatches(new Site(Utility.fromJSONString(SiteTest.SITE_STRING)));
+    checkMatches(new Source(Utility.fromJSONString(SourceTest.SOURCE_STRING)));
+    checkMatches(
+        new TravelTimeData(Utility.fromJSONString(TravelTimeDataTest.TRAVELTIMEDATA_STRING)));
+    checkMatches(
+        new TravelTimePlotDataBranch(
+            Utility.fromJSONString(TravelTimePlotDataBranchTest.TRAVELTIMEDATABRANCH_STRING)));
+    checkMatches(
+        new TravelTimePlotDataSample(
+            Utility.fromJSONString(TravelTimePlotDataSampleTest.TRAVELTIMEPLOTDATASAMPLE_STRING)));
+    checkMatches(
+        new TravelTimePlotRequest(
+            Utility.fromJSONString(TravelTimePlotRequestTest.TRAVELTIMEPLOTREQUEST_STRING)));
+    checkMatches(
+        new TravelTimeReceiver(Utility.fromJSONString(TravelTimeReceiverTest.RECIEVER_STRING)));
+    checkMatches(
+        new TravelTimeRequest(
+            Utility.fromJSONString(TravelTimeRequestTest.TRAVELTIMEREQUEST_STRING)));
+    checkMatches(new TravelTimeSource(Utility.fromJSONString(TravelTimeSourceTest.SOURCE_STRING)));
+
+    // empty objects and lists are omitted
+    LocationRequest empty = new LocationRequest();
+    empty.InputData = new ArrayList<Pick>();
+    empty.Source = new Source();
+    checkMatches(empty);
+  }
+
+  /** Able to write to an OutputStream */
+  @Test
+  public void writesStream() throws IOException, ParseException {
+
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    result.writeTo(stream);
+
+    new LocationResultTest()
+        .checkData(
+            new LocationResult(
+                Utility.fromJSONString(new String(stream.toByteArray(), StandardCharsets.UTF_8))),
+            "WritesStream");
+  }
+
+  /**
+   * Checks that the streamed JSON parses to the same JSONObject as toJSON
+   *
+   * @param object - The ProcessingInt to check
+   * @throws IOException if the write fails
+   * @throws ParseException if the streamed JSON is malformed
+   */
+  public void checkMatches(ProcessingInt object) throws IOException, ParseException {
+
+    StringBuilder builder = new StringBuilder();
+    object.writeTo(builder);
+
+    JSONObject expected = Utility.fromJSONString(Utility.toJSONString(object.toJSON()));
+    JSONObject streamed = Utility.fromJSONString(builder.toString());
+
+    Assertions.assertEquals(expected, streamed, object.getClass().getSimpleName());
+    Assertions.assertEquals(
+        Utility.toJSONString(object.toJSON()).length(),
+        builder.length(),
+        object.getClass().getSimpleName() + " length");
+  }
+}
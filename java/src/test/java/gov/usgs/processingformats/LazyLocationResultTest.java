@@ -0,0 +1,85 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LazyLocationResultTest {
+
+  /**
+   * Builds a loosely formatted result with two picks and an unknown key
+   *
+   * @return Returns the JSON text
+   */
+  public static String buildJSON() throws IOException, ParseException {
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    Pick second = new Pick(Utility.fromJSONString(LocationResultTest.SUPPORTINGDATA));
+    second.ID = "Second";
+    result.SupportingData.add(second);
+
+    StringBuilder json = new StringBuilder();
+    result.writeTo(json);
+    json.insert(1, "\"Extra\": {\"Nested\": [1, 2.50]},");
+    return (json.toString().replace(",\"", ", \""));
+  }
+
+  /** Reads fields on demand and writes untouched results verbatim */
+  @Test
+  public void readsLazily() throws IOException, ParseException {
+    String json = buildJSON();
+    LazyLocationResult lazy = new LazyLocationResult(json.getBytes(StandardCharsets.UTF_8));
+
+    Assertions.assertEquals(LocationResultTest.ID, lazy.getID(), "ID");
+    Assertions.assertEquals(LocationResultTest.RMS, lazy.getRMS(), "RMS");
+    Assertions.assertEquals(LocationResultTest.GAP, lazy.getGap(), "Gap");
+    Assertions.assertEquals(
+        LocationResultTest.NUMUSEDPHASES, lazy.getNumberOfUsedPhases(), "Used phases");
+    Assertions.assertEquals(LocationResultTest.QUALITY, lazy.getQuality(), "Quality");
+    Assertions.assertEquals(2, lazy.getPickCount(), "Pick count");
+    Assertions.assertEquals(true, lazy.isUntouched(), "Untouched");
+
+    StringBuilder out = new StringBuilder();
+    lazy.writeTo(out);
+    Assertions.assertEquals(json, out.toString(), "Verbatim");
+    Assertions.assertEquals(true, lazy.isValid(), "Valid");
+  }
+
+  /** Re-encodes only the objects handed out */
+  @Test
+  public void writesChanges() throws IOException, ParseException {
+    String json = buildJSON();
+    LazyLocationResult lazy = new LazyLocationResult(json);
+
+    Assertions.assertEquals("Second", lazy.getPick(1).ID, "Pick");
+    lazy.getPick(1).Residual = 9.5;
+    lazy.getHypocenter().Latitude = 41.0;
+    Assertions.assertEquals(false, lazy.isUntouched(), "Touched");
+
+    StringBuilder out = new StringBuilder();
+    lazy.writeTo(out);
+    String written = out.toString();
+    Assertions.assertTrue(written.contains("\"Extra\":{\"Nested\": [1, 2.50]}"), "Unknown key");
+    Assertions.assertTrue(written.contains("\"12GFH48776857\", \"Site\""), "Untouched pick");
+
+    LocationResult expected = LocationRequestReader.readLocationResult(new JSONStreamReader(json));
+    expected.SupportingData.get(1).Residual = 9.5;
+    expected.Hypocenter.Latitude = 41.0;
+    Assertions.assertEquals(
+        expected.toJSON(),
+        LocationRequestReader.readLocationResult(new JSONStreamReader(written)).toJSON(),
+        "Written");
+    Assertions.assertEquals(expected.toJSON(), lazy.toJSON(), "Decoded");
+
+    // the whole list
+    lazy.getSupportingData().remove(0);
+    Assertions.assertEquals("Second", lazy.getPick(0).ID, "List pick");
+    Assertions.assertEquals(1, lazy.toLocationResult().SupportingData.size(), "List");
+
+    Assertions.assertThrows(ParseException.class, () -> new LazyLocationResult("{\"ID\":}"));
+    Assertions.assertThrows(
+        ParseException.class, () -> new LazyLocationResult("{\"RMS\":\"A\"}").getRMS());
+  }
+}
@@ -0,0 +1,251 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocationArchiveTest {
+
+  /**
+   * Builds a LocationResult with an ID
+   *
+   * @param id - The ID
+   * @return Returns the LocationResult
+   */
+  public static LocationResult buildResult(String id) throws ParseException {
+    LocationResult result =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    result.ID = id;
+    return (result);
+  }
+
+  /** Appends and looks up results and requests by ID */
+  @Test
+  public void appendsAndReads(@TempDir Path directory) throws IOException, ParseException {
+    Path path = directory.resolve("archive.pfa");
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      for (int i = 0; i < 100; i++) {
+        archive.append(buildResult("Result" + i));
+      }
+      archive.append(request);
+
+      Assertions.assertEquals(
+          buildResult("Result42").toJSON(), archive.getResult("Result42").toJSON(), "Result");
+      Assertions.assertEquals(request.toJSON(), archive.getRequest(request.ID).toJSON(), "Request");
+      Assertions.assertNull(archive.getResult(request.ID), "Types are separate");
+      Assertions.assertNull(archive.getResult("Missing"), "Missing");
+    }
+
+    // the index is rebuilt on open
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertEquals(100, archive.getResultIDs().size(), "Result IDs");
+      Assertions.assertEquals(1, archive.getRequestIDs().size(), "Request IDs");
+      Assertions.assertEquals(
+          buildResult("Result99").toJSON(), archive.getResult("Result99").toJSON(), "Reopened");
+
+      // appends after reopening
+      archive.append(buildResult("Result100"));
+      Assertions.assertEquals("Result100", archive.getResult("Result100").ID, "Appended");
+    }
+  }
+
+  /** Replaces records and compacts */
+  @Test
+  public void compacts(@TempDir Path directory) throws IOException, ParseException {
+    Path path = directory.resolve("archive.pfa");
+
+    long size;
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      for (int i = 0; i < 10; i++) {
+        LocationResult result = buildResult("Result" + (i % 5));
+        result.RMS = (double) i;
+        archive.append(result);
+      }
+      Assertions.assertEquals(5.0, archive.getResult("Result0").RMS, "Latest");
+      Assertions.assertEquals(5, archive.getStaleCount(), "Stale");
+      size = archive.getSize();
+    }
+
+    Assertions.assertTrue(LocationArchive.compact(path) > 0, "Reclaimed");
+
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertTrue(archive.getSize() < size, "Smaller");
+      Assertions.assertEquals(0, archive.getStaleCount(), "No stale");
+      for (int i = 0; i < 5; i++) {
+        Assertions.assertEquals(5.0 + i, archive.getResult("Result" + i).RMS, "Kept " + i);
+      }
+    }
+  }
+
+  /** Appends from several threads */
+  @Test
+  public void appendsConcurrently(@TempDir Path directory) throws Exception {
+    Path path = directory.resolve("archive.pfa");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 8; thread++) {
+        final int base = thread * 100;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 100; i++) {
+                    archive.append(buildResult("Result" + (base + i)));
+                    archive.getResult("Result" + (base + i));
+                  }
+                  return (null);
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertEquals(800, archive.getRecordCount(), "Records");
+      for (int i = 0; i < 800; i++) {
+        Assertions.assertEquals("Result" + i, archive.getResult("Result" + i).ID, "Result " + i);
+      }
+    }
+  }
+
+  /** Drops a torn final record */
+  @Test
+  public void dropsTornRecord(@TempDir Path directory) throws IOException, ParseException {
+    Path path = directory.resolve("archive.pfa");
+
+    long size;
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      archive.append(buildResult("Result0"));
+      size = archive.getSize();
+      archive.append(buildResult("Result1"));
+    }
+
+    // cut the last record short
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 10);
+    }
+
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertEquals(size, archive.getSize(), "Truncated");
+      Assertions.assertNull(archive.getResult("Result1"), "Dropped");
+      Assertions.assertEquals("Result0", archive.getResult("Result0").ID, "Kept");
+    }
+
+    // corrupt the last record
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      archive.append(buildResult("Result1"));
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0x55, 0x55}), channel.size() - 20);
+    }
+
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertEquals(size, archive.getSize(), "Corrupt");
+      Assertions.assertNull(archive.getResult("Result1"), "Dropped corrupt");
+    }
+  }
+
+  /** Fails on a damaged record before the end, leaving the file for an explicit repair */
+  @Test
+  public void repairsDamage(@TempDir Path directory) throws IOException, ParseException {
+    Path path = directory.resolve("archive.pfa");
+
+    long first;
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      archive.append(buildResult("Result0"));
+      first = archive.append(buildResult("Result1"));
+      archive.append(buildResult("Result2"));
+    }
+    long size = Files.size(path);
+
+    // an unknown type in the middle record
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0x7F}), first + 8);
+    }
+
+    Assertions.assertThrows(IOException.class, () -> LocationArchive.open(path));
+    Assertions.assertThrows(IOException.class, () -> LocationArchive.openReadOnly(path));
+    Assertions.assertEquals(size, Files.size(path), "Untouched");
+
+    Assertions.assertEquals(size - first, LocationArchive.repair(path), "Repaired");
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertEquals(first, archive.getSize(), "Dropped the rest");
+      Assertions.assertEquals("Result0", archive.getResult("Result0").ID, "Kept");
+      Assertions.assertNull(archive.getResult("Result2"), "Dropped after");
+    }
+  }
+
+  /** Fails on a record before the end whose length runs past the end of the file */
+  @Test
+  public void failsOnOverlongRecord(@TempDir Path directory) throws IOException, ParseException {
+    Path path = directory.resolve("archive.pfa");
+
+    long second = 0;
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      for (int i = 0; i < 5; i++) {
+        long offset = archive.append(buildResult("Result" + i));
+        if (i == 2) {
+          second = offset;
+        }
+      }
+    }
+    long size = Files.size(path);
+
+    // a length past the end of the file in the middle record
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).putInt(0, 1 << 20), second);
+    }
+
+    Assertions.assertThrows(IOException.class, () -> LocationArchive.open(path));
+    Assertions.assertEquals(size, Files.size(path), "Untouched");
+
+    Assertions.assertEquals(size - second, LocationArchive.repair(path), "Repaired");
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      Assertions.assertEquals("Result1", archive.getResult("Result1").ID, "Kept");
+      Assertions.assertNull(archive.getResult("Result2"), "Dropped");
+    }
+  }
+
+  /** Opens read only without dropping a torn record */
+  @Test
+  public void opensReadOnly(@TempDir Path directory) throws IOException, ParseException {
+    Path path = directory.resolve("archive.pfa");
+    Assertions.assertThrows(IOException.class, () -> LocationArchive.openReadOnly(path));
+
+    long size;
+    try (LocationArchive archive = LocationArchive.open(path)) {
+      archive.append(buildResult("Result0"));
+      size = archive.getSize();
+      archive.append(buildResult("Result1"));
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 10);
+    }
+    long torn = Files.size(path);
+
+    try (LocationArchive archive = LocationArchive.openReadOnly(path)) {
+      Assertions.assertEquals(size, archive.getSize(), "Indexed");
+      Assertions.assertEquals("Result0", archive.getResult("Result0").ID, "Read");
+      Assertions.assertThrows(IOException.class, () -> archive.append(buildResult("Result2")));
+    }
+    Assertions.assertEquals(torn, Files.size(path), "Not truncated");
+  }
+}
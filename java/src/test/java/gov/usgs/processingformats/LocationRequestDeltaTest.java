@@ -0,0 +1,121 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LocationRequestDeltaTest {
+
+  /**
+   * Builds a location request with picks P0, P1, ...
+   *
+   * @param count - The number of picks
+   * @return Returns the request
+   */
+  public static LocationRequest buildRequest(int count) throws ParseException {
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    Pick template = request.InputData.get(0);
+
+    request.InputData = new ArrayList<Pick>();
+    for (int i = 0; i < count; i++) {
+      request.InputData.add(buildPick(template, "P" + i));
+    }
+    return (request);
+  }
+
+  /**
+   * Copies a pick with a new ID
+   *
+   * @param template - The Pick to copy
+   * @param id - The ID of the copy
+   * @return Returns the copy
+   */
+  public static Pick buildPick(Pick template, String id) {
+    Pick pick = new Pick(template.toJSON());
+    pick.ID = id;
+    return (pick);
+  }
+
+  /** Diffs two requests and applies the delta */
+  @Test
+  public void diffsAndApplies() throws Exception {
+    LocationRequest previous = buildRequest(5);
+    LocationRequest current = buildRequest(5);
+    current.InputData.remove(1);
+    current.InputData.get(2).Residual = 9.5;
+    current.InputData.add(buildPick(current.InputData.get(0), "P5"));
+    current.SourceDepth = 10.0;
+    current.IsLocationHeld = null;
+
+    LocationRequestDelta delta = LocationRequestDelta.diff(previous, current);
+    Assertions.assertEquals(LocationRequestTest.ID, delta.ID, "ID");
+    Assertions.assertEquals(1, delta.AddedPicks.size(), "Added");
+    Assertions.assertEquals("P5", delta.AddedPicks.get(0).ID, "Added ID");
+    Assertions.assertEquals(1, delta.ModifiedPicks.size(), "Modified");
+    Assertions.assertEquals("P3", delta.ModifiedPicks.get(0).ID, "Modified ID");
+    Assertions.assertEquals(Arrays.asList("P1"), delta.RemovedPickIDs, "Removed");
+    Assertions.assertEquals(10.0, delta.SourceDepth, "Depth");
+    Assertions.assertNull(delta.SourceLatitude, "Unchanged latitude");
+    Assertions.assertEquals(
+        Arrays.asList(LocationRequest.ISLOCATIONHELD_KEY), delta.ClearedKeys, "Cleared");
+
+    // round trip the delta through JSON
+    LocationRequestDelta parsed =
+        new LocationRequestDelta(Utility.fromJSONString(Utility.toJSONString(delta.toJSON())));
+    Assertions.assertEquals(delta.toJSON(), parsed.toJSON(), "JSON");
+    Assertions.assertTrue(parsed.isValid(), "Valid");
+
+    // apply it
+    LocationRequest applied = parsed.apply(previous);
+    Assertions.assertEquals(current.toJSON(), applied.toJSON(), "Applied");
+    Assertions.assertEquals(5, previous.InputData.size(), "Held request unchanged");
+    Assertions.assertSame(previous.InputData.get(0), applied.InputData.get(0), "Shared pick");
+
+    // nothing changed
+    Assertions.assertTrue(LocationRequestDelta.diff(current, applied).isEmpty(), "Empty");
+  }
+
+  /** Rejects deltas that do not match the request */
+  @Test
+  public void rejectsMismatches() throws Exception {
+    LocationRequest request = buildRequest(2);
+
+    LocationRequestDelta removed = new LocationRequestDelta();
+    removed.ID = request.ID;
+    removed.RemovedPickIDs = new ArrayList<String>(Arrays.asList("P7"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> removed.apply(request));
+
+    LocationRequestDelta added = new LocationRequestDelta();
+    added.ID = request.ID;
+    added.AddedPicks = new ArrayList<Pick>(Arrays.asList(request.InputData.get(1)));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> added.apply(request));
+
+    request.InputData.get(0).ID = null;
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> LocationRequestDelta.diff(request, request));
+  }
+
+  /** Validates deltas */
+  @Test
+  public void validates() throws Exception {
+    LocationRequestDelta delta = new LocationRequestDelta();
+    delta.SourceLatitude = 100.0;
+    delta.ClearedKeys = new ArrayList<String>(Arrays.asList("InputData"));
+    delta.AddedPicks = new ArrayList<Pick>(Arrays.asList(new Pick()));
+
+    ArrayList<String> errors = delta.getErrors();
+    Assertions.assertEquals("No ID in LocationRequestDelta Class.", errors.get(0), "ID");
+    Assertions.assertEquals(
+        "Source Latitude in LocationRequestDelta Class not in the range of -90 to 90.",
+        errors.get(1),
+        "Latitude");
+    Assertions.assertEquals(
+        "Invalid Cleared Key InputData in LocationRequestDelta Class.", errors.get(2), "Key");
+    Assertions.assertEquals(
+        "Pick without an ID in AddedPicks in LocationRequestDelta Class.", errors.get(3), "Pick");
+    Assertions.assertFalse(delta.isValid(), "Invalid");
+  }
+}
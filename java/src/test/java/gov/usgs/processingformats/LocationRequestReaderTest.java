@@ -0,0 +1,122 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LocationRequestReaderTest {
+
+  public static final String REQUEST_WITH_OUTPUT_STRING =
+      "{\"Type\":\"RayLoc\",\"SourceLatitude\":40.3344,\"SourceLongitude\":-121.44,"
+          + "\"SourceDepth\":32.44,\"SourceOriginTime\":\"2015-12-28T21:32:24.017Z\","
+          + "\"InputData\":["
+          + LocationRequestTest.INPUTDDATA
+          + "],\"OutputData\":"
+          + LocationRequestTest.OUTPUTDATA_STRING
+          + "}";
+
+  /** Able to read a JSON string */
+  @Test
+  public void readsJSON() throws IOException, ParseException {
+
+    LocationRequest streamed =
+        LocationRequestReader.read(LocationRequestTest.LOCATIONREQUEST_STRING);
+    LocationRequest legacy =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+
+    // check the data
+    new LocationRequestTest().checkData(streamed, "ReadsJSON");
+    Assertions.assertEquals(legacy.toJSON(), streamed.toJSON(), "ReadsJSON matches legacy");
+    Assertions.assertEquals(1, streamed.InputData.size(), "ReadsJSON InputData size");
+    Assertions.assertEquals(
+        legacy.InputData.get(0).toJSON(),
+        streamed.InputData.get(0).toJSON(),
+        "ReadsJSON pick matches legacy");
+  }
+
+  /** Able to read output data */
+  @Test
+  public void readsOutputData() throws IOException, ParseException {
+
+    LocationRequest streamed = LocationRequestReader.read(REQUEST_WITH_OUTPUT_STRING);
+    LocationRequest legacy =
+        new LocationRequest(Utility.fromJSONString(REQUEST_WITH_OUTPUT_STRING));
+
+    Assertions.assertNotNull(streamed.OutputData, "ReadsOutputData OutputData");
+    Assertions.assertEquals(
+        legacy.OutputData.toJSON(), streamed.OutputData.toJSON(), "ReadsOutputData matches legacy");
+    Assertions.assertEquals(
+        legacy.OutputData.getErrors(),
+        streamed.OutputData.getErrors(),
+        "ReadsOutputData errors match legacy");
+  }
+
+  /** Able to read from bytes, streams and readers */
+  @Test
+  public void readsSources() throws IOException, ParseException {
+
+    byte[] bytes = LocationRequestTest.LOCATIONREQUEST_STRING.getBytes(StandardCharsets.UTF_8);
+
+    new LocationRequestTest().checkData(LocationRequestReader.read(bytes), "ReadsBytes");
+    new LocationRequestTest()
+        .checkData(LocationRequestReader.read(new ByteArrayInputStream(bytes)), "ReadsInputStream");
+    new LocationRequestTest()
+        .checkData(
+            LocationRequestReader.read(
+                new StringReader(LocationRequestTest.LOCATIONREQUEST_STRING)),
+            "ReadsReader");
+  }
+
+  /** Matches the JSONObject constructor semantics */
+  @Test
+  public void semantics() throws IOException, ParseException {
+
+    String minimal =
+        "{\"ID\":12345,\"SourceDepth\":10,\"SourceLatitude\":40.0,"
+            + "\"SourceLongitude\":-121.0,\"Unknown\":{\"A\":[1,2,{\"B\":null}]},"
+            + "\"Source\":{\"AgencyID\":\"US\",\"Author\":\"TestAuthor\","
+            + "\"Type\":\"Unknown\"}}";
+
+    LocationRequest request = LocationRequestReader.read(minimal);
+
+    // int to string ID coercion
+    Assertions.assertEquals("12345", request.ID, "Semantics ID");
+
+    // numeric widening
+    Assertions.assertEquals(10.0, request.SourceDepth, 0, "Semantics SourceDepth");
+
+    // defaults
+    Assertions.assertEquals("ak135", request.EarthModel, "Semantics EarthModel");
+    Assertions.assertEquals("2spd", request.SlabResolution, "Semantics SlabResolution");
+
+    // absent values
+    Assertions.assertNull(request.InputData, "Semantics InputData");
+    Assertions.assertNull(request.OutputData, "Semantics OutputData");
+    Assertions.assertNull(request.IsLocationNew, "Semantics IsLocationNew");
+
+    // nested objects
+    Assertions.assertEquals("TestAuthor", request.Source.Author, "Semantics Source");
+  }
+
+  /** Rejects malformed JSON */
+  @Test
+  public void malformed() {
+
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> LocationRequestReader.read("{\"SourceDepth\":10,"),
+        "Malformed truncated");
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> LocationRequestReader.read("{\"InputData\":{}}"),
+        "Malformed InputData");
+    Assertions.assertThrows(
+        ParseException.class,
+        () -> LocationRequestReader.read("{\"SourceDepth\":10} x"),
+        "Malformed trailing data");
+  }
+}
@@ -0,0 +1,119 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NDJSONReaderTest {
+
+  /**
+   * Builds a reader over text
+   *
+   * @param text - The NDJSON text
+   * @param bufferSize - The size of the read buffer
+   * @return Returns the reader
+   */
+  public static NDJSONReader<LocationRequest> reader(String text, int bufferSize) {
+    return (new NDJSONReader<LocationRequest>(
+        Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+        NDJSONReader.LOCATIONREQUEST,
+        bufferSize,
+        NDJSONReader.DEFAULT_MAX_RECORD_LENGTH));
+  }
+
+  /** Reads records with their offsets and line numbers */
+  @Test
+  public void readsRecords() throws IOException, ParseException {
+    String line = LocationRequestTest.LOCATIONREQUEST_STRING;
+    String text = line + "\n\n" + line + "\r\n   \n" + line;
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    long[] offsets = {0, line.length() + 2, 2 * line.length() + 8};
+    long[] lineNumbers = {1, 3, 5};
+
+    // small buffers split records across reads
+    for (int bufferSize : new int[] {7, 64, 65536}) {
+      NDJSONReader<LocationRequest> reader = reader(text, bufferSize);
+
+      for (int i = 0; i < 3; i++) {
+        Assertions.assertTrue(reader.hasNext(), "HasNext " + i);
+        LocationRequest request = reader.next();
+        Assertions.assertEquals(
+            Utility.fromJSONString(line), request.toJSON(), "Record " + i + " " + bufferSize);
+        Assertions.assertEquals(offsets[i], reader.getOffset(), "Offset " + i);
+        Assertions.assertEquals(lineNumbers[i], reader.getLineNumber(), "Line " + i);
+        Assertions.assertEquals('{', bytes[(int) reader.getOffset()], "Offset points at record");
+      }
+
+      Assertions.assertFalse(reader.hasNext(), "End");
+      Assertions.assertNull(reader.read(), "Read at end");
+      Assertions.assertThrows(NoSuchElementException.class, () -> reader.next(), "Next at end");
+      reader.close();
+    }
+  }
+
+  /** Reports invalid records with their location and continues */
+  @Test
+  public void reportsInvalidRecords() throws IOException {
+    String line = LocationRequestTest.LOCATIONREQUEST_STRING;
+    NDJSONReader<LocationRequest> reader = reader(line + "\n{\"ID\":\n" + line + "\n", 64);
+
+    Assertions.assertNotNull(reader.next(), "First");
+    NDJSONException error = Assertions.assertThrows(NDJSONException.class, () -> reader.next());
+    Assertions.assertEquals(line.length() + 1, error.getOffset(), "Error offset");
+    Assertions.assertEquals(2, error.getLineNumber(), "Error line");
+    Assertions.assertTrue(error.getCause() instanceof ParseException, "Cause");
+    Assertions.assertEquals(0, reader.getOffset(), "Offset unchanged by error");
+    Assertions.assertEquals(1, reader.getLineNumber(), "Line unchanged by error");
+
+    Assertions.assertNotNull(reader.next(), "Continues");
+    Assertions.assertEquals(3, reader.getLineNumber(), "Line after error");
+    Assertions.assertFalse(reader.hasNext(), "End");
+  }
+
+  /** Limits the record length and continues after a longer record */
+  @Test
+  public void limitsRecordLength() throws ParseException {
+    String line = LocationRequestTest.LOCATIONREQUEST_STRING;
+    String padding = " ".repeat(50);
+    String text = line + padding + "\n" + line + "\n" + line + padding;
+    NDJSONReader<LocationRequest> reader =
+        new NDJSONReader<LocationRequest>(
+            Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+            NDJSONReader.LOCATIONREQUEST,
+            16,
+            line.length());
+
+    NDJSONException error = Assertions.assertThrows(NDJSONException.class, () -> reader.next());
+    Assertions.assertEquals(0, error.getOffset(), "Error offset");
+    Assertions.assertEquals(1, error.getLineNumber(), "Error line");
+    Assertions.assertEquals(-1, reader.getOffset(), "No record returned");
+
+    // the rest of the long line is skipped
+    Assertions.assertEquals(Utility.fromJSONString(line), reader.next().toJSON(), "Continues");
+    Assertions.assertEquals(line.length() + padding.length() + 1, reader.getOffset(), "Offset");
+    Assertions.assertEquals(2, reader.getLineNumber(), "Line after error");
+
+    // unterminated at the end
+    error = Assertions.assertThrows(NDJSONException.class, () -> reader.next());
+    Assertions.assertEquals(2 * line.length() + padding.length() + 2, error.getOffset(), "Last");
+    Assertions.assertEquals(3, error.getLineNumber(), "Last line");
+    Assertions.assertFalse(reader.hasNext(), "End");
+  }
+
+  /** Streams records */
+  @Test
+  public void streams() throws ParseException {
+    String line = LocationRequestTest.LOCATIONREQUEST_STRING;
+    ArrayList<String> ids = new ArrayList<String>();
+    reader(line + "\n" + line + "\n", 1024).stream().forEach(request -> ids.add(request.ID));
+
+    Assertions.assertEquals(2, ids.size(), "Count");
+    Assertions.assertEquals(LocationRequestTest.ID, ids.get(1), "ID");
+  }
+}
@@ -0,0 +1,88 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NDJSONWriterTest {
+
+  /**
+   * Builds travel time requests with different sources
+   *
+   * @param count - The number of requests
+   * @return Returns the requests
+   */
+  public static ArrayList<TravelTimeRequest> buildRequests(int count) throws ParseException {
+    ArrayList<TravelTimeRequest> requests = new ArrayList<TravelTimeRequest>();
+    for (int i = 0; i < count; i++) {
+      TravelTimeRequest request =
+          new TravelTimeRequest(
+              Utility.fromJSONString(TravelTimeRequestTest.TRAVELTIMEREQUEST_STRING));
+      request.Source.Depth = 1.0 + i;
+      requests.add(request);
+    }
+    return (requests);
+  }
+
+  /** Writes and reads back plain and gzip compressed files */
+  @Test
+  public void roundTrips(@TempDir Path directory) throws IOException, ParseException {
+    ArrayList<TravelTimeRequest> requests = buildRequests(200);
+
+    for (String name : new String[] {"requests.ndjson", "requests.ndjson.gz"}) {
+      Path path = directory.resolve(name);
+
+      ArrayList<Long> offsets = new ArrayList<Long>();
+      try (NDJSONWriter<TravelTimeRequest> writer = NDJSONWriter.open(path)) {
+        for (TravelTimeRequest request : requests) {
+          offsets.add(writer.write(request));
+        }
+        Assertions.assertEquals(200, writer.getCount(), "Count");
+      }
+
+      byte[] magic = Files.readAllBytes(path);
+      Assertions.assertEquals(
+          name.endsWith(".gz"), (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B, "Gzip");
+
+      try (NDJSONReader<TravelTimeRequest> reader =
+          NDJSONReader.open(path, NDJSONReader.TRAVELTIMEREQUEST)) {
+        for (int i = 0; i < requests.size(); i++) {
+          Assertions.assertEquals(requests.get(i).toJSON(), reader.next().toJSON(), "Record " + i);
+          Assertions.assertEquals(offsets.get(i).longValue(), reader.getOffset(), "Offset " + i);
+        }
+        Assertions.assertFalse(reader.hasNext(), "End");
+      }
+    }
+  }
+
+  /** Copies one file to another through a Stream */
+  @Test
+  public void copies(@TempDir Path directory) throws IOException, ParseException {
+    Path source = directory.resolve("source.ndjson.gz");
+    try (NDJSONWriter<TravelTimeRequest> writer = NDJSONWriter.open(source)) {
+      writer.writeAll(buildRequests(10).iterator());
+    }
+
+    Path copy = directory.resolve("copy.ndjson");
+    try (NDJSONReader<TravelTimeRequest> reader =
+            NDJSONReader.open(source, NDJSONReader.TRAVELTIMEREQUEST);
+        NDJSONWriter<TravelTimeRequest> writer = NDJSONWriter.open(copy)) {
+      Assertions.assertEquals(10, writer.writeAll(reader), "Copied");
+    }
+
+    try (Stream<TravelTimeRequest> stream =
+        NDJSONReader.stream(copy, NDJSONReader.TRAVELTIMEREQUEST)) {
+      Assertions.assertEquals(
+          buildRequests(10).stream().map(r -> r.toJSON()).collect(Collectors.toList()),
+          stream.map(r -> r.toJSON()).collect(Collectors.toList()),
+          "Stream");
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PickBatchTest {
+
+  /**
+   * Builds a list of picks with a few stations and some absent values
+   *
+   * @param count - The number of picks to build
+   * @return Returns the list of picks
+   */
+  public static ArrayList<Pick> buildPicks(int count) {
+    ArrayList<Pick> picks = new ArrayList<Pick>();
+
+    for (int i = 0; i < count; i++) {
+      Pick pick =
+          new Pick(
+              "Pick" + i,
+              "ST" + (i % 5),
+              "BHZ",
+              "US",
+              i % 2 == 0 ? "00" : null,
+              40.0 + i * 0.01,
+              -120.0 - i * 0.01,
+              1000.0 + i,
+              "US",
+              "TestAuthor",
+              "LocalHuman",
+              new Date(1451338344017L + i * 1000L),
+              1.0,
+              0.5,
+              i % 3 != 0,
+              "P",
+              i % 4 == 0 ? "S" : "P",
+              i % 7 == 0 ? null : "Pn",
+              i % 5 == 0 ? null : Double.valueOf(0.1 * i),
+              2.5,
+              i % 6 == 0 ? null : Double.valueOf(180.0),
+              1.0,
+              0.25);
+      picks.add(pick);
+    }
+
+    // absent site, source, and use
+    picks.get(count - 1).Site = null;
+    picks.get(count - 1).Source = null;
+    picks.get(count - 1).Use = null;
+    picks.get(count - 1).Time = null;
+
+    return (picks);
+  }
+
+  /** Converts to and from lists of picks */
+  @Test
+  public void roundTrip() {
+    ArrayList<Pick> picks = buildPicks(100);
+    PickBatch batch = new PickBatch(picks);
+
+    Assertions.assertEquals(100, batch.size(), "Size");
+
+    ArrayList<Pick> converted = batch.toPicks();
+    for (int i = 0; i < picks.size(); i++) {
+      Assertions.assertEquals(picks.get(i).toJSON(), converted.get(i).toJSON(), "Pick " + i);
+    }
+
+    // absent values
+    Assertions.assertNull(converted.get(99).Site, "Absent Site");
+    Assertions.assertNull(converted.get(99).Source, "Absent Source");
+    Assertions.assertNull(converted.get(99).Use, "Absent Use");
+    Assertions.assertNull(converted.get(99).Time, "Absent Time");
+    Assertions.assertNull(converted.get(1).Site.Location, "Absent Location");
+    Assertions.assertNull(converted.get(0).Residual, "Absent Residual");
+  }
+
+  /** Stores columns as primitives and dictionary codes */
+  @Test
+  public void columns() {
+    PickBatch batch = new PickBatch(buildPicks(20));
+
+    Assertions.assertEquals(
+        40.05, batch.getDouble(PickBatch.DoubleColumn.LATITUDE, 5), 0, "Latitude");
+    Assertions.assertEquals(
+        40.05, batch.getDoubleColumn(PickBatch.DoubleColumn.LATITUDE)[5], 0, "Latitude column");
+    Assertions.assertEquals(
+        false, batch.hasDouble(PickBatch.DoubleColumn.RESIDUAL, 10), "Absent Residual");
+    Assertions.assertEquals(1451338344017L + 3000L, batch.getTime(3), "Time");
+    Assertions.assertEquals(false, batch.getUse(3), "Use");
+    Assertions.assertEquals(true, batch.getUse(4), "Use");
+    Assertions.assertEquals("ST2", batch.getString(PickBatch.StringColumn.STATION, 7), "Station");
+
+    // equal strings share a code
+    Assertions.assertEquals(
+        batch.getCode(PickBatch.StringColumn.STATION, 2),
+        batch.getCode(PickBatch.StringColumn.STATION, 7),
+        "Shared code");
+    Assertions.assertEquals(
+        PickBatch.NULL_CODE, batch.getCode(PickBatch.StringColumn.LOCATION, 1), "Null code");
+    Assertions.assertTrue(batch.getDictionarySize() < 20, "Dictionary size");
+
+    // clearing resets the dictionary
+    batch.clear();
+    Assertions.assertEquals(0, batch.size(), "Cleared");
+    Assertions.assertEquals(0, batch.getDictionarySize(), "Cleared dictionary");
+    batch.add(buildPicks(2).get(0));
+    Assertions.assertEquals("ST0", batch.getString(PickBatch.StringColumn.STATION, 0), "Reuse");
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> batch.getID(1), "Bounds");
+  }
+
+  /** Forgets the retained text and unknown keys of a reused pick, leaving its Site alone */
+  @Test
+  public void reusesPicks() throws IOException, ParseException {
+    Pick pick = LocationRequestReader.readRetainingSource(RawJSONTest.buildJSON()).InputData.get(0);
+    Site site = pick.Site;
+    Source source = pick.Source;
+    Date time = pick.Time;
+    long millis = time.getTime();
+    PickBatch batch = new PickBatch(buildPicks(5));
+
+    Assertions.assertSame(pick, batch.get(3, pick), "Reused");
+    Assertions.assertTrue(pick.isDirty(), "Dirty");
+    Assertions.assertNull(pick.UnknownKeys, "Unknown keys");
+    Assertions.assertEquals(batch.get(3).toJSON(), pick.toJSON(), "Filled");
+
+    // the previous Site, Source, and Time may be shared, so are not overwritten
+    Assertions.assertNotSame(site, pick.Site, "New site");
+    Assertions.assertEquals("ST0", site.Station, "Site unchanged");
+    Assertions.assertEquals(
+        new RawJSON("\"A\""), site.UnknownKeys.get("Vault"), "Site unknown keys");
+    Assertions.assertNotSame(source, pick.Source, "New source");
+    Assertions.assertEquals(millis, time.getTime(), "Time unchanged");
+
+    // the retained text is not copied
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    request.InputData = new ArrayList<Pick>();
+    request.InputData.add(pick);
+    StringBuilder builder = new StringBuilder();
+    request.writeTo(builder);
+    Assertions.assertEquals(
+        request.toJSON(), Utility.fromJSONString(builder.toString()), "WriteTo");
+  }
+
+  /** Serializes and validates like InputData and SupportingData */
+  @Test
+  public void serialization() throws IOException, ParseException {
+    LocationRequest listRequest =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    listRequest.InputData = buildPicks(50);
+
+    LocationRequest batchRequest =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    batchRequest.InputData = null;
+    batchRequest.InputBatch = new PickBatch(buildPicks(50));
+
+    Assertions.assertEquals(listRequest.toJSON(), batchRequest.toJSON(), "ToJSON");
+    Assertions.assertEquals(listRequest.getErrors(), batchRequest.getErrors(), "GetErrors");
+
+    StringBuilder builder = new StringBuilder();
+    batchRequest.writeTo(builder);
+
+    // written straight from the columns, matching the text of the picks
+    ArrayList<Pick> picks = buildPicks(50);
+    picks.get(1).Site.Channel = "";
+    picks.get(2).PickedPhase = "";
+    StringBuilder listText = new StringBuilder();
+    new JSONStreamWriter(listText).value(picks);
+    StringBuilder batchText = new StringBuilder();
+    new PickBatch(picks).writeJSON(new JSONStreamWriter(batchText));
+    Assertions.assertEquals(listText.toString(), batchText.toString(), "WriteJSON text");
+    Assertions.assertEquals(
+        listRequest.toJSON(), Utility.fromJSONString(builder.toString()), "WriteTo");
+
+    // columnar reading
+    LocationRequest columnar = LocationRequestReader.readColumnar(builder.toString());
+    Assertions.assertNull(columnar.InputData, "Columnar InputData");
+    Assertions.assertEquals(50, columnar.InputBatch.size(), "Columnar InputBatch");
+    Assertions.assertEquals(listRequest.toJSON(), columnar.toJSON(), "Columnar");
+
+    // supporting data
+    LocationResult listResult =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    LocationResult batchResult =
+        new LocationResult(Utility.fromJSONString(LocationResultTest.LOCATIONRESULT_STRING));
+    batchResult.SupportingBatch = new PickBatch(batchResult.SupportingData);
+    batchResult.SupportingData = null;
+
+    Assertions.assertEquals(listResult.toJSON(), batchResult.toJSON(), "Result ToJSON");
+    Assertions.assertEquals(listResult.isValid(), batchResult.isValid(), "Result IsValid");
+  }
+}
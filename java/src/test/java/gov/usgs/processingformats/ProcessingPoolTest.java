@@ -0,0 +1,84 @@
+package gov.usgs.processingformats;
+
+import java.io.IOException;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProcessingPoolTest {
+
+  /** Decodes into recycled objects */
+  @Test
+  public void recycles() throws IOException, ParseException {
+    String json = LocationRequestTest.LOCATIONREQUEST_STRING;
+    ProcessingPool pool = new ProcessingPool();
+
+    LocationRequest first = LocationRequestReader.read(json, pool);
+    Assertions.assertEquals(
+        LocationRequestReader.read(json).toJSON(), first.toJSON(), "Matches unpooled decode");
+    Pick pick = first.InputData.get(0);
+    long created = pool.getCreatedCount();
+
+    pool.recycle(first);
+    Assertions.assertTrue(pool.getSize() > 0, "Pooled");
+
+    // the steady state creates nothing
+    for (int i = 0; i < 10; i++) {
+      LocationRequest request = LocationRequestReader.read(json, pool);
+      Assertions.assertSame(first, request, "Reused request");
+      Assertions.assertSame(pick, request.InputData.get(0), "Reused pick");
+      Assertions.assertEquals(Utility.fromJSONString(json), request.toJSON(), "Decoded " + i);
+      pool.recycle(request);
+    }
+    Assertions.assertEquals(created, pool.getCreatedCount(), "Created");
+    Assertions.assertTrue(pool.getReusedCount() >= 10 * created, "Reused");
+
+    Assertions.assertSame(ProcessingPool.current(), ProcessingPool.current(), "Per thread");
+  }
+
+  /** Overwrites every field of a target */
+  @Test
+  public void overwritesTargets() throws IOException, ParseException {
+    Pick target = new Pick();
+    target.Residual = 99.0;
+    target.LocatedPhase = "Stale";
+
+    JSONStreamReader reader = new JSONStreamReader(PickTest.PICK_STRING);
+    Pick pick = LocationRequestReader.readPick(reader, target, null);
+
+    Assertions.assertSame(target, pick, "Target");
+    Assertions.assertEquals(
+        Utility.fromJSONString(PickTest.PICK_STRING), pick.toJSON(), "Overwritten");
+
+    LocationRequest request = new LocationRequest();
+    request.EarthModel = "Stale";
+    LocationRequestReader.readLocationRequest(
+        new JSONStreamReader("{\"Type\":\"RayLoc\"}"), false, request, null);
+    Assertions.assertEquals("ak135", request.EarthModel, "Default restored");
+  }
+
+  /** Detects use after recycle in debug mode */
+  @Test
+  public void detectsUseAfterRecycle() throws IOException, ParseException {
+    ProcessingPool pool = new ProcessingPool(16, true);
+    LocationRequest request =
+        LocationRequestReader.read(LocationRequestTest.LOCATIONREQUEST_STRING, pool);
+    Pick pick = request.InputData.get(0);
+    Site site = pick.Site;
+    pool.recycle(request);
+
+    // poisoned
+    Assertions.assertSame(ProcessingPool.RECYCLED, pick.ID, "Poisoned ID");
+    Assertions.assertTrue(Double.isNaN(site.Latitude), "Poisoned latitude");
+    Assertions.assertFalse(request.isValid(), "Poisoned request");
+
+    // recycled twice
+    IllegalStateException twice =
+        Assertions.assertThrows(IllegalStateException.class, () -> pool.recycle(pick));
+    Assertions.assertNotNull(twice.getCause(), "Recycle stack");
+
+    // written after recycle
+    site.Station = "BOZ";
+    Assertions.assertThrows(IllegalStateException.class, () -> pool.newSite());
+  }
+}
@@ -0,0 +1,139 @@
+package gov.usgs.processingformats;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RawJSONTest {
+
+  /**
+   * Builds a loosely formatted request with unknown keys at every level
+   *
+   * @return Returns the JSON text
+   */
+  public static String buildJSON() throws IOException, ParseException {
+    LocationRequest request =
+        new LocationRequest(Utility.fromJSONString(LocationRequestTest.LOCATIONREQUEST_STRING));
+    request.InputData = PickBatchTest.buildPicks(3);
+    request.InputData.remove(2);
+
+    StringBuilder json = new StringBuilder();
+    request.writeTo(json);
+    return (json.toString()
+        .replaceFirst("\\{", "{\"Extra\": {\"Nested\": [1, 2.50, null]}, ")
+        .replace("\"Site\":{", "\"Site\":{\"Vault\": \"A\", ")
+        .replace("\"Source\":{", "\"Source\":{\"Region\": 7, ")
+        .replace("{\"ID\":\"Pick", "{\"Stage\": true, \"ID\":\"Pick"));
+  }
+
+  /** Keeps unknown keys through the JSONObject constructors and the streaming reader */
+  @Test
+  public void keepsUnknownKeys() throws IOException, ParseException {
+    String json = buildJSON();
+    JSONObject expected = Utility.fromJSONString(json);
+
+    LocationRequest request = new LocationRequest(expected);
+    Assertions.assertEquals(true, request.UnknownKeys.get("Extra") instanceof JSONObject, "Extra");
+    Assertions.assertEquals("A", request.InputData.get(0).Site.UnknownKeys.get("Vault"), "Vault");
+    Assertions.assertEquals(7L, request.Source.UnknownKeys.get("Region"), "Region");
+    Assertions.assertEquals(true, request.InputData.get(1).UnknownKeys.get("Stage"), "Stage");
+    Assertions.assertEquals(expected, request.toJSON(), "ToJSON");
+
+    LocationRequest streamed = LocationRequestReader.read(json);
+    Assertions.assertEquals(
+        request.UnknownKeys.get("Extra"), streamed.UnknownKeys.get("Extra"), "Streamed");
+    StringBuilder out = new StringBuilder();
+    streamed.writeTo(out);
+    Assertions.assertEquals(expected, Utility.fromJSONString(out.toString()), "WriteJSON");
+
+    // reloading forgets them
+    streamed.Source.reload("US", "Author", "Type");
+    Assertions.assertNull(streamed.Source.UnknownKeys, "Reloaded");
+  }
+
+  /** Keeps unknown keys of results, hypocenters, error ellipses, and their axes */
+  @Test
+  public void keepsResultUnknownKeys() throws IOException, ParseException {
+    String json =
+        LocationResultTest.LOCATIONRESULT_STRING
+            .replace("},}", "}}")
+            .replaceFirst("\\{", "{\"Extra\": [1, 2.50], ")
+            .replace("\"Hypocenter\":{", "\"Hypocenter\":{\"Region\": \"CA\", ")
+            .replace("\"ErrorEllipse\":{", "\"ErrorEllipse\":{\"Confidence\": 0.9, ")
+            .replace("\"E0\":{", "\"E0\":{\"Label\": null, ");
+    JSONObject expected = Utility.fromJSONString(json);
+
+    LocationResult result = new LocationResult(expected);
+    Assertions.assertEquals("CA", result.Hypocenter.UnknownKeys.get("Region"), "Region");
+    Assertions.assertEquals(0.9, result.ErrorEllipse.UnknownKeys.get("Confidence"), "Confidence");
+    Assertions.assertEquals(true, result.ErrorEllipse.E0.UnknownKeys.containsKey("Label"), "Label");
+    Assertions.assertEquals(
+        expected, Utility.fromJSONString(result.toJSON().toJSONString()), "ToJSON");
+
+    LocationResult streamed = LocationRequestReader.readLocationResult(new JSONStreamReader(json));
+    Assertions.assertEquals(expected.get("Extra"), streamed.UnknownKeys.get("Extra"), "Extra");
+    Assertions.assertEquals("CA", streamed.Hypocenter.UnknownKeys.get("Region"), "Streamed");
+    StringBuilder out = new StringBuilder();
+    streamed.writeJSON(new JSONStreamWriter(out));
+    Assertions.assertEquals(expected, Utility.fromJSONString(out.toString()), "WriteJSON");
+  }
+
+  /** Copies unchanged picks, sites, and sources verbatim */
+  @Test
+  public void passesThrough() throws IOException, ParseException {
+    String json = buildJSON();
+    LocationRequest request = LocationRequestReader.readRetainingSource(json);
+
+    Pick first = request.InputData.get(0);
+    Pick second = request.InputData.get(1);
+    Assertions.assertEquals(false, first.isDirty(), "Clean pick");
+    Assertions.assertEquals(
+        true, json.contains(first.getRawJSON().toJSONString()), "Retained pick text");
+    Assertions.assertEquals(
+        new RawJSON("{\"Nested\": [1, 2.50, null]}"), request.UnknownKeys.get("Extra"), "Raw");
+
+    // unchanged picks are copied
+    request.OutputData = new LocationResult();
+    request.OutputData.ID = "Result";
+    StringBuilder out = new StringBuilder();
+    request.writeTo(out);
+    Assertions.assertTrue(out.toString().contains(first.getRawJSON().toJSONString()), "First");
+    Assertions.assertTrue(out.toString().contains(second.getRawJSON().toJSONString()), "Second");
+    Assertions.assertTrue(
+        out.toString().contains("\"Extra\":{\"Nested\": [1, 2.50, null]}"), "Extra");
+
+    // changed ones are re-encoded
+    String firstText = first.getRawJSON().toJSONString();
+    String secondText = second.getRawJSON().toJSONString();
+    first.Residual = 9.5;
+    first.markDirty();
+    second.Site.Latitude = 41.0;
+    second.Site.markDirty();
+    Assertions.assertEquals(true, second.isDirty(), "Dirty site");
+    Source source = second.Source;
+    out.setLength(0);
+    request.writeTo(out);
+    Assertions.assertFalse(out.toString().contains(firstText), "Changed");
+    Assertions.assertFalse(out.toString().contains(secondText), "Site");
+    Assertions.assertTrue(out.toString().contains(source.getRawJSON().toJSONString()), "Source");
+
+    JSONObject expected = Utility.fromJSONString(json);
+    LocationRequest changed = new LocationRequest(expected);
+    changed.InputData.get(0).Residual = 9.5;
+    changed.InputData.get(1).Site.Latitude = 41.0;
+    changed.OutputData = request.OutputData;
+    Assertions.assertEquals(changed.toJSON(), Utility.fromJSONString(out.toString()), "Written");
+
+    // replacing a site is noticed
+    Pick third = LocationRequestReader.readRetainingSource(json).InputData.get(0);
+    third.Site = new Site();
+    Assertions.assertEquals(true, third.isDirty(), "Replaced site");
+
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> new JSONStreamReader(new ByteArrayInputStream(new byte[0])).setRetainSource(true));
+  }
+}
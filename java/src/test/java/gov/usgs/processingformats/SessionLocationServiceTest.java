@@ -0,0 +1,94 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SessionLocationServiceTest {
+
+  /** Applies deltas to the held request */
+  @Test
+  public void appliesDeltas() throws Exception {
+    AtomicInteger pickCount = new AtomicInteger();
+    SessionLocationService service =
+        new SessionLocationService(
+            request -> {
+              pickCount.set(request.InputData.size());
+              LocationResult result = new LocationResult();
+              result.ID = request.ID;
+              return (result);
+            },
+            2);
+
+    LocationRequest request = LocationRequestDeltaTest.buildRequest(3);
+    service.getLocation(request);
+    Assertions.assertEquals(1, service.getSessionCount(), "Opened");
+
+    LocationRequestDelta delta = new LocationRequestDelta();
+    delta.ID = request.ID;
+    delta.Sequence = 1L;
+    delta.AddedPicks =
+        new ArrayList<Pick>(
+            Arrays.asList(LocationRequestDeltaTest.buildPick(request.InputData.get(0), "P3")));
+    Assertions.assertEquals(request.ID, service.getLocation(delta).ID, "Result");
+    Assertions.assertEquals(4, pickCount.get(), "Located picks");
+    Assertions.assertEquals(
+        4, service.getSessionRequest(request.ID).InputData.size(), "Held picks");
+
+    // out of order
+    Assertions.assertThrows(LocationException.class, () -> service.getLocation(delta));
+
+    // does not match
+    LocationRequestDelta removed = new LocationRequestDelta();
+    removed.ID = request.ID;
+    removed.RemovedPickIDs = new ArrayList<String>(Arrays.asList("P9"));
+    Assertions.assertThrows(LocationException.class, () -> service.getLocation(removed));
+
+    // invalid
+    LocationRequestDelta invalid = new LocationRequestDelta();
+    invalid.ID = request.ID;
+    invalid.SourceDepth = 5000.0;
+    Assertions.assertThrows(LocationException.class, () -> service.getLocation(invalid));
+
+    Assertions.assertTrue(service.closeSession(request.ID), "Closed");
+    Assertions.assertThrows(LocationException.class, () -> service.getLocation(removed));
+  }
+
+  /** Keeps the held request when the wrapped service fails */
+  @Test
+  public void keepsRequestOnFailure() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    SessionLocationService service =
+        new SessionLocationService(
+            request -> {
+              if (calls.incrementAndGet() == 2) {
+                throw new LocationException("Failed");
+              }
+              return (new LocationResult());
+            },
+            1);
+
+    LocationRequest request = LocationRequestDeltaTest.buildRequest(2);
+    service.getLocation(request);
+
+    LocationRequestDelta delta = new LocationRequestDelta();
+    delta.ID = request.ID;
+    delta.Sequence = 1L;
+    delta.RemovedPickIDs = new ArrayList<String>(Arrays.asList("P0"));
+    Assertions.assertThrows(LocationException.class, () -> service.getLocation(delta));
+    Assertions.assertSame(request, service.getSessionRequest(request.ID), "Kept");
+
+    // sent again
+    service.getLocation(delta);
+    Assertions.assertEquals(
+        1, service.getSessionRequest(request.ID).InputData.size(), "Applied once");
+
+    // evicted
+    LocationRequest other = LocationRequestDeltaTest.buildRequest(1);
+    other.ID = "other";
+    service.getLocation(other);
+    Assertions.assertNull(service.getSessionRequest(request.ID), "Evicted");
+  }
+}
@@ -0,0 +1,184 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SiteCatalogTest {
+
+  /**
+   * Builds a catalog of randomly located sites
+   *
+   * @param count - The number of sites
+   * @param random - The Random to locate them with
+   * @return Returns the catalog
+   */
+  public static SiteCatalog buildCatalog(int count, Random random) {
+    SiteCatalog catalog = new SiteCatalog();
+    for (int i = 0; i < count; i++) {
+      catalog.add(
+          new Site(
+              "ST" + i,
+              "BHZ",
+              "US",
+              "00",
+              Math.toDegrees(Math.asin(2.0 * random.nextDouble() - 1.0)),
+              360.0 * random.nextDouble() - 180.0,
+              100.0 * i));
+    }
+    return (catalog);
+  }
+
+  /**
+   * Computes the distance to a site
+   *
+   * @param latitude - The latitude in degrees
+   * @param longitude - The longitude in degrees
+   * @param site - The Site
+   * @return Returns the spherical distance in degrees
+   */
+  private static double distance(double latitude, double longitude, Site site) {
+    double[] distances = new double[1];
+    Geodesy.computeDistances(
+        Geodesy.Mode.SPHERICAL,
+        latitude,
+        longitude,
+        new double[] {site.Latitude},
+        new double[] {site.Longitude},
+        1,
+        distances,
+        null);
+    return (distances[0]);
+  }
+
+  /** Finds the same nearest sites as a linear scan */
+  @Test
+  public void findsNearest() {
+    Random random = new Random(42);
+    SiteCatalog catalog = buildCatalog(2000, random);
+    ArrayList<Site> sites = catalog.getSites();
+
+    for (int query = 0; query < 50; query++) {
+      double latitude = 180.0 * random.nextDouble() - 90.0;
+      double longitude = 360.0 * random.nextDouble() - 180.0;
+
+      ArrayList<Site> scanned = new ArrayList<Site>(sites);
+      scanned.sort(Comparator.comparingDouble(site -> distance(latitude, longitude, site)));
+
+      ArrayList<Site> nearest = catalog.getNearest(latitude, longitude, 10);
+      Assertions.assertEquals(10, nearest.size(), "Count");
+      for (int i = 0; i < 10; i++) {
+        Assertions.assertEquals(
+            distance(latitude, longitude, scanned.get(i)),
+            distance(latitude, longitude, nearest.get(i)),
+            1e-9,
+            "Nearest " + i);
+      }
+    }
+
+    Assertions.assertEquals(2000, catalog.getNearest(0.0, 0.0, 5000).size(), "All");
+    Assertions.assertTrue(catalog.getNearest(0.0, 0.0, 0).isEmpty(), "None");
+    Assertions.assertTrue(new SiteCatalog().getNearest(0.0, 0.0, 3).isEmpty(), "Empty");
+  }
+
+  /** Finds the same sites within a distance as a linear scan */
+  @Test
+  public void findsWithin() {
+    Random random = new Random(7);
+    SiteCatalog catalog = buildCatalog(2000, random);
+    ArrayList<Site> sites = catalog.getSites();
+
+    for (double radius : new double[] {0.0, 1.0, 10.0, 45.0, 120.0, 180.0}) {
+      double latitude = 180.0 * random.nextDouble() - 90.0;
+      double longitude = 360.0 * random.nextDouble() - 180.0;
+
+      int scanned = 0;
+      for (Site site : sites) {
+        if (distance(latitude, longitude, site) <= radius) {
+          scanned++;
+        }
+      }
+
+      ArrayList<Site> within = catalog.getWithin(latitude, longitude, radius);
+      Assertions.assertEquals(scanned, within.size(), "Count within " + radius);
+      for (int i = 1; i < within.size(); i++) {
+        Assertions.assertTrue(
+            distance(latitude, longitude, within.get(i - 1))
+                <= distance(latitude, longitude, within.get(i)) + 1e-9,
+            "Nearest first within " + radius);
+      }
+    }
+    Assertions.assertEquals(2000, catalog.getWithin(10.0, 10.0, 180.0).size(), "All");
+  }
+
+  /** Keys sites on their codes and builds from picks */
+  @Test
+  public void keysSites() {
+    SiteCatalog catalog = new SiteCatalog();
+    ArrayList<Pick> picks = PickBatchTest.buildPicks(10);
+
+    // five stations, alternating location codes, the last without a site
+    Assertions.assertEquals(9, catalog.addPicks(picks.iterator()), "Added");
+    Assertions.assertEquals(9, catalog.size(), "Size");
+
+    Site site = picks.get(8).Site;
+    Assertions.assertEquals("US.ST3.00.BHZ", SiteCatalog.getKey(site), "Key");
+    Assertions.assertEquals(site, catalog.getSite("US.ST3.00.BHZ"), "Site");
+    Assertions.assertNotSame(site, catalog.getSite("US.ST3.00.BHZ"), "Copied");
+    Assertions.assertEquals("US.ST3..BHZ", SiteCatalog.getKey(picks.get(3).Site), "Empty code");
+
+    // returned sites are copies
+    catalog.getSite("US.ST3.00.BHZ").Latitude = 0.0;
+    catalog.getSites().get(0).Latitude = 0.0;
+    catalog.getNearest(site.Latitude, site.Longitude, 1).get(0).Latitude = 0.0;
+    catalog.getWithin(site.Latitude, site.Longitude, 0.0).get(0).Latitude = 0.0;
+    Assertions.assertEquals(site, catalog.getSite("US.ST3.00.BHZ"), "Unchanged");
+    Assertions.assertEquals(picks.get(0).Site, catalog.getSites().get(0), "Unchanged first");
+
+    // moved
+    Site moved = new Site(site.Station, site.Channel, site.Network, site.Location, 0.0, 0.0, 0.0);
+    Assertions.assertTrue(catalog.add(moved), "Moved");
+    Assertions.assertEquals(9, catalog.size(), "Replaced");
+    Assertions.assertEquals(moved, catalog.getNearest(0.1, 0.1, 1).get(0), "Moved nearest");
+
+    // unlocated
+    Assertions.assertFalse(catalog.add(new Site("X", "BHZ", "US", null, null, 1.0, 0.0)), "No lat");
+    Assertions.assertFalse(catalog.add(picks.get(9)), "No site");
+
+    Assertions.assertTrue(catalog.remove("US.ST3.00.BHZ"), "Removed");
+    Assertions.assertNull(catalog.getSite("US.ST3.00.BHZ"), "Gone");
+    Assertions.assertEquals(8, catalog.getNearest(0.0, 0.0, 20).size(), "Rebuilt");
+
+    catalog.clear();
+    Assertions.assertEquals(0, catalog.size(), "Cleared");
+  }
+
+  /** Builds receivers for a source */
+  @Test
+  public void buildsReceivers() {
+    SiteCatalog catalog = new SiteCatalog();
+    catalog.addSites(
+        Arrays.asList(
+                new Site("NEAR", "BHZ", "US", null, 10.0, 20.0, 150.0),
+                new Site("FAR", "BHZ", "US", null, 40.0, 20.0, 250.0),
+                new Site("MID", "BHZ", "US", null, 20.0, 20.0, 50.0))
+            .iterator());
+
+    TravelTimeSource source = new TravelTimeSource(5.0, 20.0, 10.0);
+    ArrayList<TravelTimeReceiver> receivers = catalog.getReceivers(source, 20.0);
+    Assertions.assertEquals(2, receivers.size(), "Within");
+    Assertions.assertEquals("US.NEAR..BHZ", receivers.get(0).ID, "ID");
+    Assertions.assertEquals(5.0, receivers.get(0).Distance, 1e-9, "Distance");
+    Assertions.assertEquals(150.0, receivers.get(0).Elevation, "Elevation");
+    Assertions.assertEquals(10.0, receivers.get(0).Latitude, "Latitude");
+    Assertions.assertEquals(15.0, receivers.get(1).Distance, 1e-9, "Second distance");
+    Assertions.assertTrue(receivers.get(1).isValid(), "Valid");
+
+    ArrayList<TravelTimeReceiver> nearest = catalog.getNearestReceivers(source, 3);
+    Assertions.assertEquals("US.FAR..BHZ", nearest.get(2).ID, "Farthest");
+    Assertions.assertEquals(35.0, nearest.get(2).Distance, 1e-9, "Farthest distance");
+  }
+}
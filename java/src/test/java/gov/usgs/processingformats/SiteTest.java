@@ -68,6 +68,20 @@ public class SiteTest {
     Assertions.assertEquals(false, rc, "Unsuccessful Validation");
   }
 
+  /** Compares by value */
+  @Test
+  public void comparesValues() {
+    Site site = new Site(STATION, CHANNEL, NETWORK, LOCATION, LATITUDE, LONGITUDE, ELEVATION);
+    Site same = new Site(STATION, CHANNEL, NETWORK, LOCATION, LATITUDE, LONGITUDE, ELEVATION);
+    Site other = new Site(STATION, "BHN", NETWORK, LOCATION, LATITUDE, LONGITUDE, ELEVATION);
+
+    Assertions.assertEquals(site, same, "Equal");
+    Assertions.assertEquals(site.hashCode(), same.hashCode(), "Hash code");
+    Assertions.assertNotEquals(site, other, "Different channel");
+    Assertions.assertNotEquals(new Site(), site, "Empty");
+    Assertions.assertEquals(new Site(), new Site(), "Both empty");
+  }
+
   /** Checks the data in the class */
   public void checkData(Site SiteObject, String TestName) {
 
@@ -63,6 +63,17 @@ public class SourceTest {
     Assertions.assertEquals(false, rc, "Unsuccessful Validation");
   }
 
+  /** Compares by value */
+  @Test
+  public void comparesValues() {
+    Source source = new Source(AGENCYID, AUTHOR, TYPE);
+
+    Assertions.assertEquals(source, new Source(AGENCYID, AUTHOR, TYPE), "Equal");
+    Assertions.assertEquals(
+        source.hashCode(), new Source(AGENCYID, AUTHOR, TYPE).hashCode(), "Hash code");
+    Assertions.assertNotEquals(source, new Source(AGENCYID, "other", TYPE), "Different author");
+  }
+
   /** Checks the data in the class */
   public void checkData(Source SourceObject, String TestName) {
 
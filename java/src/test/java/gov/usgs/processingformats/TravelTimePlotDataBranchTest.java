@@ -1,5 +1,6 @@
 package gov.usgs.processingformats;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import org.json.simple.parser.ParseException;
 import org.junit.jupiter.api.Assertions;
@@ -132,6 +133,70 @@ public class TravelTimePlotDataBranchTest {
     Assertions.assertEquals(false, rc, "Unsuccessful Validation");
   }
 
+  /** Packed branches read, write, and validate the same way as sample lists */
+  @Test
+  public void packs() throws ParseException, IOException {
+    TravelTimePlotDataBranch listed =
+        new TravelTimePlotDataBranch(Utility.fromJSONString(TRAVELTIMEDATABRANCH_STRING));
+    TravelTimePlotDataBranch packed =
+        new TravelTimePlotDataBranch(Utility.fromJSONString(TRAVELTIMEDATABRANCH_STRING), true);
+
+    Assertions.assertEquals(false, listed.isPacked(), "Listed");
+    Assertions.assertEquals(true, packed.isPacked(), "Packed");
+    Assertions.assertNull(packed.Samples, "No Samples");
+    Assertions.assertEquals(NUMSAMPLES, packed.getSampleCount(), "Sample count");
+    Assertions.assertEquals(DISTANCE2, packed.getDistance(1), "Distance");
+    Assertions.assertEquals(TRAVELTIME2, packed.getTravelTime(1), "Travel time");
+    Assertions.assertEquals(STATISTICALSPREAD, packed.getStatisticalSpread(0), "Spread");
+    Assertions.assertEquals(OBSERVABILITY2, packed.getObservability(1), "Observability");
+    Assertions.assertEquals(true, Double.isNaN(packed.getRayParameter(0)), "Absent");
+    Assertions.assertEquals(
+        listed.getRayParameter(0), packed.getRayParameter(0), "Absent either way");
+    Assertions.assertNull(packed.getSample(0).RayParameter, "Absent sample value");
+
+    // serialization is unchanged
+    Assertions.assertEquals(listed.toJSON(), packed.toJSON(), "ToJSON");
+    StringBuilder listedJSON = new StringBuilder();
+    StringBuilder packedJSON = new StringBuilder();
+    listed.writeJSON(new JSONStreamWriter(listedJSON));
+    packed.writeJSON(new JSONStreamWriter(packedJSON));
+    Assertions.assertEquals(listedJSON.toString(), packedJSON.toString(), "WriteJSON");
+
+    // as is validation
+    Assertions.assertEquals(true, packed.isValid(), "Valid");
+    TravelTimePlotDataBranch bad =
+        new TravelTimePlotDataBranch(
+            PHASE,
+            new double[] {1.0, 2.0, Double.NaN},
+            new double[] {10.0, Double.NaN, 30.0},
+            null,
+            null,
+            null);
+    ErrorCollector collector = new ErrorCollector(true);
+    Assertions.assertEquals(false, bad.validate(collector), "Invalid");
+    Assertions.assertEquals(2, collector.getErrors().size(), "Errors");
+    Assertions.assertEquals(
+        "Invalid TravelTimePlotDataSample 2 in samples in TravelTimePlotDataBranch Class",
+        collector.getErrors().get(1),
+        "Index");
+    TravelTimePlotDataBranch copy = new TravelTimePlotDataBranch(bad);
+    Assertions.assertEquals(true, copy.isPacked(), "Copy packed");
+    Assertions.assertEquals(bad.getErrors(), copy.getErrors(), "Copy errors");
+
+    // packing a list, and materializing it again
+    TravelTimePlotDataBranch repacked = new TravelTimePlotDataBranch(PHASE, buildSampleData());
+    Assertions.assertSame(repacked, repacked.pack(), "Pack");
+    Assertions.assertEquals(true, repacked.isPacked(), "Repacked");
+    Assertions.assertEquals(listed.toJSON(), repacked.toJSON(), "Repacked JSON");
+    Assertions.assertEquals(NUMSAMPLES, packed.getSamples().size(), "Materialized");
+    Assertions.assertEquals(false, packed.isPacked(), "Unpacked");
+    checkData(packed, "Materialized");
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> new TravelTimePlotDataBranch(PHASE, new double[2], new double[1], null, null, null));
+  }
+
   public void checkData(TravelTimePlotDataBranch travelTimePlotDataBranchObject, String TestName) {
 
     // check travelTimePlotDataBranchObject.phase
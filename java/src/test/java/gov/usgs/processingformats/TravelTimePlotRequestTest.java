@@ -84,6 +84,20 @@ public class TravelTimePlotRequestTest {
     }
   }
 
+  /** Able to read a JSON string into packed branches */
+  @Test
+  public void readsPackedJSON() throws ParseException {
+    TravelTimePlotRequest request =
+        new TravelTimePlotRequest(Utility.fromJSONString(TRAVELTIMEPLOTREQUEST_STRING), true);
+
+    Assertions.assertEquals(true, request.Response.get(0).isPacked(), "Packed");
+    Assertions.assertEquals(
+        new TravelTimePlotRequest(Utility.fromJSONString(TRAVELTIMEPLOTREQUEST_STRING)).toJSON(),
+        request.toJSON(),
+        "ToJSON");
+    Assertions.assertEquals(true, request.isValid(), "Valid");
+  }
+
   /** Reload function fills in members correctly */
   @Test
   public void reload() {
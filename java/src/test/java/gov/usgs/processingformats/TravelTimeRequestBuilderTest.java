@@ -0,0 +1,87 @@
+package gov.usgs.processingformats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TravelTimeRequestBuilderTest {
+
+  /** Sends each distinct receiver once and fans the Response back out */
+  @Test
+  public void deduplicates() throws TravelTimeException {
+    TravelTimeRequest template =
+        CachingTravelTimeServiceTest.buildRequest(10.0, 1.0, 2.0, 1.0004, 2.0, 3.0);
+    TravelTimeRequestBuilder builder =
+        new TravelTimeRequestBuilder(template, Geodesy.Mode.SPHERICAL, 0.001, 1.0);
+    builder.addDistance("R5", 1.0, 15.4);
+    builder.addDistance("R6", 1.0, 100.0);
+
+    Assertions.assertEquals(7, builder.getReceiverCount(), "Receivers");
+    Assertions.assertEquals(4, builder.getDistinctCount(), "Distinct");
+
+    TravelTimeRequest compact = builder.build();
+    Assertions.assertEquals(4, compact.Receivers.size(), "Compact");
+    Assertions.assertEquals("0", compact.Receivers.get(0).ID, "Compact ID");
+    Assertions.assertEquals(1.0, compact.Receivers.get(0).Distance, 1e-12, "Center");
+    Assertions.assertEquals("AK135", compact.EarthModel, "Earth model");
+    Assertions.assertTrue(compact.isValid(), "Valid");
+
+    CachingTravelTimeServiceTest.FakeService fake = new CachingTravelTimeServiceTest.FakeService();
+    TravelTimeRequest result = builder.getTravelTimes(fake);
+    Assertions.assertEquals(4, fake.forwarded, "Forwarded");
+    Assertions.assertEquals(7, result.Response.size(), "Fanned out");
+    Assertions.assertEquals(7, result.Receivers.size(), "Receivers kept");
+
+    double[] times = {20.0, 30.0, 20.0, 30.0, 40.0, 20.0, 20.0};
+    for (int i = 0; i < times.length; i++) {
+      TravelTimeReceiver receiver = result.Response.get(i);
+      Assertions.assertEquals("R" + i, receiver.ID, "ID " + i);
+      Assertions.assertEquals(
+          times[i], receiver.Branches.get(0).TravelTime, 1e-9, "Travel time " + i);
+    }
+    Assertions.assertEquals(1.0004, result.Response.get(2).Distance, "Exact distance");
+    Assertions.assertNotSame(
+        result.Response.get(0).Branches.get(0),
+        result.Response.get(2).Branches.get(0),
+        "Copied branches");
+
+    // out of order Response, matched by ID
+    fake.reverse = true;
+    result = builder.getTravelTimes(fake);
+    Assertions.assertEquals(
+        40.0, result.Response.get(4).Branches.get(0).TravelTime, 1e-9, "Reversed");
+
+    // incomplete Response
+    TravelTimeRequest answer = fake.getTravelTimes(builder.build());
+    answer.Response.remove(0);
+    Assertions.assertThrows(TravelTimeException.class, () -> builder.fanOut(answer));
+  }
+
+  /** Computes distances for sites and located receivers */
+  @Test
+  public void addsSites() {
+    TravelTimeRequestBuilder builder =
+        new TravelTimeRequestBuilder(new TravelTimeSource(0.0, 0.0, 10.0));
+
+    int added =
+        builder.addSites(
+            Arrays.asList(
+                new Site("A", "BHZ", "US", null, 10.0, 0.0, 20.0),
+                new Site("B", "BHZ", "US", null, 0.0, 10.0, 20.0),
+                new Site("C", "BHZ", "US", null, null, 10.0, 20.0)));
+    Assertions.assertEquals(2, added, "Added");
+    Assertions.assertEquals(1, builder.getDistinctCount(), "Same geometry");
+
+    builder.addReceiver(new TravelTimeReceiver("D", null, 20.0, -20.0, 0.0, null));
+    ArrayList<TravelTimeReceiver> receivers = builder.getReceivers();
+    Assertions.assertEquals("US.A..BHZ", receivers.get(0).ID, "Site key");
+    Assertions.assertEquals(10.0, receivers.get(0).Distance, 1e-9, "Site distance");
+    Assertions.assertEquals(20.0, receivers.get(2).Distance, 1e-9, "Receiver distance");
+    Assertions.assertEquals(2, builder.getDistinctCount(), "Distinct");
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> builder.addReceiver(new TravelTimeReceiver("E", null, 0.0, null, null, null)));
+  }
+}